@@ -0,0 +1,73 @@
+package Benchmarks;
+
+import Board.Position;
+
+/**
+ * The fixed inputs of the benchmarks. The corpora must not change between releases, otherwise the results of different runs
+ * cannot be compared anymore (add new entries under new names instead).
+ * @author Daniele Palazzo
+ *
+ */
+public class BenchmarkCorpus {
+
+	private BenchmarkCorpus() {}; //prevent instantiation
+
+	/**
+	 * The names of the positions (used as the values of the position parameter of the benchmarks)
+	 */
+	public static final String[] POSITION_NAMES = {"start", "kiwipete", "promotions", "endgame"};
+
+	/**
+	 * The positions in the order of POSITION_NAMES
+	 */
+	public static final String[] POSITIONS = {
+		Position.STARTING_FEN,
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+		"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+	};
+
+	/**
+	 * Positions for the checkmate detection: checkmates, stalemates, checks that can be answered and quiet positions
+	 */
+	public static final String[] GAME_END_POSITIONS = {
+		"rnb1kbnr/pppp1ppp/8/4p3/6Pq/5P2/PPPPP2P/RNBQKBNR w KQkq - 1 3",
+		"6rk/6pp/8/6N1/8/8/8/6K1 b - - 0 1",
+		"r1bqkb1r/pppp1Qpp/2n2n2/4p3/2B1P3/8/PPPP1PPP/RNB1K1NR b KQkq - 0 4",
+		"k7/8/1QK5/8/8/8/8/8 b - - 0 1",
+		"7k/5Q2/6K1/8/8/8/8/8 b - - 0 1",
+		"rnbqkbnr/ppppp2p/5p2/6pQ/4P3/8/PPPP1PPP/RNB1KBNR b KQkq - 1 3",
+		"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+		Position.STARTING_FEN,
+	};
+
+	/**
+	 * Lines as they are sent by a UCI engine during a search (mostly info lines, as in a real search)
+	 */
+	public static final String[] UCI_LINES = {
+		"id name Stockfish 16",
+		"id author the Stockfish developers (see AUTHORS file)",
+		"uciok",
+		"readyok",
+		"info string NNUE evaluation using nn-5af11540bbfe.nnue enabled",
+		"info depth 1 seldepth 1 multipv 1 score cp 18 nodes 20 nps 10000 hashfull 0 tbhits 0 time 2 pv e2e4",
+		"info depth 12 seldepth 16 multipv 1 score cp 31 nodes 41722 nps 834440 hashfull 14 tbhits 0 time 50 pv e2e4 e7e5 g1f3 b8c6 f1b5 g8f6 e1g1 f6e4 f1e1 e4d6",
+		"info depth 18 seldepth 24 multipv 2 score cp -12 upperbound nodes 802113 nps 1004170 hashfull 301 tbhits 0 time 799 pv d2d4 g8f6 c2c4 e7e6 g1f3 d7d5 b1c3 f8e7 c1g5 e8g8",
+		"info depth 24 currmove g1f3 currmovenumber 3",
+		"info depth 27 seldepth 41 multipv 1 score mate 7 nodes 9184120 nps 1201378 hashfull 870 tbhits 12 time 7645 pv f7f8q e8d7 f8f7 d7d6 f7e6 d6c5 b4b5 c5b4 e6b3 b4a5 b3a3",
+		"info nodes 12000000 time 10000 nps 1200000 hashfull 912",
+		"bestmove e2e4 ponder e7e5",
+	};
+
+	/**
+	 * Gets the index of a position by its name
+	 * @param name One of POSITION_NAMES
+	 * @return Returns the index of the position
+	 */
+	public static int indexOf(String name) {
+		for (int i = 0; i < POSITION_NAMES.length; i++) {
+			if (POSITION_NAMES[i].equals(name)) return i;
+		}
+		throw new IllegalArgumentException("Unknown benchmark position " + name);
+	}
+}
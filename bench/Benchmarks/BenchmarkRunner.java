@@ -0,0 +1,49 @@
+package Benchmarks;
+
+import java.io.File;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs the benchmarks with the allocation profiler (the equivalent of -prof gc) and writes the results as JSON,
+ * so that the runs of different releases can be compared.
+ * <p>
+ * Usage: BenchmarkRunner [regex] [result directory]
+ * <ul>
+ * <li>regex selects the benchmarks to run (default: all benchmarks of this package)</li>
+ * <li>the results are written to the result directory (default: bench-results) as jmh-yyyyMMdd-HHmmss.json</li>
+ * </ul>
+ * @author Daniele Palazzo
+ *
+ */
+public class BenchmarkRunner {
+
+	private BenchmarkRunner() {}; //prevent instantiation
+
+	/**
+	 * Runs the benchmarks
+	 * @param args The command line arguments (see the class description)
+	 * @throws RunnerException Thrown if JMH fails to run the benchmarks
+	 */
+	public static void main(String[] args) throws RunnerException {
+		String include = (args.length > 0)?args[0]:"Benchmarks\\..*";
+		File resultDirectory = new File((args.length > 1)?args[1]:"bench-results");
+		resultDirectory.mkdirs();
+		File resultFile = new File(resultDirectory, "jmh-" + new SimpleDateFormat("yyyyMMdd-HHmmss").format(new Date()) + ".json");
+
+		new Runner(new OptionsBuilder()
+				.include(include)
+				.addProfiler(GCProfiler.class)
+				.resultFormat(ResultFormatType.JSON)
+				.result(resultFile.getPath())
+				.build()).run();
+
+		System.out.println("Results written to " + resultFile.getPath());
+	}
+}
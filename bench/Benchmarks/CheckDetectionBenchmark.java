@@ -0,0 +1,94 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Exceptions.InvalidFEN;
+import gui.BoardCoordinate;
+import gui.BoardUtilities;
+import gui.ChessBoard;
+import gui.PlayerColour;
+
+/**
+ * Benchmark of the check detection against its baseline (BaselineCheckDetection, the tile walking detection of the original code).
+ * One operation tests every square of the board from both perspectives; both detections are checked to give the same answers
+ * before anything is measured.
+ * @author Daniele Palazzo
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class CheckDetectionBenchmark {
+
+	@Param({"start", "kiwipete", "promotions", "endgame"})
+	public String position;
+
+	private BaselineCheckDetection baseline;
+
+	/**
+	 * Sets up the board and checks that both detections agree on it
+	 * @throws InvalidFEN Thrown if a position of the corpus is invalid
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidFEN {
+		ChessBoard board = new ChessBoard();
+		board.setBoardToFEN(BenchmarkCorpus.POSITIONS[BenchmarkCorpus.indexOf(position)]);
+		BoardUtilities.setBoard(board);
+		baseline = new BaselineCheckDetection(board);
+
+		for (int square = 0; square < 64; square++) {
+			BoardCoordinate coordinate = BoardCoordinate.ofSquare(square);
+			for (PlayerColour perspective : PlayerColour.values()) {
+				if (baseline.isSquareInCheck(coordinate, perspective, null) != BoardUtilities.isSquareInCheck(coordinate, perspective, null)) {
+					throw new IllegalStateException("The check detections disagree on " + coordinate + " in " + position);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests every square of the board for checks from both perspectives with the baseline detection
+	 * @return Returns the number of squares in check
+	 */
+	@Benchmark
+	public int baseline() {
+		int checked = 0;
+		for (int square = 0; square < 64; square++) {
+			BoardCoordinate coordinate = BoardCoordinate.ofSquare(square);
+			if (baseline.isSquareInCheck(coordinate, PlayerColour.White, null)) checked++;
+			if (baseline.isSquareInCheck(coordinate, PlayerColour.Black, null)) checked++;
+		}
+		return checked;
+	}
+
+	/**
+	 * Tests every square of the board for checks from both perspectives with the attack tables (BoardUtilities.isSquareInCheck)
+	 * @return Returns the number of squares in check
+	 */
+	@Benchmark
+	public int attackTables() {
+		int checked = 0;
+		for (int square = 0; square < 64; square++) {
+			BoardCoordinate coordinate = BoardCoordinate.ofSquare(square);
+			if (BoardUtilities.isSquareInCheck(coordinate, PlayerColour.White, null)) checked++;
+			if (BoardUtilities.isSquareInCheck(coordinate, PlayerColour.Black, null)) checked++;
+		}
+		return checked;
+	}
+}
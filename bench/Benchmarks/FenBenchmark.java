@@ -0,0 +1,68 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import Exceptions.InvalidFEN;
+import gui.ChessBoard;
+
+/**
+ * Benchmarks of writing and reading FEN strings on the board
+ * @author Daniele Palazzo
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FenBenchmark {
+
+	@Param({"start", "kiwipete", "promotions", "endgame"})
+	public String position;
+
+	private String fen;
+	private ChessBoard board;
+
+	/**
+	 * Sets up the board
+	 * @throws InvalidFEN Thrown if a position of the corpus is invalid
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidFEN {
+		fen = BenchmarkCorpus.POSITIONS[BenchmarkCorpus.indexOf(position)];
+		board = new ChessBoard();
+		board.setBoardToFEN(fen);
+	}
+
+	/**
+	 * Writes the FEN string of the board
+	 * @return Returns the FEN string
+	 */
+	@Benchmark
+	public String getFEN() {
+		return board.getFEN();
+	}
+
+	/**
+	 * Sets the board to the FEN string of the position (the same string every time, so the tiles are rendered the same way)
+	 * @throws InvalidFEN Thrown if the position is invalid
+	 */
+	@Benchmark
+	public void setBoardToFEN() throws InvalidFEN {
+		board.setBoardToFEN(fen);
+	}
+}
@@ -0,0 +1,121 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import Board.Position;
+import Exceptions.InvalidFEN;
+import Moves.Move;
+import gui.BoardCoordinate;
+import gui.BoardUtilities;
+import gui.ChessBoard;
+import gui.PlayerColour;
+
+/**
+ * Benchmarks of the rules: check detection, move validation and checkmate detection.
+ * One operation covers a whole position (every square, every candidate move or every game end position), so the numbers of
+ * different positions are comparable with each other and across releases.
+ * @author Daniele Palazzo
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class RulesBenchmark {
+
+	@Param({"start", "kiwipete", "promotions", "endgame"})
+	public String position;
+
+	private ChessBoard board;
+	private Position model;
+
+	//every square from and to which a piece of the side to move could be moved, legal or not
+	private int[] candidateMoves;
+
+	private ChessBoard[] gameEndBoards;
+
+	/**
+	 * Sets up the boards and the candidate moves
+	 * @throws InvalidFEN Thrown if a position of the corpus is invalid
+	 */
+	@Setup(Level.Trial)
+	public void setUp() throws InvalidFEN {
+		board = new ChessBoard();
+		board.setBoardToFEN(BenchmarkCorpus.POSITIONS[BenchmarkCorpus.indexOf(position)]);
+		BoardUtilities.setBoard(board);
+		model = board.getPosition();
+
+		int[] moves = new int[64*64];
+		int count = 0;
+		for (int from = 0; from < 64; from++) {
+			int piece = model.getPiece(from);
+			if (piece == Position.NO_PIECE || Position.colourOf(piece) != model.getSideToMove()) continue;
+			for (int to = 0; to < 64; to++) {
+				moves[count++] = model.encodeMove(from, to, Position.QUEEN);
+			}
+		}
+		candidateMoves = new int[count];
+		System.arraycopy(moves, 0, candidateMoves, 0, count);
+
+		gameEndBoards = new ChessBoard[BenchmarkCorpus.GAME_END_POSITIONS.length];
+		for (int i = 0; i < gameEndBoards.length; i++) {
+			gameEndBoards[i] = new ChessBoard();
+			gameEndBoards[i].setBoardToFEN(BenchmarkCorpus.GAME_END_POSITIONS[i]);
+		}
+	}
+
+	/**
+	 * Tests every square of the board for checks from both perspectives
+	 * @return Returns the number of squares in check
+	 */
+	@Benchmark
+	public int isSquareInCheck() {
+		int checked = 0;
+		for (int square = 0; square < 64; square++) {
+			BoardCoordinate coordinate = BoardCoordinate.ofSquare(square);
+			if (BoardUtilities.isSquareInCheck(coordinate, PlayerColour.White, null)) checked++;
+			if (BoardUtilities.isSquareInCheck(coordinate, PlayerColour.Black, null)) checked++;
+		}
+		return checked;
+	}
+
+	/**
+	 * Validates every candidate move of the side to move
+	 * @return Returns the number of legal moves
+	 */
+	@Benchmark
+	public int isMovePossible() {
+		int legal = 0;
+		for (int move : candidateMoves) {
+			if (Move.isMovePossible(model, move)) legal++;
+		}
+		return legal;
+	}
+
+	/**
+	 * Runs the checkmate detection on every game end position of the corpus
+	 * @param blackhole Consumes the results
+	 */
+	@Benchmark
+	public void isCheckmate(Blackhole blackhole) {
+		for (ChessBoard gameEndBoard : gameEndBoards) {
+			blackhole.consume(gameEndBoard.isCheckmate());
+		}
+	}
+}
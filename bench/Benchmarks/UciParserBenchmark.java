@@ -0,0 +1,61 @@
+package Benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import gui.UciParser;
+
+/**
+ * Benchmark of parsing the UCI output of an engine
+ * @author Daniele Palazzo
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UciParserBenchmark {
+
+	private UciParser uciParser;
+	private StringBuilder sb;
+
+	/**
+	 * Sets up the parser
+	 */
+	@Setup(Level.Trial)
+	public void setUp() {
+		uciParser = new UciParser();
+		sb = new StringBuilder();
+	}
+
+	/**
+	 * Parses every line of the UCI corpus
+	 * @param blackhole Consumes the results
+	 */
+	@Benchmark
+	public void parseUCIResponseLine(Blackhole blackhole) {
+		for (String line : BenchmarkCorpus.UCI_LINES) {
+			int kind = uciParser.parseUCIResponseLine(line);
+			blackhole.consume(kind);
+			if (kind == UciParser.INFO) {
+				sb.setLength(0);
+				blackhole.consume(uciParser.getInfo().getDepth());
+				blackhole.consume(uciParser.getInfo().appendPV(sb).length());
+			}
+		}
+	}
+}
@@ -0,0 +1,73 @@
+package Board;
+
+/**
+ * A helper class providing the knight, king and pawn attack sets through precomputed tables (one bitboard per square,
+ * and per colour for the pawns). Shared by the move generator, the check detection and the pieces, so the squares a
+ * leaper attacks are never worked out move by move. All lookups are O(1) and do not allocate any objects.
+ * @author Daniele Palazzo
+ *
+ */
+public class AttackTables {
+
+	private AttackTables() {}; //prevent instantiation
+
+	private static final long[] KNIGHT_ATTACKS = new long[64];
+	private static final long[] KING_ATTACKS = new long[64];
+	private static final long[][] PAWN_ATTACKS = new long[2][64];
+
+	static {
+		int[][] knightSteps = {{1,2},{2,1},{2,-1},{1,-2},{-1,2},{-2,1},{-2,-1},{-1,-2}};
+		int[][] kingSteps = {{1,0},{-1,0},{0,1},{0,-1},{1,1},{1,-1},{-1,1},{-1,-1}};
+
+		for (int square = 0; square < 64; square++) {
+			int row = square >>> 3;
+			int column = square & 7;
+			for (int i = 0; i < 8; i++) {
+				KNIGHT_ATTACKS[square] |= bit(row + knightSteps[i][0], column + knightSteps[i][1]);
+				KING_ATTACKS[square] |= bit(row + kingSteps[i][0], column + kingSteps[i][1]);
+			}
+			PAWN_ATTACKS[Position.WHITE][square] = bit(row+1, column-1) | bit(row+1, column+1);
+			PAWN_ATTACKS[Position.BLACK][square] = bit(row-1, column-1) | bit(row-1, column+1);
+		}
+	}
+
+	/**
+	 * Gets the bitboard of a square given by 0 based row and column numbers (used to build the tables)
+	 * @param row The row (0-7)
+	 * @param column The column (0-7)
+	 * @return Returns the bitboard of the square or 0 if the square is off the board
+	 */
+	private static long bit(int row, int column) {
+		if (row < 0 || row > 7 || column < 0 || column > 7) return 0L;
+		return 1L << (row*8 + column);
+	}
+
+	/**
+	 * Gets the squares a knight attacks
+	 * @param square The square of the knight
+	 * @return Returns the bitboard of the attacked squares
+	 */
+	public static long knightAttacks(int square) {
+		return KNIGHT_ATTACKS[square];
+	}
+
+	/**
+	 * Gets the squares a king attacks
+	 * @param square The square of the king
+	 * @return Returns the bitboard of the attacked squares
+	 */
+	public static long kingAttacks(int square) {
+		return KING_ATTACKS[square];
+	}
+
+	/**
+	 * Gets the squares a pawn attacks (the squares it could capture on).
+	 * Seen the other way round, pawnAttacks(colour, square) are the squares from which a pawn of the other colour attacks the square.
+	 * @param colour The colour of the pawn (WHITE or BLACK)
+	 * @param square The square of the pawn
+	 * @return Returns the bitboard of the attacked squares
+	 */
+	public static long pawnAttacks(int colour, int square) {
+		return PAWN_ATTACKS[colour][square];
+	}
+}
@@ -0,0 +1,106 @@
+package Board;
+
+/**
+ * Detects the positions in which a game is drawn by rule: threefold repetition, the fifty-move rule and insufficient material.
+ * The repetition detection uses the position hashes stored by Position's move history and only looks at the positions
+ * since the last capture or pawn move, since no earlier position can be repeated.
+ * @author Daniele Palazzo
+ *
+ */
+public class DrawAdjudicator {
+
+	private DrawAdjudicator() {}; //prevent instantiation
+
+	/**
+	 * The possible outcomes of adjudicating a position
+	 */
+	public enum Draw {
+		NONE(""),
+		THREEFOLD_REPETITION("Draw by threefold repetition!"),
+		FIFTY_MOVE_RULE("Draw by the fifty-move rule!"),
+		INSUFFICIENT_MATERIAL("Draw by insufficient material!");
+
+		private String message;
+
+		private Draw(String message) {
+			this.message = message;
+		}
+
+		/**
+		 * Gets the message shown to the user when the game ends this way
+		 * @return Returns the message
+		 */
+		public String getMessage() {
+			return message;
+		}
+	}
+
+	/**
+	 * Determines whether the game is drawn in the position (stalemate has to be checked first).
+	 * A checkmate given with the hundredth ply without a capture or pawn move wins the game, it is not drawn by the fifty-move rule.
+	 * @param position The position including the moves that led to it
+	 * @param moves A buffer for the legal moves of the position (at least MoveGenerator.MAX_MOVES long)
+	 * @return Returns the kind of draw or Draw.NONE if the game goes on
+	 */
+	public static Draw adjudicate(Position position, int[] moves) {
+		if (isInsufficientMaterial(position)) return Draw.INSUFFICIENT_MATERIAL;
+		if (isThreefoldRepetition(position)) return Draw.THREEFOLD_REPETITION;
+		if (position.getHalfMoveClock() >= 100 && !isCheckmate(position, moves)) return Draw.FIFTY_MOVE_RULE;
+		return Draw.NONE;
+	}
+
+	/**
+	 * Determines whether the side to move is checkmated
+	 * @param position The position
+	 * @param moves A buffer for the legal moves of the position
+	 * @return Returns true if the side to move is in check and has no legal moves
+	 */
+	private static boolean isCheckmate(Position position, int[] moves) {
+		return MoveGenerator.isInCheck(position) && MoveGenerator.generateLegalMoves(position, moves) == 0;
+	}
+
+	/**
+	 * Determines whether the position has occurred at least three times (only the moves made on the position are known)
+	 * @param position The position including the moves that led to it
+	 * @return Returns true if the position is a threefold repetition
+	 */
+	public static boolean isThreefoldRepetition(Position position) {
+		long hash = position.getPositionHash();
+		int plies = Math.min(position.getHalfMoveClock(), position.getUndoCount());
+		int repetitions = 0;
+
+		//only positions with the same side to move can be equal and a position cannot repeat within less than four plies
+		for (int pliesAgo = 4; pliesAgo <= plies; pliesAgo += 2) {
+			if (position.getHistoryHash(pliesAgo) == hash && ++repetitions == 2) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Determines whether neither side has enough material left to checkmate
+	 * (only kings, a single minor piece, or bishops all standing on squares of the same colour)
+	 * @param position The position
+	 * @return Returns true if checkmate is impossible
+	 */
+	public static boolean isInsufficientMaterial(Position position) {
+		long heavyPiecesAndPawns = 0L;
+		long knights = 0L;
+		long bishops = 0L;
+		for (int colour = Position.WHITE; colour <= Position.BLACK; colour++) {
+			heavyPiecesAndPawns |= position.getPieceBitboard(Position.pieceCode(colour, Position.PAWN))
+					| position.getPieceBitboard(Position.pieceCode(colour, Position.ROOK))
+					| position.getPieceBitboard(Position.pieceCode(colour, Position.QUEEN));
+			knights |= position.getPieceBitboard(Position.pieceCode(colour, Position.KNIGHT));
+			bishops |= position.getPieceBitboard(Position.pieceCode(colour, Position.BISHOP));
+		}
+		if (heavyPiecesAndPawns != 0L) return false;
+
+		if (Long.bitCount(knights | bishops) <= 1) return true;
+
+		//any number of bishops all on light or all on dark squares
+		long darkSquares = 0xAA55AA55AA55AA55L;
+		return knights == 0L && ((bishops & darkSquares) == 0L || (bishops & ~darkSquares) == 0L);
+	}
+}
@@ -0,0 +1,286 @@
+package Board;
+
+import Exceptions.InvalidFEN;
+
+/**
+ * Reads and writes positions in the FEN (Forsyth-Edwards) Notation without regular expressions or intermediate strings.
+ * The parser reads the text in a single pass directly into a Position and reports the index of the first invalid character,
+ * the writer appends to a StringBuilder that can be reused for any number of positions.
+ * <p>
+ * The parser also accepts the first four fields of an EPD record (see parse(CharSequence, int, int, Position, boolean)),
+ * so that test suites can be read without splitting their lines first.
+ * @author Daniele Palazzo
+ *
+ */
+public class FenCodec {
+
+	private FenCodec() {}; //prevent instantiation
+
+	/**
+	 * Sets a position according to a FEN string. Unlike Position.setToFEN, the position is overwritten while it is being parsed,
+	 * so it is left in an undefined state if the FEN string is invalid (parse into a scratch position if it has to survive).
+	 * @param fen The FEN string storing the position (whitespace before and after it is ignored)
+	 * @param position The position to set
+	 * @throws InvalidFEN Thrown if the FEN string is not a valid FEN string
+	 */
+	public static void parse(CharSequence fen, Position position) throws InvalidFEN {
+		int end = parse(fen, 0, fen.length(), position, true);
+		end = skipWhitespace(fen, end, fen.length());
+		if (end < fen.length()) throw new InvalidFEN("unexpected '" + fen.charAt(end) + "' after the fullmove number", end);
+	}
+
+	/**
+	 * Sets a position according to the FEN string in a part of a text. Parsing stops after the last field of the FEN string,
+	 * so anything can follow it (e.g. the operations of an EPD record).
+	 * @param text The text containing the FEN string
+	 * @param start The index of the first character to parse (whitespace before the FEN string is skipped)
+	 * @param end The index after the last character that may be parsed
+	 * @param position The position to set (left in an undefined state if the FEN string is invalid)
+	 * @param clocksRequired If true, the halfmove clock and the fullmove number have to follow the en passant square;
+	 * if false, they are only read if the next field starts with a digit (otherwise they are set to 0 and 1)
+	 * @return Returns the index after the last character of the FEN string
+	 * @throws InvalidFEN Thrown if the FEN string is not a valid FEN string
+	 */
+	public static int parse(CharSequence text, int start, int end, Position position, boolean clocksRequired) throws InvalidFEN {
+		position.clear();
+		int i = skipWhitespace(text, start, end);
+
+		//pieces
+		for (int rowCount = 8; rowCount > 0; rowCount--) {
+			int columnCount = 1;
+			while (i < end) {
+				char c = text.charAt(i);
+				if (c >= '1' && c <= '8') {
+					columnCount += c - '0';
+					if (columnCount > 9) throw new InvalidFEN("rank " + rowCount + " has more than 8 squares", i);
+				} else {
+					int piece = Position.PIECE_LETTERS.indexOf(c);
+					if (piece == -1) break;
+					if (columnCount > 8) throw new InvalidFEN("rank " + rowCount + " has more than 8 squares", i);
+					position.setPiece(Position.square(columnCount, rowCount), piece);
+					columnCount++;
+				}
+				i++;
+			}
+			if (columnCount != 9) {
+				if (i < end && columnCount < 9 && (text.charAt(i) == '/' || isWhitespace(text.charAt(i)))) {
+					throw new InvalidFEN("rank " + rowCount + " has only " + (columnCount - 1) + " squares", i);
+				}
+				throw new InvalidFEN("expected a piece letter or a digit on rank " + rowCount + " but found " + describe(text, i, end), i);
+			}
+			if (rowCount > 1) {
+				if (i >= end || text.charAt(i) != '/') throw new InvalidFEN("expected '/' after rank " + rowCount + " but found " + describe(text, i, end), i);
+				i++;
+			}
+		}
+
+		//To move
+		i = expectFieldSeparator(text, i, end, "the piece placement");
+		char side = (i < end)?text.charAt(i):0;
+		if (side == 'w' || side == '-') {
+			position.setSideToMove(Position.WHITE);
+		} else if (side == 'b') {
+			position.setSideToMove(Position.BLACK);
+		} else {
+			throw new InvalidFEN("expected 'w' or 'b' as the side to move but found " + describe(text, i, end), i);
+		}
+		i++;
+		if (i < end && !isWhitespace(text.charAt(i))) throw new InvalidFEN("unexpected '" + text.charAt(i) + "' after the side to move", i);
+
+		//Castling rights (the file letters of Shredder-FEN are accepted, but only the standard castling rights are supported)
+		i = expectFieldSeparator(text, i, end, "the side to move");
+		int rights = 0;
+		if (i < end && text.charAt(i) == '-') {
+			i++;
+		} else {
+			int fieldStart = i;
+			while (i < end && !isWhitespace(text.charAt(i))) {
+				char c = text.charAt(i);
+				if (i - fieldStart == 4) throw new InvalidFEN("more than 4 castling rights", i);
+				if (c == 'K') {
+					rights |= Position.WHITE_KINGSIDE;
+				} else if (c == 'Q') {
+					rights |= Position.WHITE_QUEENSIDE;
+				} else if (c == 'k') {
+					rights |= Position.BLACK_KINGSIDE;
+				} else if (c == 'q') {
+					rights |= Position.BLACK_QUEENSIDE;
+				} else if (!((c >= 'A' && c <= 'H') || (c >= 'a' && c <= 'h'))) {
+					throw new InvalidFEN("'" + c + "' is not a castling right", i);
+				}
+				i++;
+			}
+			if (i == fieldStart) throw new InvalidFEN("expected the castling rights but found " + describe(text, i, end), i);
+		}
+		if (i < end && !isWhitespace(text.charAt(i))) throw new InvalidFEN("unexpected '" + text.charAt(i) + "' after the castling rights", i);
+		position.setCastlingRights(rights);
+
+		//en passant square
+		i = expectFieldSeparator(text, i, end, "the castling rights");
+		if (i < end && text.charAt(i) == '-') {
+			i++;
+		} else {
+			char column = (i < end)?text.charAt(i):0;
+			if (column < 'a' || column > 'h') throw new InvalidFEN("expected '-' or an en passant square but found " + describe(text, i, end), i);
+			char row = (i + 1 < end)?text.charAt(i + 1):0;
+			if (row != '3' && row != '6') throw new InvalidFEN("the en passant square has to be on rank 3 or 6", i + 1);
+			position.setEnPassantSquare(Position.square(column - 96, row - 48));
+			i += 2;
+		}
+		if (i < end && !isWhitespace(text.charAt(i))) throw new InvalidFEN("unexpected '" + text.charAt(i) + "' after the en passant square", i);
+
+		//clocks
+		int fieldStart = skipWhitespace(text, i, end);
+		if (clocksRequired || (fieldStart < end && isDigit(text.charAt(fieldStart)))) {
+			i = expectFieldSeparator(text, i, end, "the en passant square");
+			int halfMoveClockStart = i;
+			i = skipNumber(text, i, end, "halfmove clock");
+			position.setHalfMoveClock(parseNumber(text, halfMoveClockStart, i));
+
+			i = expectFieldSeparator(text, i, end, "the halfmove clock");
+			int fullMoveNumberStart = i;
+			i = skipNumber(text, i, end, "fullmove number");
+			position.setFullMoveNumber(parseNumber(text, fullMoveNumberStart, i));
+		}
+
+		position.discardUnavailableCastlingRights();
+		return i;
+	}
+
+	/**
+	 * Appends the FEN string of a position to a buffer
+	 * @param position The position to write
+	 * @param out The buffer to append to (it is not cleared first)
+	 * @return Returns the buffer
+	 */
+	public static StringBuilder write(Position position, StringBuilder out) {
+		//pieces
+		for (int rowCount = 8; rowCount > 0; rowCount--) {
+			int empty = 0;
+			for (int columnCount = 1; columnCount <= 8; columnCount++) {
+				int piece = position.getPiece(Position.square(columnCount, rowCount));
+				if (piece == Position.NO_PIECE) {
+					empty++;
+				} else {
+					if (empty > 0) {out.append((char)('0' + empty)); empty = 0;}
+					out.append(Position.pieceLetter(piece));
+				}
+			}
+			if (empty > 0) out.append((char)('0' + empty));
+			if (rowCount > 1) out.append('/');
+		}
+
+		//To move
+		out.append(' ').append((position.getSideToMove() == Position.WHITE)?'w':'b').append(' ');
+
+		//Castling rights
+		int castlingRights = position.getCastlingRights();
+		if (castlingRights == 0) {
+			out.append('-');
+		} else {
+			if ((castlingRights & Position.WHITE_KINGSIDE) != 0) out.append('K');
+			if ((castlingRights & Position.WHITE_QUEENSIDE) != 0) out.append('Q');
+			if ((castlingRights & Position.BLACK_KINGSIDE) != 0) out.append('k');
+			if ((castlingRights & Position.BLACK_QUEENSIDE) != 0) out.append('q');
+		}
+		out.append(' ');
+
+		//en passant square
+		int enPassantSquare = position.getEnPassantSquare();
+		if (enPassantSquare == Position.NO_SQUARE) {
+			out.append('-');
+		} else {
+			out.append((char)(96 + Position.columnOf(enPassantSquare))).append((char)(48 + Position.rowOf(enPassantSquare)));
+		}
+
+		//clocks
+		out.append(' ').append(position.getHalfMoveClock()).append(' ').append(position.getFullMoveNumber());
+
+		return out;
+	}
+
+	/**
+	 * Skips the whitespace separating two fields, there has to be at least one whitespace character
+	 * @param text The text being parsed
+	 * @param i The index after the previous field
+	 * @param end The index after the last character that may be parsed
+	 * @param previousField The name of the previous field (for the error message)
+	 * @return Returns the index of the first character of the next field
+	 * @throws InvalidFEN Thrown if there is no whitespace or no next field
+	 */
+	private static int expectFieldSeparator(CharSequence text, int i, int end, String previousField) throws InvalidFEN {
+		if (i >= end) throw new InvalidFEN("the FEN string ends after " + previousField, i);
+		if (!isWhitespace(text.charAt(i))) throw new InvalidFEN("expected a space after " + previousField + " but found '" + text.charAt(i) + "'", i);
+		i = skipWhitespace(text, i, end);
+		if (i >= end) throw new InvalidFEN("the FEN string ends after " + previousField, i);
+		return i;
+	}
+
+	/**
+	 * Skips the digits of a number field
+	 * @param text The text being parsed
+	 * @param i The index of the first digit
+	 * @param end The index after the last character that may be parsed
+	 * @param field The name of the field (for the error message)
+	 * @return Returns the index after the last digit
+	 * @throws InvalidFEN Thrown if the field is not a number
+	 */
+	private static int skipNumber(CharSequence text, int i, int end, String field) throws InvalidFEN {
+		int start = i;
+		while (i < end && isDigit(text.charAt(i))) {
+			i++;
+		}
+		if (i == start) throw new InvalidFEN("expected the " + field + " but found " + describe(text, i, end), i);
+		if (i < end && !isWhitespace(text.charAt(i))) throw new InvalidFEN("'" + text.charAt(i) + "' is not a digit of the " + field, i);
+		if (i - start > 9) throw new InvalidFEN("the " + field + " is too large", start);
+		return i;
+	}
+
+	/**
+	 * Converts the digits of a number field that has been checked by skipNumber
+	 * @param text The text being parsed
+	 * @param start The index of the first digit
+	 * @param end The index after the last digit
+	 * @return Returns the number
+	 */
+	private static int parseNumber(CharSequence text, int start, int end) {
+		int number = 0;
+		for (int i = start; i < end; i++) {
+			number = number*10 + (text.charAt(i) - '0');
+		}
+		return number;
+	}
+
+	/**
+	 * Skips whitespace
+	 * @param text The text being parsed
+	 * @param i The index to start at
+	 * @param end The index after the last character that may be parsed
+	 * @return Returns the index of the first character that is not whitespace (or end)
+	 */
+	private static int skipWhitespace(CharSequence text, int i, int end) {
+		while (i < end && isWhitespace(text.charAt(i))) {
+			i++;
+		}
+		return i;
+	}
+
+	private static boolean isWhitespace(char c) {
+		return c == ' ' || c == '\t' || c == '\r' || c == '\n';
+	}
+
+	private static boolean isDigit(char c) {
+		return c >= '0' && c <= '9';
+	}
+
+	/**
+	 * Describes the character at an index for an error message
+	 * @param text The text being parsed
+	 * @param i The index of the character
+	 * @param end The index after the last character that may be parsed
+	 * @return Returns the quoted character or "the end of the FEN string"
+	 */
+	private static String describe(CharSequence text, int i, int end) {
+		return (i < end)?("'" + text.charAt(i) + "'"):"the end of the FEN string";
+	}
+}
@@ -0,0 +1,291 @@
+package Board;
+
+/**
+ * A legal move generator working on the Position model. The checking pieces, the pinned pieces and the check evasion mask
+ * are calculated once per position and all legal moves are written into a caller supplied int buffer (see PackedMove).
+ * @author Daniele Palazzo
+ *
+ */
+public class MoveGenerator {
+
+	private MoveGenerator() {}; //prevent instantiation
+
+	/**
+	 * The size a move buffer needs to hold all legal moves of any position
+	 */
+	public static final int MAX_MOVES = 256;
+
+	/**
+	 * Generates all legal moves of the side to move
+	 * @param position The position to generate the moves for
+	 * @param moves The buffer to write the packed moves to (at least MAX_MOVES long)
+	 * @return Returns the number of legal moves written to the buffer
+	 */
+	public static int generateLegalMoves(Position position, int[] moves) {
+		int us = position.getSideToMove();
+		int them = us ^ 1;
+		long own = position.getColourBitboard(us);
+		long enemies = position.getColourBitboard(them);
+		long occupied = own | enemies;
+		int kingSquare = position.getKingSquare(us);
+		int count = 0;
+
+		long checkers = 0L;
+		long pinned = 0L;
+		long checkMask = ~0L;
+
+		if (kingSquare != Position.NO_SQUARE) {
+			checkers = getAttackers(position, kingSquare, them, occupied);
+
+			//king moves (the king itself must not block the attack on the squares behind it)
+			long kingTargets = AttackTables.kingAttacks(kingSquare) & ~own;
+			long occupiedWithoutKing = occupied & ~(1L << kingSquare);
+			while (kingTargets != 0L) {
+				int to = Long.numberOfTrailingZeros(kingTargets);
+				kingTargets &= kingTargets - 1;
+				if (getAttackers(position, to, them, occupiedWithoutKing) == 0L) {
+					moves[count++] = PackedMove.encode(kingSquare, to, PackedMove.NORMAL);
+				}
+			}
+
+			//double check - only the king can move
+			if (Long.bitCount(checkers) > 1) return count;
+
+			if (checkers != 0L) {
+				//the checking piece must be captured or blocked
+				checkMask = checkers | SlidingAttacks.between(kingSquare, Long.numberOfTrailingZeros(checkers));
+			} else {
+				count = generateCastlingMoves(position, kingSquare, occupied, moves, count);
+			}
+
+			pinned = getPinnedPieces(position, kingSquare, us, occupied);
+		}
+
+		//knights (a pinned knight can never move)
+		long pieces = position.getPieceBitboard(Position.pieceCode(us, Position.KNIGHT)) & ~pinned;
+		while (pieces != 0L) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			pieces &= pieces - 1;
+			count = addMoves(from, AttackTables.knightAttacks(from) & ~own & checkMask, moves, count);
+		}
+
+		//bishops, rooks and queens
+		long diagonalSliders = position.getPieceBitboard(Position.pieceCode(us, Position.BISHOP)) | position.getPieceBitboard(Position.pieceCode(us, Position.QUEEN));
+		long straightSliders = position.getPieceBitboard(Position.pieceCode(us, Position.ROOK)) | position.getPieceBitboard(Position.pieceCode(us, Position.QUEEN));
+
+		pieces = diagonalSliders | straightSliders;
+		while (pieces != 0L) {
+			int from = Long.numberOfTrailingZeros(pieces);
+			long fromBit = pieces & -pieces;
+			pieces &= pieces - 1;
+
+			long targets = 0L;
+			if ((diagonalSliders & fromBit) != 0L) targets |= SlidingAttacks.bishopAttacks(from, occupied);
+			if ((straightSliders & fromBit) != 0L) targets |= SlidingAttacks.rookAttacks(from, occupied);
+			targets &= ~own & checkMask;
+			if ((pinned & fromBit) != 0L) targets &= SlidingAttacks.line(kingSquare, from);
+
+			count = addMoves(from, targets, moves, count);
+		}
+
+		return generatePawnMoves(position, kingSquare, pinned, checkMask, moves, count);
+	}
+
+	/**
+	 * Generates the legal pawn moves of the side to move (pushes, captures, promotions and en passant)
+	 * @param position The position
+	 * @param kingSquare The square of the king of the side to move (or Position.NO_SQUARE)
+	 * @param pinned The bitboard of pinned pieces of the side to move
+	 * @param checkMask The squares a move has to land on to resolve a check (all squares if not in check)
+	 * @param moves The move buffer
+	 * @param count The number of moves in the buffer
+	 * @return Returns the new number of moves in the buffer
+	 */
+	private static int generatePawnMoves(Position position, int kingSquare, long pinned, long checkMask, int[] moves, int count) {
+		int us = position.getSideToMove();
+		int them = us ^ 1;
+		long enemies = position.getColourBitboard(them);
+		long occupied = position.getOccupied();
+		int forward = (us == Position.WHITE)?8:-8;
+		int startRow = (us == Position.WHITE)?2:7;
+		int enPassantSquare = position.getEnPassantSquare();
+
+		long pawns = position.getPieceBitboard(Position.pieceCode(us, Position.PAWN));
+		while (pawns != 0L) {
+			int from = Long.numberOfTrailingZeros(pawns);
+			pawns &= pawns - 1;
+
+			long allowed = checkMask;
+			if ((pinned & (1L << from)) != 0L) allowed &= SlidingAttacks.line(kingSquare, from);
+
+			//pushes
+			int to = from + forward;
+			if ((occupied & (1L << to)) == 0L) {
+				if ((allowed & (1L << to)) != 0L) {
+					count = addPawnMove(from, to, moves, count);
+				}
+				int doubleTo = to + forward;
+				if (Position.rowOf(from) == startRow && (occupied & (1L << doubleTo)) == 0L && (allowed & (1L << doubleTo)) != 0L) {
+					moves[count++] = PackedMove.encode(from, doubleTo, PackedMove.DOUBLE_PAWN_PUSH);
+				}
+			}
+
+			//captures
+			long captures = AttackTables.pawnAttacks(us, from) & enemies & allowed;
+			while (captures != 0L) {
+				to = Long.numberOfTrailingZeros(captures);
+				captures &= captures - 1;
+				count = addPawnMove(from, to, moves, count);
+			}
+
+			//en passant
+			if (enPassantSquare != Position.NO_SQUARE && (AttackTables.pawnAttacks(us, from) & (1L << enPassantSquare)) != 0L
+					&& isEnPassantLegal(position, from, enPassantSquare, kingSquare)) {
+				moves[count++] = PackedMove.encode(from, enPassantSquare, PackedMove.EN_PASSANT);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Adds a pawn move to the buffer (four moves if it is a promotion)
+	 * @param from The square to move from
+	 * @param to The square to move to
+	 * @param moves The move buffer
+	 * @param count The number of moves in the buffer
+	 * @return Returns the new number of moves in the buffer
+	 */
+	private static int addPawnMove(int from, int to, int[] moves, int count) {
+		if (to >= 56 || to < 8) {
+			moves[count++] = PackedMove.encodePromotion(from, to, Position.QUEEN);
+			moves[count++] = PackedMove.encodePromotion(from, to, Position.KNIGHT);
+			moves[count++] = PackedMove.encodePromotion(from, to, Position.ROOK);
+			moves[count++] = PackedMove.encodePromotion(from, to, Position.BISHOP);
+		} else {
+			moves[count++] = PackedMove.encode(from, to, PackedMove.NORMAL);
+		}
+		return count;
+	}
+
+	/**
+	 * Adds a normal move to every target square
+	 * @param from The square to move from
+	 * @param targets The bitboard of the squares to move to
+	 * @param moves The move buffer
+	 * @param count The number of moves in the buffer
+	 * @return Returns the new number of moves in the buffer
+	 */
+	private static int addMoves(int from, long targets, int[] moves, int count) {
+		while (targets != 0L) {
+			moves[count++] = PackedMove.encode(from, Long.numberOfTrailingZeros(targets), PackedMove.NORMAL);
+			targets &= targets - 1;
+		}
+		return count;
+	}
+
+	/**
+	 * Generates the castling moves of the side to move (the side must not be in check)
+	 * @param position The position
+	 * @param kingSquare The square of the king
+	 * @param occupied The bitboard of occupied squares
+	 * @param moves The move buffer
+	 * @param count The number of moves in the buffer
+	 * @return Returns the new number of moves in the buffer
+	 */
+	private static int generateCastlingMoves(Position position, int kingSquare, long occupied, int[] moves, int count) {
+		int us = position.getSideToMove();
+		int them = us ^ 1;
+		int rights = position.getCastlingRights();
+		int kingside = (us == Position.WHITE)?Position.WHITE_KINGSIDE:Position.BLACK_KINGSIDE;
+		int queenside = (us == Position.WHITE)?Position.WHITE_QUEENSIDE:Position.BLACK_QUEENSIDE;
+
+		//the castling rights guarantee that the king and the rook are on their original squares
+		if ((rights & kingside) != 0 && (occupied & (3L << (kingSquare+1))) == 0L
+				&& getAttackers(position, kingSquare+1, them, occupied) == 0L && getAttackers(position, kingSquare+2, them, occupied) == 0L) {
+			moves[count++] = PackedMove.encode(kingSquare, kingSquare+2, PackedMove.CASTLING);
+		}
+		if ((rights & queenside) != 0 && (occupied & (7L << (kingSquare-3))) == 0L
+				&& getAttackers(position, kingSquare-1, them, occupied) == 0L && getAttackers(position, kingSquare-2, them, occupied) == 0L) {
+			moves[count++] = PackedMove.encode(kingSquare, kingSquare-2, PackedMove.CASTLING);
+		}
+		return count;
+	}
+
+	/**
+	 * Determines whether an en passant capture leaves the own king safe (the capture removes two pieces from the same row,
+	 * which can uncover an attack that the pin detection does not see)
+	 * @param position The position
+	 * @param from The square of the capturing pawn
+	 * @param to The en passant square
+	 * @param kingSquare The square of the king of the side to move (or Position.NO_SQUARE)
+	 * @return Returns true if the king is not attacked after the capture
+	 */
+	private static boolean isEnPassantLegal(Position position, int from, int to, int kingSquare) {
+		if (kingSquare == Position.NO_SQUARE) return true;
+
+		int us = position.getSideToMove();
+		int them = us ^ 1;
+		int capturedSquare = (us == Position.WHITE)?to-8:to+8;
+		long occupied = (position.getOccupied() ^ (1L << from) ^ (1L << capturedSquare)) | (1L << to);
+
+		return (getAttackers(position, kingSquare, them, occupied) & ~(1L << capturedSquare)) == 0L;
+	}
+
+	/**
+	 * Gets the pieces of the side to move that are pinned to their king
+	 * @param position The position
+	 * @param kingSquare The square of the king
+	 * @param us The side to move
+	 * @param occupied The bitboard of occupied squares
+	 * @return Returns the bitboard of the pinned pieces
+	 */
+	private static long getPinnedPieces(Position position, int kingSquare, int us, long occupied) {
+		int them = us ^ 1;
+		long enemies = position.getColourBitboard(them);
+		long queens = position.getPieceBitboard(Position.pieceCode(them, Position.QUEEN));
+
+		//enemy sliders that would attack the king if only enemy pieces were on the board
+		long snipers = (SlidingAttacks.rookAttacks(kingSquare, enemies) & (position.getPieceBitboard(Position.pieceCode(them, Position.ROOK)) | queens))
+				| (SlidingAttacks.bishopAttacks(kingSquare, enemies) & (position.getPieceBitboard(Position.pieceCode(them, Position.BISHOP)) | queens));
+
+		long pinned = 0L;
+		while (snipers != 0L) {
+			int sniper = Long.numberOfTrailingZeros(snipers);
+			snipers &= snipers - 1;
+			long blockers = SlidingAttacks.between(kingSquare, sniper) & occupied;
+			if (Long.bitCount(blockers) == 1) {
+				pinned |= blockers & position.getColourBitboard(us);
+			}
+		}
+		return pinned;
+	}
+
+	/**
+	 * Gets all the pieces of a colour that attack a square
+	 * @param position The position
+	 * @param square The square in question
+	 * @param attacker The colour of the attacking pieces
+	 * @param occupied The bitboard of occupied squares (the pieces that block the sliding pieces)
+	 * @return Returns the bitboard of the attacking pieces
+	 */
+	public static long getAttackers(Position position, int square, int attacker, long occupied) {
+		long queens = position.getPieceBitboard(Position.pieceCode(attacker, Position.QUEEN));
+		return (AttackTables.knightAttacks(square) & position.getPieceBitboard(Position.pieceCode(attacker, Position.KNIGHT)))
+				| (AttackTables.kingAttacks(square) & position.getPieceBitboard(Position.pieceCode(attacker, Position.KING)))
+				| (AttackTables.pawnAttacks(attacker ^ 1, square) & position.getPieceBitboard(Position.pieceCode(attacker, Position.PAWN)))
+				| (SlidingAttacks.rookAttacks(square, occupied) & (position.getPieceBitboard(Position.pieceCode(attacker, Position.ROOK)) | queens))
+				| (SlidingAttacks.bishopAttacks(square, occupied) & (position.getPieceBitboard(Position.pieceCode(attacker, Position.BISHOP)) | queens));
+	}
+
+	/**
+	 * Determines whether the side to move is in check
+	 * @param position The position
+	 * @return Returns true if the king of the side to move is attacked
+	 */
+	public static boolean isInCheck(Position position) {
+		int us = position.getSideToMove();
+		int kingSquare = position.getKingSquare(us);
+		if (kingSquare == Position.NO_SQUARE) return false;
+		return getAttackers(position, kingSquare, us ^ 1, position.getOccupied()) != 0L;
+	}
+}
@@ -0,0 +1,112 @@
+package Board;
+
+/**
+ * A helper class for working with moves packed into 16 bits of an int:
+ * bits 0-5 hold the "from" square, bits 6-11 the "to" square and bits 12-15 the move flag.
+ * @author Daniele Palazzo
+ *
+ */
+public class PackedMove {
+
+	private PackedMove() {}; //prevent instantiation
+
+	public static final int NO_MOVE = 0;
+
+	public static final int NORMAL = 0;
+	public static final int DOUBLE_PAWN_PUSH = 1;
+	public static final int CASTLING = 2;
+	public static final int EN_PASSANT = 3;
+	//promotion flags are PROMOTION + piece type - Position.KNIGHT (knight, bishop, rook and queen)
+	public static final int PROMOTION = 4;
+
+	/**
+	 * Packs a move into an int
+	 * @param from The square to move from (0-63)
+	 * @param to The square to move to (0-63)
+	 * @param flag The move flag (NORMAL, DOUBLE_PAWN_PUSH, CASTLING, EN_PASSANT or a promotion flag)
+	 * @return Returns the packed move
+	 */
+	public static int encode(int from, int to, int flag) {
+		return from | (to << 6) | (flag << 12);
+	}
+
+	/**
+	 * Packs a promotion move into an int
+	 * @param from The square to move from (0-63)
+	 * @param to The square to move to (0-63)
+	 * @param promotionType The piece type to promote to (Position.KNIGHT to Position.QUEEN)
+	 * @return Returns the packed move
+	 */
+	public static int encodePromotion(int from, int to, int promotionType) {
+		return encode(from, to, PROMOTION + promotionType - Position.KNIGHT);
+	}
+
+	/**
+	 * Gets the "from" square of a packed move
+	 * @param move The packed move
+	 * @return Returns the square the piece moves from (0-63)
+	 */
+	public static int getFrom(int move) {
+		return move & 0x3F;
+	}
+
+	/**
+	 * Gets the "to" square of a packed move
+	 * @param move The packed move
+	 * @return Returns the square the piece moves to (0-63)
+	 */
+	public static int getTo(int move) {
+		return (move >>> 6) & 0x3F;
+	}
+
+	/**
+	 * Gets the flag of a packed move
+	 * @param move The packed move
+	 * @return Returns the move flag
+	 */
+	public static int getFlag(int move) {
+		return (move >>> 12) & 0xF;
+	}
+
+	/**
+	 * Determines whether a packed move is a promotion
+	 * @param move The packed move
+	 * @return Returns true if the move is a pawn promotion
+	 */
+	public static boolean isPromotion(int move) {
+		return getFlag(move) >= PROMOTION;
+	}
+
+	/**
+	 * Gets the piece type a packed move promotes to
+	 * @param move The packed move
+	 * @return Returns the promotion piece type (Position.KNIGHT to Position.QUEEN) or Position.NO_PIECE if it is not a promotion
+	 */
+	public static int getPromotionType(int move) {
+		return isPromotion(move)?getFlag(move) - PROMOTION + Position.KNIGHT:Position.NO_PIECE;
+	}
+
+	/**
+	 * Gets the long algebraic notation of a packed move (standard UCI notation, e.g. e2e4 or e7e8q)
+	 * @param move The packed move
+	 * @return Returns the move in long algebraic notation
+	 */
+	public static String toLongAlgebraic(int move) {
+		return appendLongAlgebraic(move, new StringBuilder(5)).toString();
+	}
+
+	/**
+	 * Appends the long algebraic notation of a packed move (without creating a string)
+	 * @param move The packed move
+	 * @param notation The builder to append to
+	 * @return Returns the builder
+	 */
+	public static StringBuilder appendLongAlgebraic(int move, StringBuilder notation) {
+		notation.append((char)(96 + Position.columnOf(getFrom(move)))).append(Position.rowOf(getFrom(move)));
+		notation.append((char)(96 + Position.columnOf(getTo(move)))).append(Position.rowOf(getTo(move)));
+		if (isPromotion(move)) {
+			notation.append(Character.toLowerCase(Position.pieceLetter(getPromotionType(move))));
+		}
+		return notation;
+	}
+}
@@ -0,0 +1,205 @@
+package Board;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Runs perft on several cores. The root moves (and optionally the moves of the second ply) are split into fork/join tasks,
+ * every task searching its own copy of the position, and all threads share one PerftCache.
+ * The nodes and the time spent searching are recorded per thread.
+ * @author Daniele Palazzo
+ *
+ */
+public class ParallelPerft {
+
+	private ForkJoinPool pool;
+	private PerftCache cache;
+	private int splitPlies;
+
+	private Map<String, ThreadStatistics> threadStatistics;
+
+	/**
+	 * The number of nodes a worker thread has searched and the time it took
+	 */
+	public static class ThreadStatistics {
+		private long nodes;
+		private long nanos;
+
+		/**
+		 * Gets the number of nodes searched by the thread
+		 * @return Returns the number of nodes
+		 */
+		public long getNodes() {
+			return nodes;
+		}
+
+		/**
+		 * Gets the time the thread spent searching
+		 * @return Returns the time in nanoseconds
+		 */
+		public long getNanos() {
+			return nanos;
+		}
+
+		/**
+		 * Gets the search speed of the thread
+		 * @return Returns the nodes per second
+		 */
+		public long getNodesPerSecond() {
+			return (nanos == 0)?0:nodes * 1000000000L / nanos;
+		}
+	}
+
+	/**
+	 * Constructs a ParallelPerft object
+	 * @param threads The number of worker threads
+	 * @param cacheSizeInMegabytes The size of the shared perft cache (0 disables the cache)
+	 * @param splitPlies The number of plies that are split into separate tasks (1 splits the root moves only, 2 the second ply as well)
+	 */
+	public ParallelPerft(int threads, int cacheSizeInMegabytes, int splitPlies) {
+		if (splitPlies < 1) throw new IllegalArgumentException("At least the root moves have to be split");
+		pool = new ForkJoinPool(threads);
+		cache = (cacheSizeInMegabytes > 0)?new PerftCache(cacheSizeInMegabytes):null;
+		this.splitPlies = splitPlies;
+		threadStatistics = new ConcurrentHashMap<String, ThreadStatistics>();
+	}
+
+	/**
+	 * Counts the leaf nodes of a position at a given depth
+	 * @param position The root position (left unchanged)
+	 * @param depth The depth to search to
+	 * @return Returns the number of leaf nodes
+	 */
+	public long perft(Position position, int depth) {
+		long nodes = 0;
+		for (long count : divide(position, depth).values()) {
+			nodes += count;
+		}
+		return nodes;
+	}
+
+	/**
+	 * Counts the leaf nodes below every legal move of the root position
+	 * @param position The root position (left unchanged)
+	 * @param depth The depth to search to (at least 1)
+	 * @return Returns the node count of every root move keyed by the move in long algebraic notation (in move generation order)
+	 */
+	public Map<String, Long> divide(Position position, int depth) {
+		if (depth < 1) throw new IllegalArgumentException("Divide needs a depth of at least 1");
+
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int moveCount = MoveGenerator.generateLegalMoves(position, moves);
+
+		List<PerftTask> tasks = new ArrayList<PerftTask>(moveCount);
+		for (int i = 0; i < moveCount; i++) {
+			tasks.add(new PerftTask(afterMove(position, moves[i]), depth - 1, splitPlies - 1));
+		}
+		for (PerftTask task : tasks) {
+			pool.execute(task);
+		}
+
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		for (int i = 0; i < moveCount; i++) {
+			result.put(PackedMove.toLongAlgebraic(moves[i]), tasks.get(i).join());
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the statistics of the worker threads accumulated over all searches so far
+	 * @return Returns the statistics keyed by the thread name
+	 */
+	public Map<String, ThreadStatistics> getThreadStatistics() {
+		return Collections.unmodifiableMap(new TreeMap<String, ThreadStatistics>(threadStatistics));
+	}
+
+	/**
+	 * Stops the worker threads (the object cannot be used afterwards)
+	 */
+	public void shutdown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Creates an independent copy of a position with a move played on it
+	 * @param position The position before the move
+	 * @param move The packed move
+	 * @return Returns the position after the move
+	 */
+	private static Position afterMove(Position position, int move) {
+		Position copy = new Position(position);
+		copy.makeMove(move);
+		return copy;
+	}
+
+	/**
+	 * A task counting the nodes below a position, either by forking a task for every move or by searching it in the current thread
+	 */
+	private class PerftTask extends RecursiveTask<Long> {
+
+		private static final long serialVersionUID = 1L;
+
+		private Position position;
+		private int depth;
+		private int splitPlies;
+
+		/**
+		 * Constructs a PerftTask
+		 * @param position The position to search (owned by the task)
+		 * @param depth The remaining depth
+		 * @param splitPlies The number of further plies that are split into tasks
+		 */
+		public PerftTask(Position position, int depth, int splitPlies) {
+			this.position = position;
+			this.depth = depth;
+			this.splitPlies = splitPlies;
+		}
+
+		@Override
+		protected Long compute() {
+			if (splitPlies > 0 && depth > 1) {
+				int[] moves = new int[MoveGenerator.MAX_MOVES];
+				int moveCount = MoveGenerator.generateLegalMoves(position, moves);
+
+				List<PerftTask> subtasks = new ArrayList<PerftTask>(moveCount);
+				for (int i = 0; i < moveCount; i++) {
+					subtasks.add(new PerftTask(afterMove(position, moves[i]), depth - 1, splitPlies - 1));
+				}
+				long nodes = 0;
+				for (PerftTask subtask : invokeAll(subtasks)) {
+					nodes += subtask.join();
+				}
+				return nodes;
+			}
+
+			long start = System.nanoTime();
+			long nodes = new Perft(depth, cache).perft(position, depth);
+			record(nodes, System.nanoTime() - start);
+			return nodes;
+		}
+
+		/**
+		 * Adds the nodes searched by the current thread to its statistics
+		 * @param nodes The number of nodes
+		 * @param nanos The time taken in nanoseconds
+		 */
+		private void record(long nodes, long nanos) {
+			String threadName = Thread.currentThread().getName();
+			ThreadStatistics statistics = threadStatistics.get(threadName);
+			if (statistics == null) {
+				//only the current thread ever adds an entry under its own name
+				statistics = new ThreadStatistics();
+				threadStatistics.put(threadName, statistics);
+			}
+			statistics.nodes += nodes;
+			statistics.nanos += nanos;
+		}
+	}
+}
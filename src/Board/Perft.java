@@ -0,0 +1,117 @@
+package Board;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Counts the leaf nodes of the legal move tree of a position up to a fixed depth (perft).
+ * Used both to verify the move generator against known node counts and to measure its speed.
+ * The moves are made and unmade on one working position and the move buffers for every ply are allocated once,
+ * so a Perft object should not be shared between threads.
+ * @author Daniele Palazzo
+ *
+ */
+public class Perft {
+
+	private Position position;
+	private int[][] moveBuffers;
+	private PerftCache cache;
+
+	/**
+	 * Constructs a Perft object able to search up to the given depth
+	 * @param maxDepth The maximum depth that will be searched
+	 */
+	public Perft(int maxDepth) {
+		this(maxDepth, null);
+	}
+
+	/**
+	 * Constructs a Perft object able to search up to the given depth that stores the node counts of the subtrees in a cache
+	 * @param maxDepth The maximum depth that will be searched
+	 * @param cache The cache to look up and store node counts in (can be shared with other Perft objects) or null
+	 */
+	public Perft(int maxDepth, PerftCache cache) {
+		this.cache = cache;
+		position = new Position();
+		moveBuffers = new int[maxDepth + 1][MoveGenerator.MAX_MOVES];
+	}
+
+	/**
+	 * Counts the leaf nodes of a position at a given depth
+	 * @param position The root position (left unchanged)
+	 * @param depth The depth to search to (0 counts the root only)
+	 * @return Returns the number of leaf nodes
+	 */
+	public long perft(Position position, int depth) {
+		checkDepth(depth);
+		this.position.copyFrom(position);
+		return search(depth);
+	}
+
+	/**
+	 * Counts the leaf nodes below every legal move of the root position
+	 * @param position The root position (left unchanged)
+	 * @param depth The depth to search to (at least 1)
+	 * @return Returns the node count of every root move keyed by the move in long algebraic notation (in move generation order)
+	 */
+	public Map<String, Long> divide(Position position, int depth) {
+		if (depth < 1) throw new IllegalArgumentException("Divide needs a depth of at least 1");
+		checkDepth(depth);
+
+		Map<String, Long> result = new LinkedHashMap<String, Long>();
+		this.position.copyFrom(position);
+
+		int[] moves = moveBuffers[depth];
+		int moveCount = MoveGenerator.generateLegalMoves(this.position, moves);
+		for (int i = 0; i < moveCount; i++) {
+			this.position.makeMove(moves[i]);
+			result.put(PackedMove.toLongAlgebraic(moves[i]), search(depth - 1));
+			this.position.unmakeMove();
+		}
+		return result;
+	}
+
+	/**
+	 * Searches the working position
+	 * @param depth The remaining depth
+	 * @return Returns the number of leaf nodes
+	 */
+	private long search(int depth) {
+		if (depth == 0) return 1;
+
+		int[] moves = moveBuffers[depth];
+
+		//the leaves do not have to be visited
+		if (depth == 1) return MoveGenerator.generateLegalMoves(position, moves);
+
+		long hash = 0L;
+		if (cache != null) {
+			hash = position.getPositionHash();
+			long cached = cache.get(hash, depth);
+			if (cached >= 0) return cached;
+		}
+
+		int moveCount = MoveGenerator.generateLegalMoves(position, moves);
+		long nodes = 0;
+		for (int i = 0; i < moveCount; i++) {
+			position.makeMove(moves[i]);
+			nodes += search(depth - 1);
+			position.unmakeMove();
+		}
+
+		if (cache != null) {
+			cache.put(hash, depth, nodes);
+		}
+		return nodes;
+	}
+
+	/**
+	 * Checks that the depth can be searched with the preallocated buffers
+	 * @param depth The requested depth
+	 */
+	private void checkDepth(int depth) {
+		if (depth < 0 || depth >= moveBuffers.length) {
+			throw new IllegalArgumentException("Depth " + depth + " is outside of 0-" + (moveBuffers.length - 1));
+		}
+	}
+}
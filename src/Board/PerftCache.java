@@ -0,0 +1,63 @@
+package Board;
+
+/**
+ * A fixed size hash table storing perft node counts keyed by the position hash and the remaining depth.
+ * The table can be shared by several threads without locking: every entry stores the key xor'ed with the node count,
+ * so an entry that was torn by two threads writing at the same time fails the key check and is treated as a miss.
+ * @author Daniele Palazzo
+ *
+ */
+public class PerftCache {
+
+	private final long[] keys;
+	private final long[] nodes;
+	private final int mask;
+
+	/**
+	 * Constructs a PerftCache
+	 * @param sizeInMegabytes The approximate memory the table may use (rounded down to a power of two number of entries)
+	 */
+	public PerftCache(int sizeInMegabytes) {
+		long entries = Math.max(1L, (sizeInMegabytes * 1024L * 1024L) / 16);
+		int size = Integer.highestOneBit((int) Math.min(entries, 1 << 30));
+		keys = new long[size];
+		nodes = new long[size];
+		mask = size - 1;
+	}
+
+	/**
+	 * Combines the position hash and the depth into the key of an entry
+	 * @param hash The position hash
+	 * @param depth The remaining depth
+	 * @return Returns the entry key
+	 */
+	private static long key(long hash, int depth) {
+		return hash ^ (depth * 0x9E3779B97F4A7C15L);
+	}
+
+	/**
+	 * Looks up the node count of a position
+	 * @param hash The position hash
+	 * @param depth The remaining depth
+	 * @return Returns the stored node count or -1 if the position is not in the table
+	 */
+	public long get(long hash, int depth) {
+		long key = key(hash, depth);
+		int index = (int) key & mask;
+		long count = nodes[index];
+		return ((keys[index] ^ count) == key)?count:-1;
+	}
+
+	/**
+	 * Stores the node count of a position (replacing whatever was stored in the entry)
+	 * @param hash The position hash
+	 * @param depth The remaining depth
+	 * @param count The node count
+	 */
+	public void put(long hash, int depth, long count) {
+		long key = key(hash, depth);
+		int index = (int) key & mask;
+		nodes[index] = count;
+		keys[index] = key ^ count;
+	}
+}
@@ -0,0 +1,625 @@
+package Board;
+
+import java.util.Arrays;
+
+import Exceptions.InvalidFEN;
+
+/**
+ * A headless model of a chess position. The piece placement is stored in 12 bitboards (one per piece type and colour)
+ * together with the side to move, the castling rights, the en passant square and the FEN clocks.
+ * Squares are numbered from 0 (a1) to 63 (h8), i.e. square = (row-1)*8 + (column-1).
+ * @author Daniele Palazzo
+ *
+ */
+public class Position {
+
+	public static final int WHITE = 0;
+	public static final int BLACK = 1;
+
+	public static final int PAWN = 0;
+	public static final int KNIGHT = 1;
+	public static final int BISHOP = 2;
+	public static final int ROOK = 3;
+	public static final int QUEEN = 4;
+	public static final int KING = 5;
+
+	public static final int NO_PIECE = -1;
+	public static final int NO_SQUARE = -1;
+
+	public static final int WHITE_KINGSIDE = 1;
+	public static final int WHITE_QUEENSIDE = 2;
+	public static final int BLACK_KINGSIDE = 4;
+	public static final int BLACK_QUEENSIDE = 8;
+
+	public static final String STARTING_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+	static final String PIECE_LETTERS = "PNBRQKpnbrqk";
+
+	//castling rights that survive a move from or to a square
+	private static final int[] CASTLING_MASK = new int[64];
+
+	static {
+		for (int i = 0; i < 64; i++) {
+			CASTLING_MASK[i] = WHITE_KINGSIDE | WHITE_QUEENSIDE | BLACK_KINGSIDE | BLACK_QUEENSIDE;
+		}
+		CASTLING_MASK[0] &= ~WHITE_QUEENSIDE;
+		CASTLING_MASK[7] &= ~WHITE_KINGSIDE;
+		CASTLING_MASK[4] &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+		CASTLING_MASK[56] &= ~BLACK_QUEENSIDE;
+		CASTLING_MASK[63] &= ~BLACK_KINGSIDE;
+		CASTLING_MASK[60] &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+	}
+
+	private long[] pieceBitboards;
+	private long[] colourBitboards;
+	private int[] squares;
+
+	//the squares of the kings and the unordered list of the squares of every colour's pieces, kept up to date by setPiece and removePiece
+	private int[] kingSquares;
+	private int[][] pieceLists;
+	private int[] pieceCounts;
+	private int[] pieceListIndex;
+
+	private int sideToMove;
+	private int castlingRights;
+	private int enPassantSquare;
+	private int halfMoveClock;
+	private int fullMoveNumber;
+
+	//Zobrist hash of the pieces, the castling rights and the side to move (the en passant part is added by getPositionHash)
+	private long hash;
+
+	//the irreversible state of every move made (see makeMove), packed into one long per move, and the hash before the move
+	private long[] undoStack;
+	private long[] hashStack;
+	private int undoCount;
+
+	private static final int INITIAL_UNDO_CAPACITY = 256;
+
+	/**
+	 * Constructs and initialises an empty Position (no pieces, white to move)
+	 */
+	public Position() {
+		pieceBitboards = new long[12];
+		colourBitboards = new long[2];
+		squares = new int[64];
+		kingSquares = new int[2];
+		pieceLists = new int[2][64];
+		pieceCounts = new int[2];
+		pieceListIndex = new int[64];
+		undoStack = new long[INITIAL_UNDO_CAPACITY];
+		hashStack = new long[INITIAL_UNDO_CAPACITY];
+		clear();
+	}
+
+	/**
+	 * Constructs a Position that is an independent copy of another Position (the moves made on the other position cannot be unmade on the copy)
+	 * @param other The position to copy
+	 */
+	public Position(Position other) {
+		pieceBitboards = new long[12];
+		colourBitboards = new long[2];
+		squares = new int[64];
+		kingSquares = new int[2];
+		pieceLists = new int[2][64];
+		pieceCounts = new int[2];
+		pieceListIndex = new int[64];
+		undoStack = new long[INITIAL_UNDO_CAPACITY];
+		hashStack = new long[INITIAL_UNDO_CAPACITY];
+		copyFrom(other);
+	}
+
+	/**
+	 * Removes all pieces and resets the position state (white to move, no castling rights, no en passant square)
+	 */
+	public void clear() {
+		for (int i = 0; i < 12; i++) {
+			pieceBitboards[i] = 0L;
+		}
+		colourBitboards[WHITE] = 0L;
+		colourBitboards[BLACK] = 0L;
+		for (int i = 0; i < 64; i++) {
+			squares[i] = NO_PIECE;
+		}
+		kingSquares[WHITE] = NO_SQUARE;
+		kingSquares[BLACK] = NO_SQUARE;
+		pieceCounts[WHITE] = 0;
+		pieceCounts[BLACK] = 0;
+		sideToMove = WHITE;
+		castlingRights = 0;
+		enPassantSquare = NO_SQUARE;
+		halfMoveClock = 0;
+		fullMoveNumber = 1;
+		hash = Zobrist.castlingKey(0);
+		undoCount = 0;
+	}
+
+	/**
+	 * Gets the square index of a board coordinate
+	 * @param column The column number (1-8)
+	 * @param row The row number (1-8)
+	 * @return Returns the square index (0-63)
+	 */
+	public static int square(int column, int row) {
+		return (row-1)*8 + (column-1);
+	}
+
+	/**
+	 * Gets the column number of a square
+	 * @param square The square index (0-63)
+	 * @return Returns the column number (1-8)
+	 */
+	public static int columnOf(int square) {
+		return (square & 7) + 1;
+	}
+
+	/**
+	 * Gets the row number of a square
+	 * @param square The square index (0-63)
+	 * @return Returns the row number (1-8)
+	 */
+	public static int rowOf(int square) {
+		return (square >>> 3) + 1;
+	}
+
+	/**
+	 * Gets the piece code of a piece type and colour
+	 * @param colour The colour of the piece (WHITE or BLACK)
+	 * @param type The type of the piece (PAWN to KING)
+	 * @return Returns the piece code (0-11)
+	 */
+	public static int pieceCode(int colour, int type) {
+		return colour*6 + type;
+	}
+
+	/**
+	 * Gets the colour of a piece code
+	 * @param piece The piece code
+	 * @return Returns WHITE or BLACK
+	 */
+	public static int colourOf(int piece) {
+		return (piece < 6)?WHITE:BLACK;
+	}
+
+	/**
+	 * Gets the type of a piece code
+	 * @param piece The piece code
+	 * @return Returns the piece type (PAWN to KING)
+	 */
+	public static int typeOf(int piece) {
+		return piece % 6;
+	}
+
+	/**
+	 * Gets the FEN letter of a piece code (upper case for white)
+	 * @param piece The piece code
+	 * @return Returns the FEN letter of the piece
+	 */
+	public static char pieceLetter(int piece) {
+		return PIECE_LETTERS.charAt(piece);
+	}
+
+	/**
+	 * Puts a piece on a square (replacing the piece currently on it if any)
+	 * @param square The square to put the piece on
+	 * @param piece The piece code (or NO_PIECE to empty the square)
+	 */
+	public void setPiece(int square, int piece) {
+		removePiece(square);
+		if (piece == NO_PIECE) return;
+
+		long bit = 1L << square;
+		int colour = colourOf(piece);
+		pieceBitboards[piece] |= bit;
+		colourBitboards[colour] |= bit;
+		squares[square] = piece;
+		hash ^= Zobrist.pieceKey(piece, square);
+
+		pieceListIndex[square] = pieceCounts[colour];
+		pieceLists[colour][pieceCounts[colour]++] = square;
+		if (typeOf(piece) == KING) kingSquares[colour] = square;
+	}
+
+	/**
+	 * Removes the piece on a square (if any)
+	 * @param square The square to empty
+	 */
+	public void removePiece(int square) {
+		int piece = squares[square];
+		if (piece == NO_PIECE) return;
+
+		long bit = 1L << square;
+		int colour = colourOf(piece);
+		pieceBitboards[piece] &= ~bit;
+		colourBitboards[colour] &= ~bit;
+		squares[square] = NO_PIECE;
+		hash ^= Zobrist.pieceKey(piece, square);
+
+		//the last square of the list takes the place of the removed one
+		int last = pieceLists[colour][--pieceCounts[colour]];
+		pieceLists[colour][pieceListIndex[square]] = last;
+		pieceListIndex[last] = pieceListIndex[square];
+		if (typeOf(piece) == KING && kingSquares[colour] == square) {
+			//a set up position can have more than one king of a colour
+			long kings = pieceBitboards[piece];
+			kingSquares[colour] = (kings == 0L)?NO_SQUARE:Long.numberOfTrailingZeros(kings);
+		}
+	}
+
+	/**
+	 * Gets the piece standing on a square
+	 * @param square The square in question
+	 * @return Returns the piece code or NO_PIECE if the square is empty
+	 */
+	public int getPiece(int square) {
+		return squares[square];
+	}
+
+	/**
+	 * Gets the bitboard of a piece
+	 * @param piece The piece code
+	 * @return Returns the bitboard of all squares occupied by the piece
+	 */
+	public long getPieceBitboard(int piece) {
+		return pieceBitboards[piece];
+	}
+
+	/**
+	 * Gets the bitboard of all pieces of one colour
+	 * @param colour WHITE or BLACK
+	 * @return Returns the bitboard of all squares occupied by that colour
+	 */
+	public long getColourBitboard(int colour) {
+		return colourBitboards[colour];
+	}
+
+	/**
+	 * Gets the bitboard of all occupied squares
+	 * @return Returns the bitboard of all occupied squares
+	 */
+	public long getOccupied() {
+		return colourBitboards[WHITE] | colourBitboards[BLACK];
+	}
+
+	/**
+	 * Gets the square of a king
+	 * @param colour The colour of the king
+	 * @return Returns the square of the king or NO_SQUARE if there is no such king on the board
+	 */
+	public int getKingSquare(int colour) {
+		return kingSquares[colour];
+	}
+
+	/**
+	 * Gets the number of pieces of one colour (including the king)
+	 * @param colour WHITE or BLACK
+	 * @return Returns the number of pieces of that colour on the board
+	 */
+	public int getPieceCount(int colour) {
+		return pieceCounts[colour];
+	}
+
+	/**
+	 * Gets the square of a piece from the piece list of one colour. The list is not in any particular order and changes whenever a piece is moved,
+	 * so it should only be iterated over while the position is not changed.
+	 * @param colour WHITE or BLACK
+	 * @param index The index in the piece list (0 to getPieceCount(colour)-1)
+	 * @return Returns the square of the piece
+	 */
+	public int getPieceSquare(int colour, int index) {
+		return pieceLists[colour][index];
+	}
+
+	/**
+	 * Gets the side to move
+	 * @return Returns WHITE or BLACK
+	 */
+	public int getSideToMove() {
+		return sideToMove;
+	}
+
+	/**
+	 * Sets the side to move
+	 * @param sideToMove WHITE or BLACK
+	 */
+	public void setSideToMove(int sideToMove) {
+		if (sideToMove != this.sideToMove) hash ^= Zobrist.blackToMoveKey();
+		this.sideToMove = sideToMove;
+	}
+
+	/**
+	 * Gets the castling rights
+	 * @return Returns the castling rights mask (combination of WHITE_KINGSIDE, WHITE_QUEENSIDE, BLACK_KINGSIDE and BLACK_QUEENSIDE)
+	 */
+	public int getCastlingRights() {
+		return castlingRights;
+	}
+
+	/**
+	 * Sets the castling rights
+	 * @param castlingRights The castling rights mask
+	 */
+	public void setCastlingRights(int castlingRights) {
+		hash ^= Zobrist.castlingKey(this.castlingRights) ^ Zobrist.castlingKey(castlingRights);
+		this.castlingRights = castlingRights;
+	}
+
+	/**
+	 * Removes the castling rights whose king and rook are not standing on their original squares
+	 */
+	public void discardUnavailableCastlingRights() {
+		int whiteRook = pieceCode(WHITE, ROOK);
+		int blackRook = pieceCode(BLACK, ROOK);
+		int rights = castlingRights;
+
+		if (squares[4] != pieceCode(WHITE, KING)) rights &= ~(WHITE_KINGSIDE | WHITE_QUEENSIDE);
+		if (squares[7] != whiteRook) rights &= ~WHITE_KINGSIDE;
+		if (squares[0] != whiteRook) rights &= ~WHITE_QUEENSIDE;
+		if (squares[60] != pieceCode(BLACK, KING)) rights &= ~(BLACK_KINGSIDE | BLACK_QUEENSIDE);
+		if (squares[63] != blackRook) rights &= ~BLACK_KINGSIDE;
+		if (squares[56] != blackRook) rights &= ~BLACK_QUEENSIDE;
+
+		setCastlingRights(rights);
+	}
+
+	/**
+	 * Gets the en passant square (the square a pawn can capture onto en passant)
+	 * @return Returns the en passant square or NO_SQUARE
+	 */
+	public int getEnPassantSquare() {
+		return enPassantSquare;
+	}
+
+	/**
+	 * Sets the en passant square
+	 * @param enPassantSquare The en passant square or NO_SQUARE
+	 */
+	public void setEnPassantSquare(int enPassantSquare) {
+		this.enPassantSquare = enPassantSquare;
+	}
+
+	/**
+	 * Gets the number of half moves since the last capture or pawn advance
+	 * @return Returns the halfmove clock
+	 */
+	public int getHalfMoveClock() {
+		return halfMoveClock;
+	}
+
+	/**
+	 * Sets the number of half moves since the last capture or pawn advance
+	 * @param halfMoveClock The halfmove clock
+	 */
+	public void setHalfMoveClock(int halfMoveClock) {
+		this.halfMoveClock = halfMoveClock;
+	}
+
+	/**
+	 * Gets the fullmove number (starts at 1 and is incremented after black's move)
+	 * @return Returns the fullmove number
+	 */
+	public int getFullMoveNumber() {
+		return fullMoveNumber;
+	}
+
+	/**
+	 * Sets the fullmove number
+	 * @param fullMoveNumber The fullmove number
+	 */
+	public void setFullMoveNumber(int fullMoveNumber) {
+		this.fullMoveNumber = fullMoveNumber;
+	}
+
+	/**
+	 * Gets the Zobrist hash of the position (see Zobrist). The hash is kept up to date by every change to the position,
+	 * so getting it is cheap.
+	 * @return Returns the 64 bit hash of the position
+	 */
+	public long getPositionHash() {
+		return hash ^ getEnPassantHash();
+	}
+
+	/**
+	 * Gets the part of the hash contributed by the en passant square
+	 * @return Returns the en passant key or 0 if the en passant square is not hashed
+	 */
+	private long getEnPassantHash() {
+		return Zobrist.isEnPassantHashed(this)?Zobrist.enPassantKey(enPassantSquare):0L;
+	}
+
+	/**
+	 * Applies a move to the position without validating it (the move must be legal).
+	 * Handles captures, castling (the king moving two columns), en passant, promotion, the castling rights, the en passant square and the clocks.
+	 * The move can be taken back with unmakeMove.
+	 * @param from The square to move the piece from
+	 * @param to The square to move the piece to
+	 * @param promotionType The piece type to promote to (KNIGHT to QUEEN), ignored if the move is not a promotion
+	 */
+	public void applyMove(int from, int to, int promotionType) {
+		makeMove(encodeMove(from, to, promotionType));
+	}
+
+	/**
+	 * Packs a move given by its squares into an int, working out the move flag from the pieces on the board (see PackedMove)
+	 * @param from The square to move the piece from
+	 * @param to The square to move the piece to
+	 * @param promotionType The piece type to promote to (KNIGHT to QUEEN, anything else promotes to a queen), ignored if the move is not a promotion
+	 * @return Returns the packed move
+	 */
+	public int encodeMove(int from, int to, int promotionType) {
+		int piece = squares[from];
+		if (piece == pieceCode(sideToMove, PAWN)) {
+			if (to == enPassantSquare) {
+				return PackedMove.encode(from, to, PackedMove.EN_PASSANT);
+			}
+			if (Math.abs(to - from) == 16) {
+				return PackedMove.encode(from, to, PackedMove.DOUBLE_PAWN_PUSH);
+			}
+			if (to >= 56 || to < 8) {
+				return PackedMove.encodePromotion(from, to, (promotionType >= KNIGHT && promotionType <= QUEEN)?promotionType:QUEEN);
+			}
+		} else if (piece == pieceCode(sideToMove, KING) && Math.abs(to - from) == 2) {
+			return PackedMove.encode(from, to, PackedMove.CASTLING);
+		}
+		return PackedMove.encode(from, to, PackedMove.NORMAL);
+	}
+
+	/**
+	 * Makes a packed move on the position without validating it (the move must be legal, e.g. generated by MoveGenerator).
+	 * The state that cannot be recovered from the move itself is pushed onto the undo stack, so the move can be taken back with unmakeMove.
+	 * @param move The packed move
+	 */
+	public void makeMove(int move) {
+		int from = PackedMove.getFrom(move);
+		int to = PackedMove.getTo(move);
+		int flag = PackedMove.getFlag(move);
+		int piece = squares[from];
+
+		int capturedSquare = (flag == PackedMove.EN_PASSANT)?((sideToMove == WHITE)?to-8:to+8):to;
+		int captured = squares[capturedSquare];
+
+		if (undoCount == undoStack.length) {
+			undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+			hashStack = Arrays.copyOf(hashStack, hashStack.length * 2);
+		}
+		hashStack[undoCount] = getPositionHash();
+		undoStack[undoCount++] = (move & 0xFFFFL) | ((long) (captured + 1) << 16) | ((long) castlingRights << 20)
+				| ((long) (enPassantSquare + 1) << 24) | ((long) halfMoveClock << 32);
+
+		if (captured != NO_PIECE) {
+			removePiece(capturedSquare);
+		}
+		removePiece(from);
+		setPiece(to, PackedMove.isPromotion(move)?pieceCode(sideToMove, PackedMove.getPromotionType(move)):piece);
+
+		//castling moves the rook as well
+		if (flag == PackedMove.CASTLING) {
+			if (to > from) {
+				setPiece(to-1, squares[to+1]);
+				removePiece(to+1);
+			} else {
+				setPiece(to+1, squares[to-2]);
+				removePiece(to-2);
+			}
+		}
+
+		setCastlingRights(castlingRights & CASTLING_MASK[from] & CASTLING_MASK[to]);
+		enPassantSquare = (flag == PackedMove.DOUBLE_PAWN_PUSH)?(from + to) / 2:NO_SQUARE;
+
+		if (typeOf(piece) == PAWN || captured != NO_PIECE) {
+			halfMoveClock = 0;
+		} else {
+			halfMoveClock++;
+		}
+
+		if (sideToMove == BLACK) fullMoveNumber++;
+		sideToMove ^= 1;
+		hash ^= Zobrist.blackToMoveKey();
+	}
+
+	/**
+	 * Takes back the last move made with makeMove (or applyMove)
+	 * @throws IllegalStateException Thrown if there is no move to take back
+	 */
+	public void unmakeMove() {
+		if (undoCount == 0) throw new IllegalStateException("No move to unmake");
+
+		long state = undoStack[--undoCount];
+		int move = (int) (state & 0xFFFF);
+		int from = PackedMove.getFrom(move);
+		int to = PackedMove.getTo(move);
+		int flag = PackedMove.getFlag(move);
+
+		sideToMove ^= 1;
+		if (sideToMove == BLACK) fullMoveNumber--;
+
+		int piece = PackedMove.isPromotion(move)?pieceCode(sideToMove, PAWN):squares[to];
+		removePiece(to);
+		setPiece(from, piece);
+
+		if (flag == PackedMove.CASTLING) {
+			if (to > from) {
+				setPiece(to+1, squares[to-1]);
+				removePiece(to-1);
+			} else {
+				setPiece(to-2, squares[to+1]);
+				removePiece(to+1);
+			}
+		}
+
+		int captured = (int) ((state >>> 16) & 0xF) - 1;
+		if (captured != NO_PIECE) {
+			setPiece((flag == PackedMove.EN_PASSANT)?((sideToMove == WHITE)?to-8:to+8):to, captured);
+		}
+
+		castlingRights = (int) ((state >>> 20) & 0xF);
+		enPassantSquare = (int) ((state >>> 24) & 0x7F) - 1;
+		halfMoveClock = (int) (state >>> 32);
+		hash = hashStack[undoCount] ^ getEnPassantHash();
+	}
+
+	/**
+	 * Gets the number of moves that can be taken back with unmakeMove
+	 * @return Returns the number of moves on the undo stack
+	 */
+	public int getUndoCount() {
+		return undoCount;
+	}
+
+	/**
+	 * Gets the hash of an earlier position of the move history
+	 * @param pliesAgo How many moves ago the position occurred (1 is the position before the last move, up to getUndoCount())
+	 * @return Returns the hash of the position
+	 */
+	public long getHistoryHash(int pliesAgo) {
+		return hashStack[undoCount - pliesAgo];
+	}
+
+	/**
+	 * Forgets all moves made so far, so that they cannot be taken back anymore (the position itself is unchanged)
+	 */
+	public void clearUndoHistory() {
+		undoCount = 0;
+	}
+
+	/**
+	 * Sets the position according to a FEN string
+	 * @param fen The FEN string storing the position
+	 * @throws InvalidFEN Thrown if the FEN string is not a valid FEN string (the position is left unchanged)
+	 */
+	public void setToFEN(String fen) throws InvalidFEN {
+		Position parsed = new Position();
+		FenCodec.parse(fen, parsed);
+		copyFrom(parsed);
+	}
+
+	/**
+	 * Gets the position in the FEN (Forsyth-Edwards) Notation
+	 * @return Returns the FEN string representing the position
+	 */
+	public String toFEN() {
+		return FenCodec.write(this, new StringBuilder(90)).toString();
+	}
+
+	/**
+	 * Copies the complete state of another position into this one (the moves made on the other position cannot be unmade on this one)
+	 * @param other The position to copy
+	 */
+	public void copyFrom(Position other) {
+		System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, 12);
+		System.arraycopy(other.colourBitboards, 0, colourBitboards, 0, 2);
+		System.arraycopy(other.squares, 0, squares, 0, 64);
+		System.arraycopy(other.kingSquares, 0, kingSquares, 0, 2);
+		System.arraycopy(other.pieceLists[WHITE], 0, pieceLists[WHITE], 0, other.pieceCounts[WHITE]);
+		System.arraycopy(other.pieceLists[BLACK], 0, pieceLists[BLACK], 0, other.pieceCounts[BLACK]);
+		System.arraycopy(other.pieceCounts, 0, pieceCounts, 0, 2);
+		System.arraycopy(other.pieceListIndex, 0, pieceListIndex, 0, 64);
+		sideToMove = other.sideToMove;
+		castlingRights = other.castlingRights;
+		enPassantSquare = other.enPassantSquare;
+		halfMoveClock = other.halfMoveClock;
+		fullMoveNumber = other.fullMoveNumber;
+		hash = other.hash;
+		undoCount = 0;
+	}
+}
@@ -0,0 +1,65 @@
+package Board;
+
+/**
+ * Checks whether a position could have been reached in a legal game, as far as it can be told from the position alone:
+ * one king per side, no pawns on the first or last rank, no more pieces than the promotions allow, the side not to move is not in check,
+ * the side to move is not checked by more than two pieces and the en passant square belongs to a double pawn push.
+ * @author Daniele Palazzo
+ *
+ */
+public class PositionValidator {
+
+	private PositionValidator() {}; //prevent instantiation
+
+	private static final long FIRST_AND_LAST_RANK = 0xFF000000000000FFL;
+
+	/**
+	 * Looks for the first reason why a position is illegal
+	 * @param position The position to check
+	 * @return Returns a description of the problem or null if the position is legal
+	 */
+	public static String findProblem(Position position) {
+		for (int colour = Position.WHITE; colour <= Position.BLACK; colour++) {
+			String side = (colour == Position.WHITE)?"white":"black";
+			int kings = Long.bitCount(position.getPieceBitboard(Position.pieceCode(colour, Position.KING)));
+			if (kings != 1) return side + " has " + kings + " kings";
+
+			int pawns = Long.bitCount(position.getPieceBitboard(Position.pieceCode(colour, Position.PAWN)));
+			if (pawns > 8) return side + " has " + pawns + " pawns";
+
+			//every piece above the initial number of its type has to be a promoted pawn
+			int promoted = Math.max(0, Long.bitCount(position.getPieceBitboard(Position.pieceCode(colour, Position.KNIGHT))) - 2)
+					+ Math.max(0, Long.bitCount(position.getPieceBitboard(Position.pieceCode(colour, Position.BISHOP))) - 2)
+					+ Math.max(0, Long.bitCount(position.getPieceBitboard(Position.pieceCode(colour, Position.ROOK))) - 2)
+					+ Math.max(0, Long.bitCount(position.getPieceBitboard(Position.pieceCode(colour, Position.QUEEN))) - 1);
+			if (pawns + promoted > 8) return side + " has more promoted pieces than missing pawns";
+		}
+
+		long pawns = position.getPieceBitboard(Position.pieceCode(Position.WHITE, Position.PAWN))
+				| position.getPieceBitboard(Position.pieceCode(Position.BLACK, Position.PAWN));
+		if ((pawns & FIRST_AND_LAST_RANK) != 0L) return "pawn on the first or last rank";
+
+		int sideToMove = position.getSideToMove();
+		int opponent = 1 - sideToMove;
+		long occupied = position.getOccupied();
+		if (MoveGenerator.getAttackers(position, position.getKingSquare(opponent), sideToMove, occupied) != 0L) {
+			return "the side not to move is in check";
+		}
+		if (Long.bitCount(MoveGenerator.getAttackers(position, position.getKingSquare(sideToMove), opponent, occupied)) > 2) {
+			return "the side to move is in check by more than two pieces";
+		}
+
+		int enPassantSquare = position.getEnPassantSquare();
+		if (enPassantSquare != Position.NO_SQUARE) {
+			//the pawn that has just moved two squares stands in front of the en passant square, the squares it passed are empty
+			int forward = (sideToMove == Position.WHITE)?-8:8;
+			if (Position.rowOf(enPassantSquare) != ((sideToMove == Position.WHITE)?6:3)) return "en passant square on the wrong rank";
+			if (position.getPiece(enPassantSquare + forward) != Position.pieceCode(opponent, Position.PAWN)) return "no pawn in front of the en passant square";
+			if (position.getPiece(enPassantSquare) != Position.NO_PIECE || position.getPiece(enPassantSquare - forward) != Position.NO_PIECE) {
+				return "the squares the pawn has passed are not empty";
+			}
+		}
+
+		return null;
+	}
+}
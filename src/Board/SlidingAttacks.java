@@ -0,0 +1,242 @@
+package Board;
+
+/**
+ * A helper class providing rook, bishop and queen attack sets through precomputed magic bitboard tables.
+ * All lookups are O(1) and do not allocate any objects.
+ * @author Daniele Palazzo
+ *
+ */
+public class SlidingAttacks {
+
+	private SlidingAttacks() {}; //prevent instantiation
+
+	public static final int NORTH = 0;
+	public static final int SOUTH = 1;
+	public static final int EAST = 2;
+	public static final int WEST = 3;
+	public static final int NORTH_EAST = 4;
+	public static final int SOUTH_WEST = 5;
+	public static final int NORTH_WEST = 6;
+	public static final int SOUTH_EAST = 7;
+
+	//row and column steps of the directions above (opposite directions differ only in the lowest bit,
+	//the even directions run towards higher square numbers)
+	private static final int[] ROW_STEP = {1, -1, 0, 0, 1, -1, 1, -1};
+	private static final int[] COLUMN_STEP = {0, 0, 1, -1, 1, -1, -1, 1};
+
+	private static final long[] ROOK_MAGICS = {
+		0x008000908064C000L, 0x0040200040001000L, 0x0180100080A0010AL, 0x8880041000800800L,
+		0x1200100201200804L, 0x0200020004011008L, 0x2180010000800600L, 0x0200005088210204L,
+		0x0400800040008021L, 0x0400400020005000L, 0x8240801000200080L, 0x8611001004200900L,
+		0x008180800C001800L, 0x0100800200800400L, 0x0A02000102000408L, 0x8020802300104280L,
+		0x0080004000402000L, 0xE010104000402000L, 0x0800808010002000L, 0xA280210008100100L,
+		0x0001818014000800L, 0xA002010100080400L, 0x0080240001020870L, 0x0001020004048845L,
+		0x0081826280004004L, 0x2020810900284000L, 0x0200100080802000L, 0x0200080080100080L,
+		0x8083080100100500L, 0x4406000901000400L, 0x0005020080800100L, 0x0090204200008114L,
+		0x0010400094800420L, 0x0900804000802002L, 0x0201001841002000L, 0x4100080080801000L,
+		0x4540040080800800L, 0x0002001004040020L, 0x0281195814001002L, 0x1240800040800100L,
+		0x0880042000524004L, 0x02C080410206002CL, 0x0801200241050010L, 0x8400080010008080L,
+		0x0008000500090010L, 0x0082009084020008L, 0x4012000108020004L, 0x9000104D08860004L,
+		0x2004204114800100L, 0x0148802112400300L, 0x0202842000100880L, 0x001B080080900080L,
+		0x001A002008100600L, 0x0004008004020080L, 0x5181000600040300L, 0x0000044401128A00L,
+		0x8044110480002441L, 0x2008110084402202L, 0x90806005090010C1L, 0x000420310A004A42L,
+		0x0023001004020801L, 0x0882001008040102L, 0x000230088118020CL, 0x0000019025040042L
+	};
+
+	private static final long[] BISHOP_MAGICS = {
+		0x0045010808008680L, 0x2002080204004898L, 0x0210009A10400006L, 0x0824050200810200L,
+		0x0006061105004090L, 0x00010108C0000000L, 0x0814040282104004L, 0x0012012201106800L,
+		0x10823014100C1040L, 0x0080C2088802808CL, 0x0281108410404000L, 0x0101212041826200L,
+		0x0020141028221058L, 0x2201020202200202L, 0x000082A801482000L, 0x0000008401411044L,
+		0x0007103014300404L, 0x0002091110010100L, 0x42140012040C0808L, 0x0800808802004020L,
+		0x90C4004210140000L, 0x0800200900A01000L, 0x00D0400201108810L, 0x80820183814412A0L,
+		0x00A01008202202B4L, 0x01C2021A09500402L, 0x0084440208042400L, 0x800400400C090100L,
+		0xBA10040010802100L, 0xD182009006005000L, 0x5011021001009004L, 0x0020420200510400L,
+		0x0292104000468800L, 0x00043009091C0500L, 0x0280441000020025L, 0x0042820080080080L,
+		0x0440101010010040L, 0x1000900100808080L, 0x0108108120089800L, 0x0044010200012682L,
+		0xC002500420900400L, 0x0040482210710800L, 0x0002060024000200L, 0x0281020A44000800L,
+		0xA0021200A4000200L, 0x0001301000840840L, 0x2868500108444220L, 0x0004111041000200L,
+		0x8044020842080200L, 0x0000220104210200L, 0x0000021201044000L, 0x0000280884040028L,
+		0x4012114010858003L, 0x0000081004082B88L, 0x3892700508208002L, 0x00220A041B060400L,
+		0x0812020284014881L, 0x010434A282103100L, 0x0490400824020800L, 0x4A20002C00208800L,
+		0x000000A011020200L, 0x4002940A02482202L, 0x5100100202140406L, 0x02102000840540C1L
+	};
+
+	private static final long[] ROOK_MASKS = new long[64];
+	private static final long[] BISHOP_MASKS = new long[64];
+	private static final int[] ROOK_SHIFTS = new int[64];
+	private static final int[] BISHOP_SHIFTS = new int[64];
+	private static final int[] ROOK_OFFSETS = new int[64];
+	private static final int[] BISHOP_OFFSETS = new int[64];
+	private static final long[] ROOK_ATTACKS;
+	private static final long[] BISHOP_ATTACKS;
+
+	private static final long[][] RAYS = new long[8][64];
+	private static final long[][] BETWEEN = new long[64][64];
+	private static final long[][] LINE = new long[64][64];
+
+	static {
+		for (int direction = 0; direction < 8; direction++) {
+			for (int square = 0; square < 64; square++) {
+				RAYS[direction][square] = slowRay(square, direction, 0L);
+			}
+		}
+
+		int rookSize = 0;
+		int bishopSize = 0;
+		for (int square = 0; square < 64; square++) {
+			ROOK_MASKS[square] = relevantOccupancy(square, NORTH);
+			BISHOP_MASKS[square] = relevantOccupancy(square, NORTH_EAST);
+			ROOK_SHIFTS[square] = 64 - Long.bitCount(ROOK_MASKS[square]);
+			BISHOP_SHIFTS[square] = 64 - Long.bitCount(BISHOP_MASKS[square]);
+			ROOK_OFFSETS[square] = rookSize;
+			BISHOP_OFFSETS[square] = bishopSize;
+			rookSize += 1 << Long.bitCount(ROOK_MASKS[square]);
+			bishopSize += 1 << Long.bitCount(BISHOP_MASKS[square]);
+		}
+
+		ROOK_ATTACKS = new long[rookSize];
+		BISHOP_ATTACKS = new long[bishopSize];
+
+		for (int square = 0; square < 64; square++) {
+			//enumerate all subsets of the relevant occupancy (Carry-Rippler)
+			long mask = ROOK_MASKS[square];
+			long occupied = 0L;
+			do {
+				ROOK_ATTACKS[ROOK_OFFSETS[square] + (int)((occupied * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])] =
+						slowRay(square, NORTH, occupied) | slowRay(square, SOUTH, occupied) | slowRay(square, EAST, occupied) | slowRay(square, WEST, occupied);
+				occupied = (occupied - mask) & mask;
+			} while (occupied != 0L);
+
+			mask = BISHOP_MASKS[square];
+			occupied = 0L;
+			do {
+				BISHOP_ATTACKS[BISHOP_OFFSETS[square] + (int)((occupied * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])] =
+						slowRay(square, NORTH_EAST, occupied) | slowRay(square, NORTH_WEST, occupied) | slowRay(square, SOUTH_EAST, occupied) | slowRay(square, SOUTH_WEST, occupied);
+				occupied = (occupied - mask) & mask;
+			} while (occupied != 0L);
+		}
+
+		for (int square1 = 0; square1 < 64; square1++) {
+			for (int direction = 0; direction < 8; direction++) {
+				long ray = RAYS[direction][square1];
+				while (ray != 0L) {
+					int square2 = Long.numberOfTrailingZeros(ray);
+					ray &= ray - 1;
+					BETWEEN[square1][square2] = RAYS[direction][square1] & RAYS[direction ^ 1][square2];
+					LINE[square1][square2] = RAYS[direction][square1] | RAYS[direction ^ 1][square1] | (1L << square1);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Gets the squares a rook on a square attacks
+	 * @param square The square of the rook (0-63)
+	 * @param occupied The bitboard of occupied squares
+	 * @return Returns the bitboard of attacked squares (including the first blocker in each direction)
+	 */
+	public static long rookAttacks(int square, long occupied) {
+		return ROOK_ATTACKS[ROOK_OFFSETS[square] + (int)(((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square])];
+	}
+
+	/**
+	 * Gets the squares a bishop on a square attacks
+	 * @param square The square of the bishop (0-63)
+	 * @param occupied The bitboard of occupied squares
+	 * @return Returns the bitboard of attacked squares (including the first blocker in each direction)
+	 */
+	public static long bishopAttacks(int square, long occupied) {
+		return BISHOP_ATTACKS[BISHOP_OFFSETS[square] + (int)(((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square])];
+	}
+
+	/**
+	 * Gets the squares a queen on a square attacks
+	 * @param square The square of the queen (0-63)
+	 * @param occupied The bitboard of occupied squares
+	 * @return Returns the bitboard of attacked squares (including the first blocker in each direction)
+	 */
+	public static long queenAttacks(int square, long occupied) {
+		return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+	}
+
+	/**
+	 * Gets the first occupied square from a square in a direction
+	 * @param square The square to start from (not included in the search)
+	 * @param direction The direction of the search (NORTH to SOUTH_WEST)
+	 * @param occupied The bitboard of occupied squares
+	 * @return Returns the first occupied square in the direction or Position.NO_SQUARE if there is none
+	 */
+	public static int firstBlocker(int square, int direction, long occupied) {
+		long blockers = RAYS[direction][square] & occupied;
+		if (blockers == 0L) return Position.NO_SQUARE;
+
+		if ((direction & 1) == 0) {
+			return Long.numberOfTrailingZeros(blockers);
+		} else {
+			return 63 - Long.numberOfLeadingZeros(blockers);
+		}
+	}
+
+	/**
+	 * Gets the squares strictly in between two squares on the same row, column or diagonal
+	 * @param square1 Square 1
+	 * @param square2 Square 2
+	 * @return Returns the bitboard of the squares in between (empty if the squares are not aligned)
+	 */
+	public static long between(int square1, int square2) {
+		return BETWEEN[square1][square2];
+	}
+
+	/**
+	 * Gets the complete row, column or diagonal going through two squares
+	 * @param square1 Square 1
+	 * @param square2 Square 2
+	 * @return Returns the bitboard of the whole line through both squares (empty if the squares are not aligned)
+	 */
+	public static long line(int square1, int square2) {
+		return LINE[square1][square2];
+	}
+
+	/**
+	 * Calculates a ray from a square in a direction by stepping square by square (only used to build the tables)
+	 * @param square The square to start from
+	 * @param direction The direction
+	 * @param occupied The bitboard of occupied squares (the ray stops at the first occupied square)
+	 * @return Returns the bitboard of the ray
+	 */
+	private static long slowRay(int square, int direction, long occupied) {
+		long ray = 0L;
+		int row = square >>> 3;
+		int column = square & 7;
+		while (true) {
+			row += ROW_STEP[direction];
+			column += COLUMN_STEP[direction];
+			if (row < 0 || row > 7 || column < 0 || column > 7) break;
+			long bit = 1L << (row*8 + column);
+			ray |= bit;
+			if ((occupied & bit) != 0L) break;
+		}
+		return ray;
+	}
+
+	/**
+	 * Calculates the relevant occupancy mask of a rook (NORTH) or bishop (NORTH_EAST) - the squares whose occupancy changes the attack set
+	 * @param square The square of the piece
+	 * @param firstDirection NORTH for a rook or NORTH_EAST for a bishop
+	 * @return Returns the relevant occupancy mask (the edge squares at the end of each ray are excluded)
+	 */
+	private static long relevantOccupancy(int square, int firstDirection) {
+		long mask = 0L;
+		for (int direction = firstDirection; direction < firstDirection + 4; direction++) {
+			long ray = RAYS[direction][square];
+			//drop the last square of the ray (the edge of the board)
+			if (ray != 0L) {
+				int last = ((direction & 1) == 0)?63 - Long.numberOfLeadingZeros(ray):Long.numberOfTrailingZeros(ray);
+				ray &= ~(1L << last);
+			}
+			mask |= ray;
+		}
+		return mask;
+	}
+}
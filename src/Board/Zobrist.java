@@ -0,0 +1,128 @@
+package Board;
+
+/**
+ * Zobrist hashing of positions. Every piece on every square, every castling rights combination, every en passant column
+ * and the side to move get a random 64 bit key; the hash of a position is the xor of the keys of its features.
+ * The keys are generated from a fixed seed, so a hash stays the same between runs of the application.
+ * @author Daniele Palazzo
+ *
+ */
+public class Zobrist {
+
+	private Zobrist() {}; //prevent instantiation
+
+	private static final long[][] PIECE_SQUARE_KEYS = new long[12][64];
+	private static final long[] CASTLING_KEYS = new long[16];
+	private static final long[] EN_PASSANT_KEYS = new long[8];
+	private static final long BLACK_TO_MOVE_KEY;
+
+	static {
+		long seed = 0x2545F4914F6CDD1DL;
+		for (int piece = 0; piece < 12; piece++) {
+			for (int square = 0; square < 64; square++) {
+				seed += 0x9E3779B97F4A7C15L;
+				PIECE_SQUARE_KEYS[piece][square] = mix(seed);
+			}
+		}
+		for (int i = 0; i < 16; i++) {
+			seed += 0x9E3779B97F4A7C15L;
+			CASTLING_KEYS[i] = mix(seed);
+		}
+		for (int i = 0; i < 8; i++) {
+			seed += 0x9E3779B97F4A7C15L;
+			EN_PASSANT_KEYS[i] = mix(seed);
+		}
+		seed += 0x9E3779B97F4A7C15L;
+		BLACK_TO_MOVE_KEY = mix(seed);
+	}
+
+	/**
+	 * Scrambles the bits of a seed value (the splitmix64 finaliser)
+	 * @param z The seed value
+	 * @return Returns the scrambled value
+	 */
+	private static long mix(long z) {
+		z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+		z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+		return z ^ (z >>> 31);
+	}
+
+	/**
+	 * Gets the key of a piece standing on a square
+	 * @param piece The piece code (see Position.pieceCode)
+	 * @param square The square (0-63)
+	 * @return Returns the key
+	 */
+	public static long pieceKey(int piece, int square) {
+		return PIECE_SQUARE_KEYS[piece][square];
+	}
+
+	/**
+	 * Gets the key of a combination of castling rights
+	 * @param castlingRights The castling rights mask
+	 * @return Returns the key
+	 */
+	public static long castlingKey(int castlingRights) {
+		return CASTLING_KEYS[castlingRights];
+	}
+
+	/**
+	 * Gets the key of an en passant square
+	 * @param square The en passant square (0-63)
+	 * @return Returns the key of the square's column
+	 */
+	public static long enPassantKey(int square) {
+		return EN_PASSANT_KEYS[square & 7];
+	}
+
+	/**
+	 * Gets the key that is added when black is to move
+	 * @return Returns the key
+	 */
+	public static long blackToMoveKey() {
+		return BLACK_TO_MOVE_KEY;
+	}
+
+	/**
+	 * Determines whether the en passant square is part of the hash, which is only the case if a pawn of the side to move
+	 * stands next to the pawn that has just moved two squares (otherwise the position is the same as without the en passant square)
+	 * @param position The position
+	 * @return Returns true if the en passant square has to be hashed
+	 */
+	public static boolean isEnPassantHashed(Position position) {
+		int enPassantSquare = position.getEnPassantSquare();
+		if (enPassantSquare == Position.NO_SQUARE) return false;
+
+		int us = position.getSideToMove();
+		int pawnSquare = (us == Position.WHITE)?enPassantSquare-8:enPassantSquare+8;
+		long neighbours = 0L;
+		if ((pawnSquare & 7) != 0) neighbours |= 1L << (pawnSquare-1);
+		if ((pawnSquare & 7) != 7) neighbours |= 1L << (pawnSquare+1);
+
+		return (neighbours & position.getPieceBitboard(Position.pieceCode(us, Position.PAWN))) != 0L;
+	}
+
+	/**
+	 * Calculates the hash of a position from scratch
+	 * @param position The position
+	 * @return Returns the Zobrist hash of the position
+	 */
+	public static long hash(Position position) {
+		long hash = 0L;
+		for (int piece = 0; piece < 12; piece++) {
+			long pieces = position.getPieceBitboard(piece);
+			while (pieces != 0L) {
+				hash ^= PIECE_SQUARE_KEYS[piece][Long.numberOfTrailingZeros(pieces)];
+				pieces &= pieces - 1;
+			}
+		}
+		hash ^= CASTLING_KEYS[position.getCastlingRights()];
+		if (isEnPassantHashed(position)) {
+			hash ^= enPassantKey(position.getEnPassantSquare());
+		}
+		if (position.getSideToMove() == Position.BLACK) {
+			hash ^= BLACK_TO_MOVE_KEY;
+		}
+		return hash;
+	}
+}
@@ -0,0 +1,305 @@
+package Database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Keeps the engine analysis of positions (the depth reached and the lines with their scores) by position hash, so that a position
+ * analysed before can be shown at once when it is visited again, also in later sessions.
+ * <p>
+ * The most recently used positions are kept in memory. Every stored analysis is also appended to a file as one record (the hash,
+ * the depth and the lines), so the file is never rewritten while the application runs and a crash loses at most the record being
+ * written. When the file is opened its records are replayed (the deepest analysis of a position wins), a damaged last record is cut off,
+ * and the file is compacted if it holds many more records than positions.
+ * @author Daniele Palazzo
+ *
+ */
+public class AnalysisCache implements Closeable {
+
+	public static final int DEFAULT_CAPACITY = 20000;
+
+	static final int MAGIC = 0x44434143; //"DCAC"
+	static final int VERSION = 1;
+
+	private static final int HEADER_SIZE = 8;
+
+	//the file is compacted when it is opened if it holds more than this many records per position
+	private static final int COMPACTION_FACTOR = 4;
+
+	private Path path;
+	private Map<Long, Analysis> cache;
+	private DataOutputStream out;
+
+	/**
+	 * The analysis of one position
+	 */
+	public static class Analysis {
+
+		private int depth;
+		private String[] scores;
+		private String[] lines;
+
+		/**
+		 * Constructs an Analysis
+		 * @param depth The search depth reached
+		 * @param scores The evaluation score of every line (as shown to the user)
+		 * @param lines The moves of every line in long algebraic notation, the best line first
+		 */
+		public Analysis(int depth, String[] scores, String[] lines) {
+			this.depth = depth;
+			this.scores = scores.clone();
+			this.lines = lines.clone();
+		}
+
+		/**
+		 * Gets the search depth reached
+		 * @return Returns the depth
+		 */
+		public int getDepth() {
+			return depth;
+		}
+
+		/**
+		 * Gets the number of lines
+		 * @return Returns the number of lines
+		 */
+		public int getLineCount() {
+			return lines.length;
+		}
+
+		/**
+		 * Gets the evaluation score of a line
+		 * @param line The index of the line (0 is the best line)
+		 * @return Returns the score as shown to the user
+		 */
+		public String getScore(int line) {
+			return scores[line];
+		}
+
+		/**
+		 * Gets the moves of a line
+		 * @param line The index of the line (0 is the best line)
+		 * @return Returns the moves in long algebraic notation
+		 */
+		public String getLine(int line) {
+			return lines[line];
+		}
+	}
+
+	/**
+	 * Opens a cache, creating its file if it does not exist yet
+	 * @param path The file of the cache
+	 * @param capacity The number of positions kept in memory
+	 * @throws IOException Thrown if the file cannot be read or written or is not an analysis cache
+	 */
+	public AnalysisCache(Path path, final int capacity) throws IOException {
+		this.path = path;
+		cache = new LinkedHashMap<Long, Analysis>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Analysis> eldest) {
+				return size() > capacity;
+			}
+		};
+
+		//the depth of every position of the file, not only of those kept in memory, so that compacting the file loses none of them.
+		//Only the depths are kept while the file is opened, the analyses themselves are copied from the file when it is compacted.
+		Map<Long, Integer> depths = new HashMap<Long, Integer>();
+		int records = Files.exists(path)?load(depths):-1;
+		if (records == -1 || records > COMPACTION_FACTOR*depths.size()) {
+			rewrite(depths);
+		}
+		out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path, StandardOpenOption.APPEND)));
+	}
+
+	/**
+	 * Gets the analysis of a position
+	 * @param positionHash The hash of the position (Position.getPositionHash)
+	 * @return Returns the analysis or null if the position is not cached
+	 */
+	public synchronized Analysis get(long positionHash) {
+		return cache.get(positionHash);
+	}
+
+	/**
+	 * Stores the analysis of a position if it is deeper than the cached one (or the position is not cached yet)
+	 * @param positionHash The hash of the position (Position.getPositionHash)
+	 * @param analysis The analysis
+	 * @return Returns true if the analysis was stored
+	 */
+	public synchronized boolean put(long positionHash, Analysis analysis) {
+		Analysis cached = cache.get(positionHash);
+		if (cached != null && cached.depth >= analysis.depth) return false;
+		cache.put(positionHash, analysis);
+		try {
+			writeRecord(out, positionHash, analysis);
+			out.flush();
+		} catch (IOException e) {
+			//the analysis stays in memory, it is just not kept for the next session
+		}
+		return true;
+	}
+
+	/**
+	 * Gets the number of positions kept in memory
+	 * @return Returns the number of positions
+	 */
+	public synchronized int size() {
+		return cache.size();
+	}
+
+	/**
+	 * Closes the file of the cache
+	 * @throws IOException Thrown if the file cannot be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		out.close();
+	}
+
+	/**
+	 * Replays the records of the file into the cache and cuts off a damaged last record
+	 * @param depths The map to fill with the deepest depth of every position of the file
+	 * @return Returns the number of records read
+	 * @throws IOException Thrown if the file cannot be read or is not an analysis cache
+	 */
+	private int load(Map<Long, Integer> depths) throws IOException {
+		int records = 0;
+		long validSize = HEADER_SIZE;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+			try {
+				if (in.readInt() != MAGIC || in.readInt() != VERSION) throw new IOException(path + " is not an analysis cache");
+			} catch (EOFException e) {
+				return -1; //empty file
+			}
+			try {
+				while (true) {
+					long positionHash = in.readLong();
+					Analysis analysis = readAnalysis(in);
+					Integer deepest = depths.get(positionHash);
+					if (deepest == null || deepest < analysis.depth) {
+						depths.put(positionHash, analysis.depth);
+						cache.put(positionHash, analysis);
+					} else {
+						cache.get(positionHash); //only marks a deeper analysis as recently used (a shallower one is never kept)
+					}
+					validSize += recordSize(analysis);
+					records++;
+				}
+			} catch (EOFException e) {
+				//the end of the file, possibly in the middle of a record written when the application stopped
+			}
+			if (channel.size() > validSize) channel.truncate(validSize);
+		}
+		return records;
+	}
+
+	/**
+	 * Writes the file again with one record for every position, the deepest one (copied from the file, which is read a second time)
+	 * @param depths The deepest depth of every position of the file (emptied by the rewrite)
+	 * @throws IOException Thrown if the file cannot be read or written
+	 */
+	private void rewrite(Map<Long, Integer> depths) throws IOException {
+		Path temporary = path.resolveSibling(path.getFileName() + ".tmp");
+		try (DataOutputStream rewritten = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+			rewritten.writeInt(MAGIC);
+			rewritten.writeInt(VERSION);
+			if (!depths.isEmpty()) {
+				try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+					in.skipBytes(HEADER_SIZE);
+					while (!depths.isEmpty()) {
+						long positionHash = in.readLong();
+						Analysis analysis = readAnalysis(in);
+						Integer deepest = depths.get(positionHash);
+						if (deepest != null && deepest == analysis.depth) {
+							writeRecord(rewritten, positionHash, analysis);
+							depths.remove(positionHash); //a later record of the same depth is not written again
+						}
+					}
+				}
+			}
+		}
+		Files.move(temporary, path, StandardCopyOption.REPLACE_EXISTING);
+	}
+
+	/**
+	 * Reads the analysis of a record (the part after the hash)
+	 * @param in The stream to read from
+	 * @return Returns the analysis
+	 * @throws IOException Thrown if the record cannot be read (EOFException at the end of the file)
+	 */
+	private static Analysis readAnalysis(DataInputStream in) throws IOException {
+		int depth = in.readUnsignedShort();
+		int lineCount = in.readUnsignedByte();
+		String[] scores = new String[lineCount];
+		String[] lines = new String[lineCount];
+		for (int i = 0; i < lineCount; i++) {
+			scores[i] = in.readUTF();
+			lines[i] = in.readUTF();
+		}
+		return new Analysis(depth, scores, lines);
+	}
+
+	/**
+	 * Gets the number of bytes of a record
+	 * @param analysis The analysis of the record
+	 * @return Returns the number of bytes including the hash
+	 */
+	private static int recordSize(Analysis analysis) {
+		int size = 8 + 2 + 1;
+		for (int i = 0; i < analysis.lines.length; i++) {
+			size += 4 + utfLength(analysis.scores[i]) + utfLength(analysis.lines[i]);
+		}
+		return size;
+	}
+
+	/**
+	 * Writes the record of an analysis
+	 * @param out The stream to write to
+	 * @param positionHash The hash of the position
+	 * @param analysis The analysis
+	 * @throws IOException Thrown if the record cannot be written
+	 */
+	private static void writeRecord(DataOutputStream out, long positionHash, Analysis analysis) throws IOException {
+		//checked first, so that a record is never written in part (or with a line count that does not fit into its byte)
+		if (analysis.lines.length > 0xFF) throw new IOException("The analysis has too many lines to be stored");
+		for (int i = 0; i < analysis.lines.length; i++) {
+			if (utfLength(analysis.scores[i]) > 0xFFFF || utfLength(analysis.lines[i]) > 0xFFFF) throw new IOException("The analysis is too long to be stored");
+		}
+		out.writeLong(positionHash);
+		out.writeShort(Math.min(analysis.depth, 0xFFFF));
+		out.writeByte(analysis.lines.length);
+		for (int i = 0; i < analysis.lines.length; i++) {
+			out.writeUTF(analysis.scores[i]);
+			out.writeUTF(analysis.lines[i]);
+		}
+	}
+
+	/**
+	 * Gets the number of bytes of a string in modified UTF-8 (as written by writeUTF, which writes 2 more bytes with this length)
+	 * @param s The string
+	 * @return Returns the number of bytes (without the length)
+	 */
+	private static int utfLength(String s) {
+		int length = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			length += (c >= 0x0001 && c <= 0x007F)?1:(c <= 0x07FF)?2:3;
+		}
+		return length;
+	}
+}
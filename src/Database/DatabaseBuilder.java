@@ -0,0 +1,544 @@
+package Database;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import Board.FenCodec;
+import Board.Position;
+import Exceptions.InvalidFEN;
+import Notation.PgnGame;
+
+/**
+ * Creates a GameDatabase file from games (usually read from PGN files). The game table, the strings and the moves are written to temporary
+ * files as the games are added. The position index is built in parallel: every batch of games is replayed, hashed and sorted by a worker
+ * thread into a sorted run, and the runs are merged into the index when the database is built. Only the batches in progress are held in memory.
+ * <p>
+ * Usage: create a builder, add the games, call build() and close the builder (which removes the temporary files).
+ * @author Daniele Palazzo
+ *
+ */
+public class DatabaseBuilder implements Closeable {
+
+	/**
+	 * The default number of plies of every game whose positions are indexed (enough for opening preparation)
+	 */
+	public static final int DEFAULT_INDEX_PLIES = 40;
+
+	//the number of index entries of a batch (every batch becomes one sorted run of 16 bytes per entry)
+	private static final int RUN_ENTRIES = 1 << 22;
+
+	//the longest string that is stored (longer ones are cut), so that the strings of a game stay below 64 KB
+	private static final int MAX_STRING_LENGTH = 4096;
+
+	private Path output;
+	private int indexPlies;
+	private int threads;
+	private ExecutorService executor;
+
+	private Path temporaryDirectory;
+	private Path gamesFile;
+	private Path stringsFile;
+	private Path movesFile;
+	private DataOutputStream games;
+	private DataOutputStream strings;
+	private DataOutputStream moves;
+	private int gameCount;
+	private long stringsSize;
+	private long movesSize;
+
+	//the games of the current batch of the index, the runs still being written and the files of all runs
+	private Batch batch;
+	private ArrayDeque<Future<Path>> pendingRuns;
+	private List<Path> runs;
+
+	/**
+	 * Constructs a builder
+	 * @param output The database file to create (an existing file is replaced when the database is built)
+	 * @param indexPlies The number of plies of every game whose positions are indexed
+	 * @param threads The number of threads building the index
+	 * @throws IOException Thrown if the temporary files cannot be created
+	 */
+	public DatabaseBuilder(Path output, int indexPlies, int threads) throws IOException {
+		this.output = output;
+		this.indexPlies = indexPlies;
+		this.threads = threads;
+		executor = Executors.newFixedThreadPool(threads);
+
+		Path directory = output.toAbsolutePath().getParent();
+		temporaryDirectory = Files.createTempDirectory(directory, "import");
+		gamesFile = temporaryDirectory.resolve("games");
+		stringsFile = temporaryDirectory.resolve("strings");
+		movesFile = temporaryDirectory.resolve("moves");
+		games = openOutput(gamesFile);
+		strings = openOutput(stringsFile);
+		moves = openOutput(movesFile);
+
+		batch = new Batch(0);
+		pendingRuns = new ArrayDeque<Future<Path>>();
+		runs = new ArrayList<Path>();
+	}
+
+	/**
+	 * Adds a game to the database
+	 * @param game The game (its moves have to be legal, as the games of the PgnReader are)
+	 * @throws IOException Thrown if the temporary files cannot be written
+	 */
+	public void addGame(PgnGame game) throws IOException {
+		String fen = game.getStartingFEN();
+		int moveCount = game.getMoveCount();
+
+		//strings
+		long stringsStart = stringsSize;
+		writeString(game.getTag("White"));
+		writeString(game.getTag("Black"));
+		writeString(game.getTag("Event"));
+		writeString(game.getTag("Site"));
+		writeString(game.getTag("Round"));
+		if (fen != null) writeString(fen);
+
+		//game record
+		games.writeLong(movesSize);
+		games.writeLong(stringsStart);
+		games.writeInt(moveCount);
+		games.writeShort(parseElo(game.getTag("WhiteElo")));
+		games.writeShort(parseElo(game.getTag("BlackElo")));
+		games.writeInt(parseDate(game.getTag("Date")));
+		games.writeByte(GameDatabase.resultOf(game.getResult()));
+		games.writeByte((fen == null)?0:GameDatabase.HAS_STARTING_FEN);
+		games.writeShort((int) (stringsSize - stringsStart));
+
+		//moves
+		for (int i = 0; i < moveCount; i++) {
+			moves.writeShort(game.getMove(i));
+		}
+		movesSize += 2L*moveCount;
+
+		batch.add(game, indexPlies);
+		gameCount++;
+		if (batch.entries >= RUN_ENTRIES) submitBatch();
+	}
+
+	/**
+	 * Gets the number of games added so far
+	 * @return Returns the number of games
+	 */
+	public int getGameCount() {
+		return gameCount;
+	}
+
+	/**
+	 * Waits for the index to be built and writes the database file
+	 * @throws IOException Thrown if a file cannot be read or written
+	 */
+	public void build() throws IOException {
+		if (batch.gameCount > 0) submitBatch();
+		while (!pendingRuns.isEmpty()) {
+			await(pendingRuns.poll());
+		}
+		games.close();
+		strings.close();
+		moves.close();
+
+		long gameTableOffset = GameDatabase.HEADER_SIZE;
+		long stringsOffset = gameTableOffset + (long) gameCount*GameDatabase.GAME_RECORD_SIZE;
+		long movesOffset = stringsOffset + stringsSize;
+		long indexOffset = movesOffset + movesSize;
+
+		try (FileChannel out = FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+			out.position(gameTableOffset);
+			append(out, gamesFile);
+			append(out, stringsFile);
+			append(out, movesFile);
+
+			OutputStream stream = Channels.newOutputStream(out);
+			DataOutputStream index = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+			long indexSize = mergeRuns(index);
+			index.flush();
+
+			ByteBuffer header = ByteBuffer.allocate(GameDatabase.HEADER_SIZE);
+			header.putInt(GameDatabase.MAGIC).putInt(GameDatabase.VERSION).putInt(gameCount).putInt(indexPlies);
+			header.putLong(gameTableOffset).putLong(stringsOffset).putLong(movesOffset).putLong(indexOffset).putLong(indexSize);
+			header.clear();
+			//the header starts at the beginning of the file, so the position in the buffer is the position in the file
+			while (header.hasRemaining()) {
+				out.write(header, header.position());
+			}
+		}
+	}
+
+	/**
+	 * Stops the index threads and removes the temporary files
+	 * @throws IOException Thrown if a temporary file cannot be removed
+	 */
+	@Override
+	public void close() throws IOException {
+		executor.shutdownNow();
+		games.close();
+		strings.close();
+		moves.close();
+		try {
+			//a run that is being written cannot be removed yet
+			executor.awaitTermination(1, TimeUnit.MINUTES);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (Path run : runs) {
+			Files.deleteIfExists(run);
+		}
+		Files.deleteIfExists(gamesFile);
+		Files.deleteIfExists(stringsFile);
+		Files.deleteIfExists(movesFile);
+		Files.deleteIfExists(temporaryDirectory);
+	}
+
+	/**
+	 * Hands the current batch to a worker thread, waiting for the oldest batch first if every thread is busy
+	 * @throws IOException Thrown if an earlier run could not be written
+	 */
+	private void submitBatch() throws IOException {
+		if (pendingRuns.size() >= threads) {
+			await(pendingRuns.poll());
+		}
+		final Batch submitted = batch;
+		final Path run = temporaryDirectory.resolve("run" + runs.size());
+		runs.add(run);
+		pendingRuns.add(executor.submit(new Callable<Path>() {
+			@Override
+			public Path call() throws IOException {
+				submitted.writeRun(run);
+				return run;
+			}
+		}));
+		batch = new Batch(gameCount);
+	}
+
+	/**
+	 * Merges the sorted runs into the index
+	 * @param index The output of the index
+	 * @return Returns the number of index entries
+	 * @throws IOException Thrown if a run cannot be read or the index cannot be written
+	 */
+	private long mergeRuns(DataOutputStream index) throws IOException {
+		PriorityQueue<RunReader> queue = new PriorityQueue<RunReader>(Math.max(1, runs.size()), new Comparator<RunReader>() {
+			@Override
+			public int compare(RunReader run1, RunReader run2) {
+				int comparison = Long.compare(run1.hash, run2.hash);
+				return (comparison != 0)?comparison:Long.compare(run1.gameAndPly, run2.gameAndPly);
+			}
+		});
+		long count = 0;
+		try {
+			for (Path run : runs) {
+				RunReader reader = new RunReader(run);
+				if (reader.next()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+			while (!queue.isEmpty()) {
+				RunReader reader = queue.poll();
+				index.writeLong(reader.hash);
+				index.writeLong(reader.gameAndPly);
+				count++;
+				if (reader.next()) {
+					queue.add(reader);
+				} else {
+					reader.close();
+				}
+			}
+		} finally {
+			for (RunReader reader : queue) {
+				reader.close();
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Writes a string as an unsigned short length followed by the UTF-8 bytes
+	 * @param value The string (null is written as "?")
+	 * @throws IOException Thrown if the strings cannot be written
+	 */
+	private void writeString(String value) throws IOException {
+		byte[] bytes = ((value == null)?"?":value).getBytes(StandardCharsets.UTF_8);
+		int length = Math.min(bytes.length, MAX_STRING_LENGTH);
+		strings.writeShort(length);
+		strings.write(bytes, 0, length);
+		stringsSize += 2 + length;
+	}
+
+	/**
+	 * Converts the value of an Elo tag
+	 * @param elo The value of the tag or null
+	 * @return Returns the rating or 0 if it is not a number
+	 */
+	private static int parseElo(String elo) {
+		if (elo == null || elo.isEmpty() || elo.length() > 4) return 0;
+		int rating = 0;
+		for (int i = 0; i < elo.length(); i++) {
+			char c = elo.charAt(i);
+			if (c < '0' || c > '9') return 0;
+			rating = rating*10 + (c - '0');
+		}
+		return rating;
+	}
+
+	/**
+	 * Converts the value of a Date tag
+	 * @param date The value of the tag (yyyy.mm.dd with question marks for unknown parts) or null
+	 * @return Returns the date as yyyymmdd (unknown parts are 0)
+	 */
+	private static int parseDate(String date) {
+		if (date == null) return 0;
+		int[] parts = new int[3];
+		int part = 0;
+		for (int i = 0; i < date.length() && part < 3; i++) {
+			char c = date.charAt(i);
+			if (c == '.') {
+				part++;
+			} else if (c >= '0' && c <= '9') {
+				parts[part] = parts[part]*10 + (c - '0');
+			}
+		}
+		if (parts[0] > 9999 || parts[1] > 12 || parts[2] > 31) return 0;
+		return parts[0]*10000 + parts[1]*100 + parts[2];
+	}
+
+	private static DataOutputStream openOutput(Path path) throws IOException {
+		return new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(path), 1 << 16));
+	}
+
+	/**
+	 * Appends a file to the database file
+	 * @param out The database file
+	 * @param path The file to append
+	 * @throws IOException Thrown if a file cannot be read or written
+	 */
+	private static void append(FileChannel out, Path path) throws IOException {
+		try (FileChannel in = FileChannel.open(path, StandardOpenOption.READ)) {
+			long size = in.size();
+			long position = 0;
+			while (position < size) {
+				position += in.transferTo(position, size - position, out);
+			}
+		}
+	}
+
+	/**
+	 * Waits for a run to be written
+	 * @param future The future of the run
+	 * @return Returns the file of the run
+	 * @throws IOException Thrown if the run could not be written
+	 */
+	private static Path await(Future<Path> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while building the index", e);
+		} catch (ExecutionException e) {
+			throw new IOException("The index could not be built: " + e.getCause(), e.getCause());
+		}
+	}
+
+	/**
+	 * The games of one run of the index: their starting positions and the indexed moves
+	 */
+	private static class Batch {
+		private int firstGame;
+		private int gameCount;
+		private String[] startingFENs;
+		private int[] moveCounts;
+		private int[] moves;
+		private int moveCount;
+		private int entries;
+
+		/**
+		 * Constructs an empty batch
+		 * @param firstGame The number of the first game of the batch
+		 */
+		public Batch(int firstGame) {
+			this.firstGame = firstGame;
+			startingFENs = new String[1024];
+			moveCounts = new int[1024];
+			moves = new int[1 << 16];
+		}
+
+		/**
+		 * Adds the indexed moves of a game
+		 * @param game The game
+		 * @param indexPlies The number of plies that are indexed
+		 */
+		public void add(PgnGame game, int indexPlies) {
+			int plies = Math.min(game.getMoveCount(), indexPlies);
+			if (gameCount == startingFENs.length) {
+				startingFENs = Arrays.copyOf(startingFENs, gameCount * 2);
+				moveCounts = Arrays.copyOf(moveCounts, gameCount * 2);
+			}
+			if (moveCount + plies > moves.length) {
+				moves = Arrays.copyOf(moves, Math.max(moves.length * 2, moveCount + plies));
+			}
+			startingFENs[gameCount] = game.getStartingFEN();
+			moveCounts[gameCount] = plies;
+			for (int i = 0; i < plies; i++) {
+				moves[moveCount++] = game.getMove(i);
+			}
+			gameCount++;
+			entries += plies + 1;
+		}
+
+		/**
+		 * Replays the games, sorts the hashes of their positions and writes them to a run file
+		 * @param run The file to write
+		 * @throws IOException Thrown if the file cannot be written
+		 */
+		public void writeRun(Path run) throws IOException {
+			long[] hashes = new long[entries];
+			long[] gamesAndPlies = new long[entries];
+			Position position = new Position();
+			int entry = 0;
+			int move = 0;
+			for (int game = 0; game < gameCount; game++) {
+				try {
+					FenCodec.parse((startingFENs[game] == null)?Position.STARTING_FEN:startingFENs[game], position);
+				} catch (InvalidFEN e) {
+					// WILL NEVER HAPPEN (the starting positions have been parsed when the games were read)
+				}
+				long gameNumber = (long) (firstGame + game) << 32;
+				hashes[entry] = position.getPositionHash();
+				gamesAndPlies[entry++] = gameNumber;
+				for (int ply = 1; ply <= moveCounts[game]; ply++) {
+					position.makeMove(moves[move++]);
+					hashes[entry] = position.getPositionHash();
+					gamesAndPlies[entry++] = gameNumber | ply;
+				}
+			}
+
+			sort(hashes, gamesAndPlies, 0, entries - 1);
+
+			try (DataOutputStream out = openOutput(run)) {
+				for (int i = 0; i < entries; i++) {
+					out.writeLong(hashes[i]);
+					out.writeLong(gamesAndPlies[i]);
+				}
+			}
+		}
+
+		/**
+		 * Sorts the entries by hash, game and ply (a quicksort on the two arrays, finished with an insertion sort on short ranges)
+		 * @param hashes The hashes
+		 * @param gamesAndPlies The games (high 32 bits) and plies (low 32 bits) of the hashes
+		 * @param low The index of the first entry to sort
+		 * @param high The index of the last entry to sort
+		 */
+		private static void sort(long[] hashes, long[] gamesAndPlies, int low, int high) {
+			while (high - low > 16) {
+				int middle = (low + high) >>> 1;
+				long pivotHash = hashes[middle];
+				long pivotGameAndPly = gamesAndPlies[middle];
+				int i = low;
+				int j = high;
+				while (i <= j) {
+					while (compare(hashes[i], gamesAndPlies[i], pivotHash, pivotGameAndPly) < 0) i++;
+					while (compare(hashes[j], gamesAndPlies[j], pivotHash, pivotGameAndPly) > 0) j--;
+					if (i <= j) {
+						swap(hashes, gamesAndPlies, i++, j--);
+					}
+				}
+				//recurse into the smaller part, loop on the larger one
+				if (j - low < high - i) {
+					sort(hashes, gamesAndPlies, low, j);
+					low = i;
+				} else {
+					sort(hashes, gamesAndPlies, i, high);
+					high = j;
+				}
+			}
+			for (int i = low + 1; i <= high; i++) {
+				for (int j = i; j > low && compare(hashes[j - 1], gamesAndPlies[j - 1], hashes[j], gamesAndPlies[j]) > 0; j--) {
+					swap(hashes, gamesAndPlies, j - 1, j);
+				}
+			}
+		}
+
+		private static int compare(long hash1, long gameAndPly1, long hash2, long gameAndPly2) {
+			int comparison = Long.compare(hash1, hash2);
+			return (comparison != 0)?comparison:Long.compare(gameAndPly1, gameAndPly2);
+		}
+
+		private static void swap(long[] hashes, long[] gamesAndPlies, int i, int j) {
+			long hash = hashes[i];
+			hashes[i] = hashes[j];
+			hashes[j] = hash;
+			long gameAndPly = gamesAndPlies[i];
+			gamesAndPlies[i] = gamesAndPlies[j];
+			gamesAndPlies[j] = gameAndPly;
+		}
+	}
+
+	/**
+	 * Reads the entries of a run one at a time during the merge
+	 */
+	private static class RunReader implements Closeable {
+		private DataInputStream in;
+		private long hash;
+		private long gameAndPly;
+
+		/**
+		 * Opens a run
+		 * @param run The file of the run
+		 * @throws IOException Thrown if the file cannot be opened
+		 */
+		public RunReader(Path run) throws IOException {
+			InputStream stream = Files.newInputStream(run);
+			in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+		}
+
+		/**
+		 * Reads the next entry
+		 * @return Returns false if the run has no more entries
+		 * @throws IOException Thrown if the file cannot be read
+		 */
+		public boolean next() throws IOException {
+			try {
+				hash = in.readLong();
+				gameAndPly = in.readLong();
+				return true;
+			} catch (EOFException e) {
+				return false;
+			}
+		}
+
+		@Override
+		public void close() throws IOException {
+			in.close();
+		}
+	}
+}
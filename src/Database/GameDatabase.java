@@ -0,0 +1,362 @@
+package Database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+
+import Notation.PgnGame;
+
+/**
+ * A read-only game database stored in a single file which is memory mapped, so that it is never loaded into the heap.
+ * Databases are created from PGN files by the DatabaseBuilder.
+ * <p>
+ * The file consists of five sections (all numbers are big endian):
+ * <ul>
+ * <li>the header (HEADER_SIZE bytes): magic number, version, number of games, number of indexed plies and the offsets of the other sections</li>
+ * <li>the game table: one record of GAME_RECORD_SIZE bytes per game (offset and length of its moves and strings, Elo ratings, date, result)</li>
+ * <li>the strings: for every game White, Black, Event, Site, Round and (if the game has a FEN tag) the starting position,
+ * each as an unsigned short length followed by the UTF-8 bytes</li>
+ * <li>the moves: every move packed into 2 bytes (see PackedMove)</li>
+ * <li>the position index: one entry of INDEX_ENTRY_SIZE bytes (position hash, game, ply) per position of the first plies of every game,
+ * sorted by hash, game and ply, so that the games reaching a position are found by a binary search</li>
+ * </ul>
+ * The position hashes are the Zobrist hashes of Position.getPositionHash.
+ * @author Daniele Palazzo
+ *
+ */
+public class GameDatabase implements Closeable {
+
+	public static final String FILE_EXTENSION = "cdb";
+
+	public static final int RESULT_UNKNOWN = 0;
+	public static final int WHITE_WINS = 1;
+	public static final int BLACK_WINS = 2;
+	public static final int DRAW = 3;
+
+	static final int MAGIC = 0x44434442; //"DCDB"
+	static final int VERSION = 1;
+	static final int HEADER_SIZE = 64;
+	static final int GAME_RECORD_SIZE = 32;
+	static final int INDEX_ENTRY_SIZE = 16;
+
+	static final int HAS_STARTING_FEN = 1;
+
+	static final int WHITE_STRING = 0;
+	static final int BLACK_STRING = 1;
+	static final int EVENT_STRING = 2;
+	static final int SITE_STRING = 3;
+	static final int ROUND_STRING = 4;
+	static final int FEN_STRING = 5;
+
+	private MappedFile file;
+
+	private int gameCount;
+	private int indexPlies;
+	private long gameTableOffset;
+	private long stringsOffset;
+	private long movesOffset;
+	private long indexOffset;
+	private long indexSize;
+
+	/**
+	 * Opens a database
+	 * @param path The database file
+	 * @throws IOException Thrown if the file cannot be read or is not a game database
+	 */
+	public GameDatabase(Path path) throws IOException {
+		file = new MappedFile(path);
+		if (file.size() < HEADER_SIZE || file.getInt(0) != MAGIC) {
+			file.close();
+			throw new IOException(path + " is not a game database");
+		}
+		if (file.getInt(4) != VERSION) {
+			file.close();
+			throw new IOException(path + " has the unsupported database version " + file.getInt(4));
+		}
+		gameCount = file.getInt(8);
+		indexPlies = file.getInt(12);
+		gameTableOffset = file.getLong(16);
+		stringsOffset = file.getLong(24);
+		movesOffset = file.getLong(32);
+		indexOffset = file.getLong(40);
+		indexSize = file.getLong(48);
+	}
+
+	/**
+	 * Gets the number of games
+	 * @return Returns the number of games in the database
+	 */
+	public int getGameCount() {
+		return gameCount;
+	}
+
+	/**
+	 * Gets the number of plies of every game whose positions are indexed
+	 * @return Returns the number of plies (the positions after 0 to getIndexPlies() moves are in the index)
+	 */
+	public int getIndexPlies() {
+		return indexPlies;
+	}
+
+	/**
+	 * Gets the number of moves of a game
+	 * @param game The number of the game (0 to getGameCount()-1)
+	 * @return Returns the number of moves (plies)
+	 */
+	public int getMoveCount(int game) {
+		return file.getInt(record(game) + 16);
+	}
+
+	/**
+	 * Gets a move of a game
+	 * @param game The number of the game
+	 * @param ply The index of the move (0 to getMoveCount(game)-1)
+	 * @return Returns the packed move
+	 */
+	public int getMove(int game, int ply) {
+		return file.getShort(movesOffset + file.getLong(record(game)) + 2L*ply) & 0xFFFF;
+	}
+
+	/**
+	 * Gets the Elo rating of the white player
+	 * @param game The number of the game
+	 * @return Returns the rating or 0 if it is not known
+	 */
+	public int getWhiteElo(int game) {
+		return file.getShort(record(game) + 20) & 0xFFFF;
+	}
+
+	/**
+	 * Gets the Elo rating of the black player
+	 * @param game The number of the game
+	 * @return Returns the rating or 0 if it is not known
+	 */
+	public int getBlackElo(int game) {
+		return file.getShort(record(game) + 22) & 0xFFFF;
+	}
+
+	/**
+	 * Gets the date of a game
+	 * @param game The number of the game
+	 * @return Returns the date as yyyymmdd (unknown parts are 0)
+	 */
+	public int getDate(int game) {
+		return file.getInt(record(game) + 24);
+	}
+
+	/**
+	 * Gets the result of a game
+	 * @param game The number of the game
+	 * @return Returns RESULT_UNKNOWN, WHITE_WINS, BLACK_WINS or DRAW
+	 */
+	public int getResult(int game) {
+		return file.get(record(game) + 28);
+	}
+
+	/**
+	 * Gets the name of the white player
+	 * @param game The number of the game
+	 * @return Returns the name (the value of the White tag)
+	 */
+	public String getWhite(int game) {
+		return getString(game, WHITE_STRING);
+	}
+
+	/**
+	 * Gets the name of the black player
+	 * @param game The number of the game
+	 * @return Returns the name (the value of the Black tag)
+	 */
+	public String getBlack(int game) {
+		return getString(game, BLACK_STRING);
+	}
+
+	/**
+	 * Gets the name of the event
+	 * @param game The number of the game
+	 * @return Returns the name (the value of the Event tag)
+	 */
+	public String getEvent(int game) {
+		return getString(game, EVENT_STRING);
+	}
+
+	/**
+	 * Gets the starting position of a game
+	 * @param game The number of the game
+	 * @return Returns the FEN string or null if the game starts from the standard starting position
+	 */
+	public String getStartingFEN(int game) {
+		if ((file.get(record(game) + 29) & HAS_STARTING_FEN) == 0) return null;
+		return getString(game, FEN_STRING);
+	}
+
+	/**
+	 * Reads a complete game (e.g. to load it onto the board or to export it)
+	 * @param game The number of the game
+	 * @return Returns the game
+	 */
+	public PgnGame getGame(int game) {
+		PgnGame pgnGame = new PgnGame();
+		pgnGame.setTag("Event", getString(game, EVENT_STRING));
+		pgnGame.setTag("Site", getString(game, SITE_STRING));
+		pgnGame.setTag("Date", formatDate(getDate(game)));
+		pgnGame.setTag("Round", getString(game, ROUND_STRING));
+		pgnGame.setTag("White", getWhite(game));
+		pgnGame.setTag("Black", getBlack(game));
+		if (getWhiteElo(game) != 0) pgnGame.setTag("WhiteElo", Integer.toString(getWhiteElo(game)));
+		if (getBlackElo(game) != 0) pgnGame.setTag("BlackElo", Integer.toString(getBlackElo(game)));
+		pgnGame.setStartingFEN(getStartingFEN(game));
+		int moveCount = getMoveCount(game);
+		for (int ply = 0; ply < moveCount; ply++) {
+			pgnGame.addMove(getMove(game, ply));
+		}
+		pgnGame.setResult(resultToString(getResult(game)));
+		return pgnGame;
+	}
+
+	/**
+	 * Gets the number of entries in the position index
+	 * @return Returns the number of indexed positions
+	 */
+	public long getIndexSize() {
+		return indexSize;
+	}
+
+	/**
+	 * Finds the first index entry of a position
+	 * @param positionHash The hash of the position (Position.getPositionHash)
+	 * @return Returns the index of the first entry with the hash or -1 if no game reaches the position within the indexed plies
+	 */
+	public long findFirstEntry(long positionHash) {
+		long low = 0;
+		long high = indexSize;
+		while (low < high) {
+			long middle = (low + high) >>> 1;
+			if (getEntryHash(middle) < positionHash) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return (low < indexSize && getEntryHash(low) == positionHash)?low:-1;
+	}
+
+	/**
+	 * Finds the games reaching a position (each game is reported once, in the order of the database)
+	 * @param positionHash The hash of the position (Position.getPositionHash)
+	 * @param games The array to store the numbers of the games in
+	 * @return Returns the number of games found (at most games.length)
+	 */
+	public int findGames(long positionHash, int[] games) {
+		int count = 0;
+		long entry = findFirstEntry(positionHash);
+		if (entry == -1) return 0;
+		while (count < games.length && entry < indexSize && getEntryHash(entry) == positionHash) {
+			int game = getEntryGame(entry);
+			if (count == 0 || games[count - 1] != game) games[count++] = game;
+			entry++;
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the position hash of an index entry
+	 * @param entry The index of the entry (0 to getIndexSize()-1)
+	 * @return Returns the position hash
+	 */
+	public long getEntryHash(long entry) {
+		return file.getLong(indexOffset + entry*INDEX_ENTRY_SIZE);
+	}
+
+	/**
+	 * Gets the game of an index entry
+	 * @param entry The index of the entry (0 to getIndexSize()-1)
+	 * @return Returns the number of the game
+	 */
+	public int getEntryGame(long entry) {
+		return file.getInt(indexOffset + entry*INDEX_ENTRY_SIZE + 8);
+	}
+
+	/**
+	 * Gets the ply of an index entry
+	 * @param entry The index of the entry
+	 * @return Returns the number of moves played in the game before the position was reached (the next move is getMove(game, ply))
+	 */
+	public int getEntryPly(long entry) {
+		return file.getInt(indexOffset + entry*INDEX_ENTRY_SIZE + 12);
+	}
+
+	/**
+	 * Closes the database
+	 * @throws IOException Thrown if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	/**
+	 * Converts a result to its PGN notation
+	 * @param result RESULT_UNKNOWN, WHITE_WINS, BLACK_WINS or DRAW
+	 * @return Returns "1-0", "0-1", "1/2-1/2" or "*"
+	 */
+	public static String resultToString(int result) {
+		switch (result) {
+		case WHITE_WINS:
+			return "1-0";
+		case BLACK_WINS:
+			return "0-1";
+		case DRAW:
+			return "1/2-1/2";
+		default:
+			return "*";
+		}
+	}
+
+	/**
+	 * Converts a result from its PGN notation
+	 * @param result "1-0", "0-1", "1/2-1/2" or anything else for an unknown result
+	 * @return Returns RESULT_UNKNOWN, WHITE_WINS, BLACK_WINS or DRAW
+	 */
+	static int resultOf(String result) {
+		if (result.equals("1-0")) return WHITE_WINS;
+		if (result.equals("0-1")) return BLACK_WINS;
+		if (result.equals("1/2-1/2")) return DRAW;
+		return RESULT_UNKNOWN;
+	}
+
+	/**
+	 * Converts a date to its PGN notation
+	 * @param date The date as yyyymmdd (unknown parts are 0)
+	 * @return Returns the date as yyyy.mm.dd (unknown parts are question marks)
+	 */
+	public static String formatDate(int date) {
+		int year = date / 10000;
+		int month = (date / 100) % 100;
+		int day = date % 100;
+		return ((year == 0)?"????":String.format("%04d", year)) + "." + ((month == 0)?"??":String.format("%02d", month))
+				+ "." + ((day == 0)?"??":String.format("%02d", day));
+	}
+
+	/**
+	 * Reads one of the strings of a game
+	 * @param game The number of the game
+	 * @param index The index of the string (WHITE_STRING to FEN_STRING)
+	 * @return Returns the string
+	 */
+	private String getString(int game, int index) {
+		long position = stringsOffset + file.getLong(record(game) + 8);
+		for (int i = 0; i < index; i++) {
+			position += 2 + (file.getShort(position) & 0xFFFF);
+		}
+		int length = file.getShort(position) & 0xFFFF;
+		byte[] bytes = new byte[length];
+		file.get(position + 2, bytes, length);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	private long record(int game) {
+		return gameTableOffset + (long) game*GAME_RECORD_SIZE;
+	}
+}
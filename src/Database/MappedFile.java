@@ -0,0 +1,92 @@
+package Database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A read-only file mapped into memory. A MappedByteBuffer cannot be larger than 2 GB, so the file is mapped in segments of 1 GB;
+ * the segments overlap by 64 KB, so that a value of up to 64 KB starting in a segment can always be read from that segment alone.
+ * @author Daniele Palazzo
+ *
+ */
+class MappedFile implements Closeable {
+
+	private static final int SEGMENT_BITS = 30;
+	private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+	private static final long SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	/**
+	 * The largest value that can be read at once
+	 */
+	static final int OVERLAP = 1 << 16;
+
+	private FileChannel channel;
+	private MappedByteBuffer[] segments;
+	private long size;
+
+	/**
+	 * Maps a file into memory
+	 * @param path The file
+	 * @throws IOException Thrown if the file cannot be opened or mapped
+	 */
+	MappedFile(Path path) throws IOException {
+		channel = FileChannel.open(path, StandardOpenOption.READ);
+		size = channel.size();
+		segments = new MappedByteBuffer[(int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS)];
+		for (int i = 0; i < segments.length; i++) {
+			long start = (long) i << SEGMENT_BITS;
+			segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(size - start, SEGMENT_SIZE + OVERLAP));
+		}
+	}
+
+	/**
+	 * Gets the size of the file
+	 * @return Returns the size in bytes
+	 */
+	long size() {
+		return size;
+	}
+
+	long getLong(long position) {
+		return segments[(int) (position >>> SEGMENT_BITS)].getLong((int) (position & SEGMENT_MASK));
+	}
+
+	int getInt(long position) {
+		return segments[(int) (position >>> SEGMENT_BITS)].getInt((int) (position & SEGMENT_MASK));
+	}
+
+	short getShort(long position) {
+		return segments[(int) (position >>> SEGMENT_BITS)].getShort((int) (position & SEGMENT_MASK));
+	}
+
+	byte get(long position) {
+		return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & SEGMENT_MASK));
+	}
+
+	/**
+	 * Copies bytes out of the file
+	 * @param position The position of the first byte
+	 * @param bytes The array to copy to
+	 * @param length The number of bytes to copy (at most OVERLAP)
+	 */
+	void get(long position, byte[] bytes, int length) {
+		MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+		int offset = (int) (position & SEGMENT_MASK);
+		for (int i = 0; i < length; i++) {
+			bytes[i] = segment.get(offset + i);
+		}
+	}
+
+	/**
+	 * Closes the file (the mappings stay valid until they are garbage collected)
+	 * @throws IOException Thrown if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+}
@@ -0,0 +1,217 @@
+package Database;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import Board.Position;
+
+/**
+ * Aggregates the games of a database into opening statistics: for a position, every move played from it with the number of games,
+ * the results and the average rating of the players making the move.
+ * <p>
+ * Aggregating a position reads all of its index entries (for the starting position that is every game of the database), so the
+ * statistics are cached by position hash in a least recently used cache; navigating back and forth through a game only aggregates
+ * every position once. The explorer can be used from several threads (e.g. to aggregate the next positions in the background).
+ * @author Daniele Palazzo
+ *
+ */
+public class OpeningExplorer {
+
+	public static final int DEFAULT_CACHE_SIZE = 4096;
+
+	private static final Continuation[] NO_CONTINUATIONS = new Continuation[0];
+
+	private GameDatabase database;
+	private Map<Long, Continuation[]> cache;
+
+	/**
+	 * The statistics of one move played from a position
+	 */
+	public static class Continuation {
+
+		private int move;
+		private int games;
+		private int wins;
+		private int draws;
+		private int losses;
+		private long ratingSum;
+		private int ratedGames;
+
+		private Continuation(int move) {
+			this.move = move;
+		}
+
+		/**
+		 * Gets the move
+		 * @return Returns the packed move (see PackedMove)
+		 */
+		public int getMove() {
+			return move;
+		}
+
+		/**
+		 * Gets the number of games in which the move was played
+		 * @return Returns the number of games
+		 */
+		public int getGames() {
+			return games;
+		}
+
+		/**
+		 * Gets the number of games won by the side making the move
+		 * @return Returns the number of games
+		 */
+		public int getWins() {
+			return wins;
+		}
+
+		/**
+		 * Gets the number of drawn games
+		 * @return Returns the number of games
+		 */
+		public int getDraws() {
+			return draws;
+		}
+
+		/**
+		 * Gets the number of games lost by the side making the move
+		 * @return Returns the number of games
+		 */
+		public int getLosses() {
+			return losses;
+		}
+
+		/**
+		 * Gets the score of the side making the move (a win counts 1, a draw 1/2; games without a result are not counted)
+		 * @return Returns the score in percent or -1 if none of the games has a result
+		 */
+		public double getScore() {
+			int decided = wins + draws + losses;
+			if (decided == 0) return -1;
+			return (wins + draws/2.0) * 100 / decided;
+		}
+
+		/**
+		 * Gets the average rating of the players making the move (games without a rating are not counted)
+		 * @return Returns the average Elo rating or 0 if none of the players has a rating
+		 */
+		public int getAverageRating() {
+			if (ratedGames == 0) return 0;
+			return (int) ((ratingSum + ratedGames/2) / ratedGames);
+		}
+	}
+
+	/**
+	 * Constructs an OpeningExplorer
+	 * @param database The database the statistics are aggregated from
+	 * @param cacheSize The number of positions whose statistics are kept
+	 */
+	public OpeningExplorer(GameDatabase database, final int cacheSize) {
+		this.database = database;
+		cache = new LinkedHashMap<Long, Continuation[]>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Long, Continuation[]> eldest) {
+				return size() > cacheSize;
+			}
+		};
+	}
+
+	/**
+	 * Gets the database the statistics are aggregated from
+	 * @return Returns the database
+	 */
+	public GameDatabase getDatabase() {
+		return database;
+	}
+
+	/**
+	 * Gets the moves played from a position, aggregating the games of the position if it is not cached yet
+	 * @param position The position
+	 * @return Returns the moves, the most played first (empty if no game reaches the position within the indexed plies)
+	 */
+	public Continuation[] getContinuations(Position position) {
+		long hash = position.getPositionHash();
+		Continuation[] continuations = getCachedContinuations(hash);
+		if (continuations == null) {
+			continuations = aggregate(hash, position.getSideToMove());
+			synchronized (cache) {
+				cache.put(hash, continuations);
+			}
+		}
+		return continuations;
+	}
+
+	/**
+	 * Gets the moves played from a position if they are cached (this never reads the database, so it is cheap enough for the event dispatch thread)
+	 * @param positionHash The hash of the position (Position.getPositionHash)
+	 * @return Returns the moves, the most played first, or null if the position is not cached
+	 */
+	public Continuation[] getCachedContinuations(long positionHash) {
+		synchronized (cache) {
+			return cache.get(positionHash);
+		}
+	}
+
+	/**
+	 * Aggregates the games reaching a position. Every game is counted once, even if it reaches the position more than once.
+	 * @param hash The hash of the position
+	 * @param sideToMove The side to move in the position (the rating of its player is averaged)
+	 * @return Returns the moves, the most played first
+	 */
+	private Continuation[] aggregate(long hash, int sideToMove) {
+		long entry = database.findFirstEntry(hash);
+		if (entry == -1) return NO_CONTINUATIONS;
+
+		//a position rarely has more than a few dozen continuations, so a linear search is fine
+		Continuation[] continuations = new Continuation[16];
+		int count = 0;
+		int lastGame = -1;
+		long indexSize = database.getIndexSize();
+		for (; entry < indexSize && database.getEntryHash(entry) == hash; entry++) {
+			int game = database.getEntryGame(entry);
+			int ply = database.getEntryPly(entry);
+			if (game == lastGame || ply >= database.getMoveCount(game)) continue;
+			lastGame = game;
+
+			int move = database.getMove(game, ply);
+			Continuation continuation = null;
+			for (int i = 0; i < count; i++) {
+				if (continuations[i].move == move) {
+					continuation = continuations[i];
+					break;
+				}
+			}
+			if (continuation == null) {
+				if (count == continuations.length) continuations = Arrays.copyOf(continuations, count*2);
+				continuation = continuations[count++] = new Continuation(move);
+			}
+
+			continuation.games++;
+			int result = database.getResult(game);
+			if (result == GameDatabase.DRAW) {
+				continuation.draws++;
+			} else if (result == GameDatabase.WHITE_WINS) {
+				if (sideToMove == Position.WHITE) continuation.wins++; else continuation.losses++;
+			} else if (result == GameDatabase.BLACK_WINS) {
+				if (sideToMove == Position.BLACK) continuation.wins++; else continuation.losses++;
+			}
+			int rating = (sideToMove == Position.WHITE)?database.getWhiteElo(game):database.getBlackElo(game);
+			if (rating != 0) {
+				continuation.ratingSum += rating;
+				continuation.ratedGames++;
+			}
+		}
+
+		continuations = Arrays.copyOf(continuations, count);
+		Arrays.sort(continuations, new Comparator<Continuation>() {
+			@Override
+			public int compare(Continuation c1, Continuation c2) {
+				if (c1.games != c2.games) return Integer.compare(c2.games, c1.games);
+				return Integer.compare(c1.move, c2.move);
+			}
+		});
+		return continuations;
+	}
+}
@@ -0,0 +1,668 @@
+package Database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import Board.Position;
+
+/**
+ * One Syzygy tablebase file (WDL or DTZ) of a material combination, memory mapped. The file is parsed when it is opened
+ * (piece orders, group sizes and the compression parameters of every sub-table), the values are decompressed on demand.
+ * <p>
+ * A file holds up to 2 sides (the side to move) times 4 files of the leading pawn of sub-tables. The value of a position is found by
+ * mapping the position to an index (mirroring it so that the leading piece is in the a1-d1-d4 triangle or the leading pawn on the
+ * files a to d, then combining the squares of every group of like pieces) and decompressing the value with that index: the values
+ * are compressed with recursive pairing into symbols that are stored in blocks with a canonical Huffman code, and a sparse index
+ * finds the block of an index.
+ * @author Daniele Palazzo
+ *
+ */
+class SyzygyTable implements Closeable {
+
+	static final int WDL_MAGIC = 0x71E8235D;
+	static final int DTZ_MAGIC = 0xD7660CA5;
+
+	/**
+	 * Returned by probe if a DTZ table only stores the other side to move
+	 */
+	static final int CHANGE_STM = Integer.MIN_VALUE;
+
+	private static final int MAX_PIECES = 7;
+
+	//flags of a sub-table
+	private static final int FLAG_STM = 1;
+	private static final int FLAG_MAPPED = 2;
+	private static final int FLAG_WIN_PLIES = 4;
+	private static final int FLAG_LOSS_PLIES = 8;
+	private static final int FLAG_WIDE = 16;
+	private static final int FLAG_SINGLE_VALUE = 128;
+
+	//the index of the DTZ value map of every WDL value (loss, blessed loss, draw, cursed win, win)
+	private static final int[] WDL_MAP = {1, 3, 0, 2, 0};
+
+	//encodings of squares and square combinations shared by all tables
+	private static final int[] MAP_B1H1H7 = new int[64];
+	private static final int[] MAP_A1D1D4 = new int[64];
+	private static final int[][] MAP_KK = new int[10][64];
+	private static final long[][] BINOMIAL = new long[6][64];
+	private static final int[] MAP_PAWNS = new int[64];
+	private static final long[][] LEAD_PAWN_IDX = new long[6][64];
+	private static final long[][] LEAD_PAWNS_SIZE = new long[6][4];
+
+	static {
+		//b1-h1-h7: the squares below the a1-h8 diagonal
+		int code = 0;
+		for (int square = 0; square < 64; square++) {
+			if (offDiagonal(square) < 0) MAP_B1H1H7[square] = code++;
+		}
+
+		//a1-d1-d4: the triangle below the diagonal first, the diagonal squares last
+		code = 0;
+		int[] diagonal = new int[4];
+		int diagonalCount = 0;
+		for (int square = 0; square <= 27; square++) {
+			if (offDiagonal(square) < 0 && fileOf(square) <= 3) {
+				MAP_A1D1D4[square] = code++;
+			} else if (offDiagonal(square) == 0 && fileOf(square) <= 3) {
+				diagonal[diagonalCount++] = square;
+			}
+		}
+		for (int i = 0; i < diagonalCount; i++) {
+			MAP_A1D1D4[diagonal[i]] = code++;
+		}
+
+		//the 462 placements of two kings with the first king in the a1-d1-d4 triangle (if it is on the diagonal, the second one is not above it)
+		int[] bothOnDiagonal = new int[64];
+		int bothOnDiagonalCount = 0;
+		code = 0;
+		for (int index = 0; index < 10; index++) {
+			for (int square1 = 0; square1 <= 27; square1++) {
+				if (MAP_A1D1D4[square1] != index || (index == 0 && square1 != 1)) continue;
+				for (int square2 = 0; square2 < 64; square2++) {
+					if (Math.abs(fileOf(square1) - fileOf(square2)) <= 1 && Math.abs(rankOf(square1) - rankOf(square2)) <= 1) {
+						continue; //the kings would touch
+					} else if (offDiagonal(square1) == 0 && offDiagonal(square2) > 0) {
+						continue;
+					} else if (offDiagonal(square1) == 0 && offDiagonal(square2) == 0) {
+						bothOnDiagonal[bothOnDiagonalCount++] = index*64 + square2;
+					} else {
+						MAP_KK[index][square2] = code++;
+					}
+				}
+			}
+		}
+		for (int i = 0; i < bothOnDiagonalCount; i++) {
+			MAP_KK[bothOnDiagonal[i] / 64][bothOnDiagonal[i] % 64] = code++;
+		}
+
+		BINOMIAL[0][0] = 1;
+		for (int n = 1; n < 64; n++) {
+			for (int k = 0; k < 6 && k <= n; k++) {
+				BINOMIAL[k][n] = ((k > 0)?BINOMIAL[k - 1][n - 1]:0) + ((k < n)?BINOMIAL[k][n - 1]:0);
+			}
+		}
+
+		//a2-h7 numbered so that the leading pawn (nearest to the edge, then lowest rank) has the highest number
+		int availableSquares = 47;
+		for (int leadPawns = 1; leadPawns <= 5; leadPawns++) {
+			for (int file = 0; file < 4; file++) {
+				long index = 0;
+				for (int rank = 1; rank <= 6; rank++) {
+					int square = rank*8 + file;
+					if (leadPawns == 1) {
+						MAP_PAWNS[square] = availableSquares--;
+						MAP_PAWNS[square ^ 7] = availableSquares--;
+					}
+					LEAD_PAWN_IDX[leadPawns][square] = index;
+					index += BINOMIAL[leadPawns - 1][MAP_PAWNS[square]];
+				}
+				LEAD_PAWNS_SIZE[leadPawns][file] = index;
+			}
+		}
+	}
+
+	/**
+	 * The decompression parameters and the piece encoding of one sub-table
+	 */
+	private static class PairsData {
+		int flags;
+		int maxSymLen;
+		int minSymLen;
+		long numBlocks;
+		long blockSize;
+		long span;
+		long lowestSymOffset;
+		long btreeOffset;
+		long blockLengthOffset;
+		long blockLengthSize;
+		long sparseIndexOffset;
+		long sparseIndexSize;
+		long dataOffset;
+		long[] base64;
+		int[] symLen;
+		int[] pieces = new int[MAX_PIECES];
+		long[] groupIdx = new long[MAX_PIECES + 1];
+		int[] groupLen = new int[MAX_PIECES + 1];
+		int[] mapIdx = new int[4];
+	}
+
+	private MappedFile file;
+	private boolean dtz;
+
+	private int pieceCount;
+	private boolean hasPawns;
+	private boolean hasUniquePieces;
+	private boolean symmetric;
+	private int[] pawnCount;
+
+	private PairsData[][] pairs;
+	private long mapOffset;
+
+	//reused by every probe
+	private int[] squares;
+	private int[] pieces;
+
+	/**
+	 * Opens a table
+	 * @param path The file
+	 * @param material The material of the table as in its file name, e.g. KRPvKR (the first side is called white in the table)
+	 * @param dtz True for a DTZ table (.rtbz), false for a WDL table (.rtbw)
+	 * @throws IOException Thrown if the file cannot be read or is not a valid table
+	 */
+	SyzygyTable(Path path, String material, boolean dtz) throws IOException {
+		this.dtz = dtz;
+		String white = material.substring(0, material.indexOf('v'));
+		String black = material.substring(material.indexOf('v') + 1);
+		pieceCount = white.length() + black.length();
+		hasPawns = material.indexOf('P') != -1;
+		symmetric = white.equals(black);
+		for (char piece : "QRBNP".toCharArray()) {
+			if (count(white, piece) == 1 || count(black, piece) == 1) hasUniquePieces = true;
+		}
+		//the side with fewer pawns leads, as that compresses better
+		int whitePawns = count(white, 'P');
+		int blackPawns = count(black, 'P');
+		boolean whiteLeads = blackPawns == 0 || (whitePawns > 0 && blackPawns >= whitePawns);
+		pawnCount = new int[] {whiteLeads?whitePawns:blackPawns, whiteLeads?blackPawns:whitePawns};
+
+		squares = new int[MAX_PIECES];
+		pieces = new int[MAX_PIECES];
+
+		file = new MappedFile(path);
+		try {
+			if (file.size() % 64 != 16) throw new IOException(path + " is not a valid Syzygy table");
+			if (file.getInt(0) != (dtz?DTZ_MAGIC:WDL_MAGIC)) throw new IOException(path + " is not a Syzygy " + (dtz?"DTZ":"WDL") + " table");
+			if (((file.get(4) & 2) != 0) != hasPawns || pieceCount > MAX_PIECES) throw new IOException(path + " does not match its name");
+			init(5);
+		} catch (IOException | RuntimeException e) {
+			file.close();
+			if (e instanceof IOException) throw (IOException) e;
+			throw new IOException(path + " is not a valid Syzygy table");
+		}
+	}
+
+	/**
+	 * Reads the layout of the file
+	 * @param offset The offset after the magic number and the flags
+	 */
+	private void init(long offset) {
+		int sides = (!dtz && !symmetric)?2:1;
+		int files = hasPawns?4:1;
+		boolean pawnsOnBothSides = hasPawns && pawnCount[1] > 0;
+
+		pairs = new PairsData[sides][files];
+		for (int f = 0; f < files; f++) {
+			for (int i = 0; i < sides; i++) {
+				pairs[i][f] = new PairsData();
+			}
+			int order0 = u8(offset);
+			int order1 = pawnsOnBothSides?u8(offset + 1):0xFF;
+			int[][] order = {{order0 & 0xF, order1 & 0xF}, {order0 >> 4, order1 >> 4}};
+			offset += pawnsOnBothSides?2:1;
+
+			for (int k = 0; k < pieceCount; k++, offset++) {
+				for (int i = 0; i < sides; i++) {
+					pairs[i][f].pieces[k] = (i == 0)?u8(offset) & 0xF:u8(offset) >> 4;
+				}
+			}
+			for (int i = 0; i < sides; i++) {
+				setGroups(pairs[i][f], order[i], f);
+			}
+		}
+		offset += offset & 1;
+
+		for (int f = 0; f < files; f++) {
+			for (int i = 0; i < sides; i++) {
+				offset = setSizes(pairs[i][f], offset);
+			}
+		}
+
+		if (dtz) {
+			mapOffset = offset;
+			for (int f = 0; f < files; f++) {
+				PairsData d = pairs[0][f];
+				if ((d.flags & FLAG_MAPPED) == 0) continue;
+				if ((d.flags & FLAG_WIDE) != 0) {
+					offset += offset & 1;
+					for (int i = 0; i < 4; i++) {
+						d.mapIdx[i] = (int) ((offset - mapOffset)/2 + 1);
+						offset += 2*le16(offset) + 2;
+					}
+				} else {
+					for (int i = 0; i < 4; i++) {
+						d.mapIdx[i] = (int) (offset - mapOffset + 1);
+						offset += u8(offset) + 1;
+					}
+				}
+			}
+			offset += offset & 1;
+		}
+
+		for (int f = 0; f < files; f++) {
+			for (int i = 0; i < sides; i++) {
+				pairs[i][f].sparseIndexOffset = offset;
+				offset += pairs[i][f].sparseIndexSize*6;
+			}
+		}
+		for (int f = 0; f < files; f++) {
+			for (int i = 0; i < sides; i++) {
+				pairs[i][f].blockLengthOffset = offset;
+				offset += pairs[i][f].blockLengthSize*2;
+			}
+		}
+		for (int f = 0; f < files; f++) {
+			for (int i = 0; i < sides; i++) {
+				offset = (offset + 0x3F) & ~0x3FL;
+				pairs[i][f].dataOffset = offset;
+				offset += pairs[i][f].numBlocks*pairs[i][f].blockSize;
+			}
+		}
+		if (offset > file.size()) throw new IllegalStateException("The table is truncated");
+	}
+
+	/**
+	 * Splits the pieces of a sub-table into groups and computes the factor of every group in the index
+	 * (the leading group, the remaining pawns and every group of like pieces, in the order stored in the file)
+	 * @param d The sub-table
+	 * @param order The positions of the leading group and of the remaining pawns in the encoding (0xF if there are none)
+	 * @param f The file of the leading pawn (0 to 3)
+	 */
+	private void setGroups(PairsData d, int[] order, int f) {
+		int n = 0;
+		int firstLen = hasPawns?0:(hasUniquePieces?3:2);
+		d.groupLen[n] = 1;
+		for (int i = 1; i < pieceCount; i++) {
+			if (--firstLen > 0 || d.pieces[i] == d.pieces[i - 1]) {
+				d.groupLen[n]++;
+			} else {
+				d.groupLen[++n] = 1;
+			}
+		}
+		d.groupLen[++n] = 0;
+
+		boolean pawnsOnBothSides = hasPawns && pawnCount[1] > 0;
+		int next = pawnsOnBothSides?2:1;
+		int freeSquares = 64 - d.groupLen[0] - (pawnsOnBothSides?d.groupLen[1]:0);
+		long index = 1;
+		for (int k = 0; next < n || k == order[0] || k == order[1]; k++) {
+			if (k == order[0]) {
+				d.groupIdx[0] = index;
+				index *= hasPawns?LEAD_PAWNS_SIZE[d.groupLen[0]][f]:(hasUniquePieces?31332:462);
+			} else if (k == order[1]) {
+				d.groupIdx[1] = index;
+				index *= BINOMIAL[d.groupLen[1]][48 - d.groupLen[0]];
+			} else {
+				d.groupIdx[next] = index;
+				index *= BINOMIAL[d.groupLen[next]][freeSquares];
+				freeSquares -= d.groupLen[next++];
+			}
+		}
+		d.groupIdx[n] = index;
+	}
+
+	/**
+	 * Reads the compression parameters of a sub-table
+	 * @param d The sub-table
+	 * @param offset The offset of the parameters
+	 * @return Returns the offset after the parameters
+	 */
+	private long setSizes(PairsData d, long offset) {
+		d.flags = u8(offset++);
+		if ((d.flags & FLAG_SINGLE_VALUE) != 0) {
+			d.minSymLen = u8(offset++); //the value of every position
+			return offset;
+		}
+
+		int groups = 0;
+		while (d.groupLen[groups] != 0) groups++;
+		long tableSize = d.groupIdx[groups];
+
+		d.blockSize = 1L << u8(offset++);
+		d.span = 1L << u8(offset++);
+		d.sparseIndexSize = (tableSize + d.span - 1) / d.span;
+		int padding = u8(offset++);
+		d.numBlocks = le32(offset) & 0xFFFFFFFFL;
+		offset += 4;
+		d.blockLengthSize = d.numBlocks + padding;
+		d.maxSymLen = u8(offset++);
+		d.minSymLen = u8(offset++);
+		d.lowestSymOffset = offset;
+
+		//base64[i] is the smallest left-aligned code of the symbols of length minSymLen + i (longer codes have lower values)
+		d.base64 = new long[d.maxSymLen - d.minSymLen + 1];
+		for (int i = d.base64.length - 2; i >= 0; i--) {
+			d.base64[i] = (d.base64[i + 1] + le16(d.lowestSymOffset + 2*i) - le16(d.lowestSymOffset + 2*(i + 1))) >>> 1;
+		}
+		for (int i = 0; i < d.base64.length; i++) {
+			int shift = 64 - i - d.minSymLen;
+			d.base64[i] = (shift >= 64)?0:d.base64[i] << shift;
+		}
+		offset += d.base64.length*2;
+
+		d.symLen = new int[le16(offset)];
+		offset += 2;
+		d.btreeOffset = offset;
+		boolean[] visited = new boolean[d.symLen.length];
+		for (int symbol = 0; symbol < d.symLen.length; symbol++) {
+			if (!visited[symbol]) d.symLen[symbol] = setSymLen(d, symbol, visited);
+		}
+		return offset + d.symLen.length*3 + (d.symLen.length & 1);
+	}
+
+	/**
+	 * Computes the number of values a symbol expands to, minus one
+	 * @param d The sub-table
+	 * @param symbol The symbol
+	 * @param visited The symbols whose length is known
+	 * @return Returns the length of the symbol minus one
+	 */
+	private int setSymLen(PairsData d, int symbol, boolean[] visited) {
+		visited[symbol] = true;
+		int right = right(d, symbol);
+		if (right == 0xFFF) return 0;
+		int left = left(d, symbol);
+		if (!visited[left]) d.symLen[left] = setSymLen(d, left, visited);
+		if (!visited[right]) d.symLen[right] = setSymLen(d, right, visited);
+		return d.symLen[left] + d.symLen[right] + 1;
+	}
+
+	/**
+	 * Gets the stored value of a position
+	 * @param position The position (without castling rights, with the material of the table)
+	 * @param flip True if the colours have to be swapped (the stronger side of the table is black in the position, or black is
+	 * to move in a table with the same material on both sides)
+	 * @param wdl For DTZ tables the WDL value of the position (needed to decode the value), ignored for WDL tables
+	 * @return Returns the WDL value (-2 to 2), the DTZ value in plies or CHANGE_STM if the DTZ table only stores the other side to move
+	 */
+	int probe(Position position, boolean flip, int wdl) {
+		int flipColour = flip?8:0;
+		int flipSquares = flip?56:0;
+		int stm = (flip?1:0) ^ ((position.getSideToMove() == Position.BLACK)?1:0);
+		int size = 0;
+		int leadPawnCount = 0;
+		long leadPawns = 0;
+		int tbFile = 0;
+
+		if (hasPawns) {
+			//the leading pawns are the pawns of the colour of the first piece of the table
+			int pawn = pairs[0][0].pieces[0] ^ flipColour;
+			leadPawns = position.getPieceBitboard(Position.pieceCode(pawn >> 3, Position.PAWN));
+			for (long b = leadPawns; b != 0; b &= b - 1) {
+				squares[size++] = Long.numberOfTrailingZeros(b) ^ flipSquares;
+			}
+			leadPawnCount = size;
+
+			int leader = 0;
+			for (int i = 1; i < leadPawnCount; i++) {
+				if (MAP_PAWNS[squares[i]] > MAP_PAWNS[squares[leader]]) leader = i;
+			}
+			swap(squares, 0, leader);
+			tbFile = fileOf(squares[0]);
+			if (tbFile > 3) tbFile = fileOf(squares[0] ^ 7);
+		}
+
+		PairsData d = pairs[dtz?0:stm % pairs.length][tbFile];
+		if (dtz && (d.flags & FLAG_STM) != stm && !(symmetric && !hasPawns)) return CHANGE_STM;
+
+		for (long b = position.getOccupied() & ~leadPawns; b != 0; b &= b - 1) {
+			int square = Long.numberOfTrailingZeros(b);
+			int piece = position.getPiece(square);
+			squares[size] = square ^ flipSquares;
+			pieces[size++] = ((Position.colourOf(piece) << 3) | (Position.typeOf(piece) + 1)) ^ flipColour;
+		}
+
+		//order the pieces as in the table
+		for (int i = leadPawnCount; i < size - 1; i++) {
+			for (int j = i + 1; j < size; j++) {
+				if (d.pieces[i] == pieces[j]) {
+					swap(pieces, i, j);
+					swap(squares, i, j);
+					break;
+				}
+			}
+		}
+
+		//mirror the board so that the leading piece is on the files a to d
+		if (fileOf(squares[0]) > 3) {
+			for (int i = 0; i < size; i++) {
+				squares[i] ^= 7;
+			}
+		}
+
+		long index;
+		if (hasPawns) {
+			index = LEAD_PAWN_IDX[leadPawnCount][squares[0]];
+			sortByPawnMap(squares, 1, leadPawnCount);
+			for (int i = 1; i < leadPawnCount; i++) {
+				index += BINOMIAL[i][MAP_PAWNS[squares[i]]];
+			}
+		} else {
+			//mirror the board so that the leading piece is on the ranks 1 to 4 and below the a1-h8 diagonal
+			if (rankOf(squares[0]) > 3) {
+				for (int i = 0; i < size; i++) {
+					squares[i] ^= 56;
+				}
+			}
+			for (int i = 0; i < d.groupLen[0]; i++) {
+				if (offDiagonal(squares[i]) == 0) continue;
+				if (offDiagonal(squares[i]) > 0) {
+					for (int j = i; j < size; j++) {
+						squares[j] = ((squares[j] >> 3) | (squares[j] << 3)) & 63;
+					}
+				}
+				break;
+			}
+
+			if (hasUniquePieces) {
+				int adjust1 = (squares[1] > squares[0])?1:0;
+				int adjust2 = ((squares[2] > squares[0])?1:0) + ((squares[2] > squares[1])?1:0);
+				if (offDiagonal(squares[0]) != 0) {
+					index = ((long) MAP_A1D1D4[squares[0]]*63 + (squares[1] - adjust1))*62 + squares[2] - adjust2;
+				} else if (offDiagonal(squares[1]) != 0) {
+					index = (6*63 + rankOf(squares[0])*28 + MAP_B1H1H7[squares[1]])*62L + squares[2] - adjust2;
+				} else if (offDiagonal(squares[2]) != 0) {
+					index = 6*63*62 + 4*28*62 + rankOf(squares[0])*7*28 + (rankOf(squares[1]) - adjust1)*28 + MAP_B1H1H7[squares[2]];
+				} else {
+					index = 6*63*62 + 4*28*62 + 4*7*28 + rankOf(squares[0])*7*6 + (rankOf(squares[1]) - adjust1)*6 + (rankOf(squares[2]) - adjust2);
+				}
+			} else {
+				index = MAP_KK[MAP_A1D1D4[squares[0]]][squares[1]];
+			}
+		}
+
+		//the remaining groups, every group as a combination of the squares not taken by the previous groups
+		index *= d.groupIdx[0];
+		int groupStart = d.groupLen[0];
+		boolean remainingPawns = hasPawns && pawnCount[1] > 0;
+		for (int next = 1; d.groupLen[next] != 0; next++) {
+			Arrays.sort(squares, groupStart, groupStart + d.groupLen[next]);
+			long n = 0;
+			for (int i = 0; i < d.groupLen[next]; i++) {
+				int adjust = 0;
+				for (int j = 0; j < groupStart; j++) {
+					if (squares[groupStart + i] > squares[j]) adjust++;
+				}
+				n += BINOMIAL[i + 1][squares[groupStart + i] - adjust - (remainingPawns?8:0)];
+			}
+			remainingPawns = false;
+			index += n*d.groupIdx[next];
+			groupStart += d.groupLen[next];
+		}
+
+		int value = decompress(d, index);
+		return dtz?mapDtz(d, value, wdl):value - 2;
+	}
+
+	/**
+	 * Converts a stored DTZ value to plies
+	 * @param d The sub-table
+	 * @param value The stored value
+	 * @param wdl The WDL value of the position
+	 * @return Returns the distance to the next capture or pawn move in plies
+	 */
+	private int mapDtz(PairsData d, int value, int wdl) {
+		if ((d.flags & FLAG_MAPPED) != 0) {
+			int index = d.mapIdx[WDL_MAP[wdl + 2]] + value;
+			value = ((d.flags & FLAG_WIDE) != 0)?le16(mapOffset + 2L*index):u8(mapOffset + index);
+		}
+		if ((wdl == 2 && (d.flags & FLAG_WIN_PLIES) == 0) || (wdl == -2 && (d.flags & FLAG_LOSS_PLIES) == 0) || wdl == 1 || wdl == -1) {
+			value *= 2;
+		}
+		return value + 1;
+	}
+
+	/**
+	 * Decompresses the value with an index
+	 * @param d The sub-table
+	 * @param index The index of the position
+	 * @return Returns the stored value
+	 */
+	private int decompress(PairsData d, long index) {
+		if ((d.flags & FLAG_SINGLE_VALUE) != 0) return d.minSymLen;
+
+		//the sparse index points to the block of every span-th value, the blocks in between are counted with their lengths
+		long k = index / d.span;
+		long block = le32(d.sparseIndexOffset + 6*k) & 0xFFFFFFFFL;
+		long offset = le16(d.sparseIndexOffset + 6*k + 4);
+		offset += index % d.span - d.span/2;
+		while (offset < 0) {
+			offset += blockLength(d, --block) + 1;
+		}
+		while (offset > blockLength(d, block)) {
+			offset -= blockLength(d, block++) + 1;
+		}
+
+		//read the Huffman coded symbols of the block until the symbol containing the value
+		long pointer = d.dataOffset + block*d.blockSize;
+		long buffer = file.getLong(pointer);
+		pointer += 8;
+		int bufferSize = 64;
+		int symbol;
+		while (true) {
+			int length = 0;
+			while (Long.compareUnsigned(buffer, d.base64[length]) < 0) length++;
+			symbol = (int) ((buffer - d.base64[length]) >>> (64 - length - d.minSymLen));
+			symbol = (symbol + le16(d.lowestSymOffset + 2*length)) & 0xFFFF;
+			if (offset < d.symLen[symbol] + 1) break;
+
+			offset -= d.symLen[symbol] + 1;
+			length += d.minSymLen;
+			buffer <<= length;
+			bufferSize -= length;
+			if (bufferSize <= 32) {
+				bufferSize += 32;
+				buffer |= (file.getInt(pointer) & 0xFFFFFFFFL) << (64 - bufferSize);
+				pointer += 4;
+			}
+		}
+
+		//expand the symbol into its pair of symbols until the value is reached
+		while (d.symLen[symbol] != 0) {
+			int left = left(d, symbol);
+			if (offset < d.symLen[left] + 1) {
+				symbol = left;
+			} else {
+				offset -= d.symLen[left] + 1;
+				symbol = right(d, symbol);
+			}
+		}
+		return left(d, symbol);
+	}
+
+	/**
+	 * Closes the file
+	 * @throws IOException Thrown if the file cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		file.close();
+	}
+
+	private int blockLength(PairsData d, long block) {
+		return le16(d.blockLengthOffset + 2*block);
+	}
+
+	private int left(PairsData d, int symbol) {
+		long entry = d.btreeOffset + 3L*symbol;
+		return ((u8(entry + 1) & 0xF) << 8) | u8(entry);
+	}
+
+	private int right(PairsData d, int symbol) {
+		long entry = d.btreeOffset + 3L*symbol;
+		return (u8(entry + 2) << 4) | (u8(entry + 1) >> 4);
+	}
+
+	private int u8(long offset) {
+		return file.get(offset) & 0xFF;
+	}
+
+	private int le16(long offset) {
+		return Short.reverseBytes(file.getShort(offset)) & 0xFFFF;
+	}
+
+	private int le32(long offset) {
+		return Integer.reverseBytes(file.getInt(offset));
+	}
+
+	private static int fileOf(int square) {
+		return square & 7;
+	}
+
+	private static int rankOf(int square) {
+		return square >> 3;
+	}
+
+	//positive above the a1-h8 diagonal, negative below
+	private static int offDiagonal(int square) {
+		return rankOf(square) - fileOf(square);
+	}
+
+	private static int count(String material, char piece) {
+		int count = 0;
+		for (int i = 0; i < material.length(); i++) {
+			if (material.charAt(i) == piece) count++;
+		}
+		return count;
+	}
+
+	private static void swap(int[] array, int i, int j) {
+		int temp = array[i];
+		array[i] = array[j];
+		array[j] = temp;
+	}
+
+	//insertion sort by MAP_PAWNS (at most 5 pawns)
+	private static void sortByPawnMap(int[] squares, int from, int to) {
+		for (int i = from + 1; i < to; i++) {
+			int square = squares[i];
+			int j = i - 1;
+			while (j >= from && MAP_PAWNS[squares[j]] > MAP_PAWNS[square]) {
+				squares[j + 1] = squares[j];
+				j--;
+			}
+			squares[j + 1] = square;
+		}
+	}
+}
@@ -0,0 +1,459 @@
+package Database;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import Board.MoveGenerator;
+import Board.PackedMove;
+import Board.Position;
+
+/**
+ * Probes the Syzygy endgame tablebases of a directory: the theoretical result of a position (WDL, win/draw/loss) and the
+ * distance to the next capture or pawn move on the way to it (DTZ), which is enough to play a won endgame perfectly under the
+ * fifty-move rule.
+ * <p>
+ * The files of the directory are only listed when the tablebases are opened; a table is memory mapped and parsed the first time
+ * a position with its material is probed. At most MAX_MAPPED_TABLES tables are kept open, the least recently used one is
+ * closed when another table has to be opened. Probing is synchronized, the tablebases can be shared by several threads.
+ * <p>
+ * The tables do not contain positions with castling rights, and they assume that en passant captures are impossible, so the
+ * captures of a position are always searched before a table is probed (as the tables are built to be probed).
+ * @author Daniele Palazzo
+ *
+ */
+public class Tablebases implements Closeable {
+
+	public static final String WDL_EXTENSION = ".rtbw";
+	public static final String DTZ_EXTENSION = ".rtbz";
+
+	public static final int MAX_MAPPED_TABLES = 64;
+
+	//the WDL values, from the point of view of the side to move (cursed wins and blessed losses are draws by the fifty-move rule)
+	public static final int LOSS = -2;
+	public static final int BLESSED_LOSS = -1;
+	public static final int DRAW = 0;
+	public static final int CURSED_WIN = 1;
+	public static final int WIN = 2;
+
+	/**
+	 * Returned if a position cannot be probed (castling rights, too many pieces or a missing table)
+	 */
+	public static final int NO_RESULT = Integer.MIN_VALUE;
+
+	private static final int MAX_PIECES = 7;
+
+	//the results of search (besides the value)
+	private static final int OK = 0;
+	private static final int FAIL = 1;
+	private static final int ZEROING_BEST_MOVE = 2;
+
+	//larger than any DTZ value, used for ranking the moves of a position
+	private static final int MAX_DTZ = 1 << 18;
+
+	private static final char[] PIECE_LETTERS = {'P', 'N', 'B', 'R', 'Q', 'K'};
+
+	private Map<String, Path> wdlPaths;
+	private Map<String, Path> dtzPaths;
+	private Map<String, SyzygyTable> wdlTables;
+	private Map<String, SyzygyTable> dtzTables;
+	private int maxPieces;
+
+	//the state of the current probe (probing is synchronized)
+	private Position position;
+	private int[][] moves;
+	private int depth;
+	private int result;
+	private StringBuilder material;
+
+	/**
+	 * Opens the tablebases of a directory
+	 * @param directory The directory containing the .rtbw and .rtbz files
+	 * @throws IOException Thrown if the directory cannot be listed
+	 */
+	public Tablebases(Path directory) throws IOException {
+		wdlPaths = new HashMap<String, Path>();
+		dtzPaths = new HashMap<String, Path>();
+		try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+			for (Path file : files) {
+				String name = file.getFileName().toString();
+				if (name.length() <= WDL_EXTENSION.length() || !isMaterial(name.substring(0, name.length() - WDL_EXTENSION.length()))) continue;
+				String key = name.substring(0, name.length() - WDL_EXTENSION.length());
+				if (name.endsWith(WDL_EXTENSION)) {
+					wdlPaths.put(key, file);
+					maxPieces = Math.max(maxPieces, key.length() - 1);
+				} else if (name.endsWith(DTZ_EXTENSION)) {
+					dtzPaths.put(key, file);
+				}
+			}
+		}
+		wdlTables = newTableCache();
+		dtzTables = newTableCache();
+
+		position = new Position();
+		moves = new int[2*MAX_PIECES + 4][MoveGenerator.MAX_MOVES];
+		material = new StringBuilder(MAX_PIECES + 1);
+	}
+
+	/**
+	 * Gets the number of WDL tables found
+	 * @return Returns the number of tables
+	 */
+	public int getTableCount() {
+		return wdlPaths.size();
+	}
+
+	/**
+	 * Gets the largest number of pieces (including the kings) of the tables found
+	 * @return Returns the number of pieces or 0 if there are no tables
+	 */
+	public int getMaxPieces() {
+		return maxPieces;
+	}
+
+	/**
+	 * Checks if a position can be probed: no castling rights, few enough pieces and the WDL table of its material is available
+	 * @param position The position
+	 * @return Returns true if probeWdl will give a result
+	 */
+	public synchronized boolean canProbe(Position position) {
+		if (position.getCastlingRights() != 0) return false;
+		int pieces = Long.bitCount(position.getOccupied());
+		if (pieces == 2) return true;
+		if (pieces > maxPieces) return false;
+		return wdlPaths.containsKey(getMaterial(position, false)) || wdlPaths.containsKey(getMaterial(position, true));
+	}
+
+	/**
+	 * Probes the theoretical result of a position
+	 * @param position The position (it is not changed)
+	 * @return Returns the value for the side to move (LOSS to WIN) or NO_RESULT if the position cannot be probed
+	 */
+	public synchronized int probeWdl(Position position) {
+		if (!canProbe(position)) return NO_RESULT;
+		this.position.copyFrom(position);
+		depth = 0;
+		result = OK;
+		int wdl = search(false);
+		return (result == FAIL)?NO_RESULT:wdl;
+	}
+
+	/**
+	 * Probes the distance to zeroing (the number of plies to the next capture or pawn move) of a position if both sides play the moves that
+	 * win the fastest (under the fifty-move rule) or lose the slowest
+	 * @param position The position (it is not changed)
+	 * @return Returns the distance in plies, positive if the side to move wins, negative if it loses (cursed wins and blessed losses are
+	 * 100 plies further away), 0 for a draw or NO_RESULT if the position cannot be probed
+	 */
+	public synchronized int probeDtz(Position position) {
+		if (!canProbe(position)) return NO_RESULT;
+		this.position.copyFrom(position);
+		depth = 0;
+		int dtz = probeDtz();
+		return (result == FAIL)?NO_RESULT:dtz;
+	}
+
+	/**
+	 * Finds the best move of a position: the fastest win that does not run into the fifty-move rule, otherwise a drawing move or the
+	 * slowest loss. Needs the DTZ table of the position.
+	 * @param position The position (it is not changed)
+	 * @return Returns the packed move or PackedMove.NO_MOVE if the position cannot be probed or the game is over
+	 */
+	public synchronized int findBestMove(Position position) {
+		if (!canProbe(position)) return PackedMove.NO_MOVE;
+		this.position.copyFrom(position);
+		depth = 0;
+		result = OK;
+		int halfMoveClock = position.getHalfMoveClock();
+		int[] rootMoves = moves[depth++];
+		int moveCount = MoveGenerator.generateLegalMoves(this.position, rootMoves);
+
+		int bestMove = PackedMove.NO_MOVE;
+		int bestRank = Integer.MIN_VALUE;
+		for (int i = 0; i < moveCount; i++) {
+			int dtz;
+			this.position.makeMove(rootMoves[i]);
+			if (this.position.getHalfMoveClock() == 0) {
+				int wdl = -search(false);
+				dtz = dtzBeforeZeroing(wdl);
+			} else if (this.position.getHalfMoveClock() >= 100) {
+				dtz = 0;
+			} else {
+				dtz = -probeDtz();
+				dtz = (dtz > 0)?dtz + 1:(dtz < 0)?dtz - 1:dtz;
+			}
+			//a mate is always the fastest win
+			if (dtz == 2 && MoveGenerator.isInCheck(this.position) && MoveGenerator.generateLegalMoves(this.position, moves[depth]) == 0) {
+				dtz = 1;
+			}
+			this.position.unmakeMove();
+			if (result == FAIL) return PackedMove.NO_MOVE;
+
+			//wins that can be reached before the fifty-move rule first (the fastest first), losses that cannot be avoided last (the slowest first)
+			int rank;
+			if (dtz > 0) {
+				rank = (dtz + halfMoveClock <= 99)?MAX_DTZ - dtz:MAX_DTZ/2 - (dtz + halfMoveClock);
+			} else if (dtz < 0) {
+				rank = (-dtz*2 + halfMoveClock < 100)?-MAX_DTZ - dtz:-MAX_DTZ/2 + (-dtz + halfMoveClock);
+			} else {
+				rank = 0;
+			}
+			if (rank > bestRank) {
+				bestRank = rank;
+				bestMove = rootMoves[i];
+			}
+		}
+		return bestMove;
+	}
+
+	/**
+	 * Closes all open tables
+	 * @throws IOException Thrown if a table cannot be closed
+	 */
+	@Override
+	public synchronized void close() throws IOException {
+		for (SyzygyTable table : wdlTables.values()) {
+			table.close();
+		}
+		for (SyzygyTable table : dtzTables.values()) {
+			table.close();
+		}
+		wdlTables.clear();
+		dtzTables.clear();
+	}
+
+	/**
+	 * Gets the WDL value of the position by searching the captures (and, if checkZeroingMoves, the pawn moves) and probing the table
+	 * for the other moves
+	 * @param checkZeroingMoves True if pawn moves are searched as well (needed for the DTZ tables, which only store the distance to the
+	 * next zeroing move if the best move is not a zeroing move)
+	 * @return Returns the value; sets result to FAIL if a table is missing or to ZEROING_BEST_MOVE if a searched move is the best move
+	 */
+	private int search(boolean checkZeroingMoves) {
+		int[] legalMoves = moves[depth++];
+		int legalMoveCount = MoveGenerator.generateLegalMoves(position, legalMoves);
+		try {
+			if (legalMoveCount == 0) {
+				result = OK;
+				return MoveGenerator.isInCheck(position)?LOSS:DRAW;
+			}
+
+			int bestValue = LOSS;
+			int searchedCount = 0;
+			for (int i = 0; i < legalMoveCount; i++) {
+				int move = legalMoves[i];
+				if (!isCapture(move) && (!checkZeroingMoves || !isPawnMove(move))) continue;
+
+				searchedCount++;
+				position.makeMove(move);
+				int value = -search(false);
+				position.unmakeMove();
+				if (result == FAIL) return DRAW;
+				if (value > bestValue) {
+					bestValue = value;
+					if (value >= WIN) {
+						result = ZEROING_BEST_MOVE;
+						return value;
+					}
+				}
+			}
+
+			int value;
+			boolean noMoreMoves = searchedCount == legalMoveCount;
+			if (noMoreMoves) {
+				value = bestValue;
+			} else {
+				value = probeTable(false, 0);
+				if (result == FAIL) return DRAW;
+			}
+			if (bestValue >= value) {
+				result = (bestValue > DRAW || noMoreMoves)?ZEROING_BEST_MOVE:OK;
+				return bestValue;
+			}
+			result = OK;
+			return value;
+		} finally {
+			depth--;
+		}
+	}
+
+	/**
+	 * Gets the DTZ value of the position
+	 * @return Returns the value (see probeDtz(Position)); sets result to FAIL if a table is missing
+	 */
+	private int probeDtz() {
+		result = OK;
+		int wdl = search(true);
+		if (result == FAIL || wdl == DRAW) return 0;
+		if (result == ZEROING_BEST_MOVE) return dtzBeforeZeroing(wdl);
+
+		int dtz = probeTable(true, wdl);
+		if (result == FAIL) return 0;
+		if (dtz != SyzygyTable.CHANGE_STM) {
+			return (dtz + ((wdl == BLESSED_LOSS || wdl == CURSED_WIN)?100:0)) * Integer.signum(wdl);
+		}
+
+		//the table only stores the other side to move, so search one ply
+		int minDtz = 0xFFFF;
+		int[] legalMoves = moves[depth++];
+		int legalMoveCount = MoveGenerator.generateLegalMoves(position, legalMoves);
+		for (int i = 0; i < legalMoveCount; i++) {
+			int move = legalMoves[i];
+			boolean zeroing = isCapture(move) || isPawnMove(move);
+			position.makeMove(move);
+			dtz = zeroing?-dtzBeforeZeroing(search(false)):-probeDtz();
+			//a move giving mate has the distance 1
+			if (dtz == 1 && MoveGenerator.isInCheck(position) && MoveGenerator.generateLegalMoves(position, moves[depth]) == 0) {
+				minDtz = 1;
+			}
+			if (!zeroing) dtz += Integer.signum(dtz);
+			if (dtz < minDtz && Integer.signum(dtz) == Integer.signum(wdl)) minDtz = dtz;
+			position.unmakeMove();
+			if (result == FAIL) {
+				depth--;
+				return 0;
+			}
+		}
+		depth--;
+		return (minDtz == 0xFFFF)?-1:minDtz;
+	}
+
+	/**
+	 * Probes the table of the material of the position
+	 * @param dtz True for the DTZ table, false for the WDL table
+	 * @param wdl The WDL value of the position (only needed for the DTZ table)
+	 * @return Returns the value; sets result to FAIL if the table is missing
+	 */
+	private int probeTable(boolean dtz, int wdl) {
+		if (Long.bitCount(position.getOccupied()) == 2) return DRAW;
+
+		boolean blackStronger = false;
+		SyzygyTable table = getTable(getMaterial(position, false), dtz);
+		if (table == null) {
+			blackStronger = true;
+			table = getTable(getMaterial(position, true), dtz);
+		}
+		if (table == null) {
+			result = FAIL;
+			return DRAW;
+		}
+
+		String whiteMaterial = material.substring(0, material.indexOf("v"));
+		String blackMaterial = material.substring(material.indexOf("v") + 1);
+		boolean flip = whiteMaterial.equals(blackMaterial)?position.getSideToMove() == Position.BLACK:blackStronger;
+		return table.probe(position, flip, wdl);
+	}
+
+	/**
+	 * Gets an open table, opening it if needed
+	 * @param key The material of the table
+	 * @param dtz True for the DTZ table, false for the WDL table
+	 * @return Returns the table or null if it is not available
+	 */
+	private SyzygyTable getTable(String key, boolean dtz) {
+		Map<String, SyzygyTable> tables = dtz?dtzTables:wdlTables;
+		SyzygyTable table = tables.get(key);
+		if (table != null) return table;
+
+		Map<String, Path> paths = dtz?dtzPaths:wdlPaths;
+		Path path = paths.get(key);
+		if (path == null) return null;
+		try {
+			table = new SyzygyTable(path, key, dtz);
+		} catch (IOException e) {
+			paths.remove(key); //not a valid table, it is not tried again
+			return null;
+		}
+		tables.put(key, table);
+		return table;
+	}
+
+	/**
+	 * Gets the material of the position as in the names of the table files, e.g. KRPvKR
+	 * @param position The position
+	 * @param blackFirst True if the black pieces are named first
+	 * @return Returns the material (the string is reused by the next call)
+	 */
+	private String getMaterial(Position position, boolean blackFirst) {
+		material.setLength(0);
+		for (int side = 0; side < 2; side++) {
+			if (side == 1) material.append('v');
+			int colour = (side == 0) == blackFirst?Position.BLACK:Position.WHITE;
+			for (int type = Position.KING; type >= Position.PAWN; type--) {
+				for (int i = Long.bitCount(position.getPieceBitboard(Position.pieceCode(colour, type))); i > 0; i--) {
+					material.append(PIECE_LETTERS[type]);
+				}
+			}
+		}
+		return material.toString();
+	}
+
+	private boolean isCapture(int move) {
+		return position.getPiece(PackedMove.getTo(move)) != Position.NO_PIECE || PackedMove.getFlag(move) == PackedMove.EN_PASSANT;
+	}
+
+	private boolean isPawnMove(int move) {
+		return Position.typeOf(position.getPiece(PackedMove.getFrom(move))) == Position.PAWN;
+	}
+
+	/**
+	 * Gets the DTZ value of a position whose best move is a zeroing move
+	 * @param wdl The WDL value of the position
+	 * @return Returns the DTZ value
+	 */
+	private static int dtzBeforeZeroing(int wdl) {
+		switch (wdl) {
+		case WIN:
+			return 1;
+		case CURSED_WIN:
+			return 101;
+		case BLESSED_LOSS:
+			return -101;
+		case LOSS:
+			return -1;
+		default:
+			return 0;
+		}
+	}
+
+	/**
+	 * Checks if a file name (without extension) is the material of a table, e.g. KRPvKR
+	 * @param name The file name
+	 * @return Returns true if the name has the form K[QRBNP]*vK[QRBNP]* with at most MAX_PIECES pieces
+	 */
+	private static boolean isMaterial(String name) {
+		int separator = name.indexOf('v');
+		if (separator == -1 || name.length() - 1 > MAX_PIECES || name.charAt(0) != 'K' || separator + 1 >= name.length()
+				|| name.charAt(separator + 1) != 'K') {
+			return false;
+		}
+		for (int i = 0; i < name.length(); i++) {
+			if (i != 0 && i != separator && i != separator + 1 && "QRBNP".indexOf(name.charAt(i)) == -1) return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Creates a least recently used cache of open tables that closes the tables it evicts
+	 * @return Returns the cache
+	 */
+	private static Map<String, SyzygyTable> newTableCache() {
+		return new LinkedHashMap<String, SyzygyTable>(16, 0.75f, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, SyzygyTable> eldest) {
+				if (size() <= MAX_MAPPED_TABLES) return false;
+				try {
+					eldest.getValue().close();
+				} catch (IOException e) {
+					// the table is not used any more either way
+				}
+				return true;
+			}
+		};
+	}
+}
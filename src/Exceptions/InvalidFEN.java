@@ -6,7 +6,29 @@ package Exceptions;
  *
  */
 public class InvalidFEN extends Exception {
+
+	private final int errorIndex;
+
 	public InvalidFEN() {
 		super("The FEN is invalid.");
+		errorIndex = -1;
+	}
+
+	/**
+	 * Constructs an InvalidFEN that points at the character where the FEN string stopped being valid
+	 * @param reason What was wrong with the FEN string
+	 * @param errorIndex The index of the offending character in the parsed text
+	 */
+	public InvalidFEN(String reason, int errorIndex) {
+		super("The FEN is invalid at character " + errorIndex + ": " + reason);
+		this.errorIndex = errorIndex;
+	}
+
+	/**
+	 * Gets the index of the character where the FEN string stopped being valid
+	 * @return Returns the index in the parsed text or -1 if it is not known
+	 */
+	public int getErrorIndex() {
+		return errorIndex;
 	}
 }
@@ -0,0 +1,29 @@
+package Exceptions;
+
+/**
+ * An exception that is thrown if a game of a PGN file cannot be read
+ * @author Daniele Palazzo
+ *
+ */
+public class InvalidPGN extends Exception {
+
+	private final long lineNumber;
+
+	/**
+	 * Constructs an InvalidPGN that points at the line where the game stopped being valid
+	 * @param reason What was wrong with the game
+	 * @param lineNumber The line of the PGN file (starting at 1)
+	 */
+	public InvalidPGN(String reason, long lineNumber) {
+		super("The PGN is invalid in line " + lineNumber + ": " + reason);
+		this.lineNumber = lineNumber;
+	}
+
+	/**
+	 * Gets the line where the game stopped being valid
+	 * @return Returns the line of the PGN file (starting at 1)
+	 */
+	public long getLineNumber() {
+		return lineNumber;
+	}
+}
@@ -1,47 +1,25 @@
 package Moves;
 
-import java.util.List;
-
-import gui.BoardCoordinate;
-import gui.BoardUtilities;
-import gui.Tile;
+import Board.Position;
+import Board.SlidingAttacks;
 
 /**
- * A package private class providing facilities for validating and executing a Bishop move
+ * A package private class providing a stateless validation of Bishop moves
  * @author Daniele Palazzo
  *
  */
-class BishopMove implements PieceMove {
+class BishopMove {
+
+	private BishopMove() {}; //prevent instantiation
 
 	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public void executeMove(Tile from, Tile to) {
-		//execute move
-		to.setPiece(from.getPiece());
-		from.setPiece(null);
-		to.getPiece().setCurrentPosition(to.getCoordinate());
-	}
-	
-	/**
-	 * {@inheritDoc}
+	 * Determines whether the bishop could move to the "to" square according to the rules of chess (ignoring whether its own king is left in check)
+	 * @param position The position
+	 * @param from The square of the bishop
+	 * @param to The square the bishop would move to
+	 * @return Returns true if the "to" square is attacked by the bishop (no piece can be in between the from and to squares)
 	 */
-	@Override
-	public boolean isMovePossible(Tile from, Tile to) {
-		//get squares the piece can theoretically move to
-		List<BoardCoordinate> possibleSquares = from.getPiece().getPossibleSquares();
-								
-		for (BoardCoordinate c : possibleSquares) {
-			//First check if the "to" square is one of the "theoretically possible" squares
-			if (BoardUtilities.coordinatesAreEqual(c, to.getCoordinate())) {
-				
-				//check if anything is in between the from and to squares
-				if (!BoardUtilities.isAnyPieceInBetween(from.getCoordinate(), to.getCoordinate())) {
-					return true;
-				}
-			}
-		}
-		return false;
+	static boolean isMovePossible(Position position, int from, int to) {
+		return (SlidingAttacks.bishopAttacks(from, position.getOccupied()) & (1L << to)) != 0L;
 	}
 }
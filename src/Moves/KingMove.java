@@ -1,159 +1,63 @@
 package Moves;
 
-import java.util.List;
-
-import Exceptions.CoordinateOffTheBoard;
-import Pieces.King;
-import Pieces.Piece;
-import Pieces.Rook;
-import gui.BoardCoordinate;
-import gui.BoardUtilities;
-import gui.ChessBoard;
-import gui.Tile;
+import Board.AttackTables;
+import Board.MoveGenerator;
+import Board.Position;
 
 /**
- * A package private class providing facilities for validating and executing a King move
+ * A package private class providing a stateless validation of King moves (including castling)
  * @author Daniele Palazzo
  *
  */
-class KingMove implements PieceMove {
-	
-	private ChessBoard board;
-	
-	/**
-	 * Constructs and initialises a KingMove object
-	 * @param board The chess board on which the king is located - needed for castling moves
-	 */
-	public KingMove(ChessBoard board) {
-		this.board = board;
-	}
-	
+class KingMove {
+
+	private KingMove() {}; //prevent instantiation
+
 	/**
-	 * {@inheritDoc}
+	 * Determines whether the king could move to the "to" square according to the rules of chess (ignoring whether the "to" square itself is attacked)
+	 * @param position The position
+	 * @param from The square of the king
+	 * @param to The square the king would move to
+	 * @return Returns true if the "to" square is next to the king or the move is a castling move that is allowed
 	 */
-	@Override
-	public void executeMove(Tile from, Tile to) {
+	static boolean isMovePossible(Position position, int from, int to) {
+		if ((AttackTables.kingAttacks(from) & (1L << to)) != 0L) {
+			return true;
+		}
 		
-		//Check if short castling move
-		if (from.getCoordinate().getColumn() == to.getCoordinate().getColumn()-2) {
-				
-			BoardCoordinate closestPieceCoordinate = BoardUtilities.getFirstInWayCoordinateHorizontallyRight(from.getCoordinate(), null);
-			Piece closestPiece = board.getTileAt(closestPieceCoordinate).getPiece();
-			//move King
-			to.setPiece(from.getPiece());
-			from.setPiece(null);
-			to.getPiece().setCurrentPosition(to.getCoordinate());
-						
-			//move Rook
-			try {
-				board.getTileAt(closestPieceCoordinate).setPiece(null);
-				board.getTileAt(new BoardCoordinate(closestPieceCoordinate.getColumn()-2, closestPieceCoordinate.getRow())).setPiece(closestPiece);
-				closestPiece.setCurrentPosition(new BoardCoordinate(closestPieceCoordinate.getColumn()-2, closestPieceCoordinate.getRow()));
-			} catch (CoordinateOffTheBoard e) {
-				//WILL NEVER BE REACHED
-			}
-			return;
+		//castling (the king moves two squares from its starting square)
+		int us = position.getSideToMove();
+		int kingStart = (us == Position.WHITE)?4:60;
+		if (from != kingStart || Math.abs(to - from) != 2) {
+			return false;
 		}
-			
-		//Check if long castling move
-		if (from.getCoordinate().getColumn() == to.getCoordinate().getColumn()+2) {
-			BoardCoordinate closestPieceCoordinate = BoardUtilities.getFirstInWayCoordinateHorizontallyLeft(from.getCoordinate(), null);
-			Piece closestPiece = board.getTileAt(closestPieceCoordinate).getPiece();
-			//move King
-			to.setPiece(from.getPiece());
-			from.setPiece(null);
-			to.getPiece().setCurrentPosition(to.getCoordinate());
-						
-			//move Rook
-			try {
-				board.getTileAt(closestPieceCoordinate).setPiece(null);
-				board.getTileAt(new BoardCoordinate(closestPieceCoordinate.getColumn()+3, closestPieceCoordinate.getRow())).setPiece(closestPiece);
-				closestPiece.setCurrentPosition(new BoardCoordinate(closestPieceCoordinate.getColumn()+3, closestPieceCoordinate.getRow()));
-			} catch (CoordinateOffTheBoard e) {
-				//WILL NEVER BE REACHED
-			}
-			return;
+		
+		boolean shortCastling = to > from;
+		int castlingRight;
+		if (us == Position.WHITE) {
+			castlingRight = shortCastling?Position.WHITE_KINGSIDE:Position.WHITE_QUEENSIDE;
+		} else {
+			castlingRight = shortCastling?Position.BLACK_KINGSIDE:Position.BLACK_QUEENSIDE;
 		}
-			
-		//execute move
-		to.setPiece(from.getPiece());
-		from.setPiece(null);
-		to.getPiece().setCurrentPosition(to.getCoordinate());
-			
-	}
-
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public boolean isMovePossible(Tile from, Tile to) {
-		//get squares the piece can theoretically move to
-		List<BoardCoordinate> possibleSquares = from.getPiece().getPossibleSquares();
-						
-		for (BoardCoordinate c : possibleSquares) {
-			
-			//king cannot move to checked square
-			if (BoardUtilities.coordinatesAreEqual(c, to.getCoordinate()) && !BoardUtilities.isSquareInCheck(to.getCoordinate(), from.getPiece().getPlayerColour(),from.getPiece())) {
-						
-				//Check if short castling move
-				if (from.getCoordinate().getColumn() == to.getCoordinate().getColumn()-2) 
-				{
-					BoardCoordinate closestPieceCoordinate = BoardUtilities.getFirstInWayCoordinateHorizontallyRight(from.getCoordinate(), null);
-					if (closestPieceCoordinate==null) return false;
-					Piece closestPiece = board.getTileAt(closestPieceCoordinate).getPiece();
-							
-					if (closestPiece instanceof Rook && ((Rook)closestPiece).isFirstMove() && ((King)from.getPiece()).isFirstMove()) {
-								
-						//check squares between rook and king (castle is illegal if they are checked)
-						int rookColumn = closestPieceCoordinate.getColumn();
-						int rookRow = closestPieceCoordinate.getRow();
-								
-						try {
-							if (
-									BoardUtilities.isSquareInCheck(new BoardCoordinate(rookColumn-1, rookRow), from.getPiece().getPlayerColour(), null) ||
-									BoardUtilities.isSquareInCheck(new BoardCoordinate(rookColumn-2, rookRow), from.getPiece().getPlayerColour(), null) ||
-									BoardUtilities.isSquareInCheck(new BoardCoordinate(rookColumn-3, rookRow), from.getPiece().getPlayerColour(), null)
-							) {
-								return false;
-							} else return true;
-						} catch (CoordinateOffTheBoard e1) {
-							// WILL NEVER HAPPEN
-						}
-					} return false;
-				}
-						
-				//Check if long castling move
-				if (from.getCoordinate().getColumn() == to.getCoordinate().getColumn()+2) 
-				{
-					BoardCoordinate closestPieceCoordinate = BoardUtilities.getFirstInWayCoordinateHorizontallyLeft(from.getCoordinate(), null);
-					if (closestPieceCoordinate==null) return false;
-					Piece closestPiece = board.getTileAt(closestPieceCoordinate).getPiece();
-							
-					if (closestPiece instanceof Rook && ((Rook)closestPiece).isFirstMove() && ((King)from.getPiece()).isFirstMove()) {
-								
-						//check squares between rook and king (castle is illegal if they are checked)
-						int rookColumn = closestPieceCoordinate.getColumn();
-						int rookRow = closestPieceCoordinate.getRow();
-								
-						try {
-							if (
-									BoardUtilities.isSquareInCheck(new BoardCoordinate(rookColumn+2, rookRow), from.getPiece().getPlayerColour(), null) ||
-									BoardUtilities.isSquareInCheck(new BoardCoordinate(rookColumn+3, rookRow), from.getPiece().getPlayerColour(), null) ||
-									BoardUtilities.isSquareInCheck(new BoardCoordinate(rookColumn+3, rookRow), from.getPiece().getPlayerColour(), null)
-									) 
-							{
-								return false;
-							} else return true;
-						} catch (CoordinateOffTheBoard e1) {
-								// WILL NEVER HAPPEN
-						}
-					} return false;
-				}
-				
-				//other moves
-				return true;
+		if ((position.getCastlingRights() & castlingRight) == 0) {
+			return false;
+		}
+		
+		//the rook must still be in its corner and the squares between rook and king must be empty
+		int rookSquare = shortCastling?from+3:from-4;
+		if (position.getPiece(rookSquare) != Position.pieceCode(us, Position.ROOK)) {
+			return false;
+		}
+		int step = shortCastling?1:-1;
+		for (int square = from + step; square != rookSquare; square += step) {
+			if (position.getPiece(square) != Position.NO_PIECE) {
+				return false;
 			}
 		}
-		return false;
+		
+		//the king cannot castle out of or through check (the "to" square is checked like for every other move)
+		long occupied = position.getOccupied();
+		return MoveGenerator.getAttackers(position, from, us ^ 1, occupied) == 0L
+				&& MoveGenerator.getAttackers(position, from + step, us ^ 1, occupied) == 0L;
 	}
 }
@@ -1,45 +1,25 @@
 package Moves;
 
-import java.util.List;
-
-import gui.BoardCoordinate;
-import gui.BoardUtilities;
-import gui.Tile;
+import Board.AttackTables;
+import Board.Position;
 
 /**
- * A package private class providing facilities for validating and executing a Knight move
+ * A package private class providing a stateless validation of Knight moves
  * @author Daniele Palazzo
  *
  */
-class KnightMove implements PieceMove {
+class KnightMove {
 
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public void executeMove(Tile from, Tile to) {
-		//execute move
-		to.setPiece(from.getPiece());
-		from.setPiece(null);
-		to.getPiece().setCurrentPosition(to.getCoordinate());
-	}
+	private KnightMove() {}; //prevent instantiation
 
 	/**
-	 * {@inheritDoc}
+	 * Determines whether the knight could move to the "to" square according to the rules of chess (ignoring whether its own king is left in check)
+	 * @param position The position
+	 * @param from The square of the knight
+	 * @param to The square the knight would move to
+	 * @return Returns true if the "to" square is a knight's jump away
 	 */
-	@Override
-	public boolean isMovePossible(Tile from, Tile to) {
-		
-		//get squares the piece can theoretically move to
-		List<BoardCoordinate> possibleSquares = from.getPiece().getPossibleSquares();
-		
-		//Check if the "to" square is one of the "theoretically possible" squares
-		for (BoardCoordinate c : possibleSquares) {
-					
-			if (BoardUtilities.coordinatesAreEqual(c, to.getCoordinate())) {
-				return true;
-			}
-		}
-		return false;
+	static boolean isMovePossible(Position position, int from, int to) {
+		return (AttackTables.knightAttacks(from) & (1L << to)) != 0L;
 	}
 }
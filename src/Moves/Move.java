@@ -1,190 +1,121 @@
 package Moves;
 
-import java.util.ArrayList;
-
+import Board.MoveGenerator;
+import Board.PackedMove;
+import Board.Position;
 import Exceptions.MoveNotPossible;
-import Pieces.Bishop;
-import Pieces.King;
-import Pieces.Knight;
-import Pieces.Pawn;
-import Pieces.Piece;
-import Pieces.Queen;
-import Pieces.Rook;
 import gui.BoardCoordinate;
-import gui.BoardUtilities;
-import gui.ChessBoard;
-import gui.PlayerColour;
-import gui.Tile;
 
 /**
- * A public class providing facilities for validating and executing moves
+ * A public class providing facilities for validating and executing moves.
+ * Moves are validated and played as packed ints (see PackedMove) without allocating anything;
+ * a Move object is only a thin view of a played move used by the moves log.
  * @author Daniele Palazzo
  *
  */
 public class Move {
-	
-	private Tile from;
-	private Tile to;
+
+	private final int packedMove;
 	private String longAlgebraicNotation;
-	
-	private ChessBoard board;
-	
-	private KnightMove knightMove;
-	private BishopMove bishopMove;
-	private KingMove kingMove;
-	private QueenMove queenMove;
-	private RookMove rookMove;
-	private PawnMove pawnMove;
-	
-	private PieceMove move;
-	
-	private Piece takenPiece;
-	private boolean firstMove;
-	
+
 	/**
-	 * Constructs and initialises a Move object
-	 * @param from The tile to move a piece from
-	 * @param to The tile to move a piece to
-	 * @param board The board on which the move should happen
+	 * Constructs a Move object
+	 * @param packedMove The packed move (see PackedMove)
 	 */
-	public Move(Tile from, Tile to, ChessBoard board) {
-		
-		this.board = board;
-		
-		knightMove = new KnightMove();
-		bishopMove = new BishopMove();
-		kingMove = new KingMove(board);
-		queenMove = new QueenMove();
-		rookMove = new RookMove();
-		pawnMove = new PawnMove(board);
-		
-		this.from = from;
-		this.to = to;
-		
-		if (from.getPiece() instanceof Knight) {
-			move = knightMove;
-		} else if (from.getPiece() instanceof Bishop) {
-			move = bishopMove;
-		} else if (from.getPiece() instanceof King) {
-			move = kingMove;
-			firstMove = ((King)from.getPiece()).isFirstMove();
-		} else if (from.getPiece() instanceof Queen) {
-			move = queenMove;
-		} else if (from.getPiece() instanceof Rook) {
-			move = rookMove;
-			firstMove = ((Rook)from.getPiece()).isFirstMove();
-		} else {
-			move = pawnMove; //needed for adding en passant square
-			firstMove = ((Pawn)from.getPiece()).isFirstMove();
-		}
-		convertToLongAlgebraic();
+	public Move(int packedMove) {
+		this.packedMove = packedMove;
 	}
-	
+
 	/**
-	 * Validates the move and executes it if it is legal
+	 * Validates a move and makes it on the position if it is legal
+	 * @param position The position to make the move on
+	 * @param move The packed move (e.g. from Position.encodeMove)
+	 * @return Returns the view of the move for the moves log
 	 * @throws MoveNotPossible This is thrown if the move is not possible (illegal)
 	 */
-	public void executeMove() throws MoveNotPossible {
-		
-		if (isMovePossible()) {
-			if (to.isTileOccupied()) {
-				board.resetFENhalfmoveClock(); //reset FEN half moves since last capture or pawn move
-				takenPiece = to.getPiece(); //save taken piece
-			}
-			move.executeMove(from, to);
-			if (move instanceof PawnMove) {
-				board.resetFENhalfmoveClock(); //reset FEN half moves since last capture or pawn move
-				convertToLongAlgebraic();//pawn move must be executed first to get the promotion piece
-			} else {
-				board.incrementFENhalfmoveClock();
-			}
-			
-		} else throw new MoveNotPossible();
+	public static Move executeMove(Position position, int move) throws MoveNotPossible {
+		if (!isMovePossible(position, move)) {
+			throw new MoveNotPossible();
+		}
+		position.makeMove(move);
+		return new Move(move);
 	}
-	
+
 	/**
-	 * Validates moves
+	 * Validates moves. The position is left unchanged and nothing is allocated, so this can be used for probing moves in loops.
+	 * @param position The position the move would be made on
+	 * @param move The packed move (the flag must match the position, as produced by Position.encodeMove)
 	 * @return Returns true if the move is legal
 	 */
-	public boolean isMovePossible() {
+	public static boolean isMovePossible(Position position, int move) {
+		int from = PackedMove.getFrom(move);
+		int to = PackedMove.getTo(move);
+		int us = position.getSideToMove();
+
 		//Basic checks that apply to all pieces
-		
-		//cannot move from an empty tile
-		if (from == null) {
+
+		//cannot move from and to the same square
+		if (from == to) {
 			return false;
 		}
-		
+
+		//only a piece of the side to move can move
+		int piece = position.getPiece(from);
+		if (piece == Position.NO_PIECE || Position.colourOf(piece) != us) {
+			return false;
+		}
+
 		//check if square is occupied by same colour piece
-		if (to.isTileOccupied()) {
-			if (to.getPiece().getPlayerColour() == from.getPiece().getPlayerColour()) {
-				return false;
-			}
+		int target = position.getPiece(to);
+		if (target != Position.NO_PIECE && Position.colourOf(target) == us) {
+			return false;
 		}
-				
-		//cannot move from and to the same tile
-		if (from == to) {
+
+		//the flag must be the one the position gives these squares
+		int promotionType = PackedMove.isPromotion(move)?PackedMove.getPromotionType(move):Position.QUEEN;
+		if (position.encodeMove(from, to, promotionType) != move) {
 			return false;
 		}
-			
-		//is King in check?
-		BoardCoordinate kingCoordinate = (board.isWhitesTurn())?board.getWhiteKingCoordinate():board.getBlackKingCoordinate(); //get appropriate king
-		if (BoardUtilities.isSquareInCheck(kingCoordinate, board.getTileAt(kingCoordinate).getPiece().getPlayerColour(), null)) {
-			ArrayList<Piece> checkingPieces = BoardUtilities.getSquareCheckingPieces(kingCoordinate, board.getTileAt(kingCoordinate).getPiece().getPlayerColour(), null);
-			if (checkingPieces.size() > 1) {
-				//double check - king must move.
-				if (!BoardUtilities.coordinatesAreEqual(from.getCoordinate(), kingCoordinate)) {
-					return false;
-				}
-			} else {
-				//checking piece must be taken or blocked (with the exception of the knight and pawn which cannot be blocked)
-				if (checkingPieces.get(0) instanceof Knight || checkingPieces.get(0) instanceof Pawn) {
-					//king must move or Knight/Pawn must be captured
-					if (!BoardUtilities.coordinatesAreEqual(from.getCoordinate(), kingCoordinate) && to.getCoordinate() != checkingPieces.get(0).getCurrentPosition()) {
-						return false;
-					}
-				} else {
-					//king must move, checking piece must be captured or blocked
-					if (!BoardUtilities.coordinatesAreEqual(from.getCoordinate(), kingCoordinate) && to.getCoordinate() != checkingPieces.get(0).getCurrentPosition()) 
-					{
-						if (!BoardUtilities.isSquareInBetween(to.getCoordinate(), kingCoordinate, checkingPieces.get(0).getCurrentPosition())) {
-							return false;
-						}
-						
-					}
-				}
-			}
+
+		boolean possible;
+		switch (Position.typeOf(piece)) {
+		case Position.PAWN:
+			possible = PawnMove.isMovePossible(position, from, to);
+			break;
+		case Position.KNIGHT:
+			possible = KnightMove.isMovePossible(position, from, to);
+			break;
+		case Position.BISHOP:
+			possible = BishopMove.isMovePossible(position, from, to);
+			break;
+		case Position.ROOK:
+			possible = RookMove.isMovePossible(position, from, to);
+			break;
+		case Position.QUEEN:
+			possible = QueenMove.isMovePossible(position, from, to);
+			break;
+		default:
+			possible = KingMove.isMovePossible(position, from, to);
+			break;
 		}
-		
-		//is piece pinned? (King cannot be pinned)
-		
-		if (!(from.getPiece() instanceof King)) {
-			
-			ArrayList<Piece> checkingPieces1 = BoardUtilities.getSquareCheckingPieces(from.getCoordinate(), from.getPiece().getPlayerColour(), null);
-			//Is piece in check? 
-			if (checkingPieces1.size() != 0) {
-				BoardCoordinate sameColouredKingCoordinate = (from.getPiece().getPlayerColour()==PlayerColour.White)?board.getWhiteKingCoordinate():board.getBlackKingCoordinate();
-				for (Piece attacker : checkingPieces1) {
-					if (attacker instanceof Pawn || attacker instanceof Knight) continue; //pawn and knight cannot pin
-					//Is the piece in between the checking piece and king
-					if(BoardUtilities.isSquareInBetween(from.getCoordinate(), attacker.getCurrentPosition(), sameColouredKingCoordinate)) {
-						//Is there anything between the piece and the king?
-						if (!BoardUtilities.isAnyPieceInBetween(from.getCoordinate(), sameColouredKingCoordinate)) {
-							//Is the "to" square still in between the king and checking piece?
-							if (!BoardUtilities.isSquareInBetween(to.getCoordinate(), attacker.getCurrentPosition(), sameColouredKingCoordinate)) {
-								//Is it a capture of the checking piece?
-								if (!(to.getCoordinate() == attacker.getCurrentPosition())) {
-									return false;
-								}
-							}
-						}
-					}
-				}
-			}
+		if (!possible) {
+			return false;
 		}
-		
-		if (move.isMovePossible(from, to)) {
-			return true;
-		} else return false;
+
+		//the king cannot be left in check (covers pins, check evasions and moving into check)
+		position.makeMove(move);
+		int kingSquare = position.getKingSquare(us);
+		boolean legal = kingSquare == Position.NO_SQUARE || MoveGenerator.getAttackers(position, kingSquare, us ^ 1, position.getOccupied()) == 0L;
+		position.unmakeMove();
+		return legal;
+	}
+
+	/**
+	 * Gets the packed move
+	 * @return Returns the move packed into an int (see PackedMove)
+	 */
+	public int getPackedMove() {
+		return packedMove;
 	}
 
 	/**
@@ -192,83 +123,38 @@ public class Move {
 	 * @return Return the "from" tile coordinate
 	 */
 	public BoardCoordinate getFrom() {
-		return from.getCoordinate();
+		return BoardCoordinate.ofSquare(PackedMove.getFrom(packedMove));
 	}
-	
+
 	/**
 	 * Get the "to" tile coordinate
 	 * @return Return the "to" tile coordinate
 	 */
 	public BoardCoordinate getTo() {
-		return to.getCoordinate();
-	}
-	
-	/**
-	 * Get the move type (e.g. PawnMove or BishopMove)
-	 * @return Returns a string representing the move type (e.g. PawnMove or BishopMove)
-	 */
-	public String getMoveType() {
-		return move.getClass().getSimpleName();
+		return BoardCoordinate.ofSquare(PackedMove.getTo(packedMove));
 	}
-	
-	/**
-	 * Determines the move's long algebraic notation form and stores it in the longAlgebraicNotation member variable
-	 */
-	private void convertToLongAlgebraic() {
-		String algebraicFrom = (char)(96+from.getCoordinate().getColumn()) + Integer.toString(from.getCoordinate().getRow());
-		String algebraicTo = (char)(96+to.getCoordinate().getColumn()) + Integer.toString(to.getCoordinate().getRow());
-		
-		if (move instanceof PawnMove) {
-			longAlgebraicNotation =  algebraicFrom + algebraicTo + ((PawnMove)move).getPawnPromotionNotation();
-		} else {
-			longAlgebraicNotation =  algebraicFrom + algebraicTo;
-		}
-	}
-	
+
 	/**
 	 * Gets the long algebraic notation of the move
 	 * @return Returns a string of long algebraic notation representing the move
 	 */
 	public String getLongAlgebraicNotation() {
+		if (longAlgebraicNotation == null) {
+			longAlgebraicNotation = PackedMove.toLongAlgebraic(packedMove);
+		}
 		return longAlgebraicNotation;
 	}
-	
-	/**
-	 * Gets the taken piece if any (this is useful for undoing the move)
-	 * @return Returns the Piece that was taken with the current move
-	 */
-	public Piece getTakenPiece() {
-		return takenPiece;
-	}
-	
-	/**
-	 * Determines whether this was the first move for the piece (only works with Rook, King and Pawn)
-	 * @return Returns true if this move was a first move for the moving piece (only works with Rook, King and Pawn)
-	 */	
-	public boolean isFirstMove() {
-		return firstMove;
-	}
 
 	/**
-	 * Determines whether or not the move was a pawn promotion (this is useful for undoing the move)
+	 * Determines whether or not the move was a pawn promotion
 	 * @return Returns true if the move was a pawn promotion
 	 */
 	public boolean wasPawnPromotion() {
-		if (longAlgebraicNotation.length()==5) {
-			return true;
-		} else {
-			return false;
-		}
+		return PackedMove.isPromotion(packedMove);
 	}
-	
-	/**
-	 * Sets the promotion piece manually (Promotion dialog doesn't have to be opened - useful for engine promotion)
-	 * @param pieceNotation A character representing the piece that was selected for promotion
-	 */
-	public void setPromotionPiece(char pieceNotation) {
-		if (move instanceof PawnMove && (to.getCoordinate().getRow()==1 || to.getCoordinate().getRow()==8)) {
-			((PawnMove)move).setPawnPromotionNotation(pieceNotation);
-		}
+
+	@Override
+	public String toString() {
+		return getLongAlgebraicNotation();
 	}
-	
 }
@@ -1,200 +1,53 @@
 package Moves;
 
-import java.util.List;
-
-import Exceptions.CoordinateOffTheBoard;
-import Pieces.Bishop;
-import Pieces.Knight;
-import Pieces.Piece;
-import Pieces.Queen;
-import Pieces.Rook;
-import gui.BoardCoordinate;
-import gui.BoardUtilities;
-import gui.ChessBoard;
-import gui.PlayerColour;
-import gui.Tile;
+import Board.AttackTables;
+import Board.Position;
 
 /**
- * A package private class providing facilities for validating and executing a Pawn move
+ * A package private class providing a stateless validation of Pawn moves (including en passant and promotion)
  * @author Daniele Palazzo
  *
  */
-class PawnMove implements PieceMove {
+class PawnMove {
+
+	private PawnMove() {}; //prevent instantiation
 
-	private ChessBoard board;
-	
-	private String promotionPieceAlgebraic;
-	
-	/**
-	 * Constructs and initialises a PawnMove object
-	 * @param board The chess board on which the pawn is located - needed for performing an en passant move
-	 */
-	public PawnMove(ChessBoard board) {
-		this.board = board;
-		promotionPieceAlgebraic="";
-	}
-	
 	/**
-	 * {@inheritDoc}
+	 * Determines whether the pawn could move to the "to" square according to the rules of chess (ignoring whether its own king is left in check)
+	 * @param position The position
+	 * @param from The square of the pawn
+	 * @param to The square the pawn would move to
+	 * @return Returns true if the move is a push to an empty square, a double push from the starting row, a capture or an en passant capture
 	 */
-	@Override
-	public void executeMove(Tile from, Tile to) {
-		//is it promotion?
-		if (to.getCoordinate().getRow() == 8 || to.getCoordinate().getRow() == 1) {
-			
-			//execute move
-			if (promotionPieceAlgebraic.equals("")) {
-				Piece promotionPiece = board.pawnPromotion(to.getCoordinate()); //modal dialog gets promotion piece (if it wasn't set manually already)
-				setPawnPromotionNotation(promotionPiece);
-				to.setPiece(promotionPiece);
-			} else {
-				switch(promotionPieceAlgebraic.charAt(0)) {
-				case 'q':
-					to.setPiece(new Queen(from.getPiece().getPlayerColour(),to.getCoordinate()));
-					break;
-				case 'n':
-					to.setPiece(new Knight(from.getPiece().getPlayerColour(),to.getCoordinate()));
-					break;
-				case 'b':
-					to.setPiece(new Bishop(from.getPiece().getPlayerColour(),to.getCoordinate()));
-					break;
-				case 'r':
-					to.setPiece(new Rook(from.getPiece().getPlayerColour(),to.getCoordinate()));
-					break;
-				}
+	static boolean isMovePossible(Position position, int from, int to) {
+		int us = position.getSideToMove();
+		int forward = (us == Position.WHITE)?1:-1;
+		int rowDistance = Position.rowOf(to) - Position.rowOf(from);
+		int columnDistance = Math.abs(Position.columnOf(to) - Position.columnOf(from));
+		
+		//Move forward (pawn cannot move forward to an occupied square)
+		if (columnDistance == 0) {
+			if (position.getPiece(to) != Position.NO_PIECE) {
+				return false;
 			}
-			from.setPiece(null);
-			to.getPiece().setCurrentPosition(to.getCoordinate());
-			return;
-		}
-			
-		//is it en passant?
-		if (!to.isTileOccupied() && to.getCoordinate().getColumn() != from.getCoordinate().getColumn()) {
-			if (from.getPiece().getPlayerColour() == PlayerColour.White) {
-				try {
-					board.getTileAt(new BoardCoordinate(to.getCoordinate().getColumn(), to.getCoordinate().getRow()-1)).setPiece(null); //remove pawn behind en passant square
-				} catch (CoordinateOffTheBoard e) {
-					// WILL NEVER BE REACHED
-				}
-			} else {
-				try {
-					board.getTileAt(new BoardCoordinate(to.getCoordinate().getColumn(), to.getCoordinate().getRow()+1)).setPiece(null); //remove pawn behind en passant square
-				} catch (CoordinateOffTheBoard e) {
-					// WILL NEVER BE REACHED
-				}
+			if (rowDistance == forward) {
+				return true;
 			}
+			//two squares from the starting row (nothing can be in between the from and to squares)
+			int startingRow = (us == Position.WHITE)?2:7;
+			return rowDistance == 2*forward && Position.rowOf(from) == startingRow && position.getPiece(from + 8*forward) == Position.NO_PIECE;
 		}
-			
-		//execute move
-		setPawnPromotionNotation(null);
-		to.setPiece(from.getPiece());
-		from.setPiece(null);
-		to.getPiece().setCurrentPosition(to.getCoordinate());
-
-	}
-	
-	/**
-	 * {@inheritDoc}
-	 */
-	@Override
-	public boolean isMovePossible(Tile from, Tile to) {
-		//get squares the piece can theoretically move to
-		List<BoardCoordinate> possibleSquares = from.getPiece().getPossibleSquares();
-						
-		//Check if the "to" square is one of the "theoretically possible" squares
-		for (BoardCoordinate c : possibleSquares) {
-							
-			if (BoardUtilities.coordinatesAreEqual(c, to.getCoordinate())) {
-				
-				//check if anything is in between the from and to squares
-				if (BoardUtilities.isAnyPieceInBetween(from.getCoordinate(), to.getCoordinate())) {
-					return false;
-				}
-				
-				//Pawn cannot move forward to occupied square
-				if (to.getCoordinate().getColumn() == from.getCoordinate().getColumn() && to.isTileOccupied()) {
-					return false;
-				}
-						
-				//promotion
-				if (to.getCoordinate().getRow() == 8 || to.getCoordinate().getRow() == 1) {
-					return true;
-				}
-						
-				//Move diagonally
-				if (to.getCoordinate().getColumn() != from.getCoordinate().getColumn()) {
-					//capture
-					if (to.isTileOccupied()) {
-						return true;
-					}
-					//en passant
-					if (from.getPiece().getPlayerColour() == PlayerColour.White) {
-						//Rules:
-						if (from.getCoordinate().getRow() == 5 && board.getLastMove()!=null && board.getLastMove().getMoveType().equals("PawnMove")) //white pawn must be on 5th row, 
-																																	//last move (by opponent) must be a pawn move
-						{
-							if (board.getLastMove().getFrom().getColumn() == to.getCoordinate().getColumn()) //Last move happened in same column we want to move to
-							{
-								if (board.getLastMove().getFrom().getRow() == board.getLastMove().getTo().getRow()+2) //Last move was double forward
-								{
-									return true;
-								}
-							}
-						}
-					} else {
-						//Rules:
-						if (from.getCoordinate().getRow() == 4 && board.getLastMove()!=null && board.getLastMove().getMoveType().equals("PawnMove")) //Black pawn must be on 4th row, 
-																																	//last move (by opponent) must be a pawn move
-						{
-							if (board.getLastMove().getFrom().getColumn() == to.getCoordinate().getColumn()) //Last move happened in same column we want to move to
-							{
-								if (board.getLastMove().getFrom().getRow() == board.getLastMove().getTo().getRow()-2) //Last move was double forward
-								{
-									return true;
-								}
-							}
-						}
-							}
-				} else {
-					return true;
-				}
-						
+		
+		//Move diagonally
+		if ((AttackTables.pawnAttacks(us, from) & (1L << to)) != 0L) {
+			//capture
+			int captured = position.getPiece(to);
+			if (captured != Position.NO_PIECE) {
+				return Position.colourOf(captured) != us;
 			}
-		}	
+			//en passant (the "to" square must be the en passant square of the position)
+			return to == position.getEnPassantSquare();
+		}
 		return false;
 	}
-	
-	/**
-	 * Determine and set the pawn promotion notation according to the passed in piece
-	 * @param piece The piece that was selected for promotion
-	 */
-	private void setPawnPromotionNotation(Piece piece) {
-		
-		if (piece instanceof Queen) {
-			promotionPieceAlgebraic = "q";
-		} else if (piece instanceof Knight) {
-			promotionPieceAlgebraic = "n";
-		} else if (piece instanceof Bishop) {
-			promotionPieceAlgebraic = "b";
-		} else if (piece instanceof Rook){
-			promotionPieceAlgebraic = "r";
-		} 
-	}
-	
-	/**
-	 * Set the promotion notation directly with a char
-	 * @param notation A char representing the piece that was selected for promotion (q,n,b or r)
-	 */
-	public void setPawnPromotionNotation(char notation) {
-		promotionPieceAlgebraic = Character.toString(notation);
-	}
-	
-	/**
-	 * Gets the letter representing the piece that was selected for promotion
-	 * @return Returns the letter representing the piece that was selected for promotion
-	 */
-	public String getPawnPromotionNotation() {
-		return promotionPieceAlgebraic;
-	}
-	
 }
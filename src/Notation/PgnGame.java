@@ -0,0 +1,197 @@
+package Notation;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import Board.Position;
+
+/**
+ * A game as it is stored in a PGN file: the tag pairs, the starting position, the moves of the main line and the result.
+ * Every move can carry a comment, numeric annotation glyphs (NAGs) and variations. A variation is a PgnGame without tags
+ * whose moves start from the position before the move it replaces (its own moves can carry variations as well).
+ * @author Daniele Palazzo
+ *
+ */
+public class PgnGame {
+
+	/**
+	 * The tags every PGN game has, in the order they are written (the Seven Tag Roster)
+	 */
+	public static final String[] SEVEN_TAG_ROSTER = {"Event", "Site", "Date", "Round", "White", "Black", "Result"};
+
+	private static final int INITIAL_CAPACITY = 128;
+
+	private Map<String, String> tags;
+	private String startingFEN;
+	private String result;
+
+	private int[] moves;
+	private int moveCount;
+
+	//the annotations of the moves (index 0 belongs to the starting position, index i to the position after move i)
+	private String[] comments;
+	private int[][] nags;
+	private PgnGame[][] variations;
+
+	/**
+	 * Constructs an empty game starting from the standard starting position
+	 */
+	public PgnGame() {
+		tags = new LinkedHashMap<String, String>();
+		result = "*";
+		moves = new int[INITIAL_CAPACITY];
+		comments = new String[INITIAL_CAPACITY + 1];
+		nags = new int[INITIAL_CAPACITY + 1][];
+		variations = new PgnGame[INITIAL_CAPACITY + 1][];
+	}
+
+	/**
+	 * Gets the value of a tag
+	 * @param name The name of the tag
+	 * @return Returns the value or null if the game has no such tag
+	 */
+	public String getTag(String name) {
+		return tags.get(name);
+	}
+
+	/**
+	 * Sets the value of a tag (the FEN, SetUp and Result tags are derived from the starting position and the result
+	 * when the game is written)
+	 * @param name The name of the tag
+	 * @param value The value of the tag
+	 */
+	public void setTag(String name, String value) {
+		tags.put(name, value);
+	}
+
+	/**
+	 * Gets all the tags in the order they were set
+	 * @return Returns an unmodifiable view of the tags
+	 */
+	public Map<String, String> getTags() {
+		return Collections.unmodifiableMap(tags);
+	}
+
+	/**
+	 * Gets the starting position of the game
+	 * @return Returns the FEN string of the starting position or null if the game starts from the standard starting position
+	 */
+	public String getStartingFEN() {
+		return startingFEN;
+	}
+
+	/**
+	 * Sets the starting position of the game
+	 * @param startingFEN The FEN string of the starting position or null for the standard starting position
+	 */
+	public void setStartingFEN(String startingFEN) {
+		this.startingFEN = (Position.STARTING_FEN.equals(startingFEN))?null:startingFEN;
+	}
+
+	/**
+	 * Gets the result of the game
+	 * @return Returns "1-0", "0-1", "1/2-1/2" or "*" (unknown or game in progress)
+	 */
+	public String getResult() {
+		return result;
+	}
+
+	/**
+	 * Sets the result of the game
+	 * @param result "1-0", "0-1", "1/2-1/2" or "*"
+	 */
+	public void setResult(String result) {
+		this.result = result;
+	}
+
+	/**
+	 * Adds a move to the main line
+	 * @param move The packed move
+	 */
+	public void addMove(int move) {
+		if (moveCount == moves.length) {
+			moves = Arrays.copyOf(moves, moves.length * 2);
+			comments = Arrays.copyOf(comments, moves.length + 1);
+			nags = Arrays.copyOf(nags, moves.length + 1);
+			variations = Arrays.copyOf(variations, moves.length + 1);
+		}
+		moves[moveCount++] = move;
+	}
+
+	/**
+	 * Gets the number of moves (plies) of the main line
+	 * @return Returns the number of moves
+	 */
+	public int getMoveCount() {
+		return moveCount;
+	}
+
+	/**
+	 * Gets a move of the main line
+	 * @param index The index of the move (0 to getMoveCount()-1)
+	 * @return Returns the packed move
+	 */
+	public int getMove(int index) {
+		return moves[index];
+	}
+
+	/**
+	 * Gets the comment after a move
+	 * @param ply The number of moves played before the comment (0 for a comment before the first move)
+	 * @return Returns the comment or null
+	 */
+	public String getComment(int ply) {
+		return comments[ply];
+	}
+
+	/**
+	 * Adds a comment after a move (several comments after the same move are joined)
+	 * @param ply The number of moves played before the comment (0 for a comment before the first move)
+	 * @param comment The comment without the braces
+	 */
+	public void addComment(int ply, String comment) {
+		comments[ply] = (comments[ply] == null)?comment:comments[ply] + " " + comment;
+	}
+
+	/**
+	 * Gets the numeric annotation glyphs of a move
+	 * @param ply The number of the move (1 for the first move)
+	 * @return Returns the glyphs or null if the move has none
+	 */
+	public int[] getNags(int ply) {
+		return nags[ply];
+	}
+
+	/**
+	 * Adds a numeric annotation glyph to a move
+	 * @param ply The number of the move (1 for the first move)
+	 * @param nag The glyph (e.g. 1 for a good move)
+	 */
+	public void addNag(int ply, int nag) {
+		int[] glyphs = (nags[ply] == null)?new int[1]:Arrays.copyOf(nags[ply], nags[ply].length + 1);
+		glyphs[glyphs.length - 1] = nag;
+		nags[ply] = glyphs;
+	}
+
+	/**
+	 * Gets the variations of a move, i.e. the alternatives to it
+	 * @param ply The number of the move (1 for the first move)
+	 * @return Returns the variations or null if the move has none
+	 */
+	public PgnGame[] getVariations(int ply) {
+		return variations[ply];
+	}
+
+	/**
+	 * Adds a variation to a move
+	 * @param ply The number of the move the variation replaces (1 for the first move)
+	 * @param variation The variation, its moves start from the position before the move it replaces
+	 */
+	public void addVariation(int ply, PgnGame variation) {
+		PgnGame[] lines = (variations[ply] == null)?new PgnGame[1]:Arrays.copyOf(variations[ply], variations[ply].length + 1);
+		lines[lines.length - 1] = variation;
+		variations[ply] = lines;
+	}
+}
@@ -0,0 +1,476 @@
+package Notation;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import Board.FenCodec;
+import Board.MoveGenerator;
+import Board.PackedMove;
+import Board.Position;
+import Exceptions.InvalidFEN;
+import Exceptions.InvalidPGN;
+
+/**
+ * Reads the games of a PGN file one at a time. The file is read through a channel (usually a FileChannel) into a fixed buffer,
+ * so only the current game is held in memory, however large the file is. The moves are converted from SAN by matching them
+ * against the legal moves of the position; tags, comments, NAGs and annotation symbols (!, ? etc.) are kept with the game.
+ * Variations are read the same way from the position before the move they replace, so an illegal move in a variation is reported as well.
+ * <p>
+ * Tag values and comments are decoded as UTF-8. A game that cannot be read is skipped up to its end and reported with an InvalidPGN,
+ * so that reading can simply go on with the next game.
+ * @author Daniele Palazzo
+ *
+ */
+public class PgnReader implements Closeable {
+
+	private static final int BUFFER_SIZE = 1 << 16;
+
+	//the longest tag value or comment that is kept (longer ones are reported as errors)
+	private static final int MAX_TEXT_LENGTH = 1 << 20;
+
+	//the deepest nesting of variations that is read (deeper ones are reported as errors)
+	private static final int MAX_VARIATION_DEPTH = 32;
+
+	private static final String[] SUFFIX_ANNOTATIONS = {"!", "?", "!!", "??", "!?", "?!"};
+
+	private ReadableByteChannel channel;
+	private ByteBuffer buffer;
+	private boolean endOfInput;
+	private int pushedBack;
+	private long lineNumber;
+
+	//the last byte read and whether it is the first byte of a line (for the escape mechanism: lines starting with % are ignored)
+	private int previous;
+	private boolean atLineStart;
+
+	//reused for every tag value and comment and for every symbol (move, move number, result)
+	private byte[] text;
+	private int textLength;
+	private StringBuilder symbol;
+
+	private Position position;
+	private int[] legalMoves;
+
+	//the positions of the variations being read, one per nesting depth (created when a variation that deep is first read)
+	private Position[] variationPositions;
+
+	//the first problem of the current game (the rest of the game is skipped)
+	private String error;
+	private long errorLine;
+
+	/**
+	 * Constructs a PgnReader reading from a channel
+	 * @param channel The channel to read from (closed by close())
+	 */
+	public PgnReader(ReadableByteChannel channel) {
+		this.channel = channel;
+		buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		buffer.flip();
+		pushedBack = -1;
+		lineNumber = 1;
+		previous = '\n';
+		text = new byte[256];
+		symbol = new StringBuilder(32);
+		position = new Position();
+		legalMoves = new int[MoveGenerator.MAX_MOVES];
+		variationPositions = new Position[MAX_VARIATION_DEPTH + 1];
+	}
+
+	/**
+	 * Reads the next game
+	 * @return Returns the game or null if there are no more games
+	 * @throws IOException Thrown if the channel cannot be read
+	 * @throws InvalidPGN Thrown if the game is invalid (the reader is positioned after it, so the next game can be read)
+	 */
+	public PgnGame readGame() throws IOException, InvalidPGN {
+		int c = skipWhitespace();
+		if (c == -1) return null;
+
+		PgnGame game = new PgnGame();
+		error = null;
+
+		//tag pairs
+		while (c == '[') {
+			readTag(game);
+			c = skipWhitespace();
+		}
+
+		String fen = game.getTag("FEN");
+		try {
+			FenCodec.parse((fen == null)?Position.STARTING_FEN:fen, position);
+			game.setStartingFEN(fen);
+		} catch (InvalidFEN e) {
+			setError("invalid FEN tag (" + e.getMessage() + ")");
+		}
+
+		//movetext
+		pushedBack = c;
+		String result = readMoves(game, position, 0);
+
+		if (result == null) {
+			result = game.getTag("Result");
+			if (result == null) result = "*";
+		}
+		game.setResult(result);
+		game.setTag("Result", result);
+
+		if (error != null) throw new InvalidPGN(error, errorLine);
+		return game;
+	}
+
+	/**
+	 * Closes the channel
+	 * @throws IOException Thrown if the channel cannot be closed
+	 */
+	@Override
+	public void close() throws IOException {
+		channel.close();
+	}
+
+	/**
+	 * Reads the movetext of the main line or of a variation, the variations inside it are read recursively
+	 * @param line The game or the variation to add the moves to
+	 * @param linePosition The position after the moves of the line read so far
+	 * @param depth The nesting depth of the line (0 for the main line)
+	 * @return Returns the result at the end of the main line or null if there is none (always null for a variation)
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private String readMoves(PgnGame line, Position linePosition, int depth) throws IOException {
+		int c = skipWhitespace();
+		while (c != -1) {
+			switch (c) {
+			case '[':
+				//the next game starts without a result at the end of this one
+				pushedBack = c;
+				if (depth > 0) setError("unterminated variation");
+				return null;
+			case '{':
+				readText('}');
+				line.addComment(line.getMoveCount(), textAsString());
+				break;
+			case ';':
+				readText('\n');
+				line.addComment(line.getMoveCount(), textAsString());
+				break;
+			case '(':
+				readVariation(line, linePosition, depth);
+				break;
+			case ')':
+				if (depth > 0) return null;
+				setError("')' without a variation");
+				break;
+			case '$':
+				readSymbol(read());
+				line.addNag(line.getMoveCount(), parseNag(0));
+				break;
+			case '*':
+				if (depth == 0) return "*";
+				setError("result inside a variation");
+				break;
+			default:
+				if (isSymbolCharacter(c)) {
+					readSymbol(c);
+					String result = readMoveText(line, linePosition);
+					if (result != null) {
+						if (depth == 0) return result;
+						setError("result inside a variation");
+					}
+				} else {
+					setError("unexpected character '" + (char) c + "'");
+				}
+			}
+			c = skipWhitespace();
+		}
+		if (depth > 0) setError("unterminated variation");
+		return null;
+	}
+
+	/**
+	 * Reads a variation after its opening parenthesis, starting from the position before the last move of the line
+	 * @param line The line the variation belongs to
+	 * @param linePosition The position after the moves of the line read so far
+	 * @param depth The nesting depth of the line
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private void readVariation(PgnGame line, Position linePosition, int depth) throws IOException {
+		if (line.getMoveCount() == 0) {
+			setError("variation before the first move");
+			skipVariation();
+			return;
+		}
+		if (depth == MAX_VARIATION_DEPTH) {
+			setError("variations nested more than " + MAX_VARIATION_DEPTH + " deep");
+			skipVariation();
+			return;
+		}
+
+		//after an error the moves are not made anymore, so the position does not match the line
+		Position variationPosition = variationPositions[depth + 1];
+		if (variationPosition == null) variationPosition = variationPositions[depth + 1] = new Position();
+		if (error == null) {
+			linePosition.unmakeMove();
+			variationPosition.copyFrom(linePosition);
+			linePosition.makeMove(line.getMove(line.getMoveCount() - 1));
+		}
+
+		PgnGame variation = new PgnGame();
+		readMoves(variation, variationPosition, depth + 1);
+		line.addVariation(line.getMoveCount(), variation);
+	}
+
+	/**
+	 * Interprets a symbol of the movetext: a result, a move number, a move or a move number immediately followed by a move
+	 * @param line The game or the variation being read
+	 * @param linePosition The position after the moves of the line read so far
+	 * @return Returns the result if the symbol is a result, otherwise null
+	 */
+	private String readMoveText(PgnGame line, Position linePosition) {
+		int length = symbol.length();
+		if (symbol.charAt(0) == '1' || symbol.charAt(0) == '0') {
+			if (isSymbol("1-0")) return "1-0";
+			if (isSymbol("0-1")) return "0-1";
+			if (isSymbol("1/2-1/2")) return "1/2-1/2";
+		}
+
+		//skip the move number (12. or 12...)
+		int start = 0;
+		if (Character.isDigit(symbol.charAt(0))) {
+			while (start < length && Character.isDigit(symbol.charAt(start))) start++;
+			if (start < length && symbol.charAt(start) != '.') {
+				setError("invalid move number " + symbol);
+				return null;
+			}
+			while (start < length && symbol.charAt(start) == '.') start++;
+			if (start == length) return null;
+		}
+
+		//annotation symbols become NAGs
+		int end = length;
+		while (end > start && (symbol.charAt(end - 1) == '!' || symbol.charAt(end - 1) == '?')) end--;
+		int nag = 0;
+		if (end < length) {
+			String annotation = symbol.substring(end);
+			for (int i = 0; i < SUFFIX_ANNOTATIONS.length; i++) {
+				if (SUFFIX_ANNOTATIONS[i].equals(annotation)) nag = i + 1;
+			}
+		}
+
+		if (error != null) return null;
+		int move = San.parse(linePosition, symbol, start, end, legalMoves);
+		if (move == PackedMove.NO_MOVE) {
+			setError("illegal or ambiguous move " + symbol.substring(start));
+			return null;
+		}
+		linePosition.makeMove(move);
+		line.addMove(move);
+		if (nag != 0) line.addNag(line.getMoveCount(), nag);
+		return null;
+	}
+
+	/**
+	 * Reads a tag pair after its opening bracket
+	 * @param game The game to add the tag to
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private void readTag(PgnGame game) throws IOException {
+		readSymbol(skipWhitespace());
+		String name = symbol.toString();
+		int c = skipWhitespace();
+		if (name.isEmpty() || c != '"') {
+			setError("invalid tag");
+			skipLine();
+			return;
+		}
+
+		textLength = 0;
+		c = read();
+		while (c != '"' && c != -1 && c != '\n') {
+			if (c == '\\') c = read();
+			if (c == -1) break;
+			appendText(c);
+			c = read();
+		}
+		if (c != '"' || skipWhitespace() != ']') {
+			setError("unterminated tag " + name);
+			skipLine();
+			return;
+		}
+		game.setTag(name, textAsString());
+	}
+
+	/**
+	 * Skips a variation that cannot be read after its opening parenthesis up to the matching closing parenthesis
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private void skipVariation() throws IOException {
+		int depth = 1;
+		int c = read();
+		while (c != -1) {
+			if (c == '(') {
+				depth++;
+			} else if (c == ')') {
+				if (--depth == 0) return;
+			} else if (c == '{' || c == ';') {
+				//parentheses in comments do not count
+				int end = (c == '{')?'}':'\n';
+				do {
+					c = read();
+				} while (c != end && c != -1);
+				if (c == -1) break;
+			}
+			c = read();
+		}
+		setError("unterminated variation");
+	}
+
+	/**
+	 * Reads text up to a terminating character into the text buffer (used for comments)
+	 * @param end The terminating character (it is consumed, but not stored)
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private void readText(int end) throws IOException {
+		textLength = 0;
+		int c = read();
+		while (c != end && c != -1) {
+			appendText(c);
+			c = read();
+		}
+		if (c == -1 && end != '\n') setError("unterminated comment");
+	}
+
+	/**
+	 * Reads a symbol (a move, a move number, a result or a NAG number) into the symbol buffer
+	 * @param c The first character of the symbol
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private void readSymbol(int c) throws IOException {
+		symbol.setLength(0);
+		while (c != -1 && isSymbolCharacter(c)) {
+			if (symbol.length() < 255) symbol.append((char) c);
+			c = read();
+		}
+		if (c != -1) pushedBack = c;
+	}
+
+	/**
+	 * Converts the symbol buffer to the number of a NAG
+	 * @param defaultValue The value returned if the symbol is not a number
+	 * @return Returns the number
+	 */
+	private int parseNag(int defaultValue) {
+		if (symbol.length() == 0 || symbol.length() > 3) {
+			setError("invalid NAG $" + symbol);
+			return defaultValue;
+		}
+		int nag = 0;
+		for (int i = 0; i < symbol.length(); i++) {
+			char c = symbol.charAt(i);
+			if (c < '0' || c > '9') {
+				setError("invalid NAG $" + symbol);
+				return defaultValue;
+			}
+			nag = nag*10 + (c - '0');
+		}
+		return nag;
+	}
+
+	private boolean isSymbol(String value) {
+		if (symbol.length() != value.length()) return false;
+		for (int i = 0; i < value.length(); i++) {
+			if (symbol.charAt(i) != value.charAt(i)) return false;
+		}
+		return true;
+	}
+
+	private static boolean isSymbolCharacter(int c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+				|| c == '_' || c == '+' || c == '#' || c == '=' || c == ':' || c == '-' || c == '/' || c == '.' || c == '!' || c == '?';
+	}
+
+	/**
+	 * Adds a byte to the text buffer, growing it up to MAX_TEXT_LENGTH
+	 * @param c The byte
+	 */
+	private void appendText(int c) {
+		if (textLength == text.length) {
+			if (text.length == MAX_TEXT_LENGTH) {
+				setError("text longer than " + MAX_TEXT_LENGTH + " bytes");
+				return;
+			}
+			text = Arrays.copyOf(text, Math.min(text.length * 2, MAX_TEXT_LENGTH));
+		}
+		text[textLength++] = (byte) c;
+	}
+
+	/**
+	 * Decodes the text buffer
+	 * @return Returns the text without the whitespace around it
+	 */
+	private String textAsString() {
+		return new String(text, 0, textLength, StandardCharsets.UTF_8).trim();
+	}
+
+	/**
+	 * Remembers the first problem of the current game
+	 * @param message The description of the problem
+	 */
+	private void setError(String message) {
+		if (error == null) {
+			error = message;
+			errorLine = lineNumber;
+		}
+	}
+
+	/**
+	 * Skips whitespace and escaped lines (lines starting with %)
+	 * @return Returns the first other character or -1 at the end of the input
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private int skipWhitespace() throws IOException {
+		int c = read();
+		while (c == ' ' || c == '\t' || c == '\r' || c == '\n' || (c == '%' && atLineStart)) {
+			if (c == '%') skipLine();
+			c = read();
+		}
+		return c;
+	}
+
+	/**
+	 * Skips the rest of the current line
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private void skipLine() throws IOException {
+		int c = read();
+		while (c != '\n' && c != -1) {
+			c = read();
+		}
+	}
+
+	/**
+	 * Reads the next byte, refilling the buffer from the channel when it is empty
+	 * @return Returns the byte (0-255) or -1 at the end of the input
+	 * @throws IOException Thrown if the channel cannot be read
+	 */
+	private int read() throws IOException {
+		if (pushedBack != -1) {
+			int c = pushedBack;
+			pushedBack = -1;
+			return c;
+		}
+		while (!buffer.hasRemaining()) {
+			if (endOfInput) return -1;
+			buffer.clear();
+			if (channel.read(buffer) == -1) endOfInput = true;
+			buffer.flip();
+		}
+		int c = buffer.get() & 0xFF;
+		atLineStart = previous == '\n';
+		previous = c;
+		if (c == '\n') lineNumber++;
+		return c;
+	}
+}
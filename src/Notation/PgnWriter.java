@@ -0,0 +1,218 @@
+package Notation;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Map;
+
+import Board.FenCodec;
+import Board.MoveGenerator;
+import Board.Position;
+import Exceptions.InvalidFEN;
+
+/**
+ * Writes games in the PGN format: the Seven Tag Roster first (with "?" for missing values), then the other tags, the FEN and SetUp tags
+ * if the game does not start from the standard starting position, and the movetext in SAN (including the variations), wrapped at 79 characters.
+ * @author Daniele Palazzo
+ *
+ */
+public class PgnWriter {
+
+	private static final int LINE_LENGTH = 79;
+
+	private Writer out;
+
+	//reused for every game
+	private Position position;
+	private int[] legalMoves;
+	private StringBuilder line;
+	private StringBuilder token;
+
+	//the positions of the variations being written, one per nesting depth (created when a variation that deep is first written)
+	private ArrayList<Position> variationPositions;
+
+	//true if the next token follows an opening parenthesis without a space
+	private boolean attachToken;
+
+	/**
+	 * Constructs a PgnWriter
+	 * @param out The writer the games are written to (it is not closed by the PgnWriter)
+	 */
+	public PgnWriter(Writer out) {
+		this.out = out;
+		position = new Position();
+		legalMoves = new int[MoveGenerator.MAX_MOVES];
+		line = new StringBuilder(LINE_LENGTH + 1);
+		token = new StringBuilder(64);
+		variationPositions = new ArrayList<Position>();
+	}
+
+	/**
+	 * Writes a game followed by an empty line
+	 * @param game The game to write (its moves have to be legal from its starting position, the moves of its variations from the
+	 * position before the move they replace)
+	 * @throws IOException Thrown if the writer fails
+	 * @throws InvalidFEN Thrown if the starting position of the game is not a valid FEN string
+	 */
+	public void writeGame(PgnGame game) throws IOException, InvalidFEN {
+		String fen = game.getStartingFEN();
+		FenCodec.parse((fen == null)?Position.STARTING_FEN:fen, position);
+
+		//tags
+		for (String name : PgnGame.SEVEN_TAG_ROSTER) {
+			String value = (name.equals("Result"))?game.getResult():game.getTag(name);
+			writeTag(name, (value == null)?"?":value);
+		}
+		for (Map.Entry<String, String> tag : game.getTags().entrySet()) {
+			String name = tag.getKey();
+			if (isRosterTag(name) || name.equals("FEN") || name.equals("SetUp")) continue;
+			writeTag(name, tag.getValue());
+		}
+		if (fen != null) {
+			writeTag("SetUp", "1");
+			writeTag("FEN", fen);
+		}
+		out.write('\n');
+
+		//movetext
+		line.setLength(0);
+		attachToken = false;
+		writeMoves(game, position, 0);
+
+		token.setLength(0);
+		writeToken(token.append(game.getResult()));
+		out.write(line.toString());
+		out.write("\n\n");
+	}
+
+	/**
+	 * Writes the moves of the main line or of a variation with their annotations, the variations are written recursively
+	 * @param moves The game or the variation
+	 * @param linePosition The position before the first move of the line (changed by the moves of the line)
+	 * @param depth The nesting depth of the line (0 for the main line)
+	 * @throws IOException Thrown if the writer fails
+	 */
+	private void writeMoves(PgnGame moves, Position linePosition, int depth) throws IOException {
+		boolean numberNeeded = true;
+		if (moves.getComment(0) != null) {
+			writeComment(moves.getComment(0));
+		}
+		writeNags(moves.getNags(0));
+		for (int ply = 1; ply <= moves.getMoveCount(); ply++) {
+			int move = moves.getMove(ply - 1);
+
+			token.setLength(0);
+			if (linePosition.getSideToMove() == Position.WHITE) {
+				token.append(linePosition.getFullMoveNumber()).append(". ");
+			} else if (numberNeeded) {
+				token.append(linePosition.getFullMoveNumber()).append("... ");
+			}
+			San.write(linePosition, move, token, legalMoves);
+			writeToken(token);
+			numberNeeded = false;
+
+			writeNags(moves.getNags(ply));
+			PgnGame[] variations = moves.getVariations(ply);
+			if (variations != null) {
+				if (variationPositions.size() == depth) variationPositions.add(new Position());
+				Position variationPosition = variationPositions.get(depth);
+				for (PgnGame variation : variations) {
+					//the variation replaces the move, so it starts from the position before it
+					variationPosition.copyFrom(linePosition);
+					token.setLength(0);
+					writeToken(token.append('('));
+					attachToken = true;
+					writeMoves(variation, variationPosition, depth + 1);
+					writeClosingParenthesis();
+				}
+				numberNeeded = true;
+			}
+			if (moves.getComment(ply) != null) {
+				writeComment(moves.getComment(ply));
+				numberNeeded = true;
+			}
+
+			linePosition.makeMove(move);
+		}
+	}
+
+	/**
+	 * Writes numeric annotation glyphs
+	 * @param nags The glyphs or null
+	 * @throws IOException Thrown if the writer fails
+	 */
+	private void writeNags(int[] nags) throws IOException {
+		if (nags == null) return;
+		for (int nag : nags) {
+			token.setLength(0);
+			writeToken(token.append('$').append(nag));
+		}
+	}
+
+	/**
+	 * Writes a tag pair (quotes and backslashes in the value are escaped)
+	 * @param name The name of the tag
+	 * @param value The value of the tag
+	 * @throws IOException Thrown if the writer fails
+	 */
+	private void writeTag(String name, String value) throws IOException {
+		out.write('[');
+		out.write(name);
+		out.write(" \"");
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c == '"' || c == '\\') out.write('\\');
+			out.write(c);
+		}
+		out.write("\"]\n");
+	}
+
+	/**
+	 * Writes a comment in braces (closing braces in the comment are dropped, as they cannot be escaped)
+	 * @param comment The comment
+	 * @throws IOException Thrown if the writer fails
+	 */
+	private void writeComment(String comment) throws IOException {
+		token.setLength(0);
+		token.append('{');
+		for (int i = 0; i < comment.length(); i++) {
+			if (comment.charAt(i) != '}') token.append(comment.charAt(i));
+		}
+		writeToken(token.append('}'));
+	}
+
+	/**
+	 * Adds a token to the current line of the movetext, starting a new line if the token does not fit anymore
+	 * (tokens longer than a line, e.g. long comments, are written on a line of their own)
+	 * @param text The token
+	 * @throws IOException Thrown if the writer fails
+	 */
+	private void writeToken(CharSequence text) throws IOException {
+		int separator = attachToken?0:1;
+		attachToken = false;
+		if (line.length() > 0 && line.length() + separator + text.length() > LINE_LENGTH) {
+			out.write(line.toString());
+			out.write('\n');
+			line.setLength(0);
+		}
+		if (line.length() > 0 && separator == 1) line.append(' ');
+		line.append(text);
+	}
+
+	/**
+	 * Closes a variation, directly after its last token if it still fits on the line
+	 * @throws IOException Thrown if the writer fails
+	 */
+	private void writeClosingParenthesis() throws IOException {
+		attachToken = true;
+		token.setLength(0);
+		writeToken(token.append(')'));
+	}
+
+	private static boolean isRosterTag(String name) {
+		for (String rosterTag : PgnGame.SEVEN_TAG_ROSTER) {
+			if (rosterTag.equals(name)) return true;
+		}
+		return false;
+	}
+}
@@ -0,0 +1,169 @@
+package Notation;
+
+import Board.MoveGenerator;
+import Board.PackedMove;
+import Board.Position;
+
+/**
+ * Converts between packed moves and the Standard Algebraic Notation (SAN, e.g. Nf3, exd5, O-O or e8=Q+) used by PGN files.
+ * Moves are read by matching the notation against the legal moves of the position, so that the disambiguation of the notation
+ * is checked with the same rules the moves are played with. Neither direction allocates, the caller supplies the move buffer.
+ * @author Daniele Palazzo
+ *
+ */
+public class San {
+
+	private San() {}; //prevent instantiation
+
+	private static final String PIECE_LETTERS = "NBRQK";
+
+	/**
+	 * Finds the legal move described by a move in Standard Algebraic Notation. Check and mate signs and annotations (!, ?) at the end
+	 * are ignored, as are "x" and "-" between the squares, so long algebraic moves like e2e4 or e7-e8Q are understood as well.
+	 * @param position The position the move is played in
+	 * @param text The text containing the move
+	 * @param start The index of the first character of the move
+	 * @param end The index after the last character of the move
+	 * @param moves A buffer for the legal moves of the position (at least MoveGenerator.MAX_MOVES long)
+	 * @return Returns the packed move or PackedMove.NO_MOVE if the notation is invalid, illegal or ambiguous
+	 */
+	public static int parse(Position position, CharSequence text, int start, int end, int[] moves) {
+		while (end > start && isSuffix(text.charAt(end - 1))) {
+			end--;
+		}
+		if (end - start < 2) return PackedMove.NO_MOVE;
+
+		int count = MoveGenerator.generateLegalMoves(position, moves);
+
+		//castling
+		char first = text.charAt(start);
+		if (first == 'O' || first == '0') {
+			int length = end - start;
+			if ((length != 3 && length != 5) || text.charAt(start + 1) != '-' || text.charAt(start + 2) != first) return PackedMove.NO_MOVE;
+			if (length == 5 && (text.charAt(start + 3) != '-' || text.charAt(start + 4) != first)) return PackedMove.NO_MOVE;
+			int kingColumn = (length == 3)?7:3;
+			for (int i = 0; i < count; i++) {
+				if (PackedMove.getFlag(moves[i]) == PackedMove.CASTLING && Position.columnOf(PackedMove.getTo(moves[i])) == kingColumn) return moves[i];
+			}
+			return PackedMove.NO_MOVE;
+		}
+
+		int pieceType = Position.PAWN;
+		int letter = PIECE_LETTERS.indexOf(first);
+		if (letter != -1) {
+			pieceType = Position.KNIGHT + letter;
+			start++;
+		}
+
+		//promotion
+		int promotionType = Position.NO_PIECE;
+		if (pieceType == Position.PAWN) {
+			int promotion = PIECE_LETTERS.indexOf(Character.toUpperCase(text.charAt(end - 1)));
+			if (promotion != -1 && promotion < 4 && end - start > 2) {
+				promotionType = Position.KNIGHT + promotion;
+				end--;
+				if (text.charAt(end - 1) == '=') end--;
+			}
+		}
+
+		//destination square
+		if (end - start < 2) return PackedMove.NO_MOVE;
+		int toColumn = text.charAt(end - 2) - 'a' + 1;
+		int toRow = text.charAt(end - 1) - '0';
+		if (toColumn < 1 || toColumn > 8 || toRow < 1 || toRow > 8) return PackedMove.NO_MOVE;
+		int to = Position.square(toColumn, toRow);
+		end -= 2;
+
+		//disambiguation and capture sign
+		int fromColumn = 0;
+		int fromRow = 0;
+		for (int i = start; i < end; i++) {
+			char c = text.charAt(i);
+			if (c >= 'a' && c <= 'h') {
+				fromColumn = c - 'a' + 1;
+			} else if (c >= '1' && c <= '8') {
+				fromRow = c - '0';
+			} else if (c != 'x' && c != ':' && c != '-') {
+				return PackedMove.NO_MOVE;
+			}
+		}
+
+		int found = PackedMove.NO_MOVE;
+		for (int i = 0; i < count; i++) {
+			int move = moves[i];
+			int from = PackedMove.getFrom(move);
+			if (PackedMove.getTo(move) != to || PackedMove.getFlag(move) == PackedMove.CASTLING) continue;
+			if (Position.typeOf(position.getPiece(from)) != pieceType) continue;
+			if (fromColumn != 0 && Position.columnOf(from) != fromColumn) continue;
+			if (fromRow != 0 && Position.rowOf(from) != fromRow) continue;
+			if (PackedMove.getPromotionType(move) != promotionType) continue;
+			if (found != PackedMove.NO_MOVE) return PackedMove.NO_MOVE; //ambiguous
+			found = move;
+		}
+		return found;
+	}
+
+	/**
+	 * Appends the Standard Algebraic Notation of a legal move to a buffer, including the check or mate sign
+	 * @param position The position the move is played in (it is changed while the check sign is determined, but restored)
+	 * @param move The packed move
+	 * @param out The buffer to append to
+	 * @param moves A buffer for the legal moves of the position (at least MoveGenerator.MAX_MOVES long)
+	 * @return Returns the buffer
+	 */
+	public static StringBuilder write(Position position, int move, StringBuilder out, int[] moves) {
+		int from = PackedMove.getFrom(move);
+		int to = PackedMove.getTo(move);
+		int flag = PackedMove.getFlag(move);
+		int pieceType = Position.typeOf(position.getPiece(from));
+
+		if (flag == PackedMove.CASTLING) {
+			out.append((Position.columnOf(to) == 7)?"O-O":"O-O-O");
+		} else {
+			boolean capture = position.getPiece(to) != Position.NO_PIECE || flag == PackedMove.EN_PASSANT;
+			if (pieceType == Position.PAWN) {
+				if (capture) out.append((char)(96 + Position.columnOf(from)));
+			} else {
+				out.append(PIECE_LETTERS.charAt(pieceType - Position.KNIGHT));
+
+				//the file, the rank or both are added if another piece of the same type can move to the same square
+				boolean ambiguous = false;
+				boolean sameColumn = false;
+				boolean sameRow = false;
+				int count = MoveGenerator.generateLegalMoves(position, moves);
+				for (int i = 0; i < count; i++) {
+					int otherFrom = PackedMove.getFrom(moves[i]);
+					if (otherFrom == from || PackedMove.getTo(moves[i]) != to || Position.typeOf(position.getPiece(otherFrom)) != pieceType) continue;
+					ambiguous = true;
+					if (Position.columnOf(otherFrom) == Position.columnOf(from)) sameColumn = true;
+					if (Position.rowOf(otherFrom) == Position.rowOf(from)) sameRow = true;
+				}
+				if (ambiguous) {
+					if (!sameColumn || sameRow) out.append((char)(96 + Position.columnOf(from)));
+					if (sameColumn) out.append((char)(48 + Position.rowOf(from)));
+				}
+			}
+			if (capture) out.append('x');
+			out.append((char)(96 + Position.columnOf(to))).append((char)(48 + Position.rowOf(to)));
+			if (PackedMove.isPromotion(move)) {
+				out.append('=').append(PIECE_LETTERS.charAt(PackedMove.getPromotionType(move) - Position.KNIGHT));
+			}
+		}
+
+		position.makeMove(move);
+		if (MoveGenerator.isInCheck(position)) {
+			out.append((MoveGenerator.generateLegalMoves(position, moves) == 0)?'#':'+');
+		}
+		position.unmakeMove();
+		return out;
+	}
+
+	/**
+	 * Determines whether a character can only be part of the check sign or an annotation at the end of a move
+	 * @param c The character
+	 * @return Returns true for +, #, ! and ?
+	 */
+	private static boolean isSuffix(char c) {
+		return c == '+' || c == '#' || c == '!' || c == '?';
+	}
+}
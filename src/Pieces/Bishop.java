@@ -3,7 +3,6 @@ package Pieces;
 import java.util.ArrayList;
 import java.util.List;
 
-import Exceptions.CoordinateOffTheBoard;
 import gui.BoardCoordinate;
 import gui.PlayerColour;
 
@@ -65,39 +64,19 @@ public class Bishop extends Piece {
 		int currentColumn = getCurrentPosition().getColumn();
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn+i, currentRow+i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn+i, currentRow+i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn-i, currentRow-i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn-i, currentRow-i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn+i, currentRow-i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn+i, currentRow-i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn-i, currentRow+i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn-i, currentRow+i)) break;
 		}
 	}
 }
@@ -4,7 +4,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
-import Exceptions.CoordinateOffTheBoard;
+import Board.AttackTables;
 import gui.BoardCoordinate;
 import gui.PlayerColour;
 
@@ -15,7 +15,7 @@ import gui.PlayerColour;
  */
 public class King extends Piece {
 	
-	private ArrayList<BoardCoordinate> possibleSquares;
+	private ArrayList<BoardCoordinate> possibleSquares; //calculated when first requested
 	
 	private boolean firstMove;
 	
@@ -27,8 +27,6 @@ public class King extends Piece {
 	public King(PlayerColour playerColour, BoardCoordinate currentPosition) {
 		super(playerColour, currentPosition);
 		firstMove = true;
-		possibleSquares = new ArrayList<BoardCoordinate>();
-		calculatePossibleSquares();
 	}
 
 	/**
@@ -36,6 +34,9 @@ public class King extends Piece {
 	 */
 	@Override
 	public List<BoardCoordinate> getPossibleSquares() {
+		if (possibleSquares == null) {
+			calculatePossibleSquares();
+		}
 		return possibleSquares;
 	}
 	
@@ -53,7 +54,7 @@ public class King extends Piece {
 	 */
 	public void setFirstMove(boolean b) {
 		firstMove = b;
-		calculatePossibleSquares();
+		possibleSquares = null; //calculated again when requested
 	}
 	
 	/**
@@ -63,70 +64,12 @@ public class King extends Piece {
 		int currentRow = getCurrentPosition().getRow();
 		int currentColumn = getCurrentPosition().getColumn();
 		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn-1, currentRow); //one to the left
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			possibleSquares.add(new BoardCoordinate(currentColumn+1, currentRow)); //one to the right
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn, currentRow+1); //one up
-			possibleSquares.add(square); 
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn, currentRow-1); //one down
-			possibleSquares.add(square); 
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn+1, currentRow+1); //1 up and right
-			possibleSquares.add(square); 
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn-1, currentRow+1);//1 up and left
-			possibleSquares.add(square); 
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn+1, currentRow-1);//1 down and right
-			possibleSquares.add(square); 
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn-1, currentRow-1);//1 down and left
-			possibleSquares.add(square); 
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
+		possibleSquares = new ArrayList<BoardCoordinate>(10);
+		addSquares(possibleSquares, AttackTables.kingAttacks(getCurrentPosition().getSquare()));
 		
 		if (firstMove) {
-			try {
-				BoardCoordinate castleShort = new BoardCoordinate(currentColumn+2, currentRow);
-				BoardCoordinate castleLong = new BoardCoordinate(currentColumn-2, currentRow);
-				possibleSquares.add(castleShort);
-				possibleSquares.add(castleLong);
-			} catch (CoordinateOffTheBoard e) {
-				//will never be reached
-			}
+			addSquare(possibleSquares, currentColumn+2, currentRow); //castle short
+			addSquare(possibleSquares, currentColumn-2, currentRow); //castle long
 		}
 	}
 	
@@ -137,8 +80,7 @@ public class King extends Piece {
 	public void setCurrentPosition(BoardCoordinate currentPosition) {
 		super.setCurrentPosition(currentPosition);
 		firstMove = false;
-		possibleSquares.clear();
-		calculatePossibleSquares();
+		possibleSquares = null; //calculated again when requested
 	}
 	
 	/**
@@ -4,7 +4,7 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
-import Exceptions.CoordinateOffTheBoard;
+import Board.AttackTables;
 import gui.BoardCoordinate;
 import gui.PlayerColour;
 
@@ -15,7 +15,7 @@ import gui.PlayerColour;
  */
 public class Knight extends Piece {
 	
-	private ArrayList<BoardCoordinate> possibleSquares;
+	private ArrayList<BoardCoordinate> possibleSquares; //calculated when first requested
 
 	/**
 	 * Constructs and initialises a Knight object
@@ -24,8 +24,6 @@ public class Knight extends Piece {
 	 */
 	public Knight(PlayerColour playerColour, BoardCoordinate currentPosition) {
 		super(playerColour, currentPosition);
-		possibleSquares = new ArrayList<BoardCoordinate>();
-		calculatePossibleSquares();
 	}
 
 	/**
@@ -33,6 +31,9 @@ public class Knight extends Piece {
 	 */
 	@Override
 	public List<BoardCoordinate> getPossibleSquares() {
+		if (possibleSquares == null) {
+			calculatePossibleSquares();
+		}
 		return possibleSquares;
 	}
 	
@@ -40,65 +41,8 @@ public class Knight extends Piece {
 	 * Calculate the possible squares that the piece could move to if it was the only piece on the board
 	 */
 	private void calculatePossibleSquares() {
-		int currentRow = getCurrentPosition().getRow();
-		int currentColumn = getCurrentPosition().getColumn();
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn+1, currentRow+2);
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn+2, currentRow+1);
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn+2, currentRow-1);
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn+1, currentRow-2);
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		///here
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn-1, currentRow+2);
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn-2, currentRow+1);
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn-2, currentRow-1);
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
-		
-		try {
-			BoardCoordinate square = new BoardCoordinate(currentColumn-1, currentRow-2);
-			possibleSquares.add(square);
-		} catch (CoordinateOffTheBoard e) {
-			//don't add it
-		}
+		possibleSquares = new ArrayList<BoardCoordinate>(8);
+		addSquares(possibleSquares, AttackTables.knightAttacks(getCurrentPosition().getSquare()));
 	}
 	
 	/**
@@ -107,8 +51,7 @@ public class Knight extends Piece {
 	@Override
 	public void setCurrentPosition(BoardCoordinate currentPosition) {
 		super.setCurrentPosition(currentPosition);
-		possibleSquares.clear();
-		calculatePossibleSquares();
+		possibleSquares = null; //calculated again when requested
 	}
 
 	/**
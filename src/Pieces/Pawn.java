@@ -4,7 +4,8 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
-import Exceptions.CoordinateOffTheBoard;
+import Board.AttackTables;
+import Board.Position;
 import gui.BoardCoordinate;
 import gui.PlayerColour;
 
@@ -16,7 +17,7 @@ import gui.PlayerColour;
 public class Pawn extends Piece {
 	
 	private boolean firstMove;
-	private ArrayList<BoardCoordinate> possibleSquares;
+	private ArrayList<BoardCoordinate> possibleSquares; //calculated when first requested
 
 	/**
 	 * Constructs and initialises a Pawn object
@@ -26,8 +27,6 @@ public class Pawn extends Piece {
 	public Pawn(PlayerColour playerColour, BoardCoordinate currentPosition) {
 		super(playerColour, currentPosition);
 		firstMove = true;
-		possibleSquares = new ArrayList<BoardCoordinate>();
-		calculatePossibleSquares();
 	}
 
 	/**
@@ -35,6 +34,9 @@ public class Pawn extends Piece {
 	 */
 	@Override
 	public List<BoardCoordinate> getPossibleSquares() {
+		if (possibleSquares == null) {
+			calculatePossibleSquares();
+		}
 		return possibleSquares;
 	}
 	
@@ -52,7 +54,7 @@ public class Pawn extends Piece {
 	 */
 	public void setFirstMove(boolean b) {
 		firstMove = b;
-		calculatePossibleSquares();
+		possibleSquares = null; //calculated again when requested
 	}
 	
 	/**
@@ -62,58 +64,18 @@ public class Pawn extends Piece {
 		int currentRow = getCurrentPosition().getRow();
 		int currentColumn = getCurrentPosition().getColumn();
 		
-		try {
-			if (this.getPlayerColour() == PlayerColour.White) {
-				BoardCoordinate square = new BoardCoordinate(currentColumn, currentRow+1);
-				possibleSquares.add(square);
-			} else {
-				BoardCoordinate square = new BoardCoordinate(currentColumn, currentRow-1);
-				possibleSquares.add(square);
-			}
-		} catch (CoordinateOffTheBoard e) {
-			//will never be reached
-		}
+		int forward = (this.getPlayerColour() == PlayerColour.White)?1:-1;
 		
-		if (firstMove) {
-			try {
-				if (this.getPlayerColour() == PlayerColour.White) {
-					BoardCoordinate doubleForward = new BoardCoordinate(currentColumn, currentRow+2);
-					possibleSquares.add(doubleForward);
-				} else {
-					BoardCoordinate doubleForward = new BoardCoordinate(currentColumn, currentRow-2);
-					possibleSquares.add(doubleForward);
-				}
-				
-			} catch (CoordinateOffTheBoard e) {
-				//will never be reached
-			}
-		}
+		possibleSquares = new ArrayList<BoardCoordinate>(4);
+		addSquare(possibleSquares, currentColumn, currentRow+forward);
 		
-		try {
-			if (this.getPlayerColour() == PlayerColour.White) {
-				BoardCoordinate doubleForward = new BoardCoordinate(currentColumn+1, currentRow+1);
-				possibleSquares.add(doubleForward);
-			} else {
-				BoardCoordinate doubleForward = new BoardCoordinate(currentColumn-1, currentRow-1);
-				possibleSquares.add(doubleForward);
-			}
-			
-		} catch (CoordinateOffTheBoard e) {
-			//don't add
+		if (firstMove) {
+			addSquare(possibleSquares, currentColumn, currentRow+2*forward);
 		}
 		
-		try {
-			if (this.getPlayerColour() == PlayerColour.White) {
-				BoardCoordinate doubleForward = new BoardCoordinate(currentColumn-1, currentRow+1);
-				possibleSquares.add(doubleForward);
-			} else {
-				BoardCoordinate doubleForward = new BoardCoordinate(currentColumn+1, currentRow-1);
-				possibleSquares.add(doubleForward);
-			}
-			
-		} catch (CoordinateOffTheBoard e) {
-			//don't add
-		}
+		//captures
+		int colour = (this.getPlayerColour() == PlayerColour.White)?Position.WHITE:Position.BLACK;
+		addSquares(possibleSquares, AttackTables.pawnAttacks(colour, getCurrentPosition().getSquare()));
 	}
 	/**
 	 * {@inheritDoc}
@@ -122,8 +84,7 @@ public class Pawn extends Piece {
 	public void setCurrentPosition(BoardCoordinate currentPosition) {
 		super.setCurrentPosition(currentPosition);
 		firstMove = false;
-		possibleSquares.clear();
-		calculatePossibleSquares();
+		possibleSquares = null; //calculated again when requested
 	}
 
 	/**
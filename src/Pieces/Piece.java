@@ -1,17 +1,12 @@
 package Pieces;
 
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.net.URL;
 import java.util.List;
 
-import javax.imageio.ImageIO;
-import javax.swing.ImageIcon;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
 
 import gui.BoardCoordinate;
+import gui.PieceSprites;
 import gui.PlayerColour;
 
 /**
@@ -22,6 +17,7 @@ import gui.PlayerColour;
 public abstract class Piece extends JPanel{
 	
 	private JLabel pieceImage;
+	private String spriteName;
 	private PlayerColour playerColour;
 	private BoardCoordinate currentPosition;
 	
@@ -37,25 +33,43 @@ public abstract class Piece extends JPanel{
 		
 		String pieceColour = (this.getPlayerColour() == PlayerColour.White)?"W":"B";
 		
-		String pieceName = "";
-		
-		//get piece name
-		if (this.toString().split("\\s+")[1].charAt(0) == 'K') { //deal with King/Knight ambiguity
-			pieceName = (this.toString().split("\\s+")[1].charAt(1) == 'n')?"KN":"K"; 
+		//get piece name (the word after the colour)
+		String name = this.toString();
+		int start = name.indexOf(' ') + 1;
+		if (name.charAt(start) == 'K') { //deal with King/Knight ambiguity
+			spriteName = pieceColour + ((name.charAt(start + 1) == 'n')?"KN":"K");
 		} else {
-			pieceName = Character.toString(this.toString().split("\\s+")[1].charAt(0));
+			spriteName = pieceColour + name.charAt(start);
 		}
 		
-		URL url = getClass().getResource("/" + pieceColour + pieceName + ".png");
-		BufferedImage Image = null;
-		try {
-			Image = ImageIO.read(url);
-		} catch (IOException e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+		//the decoded image is shared by all pieces of the same kind
+		pieceImage = new JLabel(PieceSprites.getIcon(spriteName));
+	}
+	
+	/**
+	 * Adds a square to a list of possible squares if the square is on the board
+	 * @param squares The list of squares
+	 * @param column The column number of the square
+	 * @param row The row number of the square
+	 * @return Returns false if the square is off the board (and was not added)
+	 */
+	protected static boolean addSquare(List<BoardCoordinate> squares, int column, int row) {
+		BoardCoordinate square = BoardCoordinate.tryOf(column, row);
+		if (square == null) return false;
+		squares.add(square);
+		return true;
+	}
+	
+	/**
+	 * Adds the squares of a bitboard to a list of possible squares
+	 * @param squares The list of squares
+	 * @param bitboard The bitboard of the squares to add (bit 0 is a1, bit 63 is h8)
+	 */
+	protected static void addSquares(List<BoardCoordinate> squares, long bitboard) {
+		while (bitboard != 0L) {
+			squares.add(BoardCoordinate.ofSquare(Long.numberOfTrailingZeros(bitboard)));
+			bitboard &= bitboard - 1;
 		}
-		
-		pieceImage = new JLabel(new ImageIcon(Image));
 	}
 	
 	/**
@@ -86,6 +100,14 @@ public abstract class Piece extends JPanel{
 		return pieceImage;
 	}
 
+	/**
+	 * Gets the name of the image of the piece
+	 * @return Returns the name used by PieceSprites (W or B followed by P, KN, B, R, Q or K)
+	 */
+	public String getSpriteName() {
+		return spriteName;
+	}
+
 	/**
 	 * Gets the current position of the piece
 	 * @return Returns the current position of the piece
@@ -4,7 +4,6 @@ import java.util.ArrayList;
 import java.util.LinkedList;
 import java.util.List;
 
-import Exceptions.CoordinateOffTheBoard;
 import gui.BoardCoordinate;
 import gui.PlayerColour;
 
@@ -44,75 +43,35 @@ public class Queen extends Piece {
 		int currentColumn = getCurrentPosition().getColumn();
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn+i, currentRow);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn+i, currentRow)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn-i, currentRow);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn-i, currentRow)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn, currentRow+i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn, currentRow+i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn, currentRow-i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn, currentRow-i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn+i, currentRow+i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn+i, currentRow+i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn-i, currentRow-i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn-i, currentRow-i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn+i, currentRow-i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn+i, currentRow-i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn-i, currentRow+i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn-i, currentRow+i)) break;
 		}
 	}
 
@@ -3,7 +3,6 @@ package Pieces;
 import java.util.ArrayList;
 import java.util.List;
 
-import Exceptions.CoordinateOffTheBoard;
 import gui.BoardCoordinate;
 import gui.PlayerColour;
 
@@ -73,39 +72,19 @@ public class Rook extends Piece {
 		int currentColumn = getCurrentPosition().getColumn();
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn+i, currentRow);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn+i, currentRow)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn-i, currentRow);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn-i, currentRow)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn, currentRow+i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn, currentRow+i)) break;
 		}
 		
 		for (int i=1; i < 8; i++) {
-			try {
-				BoardCoordinate square = new BoardCoordinate(currentColumn, currentRow-i);
-				possibleSquares.add(square);
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+			if (!addSquare(possibleSquares, currentColumn, currentRow-i)) break;
 		}
 	}
 
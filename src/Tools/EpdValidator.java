@@ -0,0 +1,278 @@
+package Tools;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import Board.FenCodec;
+import Board.Position;
+import Board.PositionValidator;
+import Exceptions.InvalidFEN;
+
+/**
+ * A command line tool validating and normalising a file of FEN strings or EPD records. Every line is parsed with the FEN codec
+ * and checked with the PositionValidator; accepted lines are written in normalised form (single spaces, castling rights that are not
+ * available removed, EPD operations kept as they are), rejected lines are written together with their line number and the reason.
+ * A line is either a FEN string (six fields) or an EPD record (four fields followed by its operations), so a FEN string followed
+ * by anything else is rejected.
+ * <p>
+ * The file is streamed in batches of lines which are validated in parallel, the outputs keep the order of the input.
+ * <p>
+ * Usage: EpdValidator [-threads n] [-accepted file] [-rejected file] input
+ * <ul>
+ * <li>-threads sets the number of worker threads (default: the number of processors)</li>
+ * <li>-accepted sets the file the accepted lines are written to (default: input.accepted)</li>
+ * <li>-rejected sets the file the rejected lines are written to as "line number TAB reason TAB line" (default: input.rejected)</li>
+ * </ul>
+ * Empty lines are skipped.
+ * @author Daniele Palazzo
+ *
+ */
+public class EpdValidator {
+
+	private EpdValidator() {}; //prevent instantiation
+
+	private static final int BATCH_SIZE = 4096;
+
+	/**
+	 * Runs the validator
+	 * @param args The command line arguments (see the class description)
+	 */
+	public static void main(String[] args) {
+		int threads = Runtime.getRuntime().availableProcessors();
+		String accepted = null;
+		String rejected = null;
+		String input = null;
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-threads") && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-accepted") && i + 1 < args.length) {
+				accepted = args[++i];
+			} else if (args[i].equals("-rejected") && i + 1 < args.length) {
+				rejected = args[++i];
+			} else if (input == null && !args[i].startsWith("-")) {
+				input = args[i];
+			} else {
+				input = null;
+				break;
+			}
+		}
+		if (input == null || threads < 1) {
+			System.err.println("Usage: EpdValidator [-threads n] [-accepted file] [-rejected file] input");
+			System.exit(2);
+		}
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			long start = System.nanoTime();
+			long[] counts = validate(input, (accepted == null)?input + ".accepted":accepted, (rejected == null)?input + ".rejected":rejected,
+					executor, threads);
+			long nanos = Math.max(1L, System.nanoTime() - start);
+			long lines = counts[0] + counts[1];
+			System.out.println(lines + " lines, " + counts[0] + " accepted, " + counts[1] + " rejected, "
+					+ String.format("%.2f", nanos / 1e9) + " s, " + (lines * 1000000000L / nanos) + " lines/sec");
+		} catch (IOException e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Validates every line of a file
+	 * @param input The file to validate
+	 * @param accepted The file to write the accepted lines to
+	 * @param rejected The file to write the rejected lines to
+	 * @param executor The executor validating the batches
+	 * @param threads The number of threads of the executor
+	 * @return Returns the number of accepted lines and the number of rejected lines
+	 * @throws IOException Thrown if a file cannot be read or written
+	 */
+	private static long[] validate(String input, String accepted, String rejected, ExecutorService executor, int threads) throws IOException {
+		long[] counts = new long[2];
+
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(new FileInputStream(input), StandardCharsets.UTF_8), 1 << 16);
+				Writer acceptedWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(accepted), StandardCharsets.UTF_8), 1 << 16);
+				Writer rejectedWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(rejected), StandardCharsets.UTF_8), 1 << 16)) {
+
+			//the batches in progress, in the order of the file (at most two per thread, so that the memory use stays bounded)
+			ArrayDeque<Future<Batch>> pending = new ArrayDeque<Future<Batch>>();
+			long lineNumber = 0;
+			boolean endOfFile = false;
+
+			while (!endOfFile || !pending.isEmpty()) {
+				while (!endOfFile && pending.size() < threads * 2) {
+					Batch batch = new Batch(lineNumber);
+					String line;
+					while (batch.size < BATCH_SIZE && (line = reader.readLine()) != null) {
+						batch.lines[batch.size++] = line;
+					}
+					lineNumber += batch.size;
+					if (batch.size < BATCH_SIZE) endOfFile = true;
+					if (batch.size > 0) pending.add(executor.submit(batch));
+				}
+				if (!pending.isEmpty()) {
+					write(await(pending.poll()), acceptedWriter, rejectedWriter, counts);
+				}
+			}
+		}
+		return counts;
+	}
+
+	/**
+	 * Waits for a batch to be validated
+	 * @param future The future of the batch
+	 * @return Returns the validated batch
+	 * @throws IOException Thrown if the validation failed unexpectedly
+	 */
+	private static Batch await(Future<Batch> future) throws IOException {
+		try {
+			return future.get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("Interrupted while validating", e);
+		} catch (ExecutionException e) {
+			throw new IOException("Validation failed: " + e.getCause(), e.getCause());
+		}
+	}
+
+	/**
+	 * Writes the results of a batch to the outputs
+	 * @param batch The validated batch
+	 * @param acceptedWriter The output of the accepted lines
+	 * @param rejectedWriter The output of the rejected lines
+	 * @param counts The number of accepted and rejected lines so far (updated)
+	 * @throws IOException Thrown if an output cannot be written
+	 */
+	private static void write(Batch batch, Writer acceptedWriter, Writer rejectedWriter, long[] counts) throws IOException {
+		for (int i = 0; i < batch.size; i++) {
+			if (batch.results[i] == null) continue;
+			if (batch.rejected[i]) {
+				rejectedWriter.write(Long.toString(batch.firstLineNumber + i + 1));
+				rejectedWriter.write('\t');
+				rejectedWriter.write(batch.results[i]);
+				rejectedWriter.write('\t');
+				rejectedWriter.write(batch.lines[i]);
+				rejectedWriter.write('\n');
+				counts[1]++;
+			} else {
+				acceptedWriter.write(batch.results[i]);
+				acceptedWriter.write('\n');
+				counts[0]++;
+			}
+		}
+	}
+
+	/**
+	 * A batch of consecutive lines of the input, validated by one worker thread
+	 */
+	private static class Batch implements Callable<Batch> {
+		private long firstLineNumber;
+		private int size;
+		private String[] lines;
+
+		//the normalised line or the reason of the rejection (null for empty lines)
+		private String[] results;
+		private boolean[] rejected;
+
+		/**
+		 * Constructs an empty batch
+		 * @param firstLineNumber The number of lines of the input before the batch
+		 */
+		public Batch(long firstLineNumber) {
+			this.firstLineNumber = firstLineNumber;
+			lines = new String[BATCH_SIZE];
+			results = new String[BATCH_SIZE];
+			rejected = new boolean[BATCH_SIZE];
+		}
+
+		@Override
+		public Batch call() {
+			Position position = new Position();
+			StringBuilder buffer = new StringBuilder(128);
+
+			for (int i = 0; i < size; i++) {
+				String line = lines[i];
+				int end = line.length();
+				while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) end--;
+				if (end == 0) continue;
+
+				try {
+					buffer.setLength(0);
+					normalise(line, position, buffer);
+					String problem = PositionValidator.findProblem(position);
+					if (problem != null) {
+						results[i] = problem;
+						rejected[i] = true;
+						continue;
+					}
+					results[i] = buffer.toString();
+				} catch (InvalidFEN e) {
+					results[i] = e.getMessage();
+					rejected[i] = true;
+				}
+			}
+			return this;
+		}
+	}
+
+	/**
+	 * Normalises a FEN string or an EPD record (the position itself is not validated, see PositionValidator)
+	 * @param line The FEN string or EPD record (whitespace at the end is ignored)
+	 * @param position The position to parse into (set to the position of the line)
+	 * @param buffer The buffer to append the normalised line to
+	 * @return Returns the buffer
+	 * @throws InvalidFEN Thrown if the line does not start with a valid FEN string or a FEN string with clocks is followed by anything
+	 */
+	public static StringBuilder normalise(String line, Position position, StringBuilder buffer) throws InvalidFEN {
+		int end = line.length();
+		while (end > 0 && Character.isWhitespace(line.charAt(end - 1))) end--;
+
+		int fenEnd = FenCodec.parse(line, 0, end, position, false);
+		int operations = fenEnd;
+		while (operations < end && Character.isWhitespace(line.charAt(operations))) operations++;
+
+		int start = buffer.length();
+		FenCodec.write(position, buffer);
+		if (countFields(line, fenEnd) == 4) {
+			//an EPD record without clocks stays without clocks, its operations follow the four fields
+			buffer.setLength(buffer.lastIndexOf(" ", buffer.lastIndexOf(" ") - 1));
+			if (operations < end) buffer.append(' ').append(line, operations, end);
+		} else if (operations < end) {
+			buffer.setLength(start);
+			throw new InvalidFEN("unexpected '" + line.charAt(operations) + "' after the fullmove number", operations);
+		}
+		return buffer;
+	}
+
+	/**
+	 * Counts the whitespace separated fields at the beginning of a line
+	 * @param line The line
+	 * @param end The index after the last character to look at
+	 * @return Returns the number of fields
+	 */
+	private static int countFields(String line, int end) {
+		int fields = 0;
+		boolean inField = false;
+		for (int i = 0; i < end; i++) {
+			boolean whitespace = Character.isWhitespace(line.charAt(i));
+			if (!whitespace && !inField) fields++;
+			inField = !whitespace;
+		}
+		return fields;
+	}
+}
@@ -0,0 +1,138 @@
+package Tools;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import Board.Position;
+import Database.DatabaseBuilder;
+import Database.GameDatabase;
+import Exceptions.InvalidFEN;
+import Exceptions.InvalidPGN;
+import Notation.PgnGame;
+import Notation.PgnReader;
+
+/**
+ * A command line tool creating game databases from PGN files and looking up the games reaching a position.
+ * <p>
+ * Usage:
+ * <ul>
+ * <li>GameDatabaseTool import [-plies n] [-threads n] database.cdb games.pgn... - creates the database from the games of the PGN files
+ * (-plies sets the number of plies of every game whose positions are indexed, default 40; invalid games are skipped and reported)</li>
+ * <li>GameDatabaseTool query [-limit n] database.cdb "fen string" - lists the games reaching the position (default: the first 20)</li>
+ * </ul>
+ * @author Daniele Palazzo
+ *
+ */
+public class GameDatabaseTool {
+
+	private GameDatabaseTool() {}; //prevent instantiation
+
+	private static final int DEFAULT_LIMIT = 20;
+
+	//the number of invalid games that are reported in detail
+	private static final int REPORTED_ERRORS = 10;
+
+	/**
+	 * Runs the tool
+	 * @param args The command line arguments (see the class description)
+	 */
+	public static void main(String[] args) {
+		int plies = DatabaseBuilder.DEFAULT_INDEX_PLIES;
+		int threads = Runtime.getRuntime().availableProcessors();
+		int limit = DEFAULT_LIMIT;
+		List<String> files = new ArrayList<String>();
+
+		String command = (args.length > 0)?args[0]:"";
+		for (int i = 1; i < args.length; i++) {
+			if (args[i].equals("-plies") && i + 1 < args.length) {
+				plies = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-threads") && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-limit") && i + 1 < args.length) {
+				limit = Integer.parseInt(args[++i]);
+			} else {
+				files.add(args[i]);
+			}
+		}
+
+		try {
+			if (command.equals("import") && files.size() >= 2) {
+				importGames(Paths.get(files.get(0)), files.subList(1, files.size()), plies, threads);
+				return;
+			} else if (command.equals("query") && files.size() == 2) {
+				query(Paths.get(files.get(0)), files.get(1), limit);
+				return;
+			}
+		} catch (IOException | InvalidFEN e) {
+			System.err.println(e.getMessage());
+			System.exit(1);
+		}
+		System.err.println("Usage: GameDatabaseTool import [-plies n] [-threads n] database.cdb games.pgn...");
+		System.err.println("       GameDatabaseTool query [-limit n] database.cdb \"fen string\"");
+		System.exit(2);
+	}
+
+	/**
+	 * Creates a database from PGN files
+	 * @param database The database file to create
+	 * @param pgnFiles The PGN files
+	 * @param plies The number of plies of every game whose positions are indexed
+	 * @param threads The number of threads building the index
+	 * @throws IOException Thrown if a file cannot be read or written
+	 */
+	private static void importGames(Path database, List<String> pgnFiles, int plies, int threads) throws IOException {
+		long start = System.nanoTime();
+		long invalidGames = 0;
+		try (DatabaseBuilder builder = new DatabaseBuilder(database, plies, threads)) {
+			for (String pgnFile : pgnFiles) {
+				try (PgnReader reader = new PgnReader(FileChannel.open(Paths.get(pgnFile), StandardOpenOption.READ))) {
+					while (true) {
+						try {
+							PgnGame game = reader.readGame();
+							if (game == null) break;
+							builder.addGame(game);
+						} catch (InvalidPGN e) {
+							if (invalidGames++ < REPORTED_ERRORS) System.err.println(pgnFile + ": " + e.getMessage());
+						}
+					}
+				}
+			}
+			builder.build();
+			System.out.println(builder.getGameCount() + " games imported, " + invalidGames + " invalid games skipped, "
+					+ String.format("%.1f", (System.nanoTime() - start) / 1e9) + " s");
+		}
+	}
+
+	/**
+	 * Lists the games of a database reaching a position
+	 * @param database The database file
+	 * @param fen The position
+	 * @param limit The maximum number of games listed
+	 * @throws IOException Thrown if the database cannot be read
+	 * @throws InvalidFEN Thrown if the FEN string is invalid
+	 */
+	private static void query(Path database, String fen, int limit) throws IOException, InvalidFEN {
+		Position position = new Position();
+		position.setToFEN(fen);
+
+		try (GameDatabase games = new GameDatabase(database)) {
+			long start = System.nanoTime();
+			int[] found = new int[limit];
+			int count = games.findGames(position.getPositionHash(), found);
+			long nanos = System.nanoTime() - start;
+
+			for (int i = 0; i < count; i++) {
+				int game = found[i];
+				System.out.println(games.getWhite(game) + " - " + games.getBlack(game) + ", " + games.getEvent(game) + " "
+						+ GameDatabase.formatDate(games.getDate(game)) + ", " + GameDatabase.resultToString(games.getResult(game)));
+			}
+			System.out.println(count + " games listed (of " + games.getGameCount() + "), "
+					+ String.format("%.2f", nanos / 1e6) + " ms");
+		}
+	}
+}
@@ -0,0 +1,196 @@
+package Tools;
+
+import java.util.Map;
+
+import Board.ParallelPerft;
+import Board.ParallelPerft.ThreadStatistics;
+import Board.Perft;
+import Board.Position;
+import Exceptions.InvalidFEN;
+
+/**
+ * A command line tool running perft on the standard reference positions (or on a single FEN) and reporting the node counts,
+ * whether they match the known results, and the speed of the move generator in nodes per second.
+ * <p>
+ * Usage: PerftBenchmark [-depth n] [-fen "fen string"] [-divide] [-threads n] [-hash mb] [-split plies]
+ * <ul>
+ * <li>without -fen the reference suite is run (-depth limits the depth of every position)</li>
+ * <li>with -fen only that position is searched to the given depth (default 5)</li>
+ * <li>-divide prints the node count below every root move</li>
+ * <li>-threads runs the parallel perft with the given number of worker threads (default: single threaded)</li>
+ * <li>-hash sets the size of the shared perft cache of the parallel perft in megabytes (default 64, 0 disables it)</li>
+ * <li>-split sets how many plies are split into parallel tasks (1 or 2, default 1)</li>
+ * </ul>
+ * @author Daniele Palazzo
+ *
+ */
+public class PerftBenchmark {
+
+	private PerftBenchmark() {}; //prevent instantiation
+
+	private static final int DEFAULT_DEPTH = 5;
+	private static final int DEFAULT_HASH_SIZE = 64;
+
+	//null when the single threaded perft is used
+	private static ParallelPerft parallelPerft;
+
+	/**
+	 * The reference positions: name, FEN, depth and the known node count at that depth
+	 */
+	private static final String[][] REFERENCE_POSITIONS = {
+		{"Start position", Position.STARTING_FEN, "5", "4865609"},
+		{"Kiwipete", "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1", "4", "4085603"},
+		{"Rook endgame with en passant", "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1", "5", "674624"},
+		{"Promotions and castling", "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1", "4", "422333"},
+		{"Discovered checks", "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8", "4", "2103487"},
+		{"Illegal en passant (pin)", "3k4/3p4/8/K1P4r/8/8/8/8 b - - 0 1", "6", "1134888"},
+		{"En passant gives check", "8/8/1k6/2b5/2pP4/8/5K2/8 b - d3 0 1", "6", "1440467"},
+		{"Short castling gives check", "5k2/8/8/8/8/8/8/4K2R w K - 0 1", "6", "661072"},
+		{"Long castling gives check", "3k4/8/8/8/8/8/8/R3K3 w Q - 0 1", "6", "803711"},
+		{"Castling rights", "r3k2r/1b4bq/8/8/8/8/7B/R3K2R w KQkq - 0 1", "4", "1274206"},
+		{"Castling prevented", "r3k2r/8/3Q4/8/8/5q2/8/R3K2R b KQkq - 0 1", "4", "1720476"},
+		{"Promote out of check", "2K2r2/4P3/8/8/8/8/8/3k4 w - - 0 1", "6", "3821001"},
+		{"Promote to give check", "4k3/1P6/8/8/8/8/K7/8 w - - 0 1", "6", "217342"},
+		{"Underpromote to check", "8/P1k5/K7/8/8/8/8/8 w - - 0 1", "6", "92683"},
+		{"Self stalemate", "K1k5/8/P7/8/8/8/8/8 w - - 0 1", "6", "2217"},
+		{"Stalemate and checkmate", "8/k1P5/8/1K6/8/8/8/8 w - - 0 1", "7", "567584"},
+	};
+
+	/**
+	 * Runs the perft benchmark
+	 * @param args The command line arguments (see the class description)
+	 */
+	public static void main(String[] args) {
+		int depth = -1;
+		String fen = null;
+		boolean divide = false;
+		int threads = 0;
+		int hashSize = DEFAULT_HASH_SIZE;
+		int splitPlies = 1;
+
+		for (int i = 0; i < args.length; i++) {
+			if (args[i].equals("-depth") && i + 1 < args.length) {
+				depth = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-fen") && i + 1 < args.length) {
+				fen = args[++i];
+			} else if (args[i].equals("-divide")) {
+				divide = true;
+			} else if (args[i].equals("-threads") && i + 1 < args.length) {
+				threads = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-hash") && i + 1 < args.length) {
+				hashSize = Integer.parseInt(args[++i]);
+			} else if (args[i].equals("-split") && i + 1 < args.length) {
+				splitPlies = Integer.parseInt(args[++i]);
+			} else {
+				System.err.println("Usage: PerftBenchmark [-depth n] [-fen \"fen string\"] [-divide] [-threads n] [-hash mb] [-split plies]");
+				System.exit(2);
+			}
+		}
+
+		if (threads > 0) {
+			parallelPerft = new ParallelPerft(threads, hashSize, splitPlies);
+		}
+
+		try {
+			if (fen != null) {
+				run("Custom position", fen, (depth < 0)?DEFAULT_DEPTH:depth, -1, divide);
+				printThreadStatistics();
+				return;
+			}
+
+			boolean allPassed = true;
+			long totalNodes = 0;
+			long totalNanos = 0;
+			for (String[] reference : REFERENCE_POSITIONS) {
+				int referenceDepth = Integer.parseInt(reference[2]);
+				int searchDepth = (depth < 0)?referenceDepth:Math.min(depth, referenceDepth);
+				long expected = (searchDepth == referenceDepth)?Long.parseLong(reference[3]):-1;
+
+				long start = System.nanoTime();
+				long nodes = run(reference[0], reference[1], searchDepth, expected, divide);
+				totalNanos += System.nanoTime() - start;
+				totalNodes += nodes;
+
+				if (expected >= 0 && nodes != expected) allPassed = false;
+			}
+			System.out.println();
+			System.out.println("Total: " + totalNodes + " nodes, " + formatTime(totalNanos) + ", " + nodesPerSecond(totalNodes, totalNanos) + " nodes/sec");
+			printThreadStatistics();
+			if (!allPassed) {
+				System.out.println("Some node counts did not match the reference results!");
+				System.exit(1);
+			}
+		} catch (InvalidFEN e) {
+			System.err.println(e.getMessage());
+			System.exit(2);
+		} finally {
+			if (parallelPerft != null) parallelPerft.shutdown();
+		}
+	}
+
+	/**
+	 * Prints the nodes and speed of every worker thread of the parallel perft (nothing if the single threaded perft was used)
+	 */
+	private static void printThreadStatistics() {
+		if (parallelPerft == null) return;
+
+		System.out.println("Worker threads:");
+		for (Map.Entry<String, ThreadStatistics> entry : parallelPerft.getThreadStatistics().entrySet()) {
+			ThreadStatistics statistics = entry.getValue();
+			System.out.println("  " + entry.getKey() + ": " + statistics.getNodes() + " nodes, " + formatTime(statistics.getNanos())
+					+ ", " + statistics.getNodesPerSecond() + " nodes/sec");
+		}
+	}
+
+	/**
+	 * Runs perft on a single position and prints the result
+	 * @param name The name of the position
+	 * @param fen The FEN string of the position
+	 * @param depth The depth to search to
+	 * @param expected The expected node count or -1 if it is not known
+	 * @param divide Whether or not to print the node count of every root move
+	 * @return Returns the number of nodes found
+	 * @throws InvalidFEN Thrown if the FEN string is invalid
+	 */
+	private static long run(String name, String fen, int depth, long expected, boolean divide) throws InvalidFEN {
+		Position position = new Position();
+		position.setToFEN(fen);
+
+		long nodes = 0;
+		long start = System.nanoTime();
+		if (depth > 0 && (divide || parallelPerft != null)) {
+			Map<String, Long> rootMoves = (parallelPerft != null)?parallelPerft.divide(position, depth):new Perft(depth).divide(position, depth);
+			for (Map.Entry<String, Long> entry : rootMoves.entrySet()) {
+				if (divide) System.out.println("  " + entry.getKey() + ": " + entry.getValue());
+				nodes += entry.getValue();
+			}
+		} else {
+			nodes = new Perft(depth).perft(position, depth);
+		}
+		long nanos = System.nanoTime() - start;
+
+		String status = (expected < 0)?"":(nodes == expected)?"  OK":"  FAILED (expected " + expected + ")";
+		System.out.println(name + " (depth " + depth + "): " + nodes + " nodes, " + formatTime(nanos) + ", "
+				+ nodesPerSecond(nodes, nanos) + " nodes/sec" + status);
+		return nodes;
+	}
+
+	/**
+	 * Calculates the nodes per second
+	 * @param nodes The number of nodes
+	 * @param nanos The time taken in nanoseconds
+	 * @return Returns the number of nodes per second
+	 */
+	private static long nodesPerSecond(long nodes, long nanos) {
+		return (nanos == 0)?0:nodes * 1000000000L / nanos;
+	}
+
+	/**
+	 * Formats a time in milliseconds
+	 * @param nanos The time in nanoseconds
+	 * @return Returns the formatted time
+	 */
+	private static String formatTime(long nanos) {
+		return (nanos / 1000000) + " ms";
+	}
+}
@@ -0,0 +1,132 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+
+import Database.AnalysisCache;
+import Database.AnalysisCache.Analysis;
+
+class AnalysisCacheTest {
+
+	@Test
+	void test() {
+		Path directory = null;
+		try {
+			directory = Files.createTempDirectory("analysis-cache-test");
+			Path path = directory.resolve("analysis.cache");
+			
+			//put, reopen and get
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				assertTrue(cache.put(1L, analysis(10, "+0.25", "e2e4 e7e5")));
+				assertFalse(cache.put(1L, analysis(8, "+0.30", "d2d4")));
+				assertTrue(cache.put(2L, new Analysis(12, new String[] {"-1.50", "#-3"}, new String[] {"g8f6 c2c4", "b8c6 e7e8q"})));
+			}
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				assertEquals(2, cache.size());
+				Analysis analysis = cache.get(1L);
+				assertEquals(10, analysis.getDepth());
+				assertEquals("+0.25", analysis.getScore(0));
+				assertEquals("e2e4 e7e5", analysis.getLine(0));
+				analysis = cache.get(2L);
+				assertEquals(12, analysis.getDepth());
+				assertEquals(2, analysis.getLineCount());
+				assertEquals("#-3", analysis.getScore(1));
+				assertEquals("b8c6 e7e8q", analysis.getLine(1));
+				assertNull(cache.get(3L));
+			}
+			
+			//a record cut off in the middle is dropped, the records before it are kept and the file can be written again
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				assertTrue(cache.put(3L, analysis(5, "0.00", "a2a3")));
+			}
+			try (FileChannel channel = FileChannel.open(path, StandardOpenOption.WRITE)) {
+				channel.truncate(channel.size() - 3);
+			}
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				assertEquals(2, cache.size());
+				assertEquals(10, cache.get(1L).getDepth());
+				assertEquals(12, cache.get(2L).getDepth());
+				assertNull(cache.get(3L));
+				assertTrue(cache.put(3L, analysis(6, "0.10", "a2a4")));
+			}
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				assertEquals(3, cache.size());
+				assertEquals(6, cache.get(3L).getDepth());
+				assertEquals("a2a4", cache.get(3L).getLine(0));
+			}
+			
+			//an analysis with more lines than a record can hold is only kept in memory, the records after it can still be read
+			String[] scores = new String[256];
+			String[] lines = new String[256];
+			Arrays.fill(scores, "0.00");
+			Arrays.fill(lines, "e2e4");
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				assertTrue(cache.put(5L, new Analysis(7, scores, lines)));
+				assertEquals(256, cache.get(5L).getLineCount());
+				assertTrue(cache.put(6L, analysis(8, "0.20", "b2b3")));
+			}
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				assertNull(cache.get(5L));
+				assertEquals(8, cache.get(6L).getDepth());
+			}
+			
+			//compacting the file keeps the positions that do not fit in memory
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				for (int depth = 20; depth < 40; depth++) {
+					assertTrue(cache.put(4L, analysis(depth, "+0.50", "c2c4")));
+				}
+			}
+			long size = Files.size(path);
+			try (AnalysisCache cache = new AnalysisCache(path, 1)) {
+				assertEquals(1, cache.size());
+				assertEquals(39, cache.get(4L).getDepth());
+			}
+			assertTrue(Files.size(path) < size);
+			try (AnalysisCache cache = new AnalysisCache(path, AnalysisCache.DEFAULT_CAPACITY)) {
+				assertEquals(5, cache.size());
+				assertEquals(10, cache.get(1L).getDepth());
+				assertEquals(12, cache.get(2L).getDepth());
+				assertEquals(6, cache.get(3L).getDepth());
+				assertEquals(39, cache.get(4L).getDepth());
+				assertEquals("c2c4", cache.get(4L).getLine(0));
+				assertEquals(8, cache.get(6L).getDepth());
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	private Analysis analysis(int depth, String score, String line) {
+		return new Analysis(depth, new String[] {score}, new String[] {line});
+	}
+	
+	private void delete(Path directory) {
+		if (directory == null) return;
+		try {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+				for (Path file : files) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		} catch (IOException e) {
+			//the temporary directory is left behind
+		}
+	}
+
+}
@@ -0,0 +1,64 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.jupiter.api.Test;
+
+import Board.Position;
+import Exceptions.InvalidFEN;
+import Notation.PgnGame;
+import gui.ChessBoard;
+
+class ChessBoardTest {
+
+	@Test
+	void test() {
+		ChessBoard chessBoard = new ChessBoard();
+		
+		//Nf3 Nf6 Ng1 Ng8 Nf3 Nf6: the engine can still move
+		loadGame(chessBoard, 6);
+		assertFalse(chessBoard.isGameOver());
+		chessBoard.performEngineMove("f3g1");
+		assertEquals("g1f3 g8f6 f3g1 f6g8 g1f3 g8f6 f3g1 ", chessBoard.getMovesInAlgebraicNotation());
+		
+		//after Ng8 the starting position is on the board for the third time: a late reply of the engine is not played
+		loadGame(chessBoard, 8);
+		assertTrue(chessBoard.isGameOver());
+		long positionHash = chessBoard.getPositionHash();
+		chessBoard.performEngineMove("e2e4");
+		assertEquals("g1f3 g8f6 f3g1 f6g8 g1f3 g8f6 f3g1 f6g8 ", chessBoard.getMovesInAlgebraicNotation());
+		assertEquals(positionHash, chessBoard.getPositionHash());
+		
+		//the game goes on after a new game is started
+		chessBoard.resetBoard();
+		assertFalse(chessBoard.isGameOver());
+		chessBoard.performEngineMove("e2e4");
+		assertEquals("e2e4 ", chessBoard.getMovesInAlgebraicNotation());
+	}
+	
+	//loads the first plies of Nf3 Nf6 Ng1 Ng8 Nf3 Nf6 Ng1 Ng8 onto the board
+	private void loadGame(ChessBoard chessBoard, int plies) {
+		int[][] knightMoves = {{6, 21}, {62, 45}, {21, 6}, {45, 62}}; //g1f3, g8f6, f3g1, f6g8
+		PgnGame game = new PgnGame();
+		Position position = new Position();
+		try {
+			position.setToFEN(Position.STARTING_FEN);
+		} catch (InvalidFEN e) {
+			fail("Wrong FEN entered.");
+		}
+		for (int ply = 0; ply < plies; ply++) {
+			int[] move = knightMoves[ply % 4];
+			game.addMove(position.encodeMove(move[0], move[1], Position.QUEEN));
+			position.makeMove(game.getMove(ply));
+		}
+		try {
+			chessBoard.loadGame(game);
+		} catch (InvalidFEN e) {
+			fail(e.getMessage());
+		}
+	}
+
+}
@@ -0,0 +1,85 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.junit.jupiter.api.Test;
+
+import Board.DrawAdjudicator;
+import Board.DrawAdjudicator.Draw;
+import Board.MoveGenerator;
+import Board.Position;
+import Exceptions.InvalidFEN;
+
+class DrawAdjudicatorTest {
+
+	@Test
+	void test() {
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		
+		//threefold repetition: the starting position after Nf3 Nf6 Ng1 Ng8 twice
+		Position position = positionOf(Position.STARTING_FEN);
+		for (int i = 0; i < 2; i++) {
+			assertFalse(DrawAdjudicator.isThreefoldRepetition(position));
+			position.applyMove(6, 21, Position.NO_PIECE);		//g1f3
+			position.applyMove(62, 45, Position.NO_PIECE);		//g8f6
+			position.applyMove(21, 6, Position.NO_PIECE);		//f3g1
+			position.applyMove(45, 62, Position.NO_PIECE);		//f6g8
+		}
+		assertEquals(Draw.THREEFOLD_REPETITION, DrawAdjudicator.adjudicate(position, moves));
+		
+		//the first position still had the castling rights, so it is a different position
+		position = positionOf("r3k3/8/8/8/8/8/8/4K2R w Kq - 0 1");
+		for (int i = 0; i < 3; i++) {
+			assertFalse(DrawAdjudicator.isThreefoldRepetition(position));
+			position.applyMove(7, 15, Position.NO_PIECE);		//h1h2
+			position.applyMove(56, 48, Position.NO_PIECE);		//a8a7
+			position.applyMove(15, 7, Position.NO_PIECE);		//h2h1
+			position.applyMove(48, 56, Position.NO_PIECE);		//a7a8
+		}
+		assertTrue(DrawAdjudicator.isThreefoldRepetition(position));
+		
+		//the position after e2e4 can be taken en passant, so it is a different position from the same pieces later on
+		position = positionOf("4k3/8/8/8/3p4/8/4P3/4K3 w - - 0 1");
+		position.applyMove(12, 28, Position.NO_PIECE);			//e2e4
+		for (int i = 0; i < 3; i++) {
+			assertFalse(DrawAdjudicator.isThreefoldRepetition(position));
+			position.applyMove(60, 59, Position.NO_PIECE);		//e8d8
+			position.applyMove(4, 3, Position.NO_PIECE);		//e1d1
+			position.applyMove(59, 60, Position.NO_PIECE);		//d8e8
+			position.applyMove(3, 4, Position.NO_PIECE);		//d1e1
+		}
+		assertTrue(DrawAdjudicator.isThreefoldRepetition(position));
+		
+		//fifty-move rule: drawn with the hundredth ply, unless that ply gives checkmate
+		position = positionOf("7k/8/6K1/8/8/8/8/R7 w - - 99 80");
+		assertEquals(Draw.NONE, DrawAdjudicator.adjudicate(position, moves));
+		position.applyMove(0, 8, Position.NO_PIECE);			//a1a2
+		assertEquals(Draw.FIFTY_MOVE_RULE, DrawAdjudicator.adjudicate(position, moves));
+		position.unmakeMove();
+		position.applyMove(0, 56, Position.NO_PIECE);			//a1a8 mate
+		assertEquals(100, position.getHalfMoveClock());
+		assertEquals(Draw.NONE, DrawAdjudicator.adjudicate(position, moves));
+		
+		//insufficient material
+		assertTrue(DrawAdjudicator.isInsufficientMaterial(positionOf("4k3/8/8/8/8/8/8/4K3 w - - 0 1")));	//KvK
+		assertTrue(DrawAdjudicator.isInsufficientMaterial(positionOf("4k3/8/8/8/8/8/8/2B1K3 w - - 0 1")));	//KBvK
+		assertTrue(DrawAdjudicator.isInsufficientMaterial(positionOf("4k3/8/8/8/8/8/8/1N2K3 w - - 0 1")));	//KNvK
+		assertTrue(DrawAdjudicator.isInsufficientMaterial(positionOf("4kb2/8/8/8/8/8/8/2B1K3 w - - 0 1")));	//KBvKB, both bishops on dark squares
+		assertFalse(DrawAdjudicator.isInsufficientMaterial(positionOf("2b1k3/8/8/8/8/8/8/2B1K3 w - - 0 1")));	//KBvKB, opposite colours
+		assertFalse(DrawAdjudicator.isInsufficientMaterial(positionOf("4k3/8/8/8/8/8/4P3/4K3 w - - 0 1")));	//KPvK
+	}
+	
+	private Position positionOf(String fen) {
+		Position position = new Position();
+		try {
+			position.setToFEN(fen);
+		} catch (InvalidFEN e) {
+			fail("Wrong FEN entered.");
+		}
+		return position;
+	}
+
+}
@@ -0,0 +1,45 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.jupiter.api.Test;
+
+import Board.Position;
+import Exceptions.InvalidFEN;
+import Tools.EpdValidator;
+
+class EpdValidatorTest {
+
+	@Test
+	void test() {
+		Position position = new Position();
+		
+		//EPD records keep their operations after the four normalised fields, unavailable castling rights are removed
+		assertEquals("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - bm e4; id \"start\";",
+				normalise("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR  w KQkq -   bm e4; id \"start\";  ", position));
+		assertEquals("4k3/8/8/8/8/8/8/4K3 w - - c0 \"kings\";", normalise("4k3/8/8/8/8/8/8/4K3 w KQkq - c0 \"kings\";", position));
+		
+		//FEN strings keep their clocks
+		assertEquals("4k3/8/8/8/8/8/8/4K3 b - - 3 40", normalise("4k3/8/8/8/8/8/8/4K3\tb - - 3 40", position));
+		
+		//a FEN string cannot be followed by operations
+		String fen = "4k3/8/8/8/8/8/8/4K3 w - - 0 1";
+		try {
+			EpdValidator.normalise(fen + " bm Kd2;", position, new StringBuilder());
+			fail("Operations after the clocks were accepted.");
+		} catch (InvalidFEN e) {
+			assertEquals(fen.length() + 1, e.getErrorIndex());
+		}
+	}
+	
+	private String normalise(String line, Position position) {
+		try {
+			return EpdValidator.normalise(line, position, new StringBuilder()).toString();
+		} catch (InvalidFEN e) {
+			fail(e.getMessage());
+			return null;
+		}
+	}
+
+}
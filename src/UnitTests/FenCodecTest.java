@@ -0,0 +1,62 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.jupiter.api.Test;
+
+import Board.FenCodec;
+import Board.Position;
+import Exceptions.InvalidFEN;
+
+class FenCodecTest {
+
+	@Test
+	void test() {
+		//valid FEN strings are written back unchanged
+		String[] fens = {
+				Position.STARTING_FEN,
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+				"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+				"rnbqkbnr/ppp1p1pp/8/3pPp2/8/8/PPPP1PPP/RNBQKBNR w KQkq f6 0 3",
+				"4k3/8/8/8/8/8/8/4K3 b - - 57 120"
+		};
+		Position position = new Position();
+		StringBuilder written = new StringBuilder();
+		for (String fen : fens) {
+			try {
+				FenCodec.parse(fen, position);
+			} catch (InvalidFEN e) {
+				fail(e.getMessage());
+			}
+			written.setLength(0);
+			assertEquals(fen, FenCodec.write(position, written).toString());
+		}
+		
+		//the error index points at the offending character
+		String start = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR";
+		checkError("rnbqkbnr/ppppxppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 13);		//bad piece letter
+		checkError("rnbqkbnr/ppppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 17);	//too many squares
+		checkError("4k4/8/8/8/8/8/8/4K3 w - - 0 1", 2);										//too many squares with a digit
+		checkError("rnbqkbnr/ppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1", 16);		//too few squares
+		checkError("rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBN w KQkq - 0 1", 42);		//too few squares on the last rank
+		checkError(start + " w KQkq e5 0 1", start.length() + 9);						//en passant square on rank 5
+		checkError(start + " w KQkq i3 0 1", start.length() + 8);						//en passant square off the board
+		checkError(start + " x KQkq - 0 1", start.length() + 1);						//bad side to move
+		checkError(start, start.length());												//no side to move
+		checkError(start + " w KQkq -", start.length() + 9);							//no clocks
+		checkError(start + " w KQkq - 0", start.length() + 11);							//no fullmove number
+		checkError(start + " w KQkq - 0 1 x", start.length() + 14);						//trailing text
+	}
+	
+	private void checkError(String fen, int errorIndex) {
+		try {
+			FenCodec.parse(fen, new Position());
+			fail("The invalid FEN was accepted: " + fen);
+		} catch (InvalidFEN e) {
+			assertEquals(e.getMessage(), errorIndex, e.getErrorIndex());
+		}
+	}
+
+}
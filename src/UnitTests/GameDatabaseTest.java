@@ -0,0 +1,102 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+
+import Board.PackedMove;
+import Board.Position;
+import Database.DatabaseBuilder;
+import Database.GameDatabase;
+import Exceptions.InvalidFEN;
+import Exceptions.InvalidPGN;
+import Notation.PgnGame;
+import Notation.PgnReader;
+
+class GameDatabaseTest {
+
+	@Test
+	void test() {
+		String pgn = "[Event \"Test1\"]\n[Date \"2020.05.??\"]\n[White \"A\"]\n[Black \"B\"]\n[WhiteElo \"2400\"]\n\n1. e4 e5 2. Nf3 1-0\n\n"
+				+ "[Event \"Test2\"]\n[White \"C\"]\n[Black \"D\"]\n\n1. e4 c5 1/2-1/2\n";
+		Path directory = null;
+		try {
+			directory = Files.createTempDirectory("database-test");
+			Path path = directory.resolve("test." + GameDatabase.FILE_EXTENSION);
+			
+			try (DatabaseBuilder builder = new DatabaseBuilder(path, DatabaseBuilder.DEFAULT_INDEX_PLIES, 2);
+					PgnReader reader = new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))))) {
+				PgnGame game;
+				while ((game = reader.readGame()) != null) {
+					builder.addGame(game);
+				}
+				builder.build();
+			}
+			
+			try (GameDatabase games = new GameDatabase(path)) {
+				assertEquals(2, games.getGameCount());
+				assertEquals("2020.05.??", GameDatabase.formatDate(games.getDate(0)));
+				assertEquals("????.??.??", GameDatabase.formatDate(games.getDate(1)));
+				assertEquals(2400, games.getWhiteElo(0));
+				assertEquals("C", games.getWhite(1));
+				assertEquals(GameDatabase.DRAW, games.getResult(1));
+				assertEquals(3, games.getMoveCount(0));
+				assertEquals("g1f3", PackedMove.toLongAlgebraic(games.getMove(0, 2)));
+				
+				//both games reach the position after 1. e4, the next move is their second move
+				Position position = new Position();
+				position.setToFEN(Position.STARTING_FEN);
+				position.applyMove(12, 28, Position.NO_PIECE);		//e2e4
+				long entry = games.findFirstEntry(position.getPositionHash());
+				assertTrue(entry != -1);
+				assertEquals(0, games.getEntryGame(entry));
+				assertEquals(1, games.getEntryPly(entry));
+				assertEquals(1, games.getEntryGame(entry + 1));
+				int[] found = new int[10];
+				assertEquals(2, games.findGames(position.getPositionHash(), found));
+				assertEquals("e7e5", PackedMove.toLongAlgebraic(games.getMove(found[0], 1)));
+				assertEquals("c7c5", PackedMove.toLongAlgebraic(games.getMove(found[1], 1)));
+				
+				//only the first game reaches the position after 1. e4 e5
+				position.applyMove(52, 36, Position.NO_PIECE);		//e7e5
+				assertEquals(1, games.findGames(position.getPositionHash(), found));
+				assertEquals(-1, games.findFirstEntry(0L));
+				
+				//the games are read back with their tags and moves
+				PgnGame game = games.getGame(1);
+				assertEquals("Test2", game.getTag("Event"));
+				assertEquals("1/2-1/2", game.getResult());
+				assertEquals(2, game.getMoveCount());
+			}
+		} catch (IOException | InvalidPGN | InvalidFEN e) {
+			fail(e.getMessage());
+		} finally {
+			delete(directory);
+		}
+	}
+	
+	private void delete(Path directory) {
+		if (directory == null) return;
+		try {
+			try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+				for (Path file : files) {
+					Files.delete(file);
+				}
+			}
+			Files.delete(directory);
+		} catch (IOException e) {
+			//the temporary directory is left behind
+		}
+	}
+
+}
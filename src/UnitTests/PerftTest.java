@@ -0,0 +1,53 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.jupiter.api.Test;
+
+import Board.Perft;
+import Board.Position;
+import Exceptions.InvalidFEN;
+
+class PerftTest {
+
+	@Test
+	void test() {
+		String[] fens = {
+				Position.STARTING_FEN,
+				"r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+				"8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+				"r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+				"rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8"
+		};
+		long[][] nodes = {
+				{20, 400, 8902},
+				{48, 2039, 97862},
+				{14, 191, 2812},
+				{6, 264, 9467},
+				{44, 1486, 62379}
+		};
+		
+		Perft perft = new Perft(3);
+		Position position = new Position();
+		
+		for (int i = 0; i < fens.length; i++) {
+			try {
+				position.setToFEN(fens[i]);
+			} catch (InvalidFEN e) {
+				fail("Wrong FEN entered.");
+			}
+			for (int depth = 1; depth <= 3; depth++) {
+				assertEquals(nodes[i][depth-1], perft.perft(position, depth));
+			}
+		}
+		
+		//the divide results add up to the perft result
+		long total = 0;
+		for (long count : perft.divide(position, 2).values()) {
+			total += count;
+		}
+		assertEquals(1486L, total);
+	}
+
+}
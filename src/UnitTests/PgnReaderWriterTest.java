@@ -0,0 +1,93 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import Board.PackedMove;
+import Exceptions.InvalidFEN;
+import Exceptions.InvalidPGN;
+import Notation.PgnGame;
+import Notation.PgnReader;
+import Notation.PgnWriter;
+
+class PgnReaderWriterTest {
+
+	@Test
+	void test() {
+		String annotated = "[Event \"Test \\\"quoted\\\"\"]\n[White \"A\"]\n[Black \"B\"]\n[Result \"1-0\"]\n[Annotator \"X\"]\n\n"
+				+ "{Start} 1. e4 e5 $1 (1... c5 {Sicilian} 2. Nf3 (2. c3 d5) 2... d6 $14) 2. Nf3!? ; line comment\n"
+				+ "Nc6 (2... d6 3. d4) 3. Bb5 1-0\n\n";
+		String illegal = "[Event \"Illegal\"]\n\n1. e4 (1. e5 d5) e5 *\n\n";
+		String next = "[Event \"Next\"]\n\n1. d4 d5 1/2-1/2\n";
+		
+		try (PgnReader reader = readerOf(annotated + illegal + next)) {
+			PgnGame game = reader.readGame();
+			
+			//tags, comments and NAGs (annotation symbols become NAGs)
+			assertEquals("Test \"quoted\"", game.getTag("Event"));
+			assertEquals("X", game.getTag("Annotator"));
+			assertEquals("1-0", game.getResult());
+			assertEquals(5, game.getMoveCount());
+			assertEquals("Start", game.getComment(0));
+			assertEquals("line comment", game.getComment(3));
+			assertEquals(1, game.getNags(2)[0]);
+			assertEquals(5, game.getNags(3)[0]);
+			
+			//variations are moves, starting from the position before the move they replace
+			PgnGame sicilian = game.getVariations(2)[0];
+			assertEquals(3, sicilian.getMoveCount());
+			assertEquals("c7c5", PackedMove.toLongAlgebraic(sicilian.getMove(0)));
+			assertEquals("Sicilian", sicilian.getComment(1));
+			assertEquals(14, sicilian.getNags(3)[0]);
+			assertEquals("c2c3", PackedMove.toLongAlgebraic(sicilian.getVariations(2)[0].getMove(0)));
+			assertEquals(2, game.getVariations(4)[0].getMoveCount());
+			assertNull(game.getVariations(3));
+			
+			//writing and reading the game again gives the same game
+			String written = write(game);
+			assertEquals("[Event \"Test \\\"quoted\\\"\"]\n[Site \"?\"]\n[Date \"?\"]\n[Round \"?\"]\n[White \"A\"]\n[Black \"B\"]\n"
+					+ "[Result \"1-0\"]\n[Annotator \"X\"]\n\n"
+					+ "{Start} 1. e4 e5 $1 (1... c5 {Sicilian} 2. Nf3 (2. c3 d5) 2... d6 $14) 2. Nf3\n"
+					+ "$5 {line comment} 2... Nc6 (2... d6 3. d4) 3. Bb5 1-0\n\n", written);
+			try (PgnReader rereader = readerOf(written)) {
+				assertEquals(written, write(rereader.readGame()));
+			}
+			
+			//an illegal move in a variation is reported, and reading goes on with the next game
+			try {
+				reader.readGame();
+				fail("The illegal move in the variation was accepted.");
+			} catch (InvalidPGN e) {
+				assertEquals(12, e.getLineNumber());
+				assertTrue(e.getMessage(), e.getMessage().endsWith("illegal or ambiguous move e5"));
+			}
+			game = reader.readGame();
+			assertEquals("Next", game.getTag("Event"));
+			assertEquals(2, game.getMoveCount());
+			assertNull(reader.readGame());
+		} catch (IOException | InvalidPGN | InvalidFEN e) {
+			fail(e.getMessage());
+		}
+	}
+	
+	private PgnReader readerOf(String pgn) {
+		return new PgnReader(Channels.newChannel(new ByteArrayInputStream(pgn.getBytes(StandardCharsets.UTF_8))));
+	}
+	
+	private String write(PgnGame game) throws IOException, InvalidFEN {
+		StringWriter out = new StringWriter();
+		new PgnWriter(out).writeGame(game);
+		return out.toString();
+	}
+
+}
@@ -0,0 +1,117 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import Board.PackedMove;
+import Board.Position;
+import Database.PolyglotBook;
+import Exceptions.InvalidFEN;
+
+class PolyglotBookTest {
+
+	@Test
+	void test() {
+		//the keys given by the Polyglot specification
+		Position position = positionOf(Position.STARTING_FEN);
+		long startKey = PolyglotBook.getKey(position);
+		assertEquals(0x463B96181691FC9CL, startKey);
+		position.applyMove(12, 28, Position.NO_PIECE);		//e2e4
+		long e4Key = PolyglotBook.getKey(position);
+		assertEquals(0x823C9B50FD114196L, e4Key);
+		position.applyMove(51, 35, Position.NO_PIECE);		//d7d5
+		assertEquals(0x0756B94461C50FB0L, PolyglotBook.getKey(position));
+		position.applyMove(28, 36, Position.NO_PIECE);		//e4e5
+		position.applyMove(53, 37, Position.NO_PIECE);		//f7f5, can be taken en passant
+		assertEquals(0x22A48B5A8E47FF78L, PolyglotBook.getKey(position));
+		position.applyMove(4, 12, Position.NO_PIECE);		//e1e2
+		position.applyMove(60, 53, Position.NO_PIECE);		//e8f7
+		assertEquals(0x00FDD303C946BDD9L, PolyglotBook.getKey(position));
+		
+		Position castling = positionOf("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+		long castlingKey = PolyglotBook.getKey(castling);
+		
+		Path path = null;
+		try {
+			//a small book, sorted by the keys as unsigned numbers: e2e4 and d2d4 from the starting position, e7e5 after e4,
+			//a move that is not legal in the starting position and castling encoded as the king capturing its rook
+			long[][] entries = {
+					{startKey, bookMove(12, 28), 10},
+					{startKey, bookMove(11, 27), 5},
+					{startKey, bookMove(12, 36), 100},
+					{e4Key, bookMove(52, 36), 1},
+					{castlingKey, bookMove(4, 7), 1}
+			};
+			Arrays.sort(entries, new Comparator<long[]>() {
+				@Override
+				public int compare(long[] entry1, long[] entry2) {
+					return Long.compareUnsigned(entry1[0], entry2[0]);
+				}
+			});
+			path = Files.createTempFile("book", "." + PolyglotBook.FILE_EXTENSION);
+			try (DataOutputStream out = new DataOutputStream(Files.newOutputStream(path))) {
+				for (long[] entry : entries) {
+					out.writeLong(entry[0]);
+					out.writeShort((int) entry[1]);
+					out.writeShort((int) entry[2]);
+					out.writeInt(0);
+				}
+			}
+			
+			try (PolyglotBook book = new PolyglotBook(path)) {
+				assertEquals(5, book.getEntryCount());
+				
+				int[] moves = new int[8];
+				int[] weights = new int[8];
+				assertEquals(2, book.getMoves(positionOf(Position.STARTING_FEN), moves, weights));
+				assertEquals("e2e4", PackedMove.toLongAlgebraic(moves[0]));
+				assertEquals(10, weights[0]);
+				assertEquals("d2d4", PackedMove.toLongAlgebraic(moves[1]));
+				assertEquals(5, weights[1]);
+				
+				Position afterE4 = positionOf(Position.STARTING_FEN);
+				afterE4.applyMove(12, 28, Position.NO_PIECE);
+				assertEquals("e7e5", PackedMove.toLongAlgebraic(book.chooseMove(afterE4, new Random(1))));
+				
+				assertEquals(1, book.getMoves(castling, moves, weights));
+				assertEquals(PackedMove.CASTLING, PackedMove.getFlag(moves[0]));
+				assertEquals(6, PackedMove.getTo(moves[0]));
+				
+				assertEquals(PackedMove.NO_MOVE, book.chooseMove(positionOf("4k3/8/8/8/8/8/8/4K3 w - - 0 1"), new Random(1)));
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		} finally {
+			try {
+				if (path != null) Files.delete(path);
+			} catch (IOException e) {
+				//the temporary file is left behind
+			}
+		}
+	}
+	
+	private static long bookMove(int from, int to) {
+		return (from << 6) | to;
+	}
+	
+	private Position positionOf(String fen) {
+		Position position = new Position();
+		try {
+			position.setToFEN(fen);
+		} catch (InvalidFEN e) {
+			fail("Wrong FEN entered.");
+		}
+		return position;
+	}
+
+}
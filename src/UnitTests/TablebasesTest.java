@@ -0,0 +1,88 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+import org.junit.jupiter.api.Test;
+
+import Board.MoveGenerator;
+import Board.PackedMove;
+import Board.Position;
+import Database.Tablebases;
+import Exceptions.InvalidFEN;
+
+class TablebasesTest {
+
+	@Test
+	void test() {
+		Path empty = null;
+		try {
+			//without tables nothing can be probed
+			empty = Files.createTempDirectory("tablebases-test");
+			try (Tablebases tablebases = new Tablebases(empty)) {
+				Position position = positionOf("7k/8/6K1/8/8/8/8/Q7 w - - 0 1");
+				assertEquals(0, tablebases.getTableCount());
+				assertFalse(tablebases.canProbe(position));
+				assertEquals(Tablebases.NO_RESULT, tablebases.probeWdl(position));
+				assertEquals(PackedMove.NO_MOVE, tablebases.findBestMove(position));
+			}
+			Files.delete(empty);
+			
+			//the probes need the 3 and 4 piece tables, which are not part of the sources: set SYZYGY_PATH to their directory
+			String directory = System.getenv("SYZYGY_PATH");
+			if (directory == null) return;
+			try (Tablebases tablebases = new Tablebases(Paths.get(directory))) {
+				assertTrue(tablebases.getMaxPieces() >= 4);
+				
+				//KQvK, white mates in one (the zeroing move is the mate)
+				Position position = positionOf("7k/8/6K1/8/8/8/8/Q7 w - - 0 1");
+				assertEquals(Tablebases.WIN, tablebases.probeWdl(position));
+				assertEquals(1, tablebases.probeDtz(position));
+				position.makeMove(tablebases.findBestMove(position));
+				assertTrue(MoveGenerator.isInCheck(position));
+				assertEquals(0, MoveGenerator.generateLegalMoves(position, new int[MoveGenerator.MAX_MOVES]));
+				
+				//KQvK, black to move loses
+				position = positionOf("7k/8/6K1/8/8/8/8/Q7 b - - 0 1");
+				assertEquals(Tablebases.LOSS, tablebases.probeWdl(position));
+				assertTrue(tablebases.probeDtz(position) < 0);
+				
+				//KRvK and KBNvK are won, KBvK and KNvK are drawn
+				assertEquals(Tablebases.WIN, tablebases.probeWdl(positionOf("8/8/3k4/8/8/8/8/R3K3 w - - 0 1")));
+				assertEquals(Tablebases.WIN, tablebases.probeWdl(positionOf("8/8/3k4/8/8/8/8/1N2KB2 w - - 0 1")));
+				assertEquals(Tablebases.DRAW, tablebases.probeWdl(positionOf("8/8/3k4/8/8/8/8/4KB2 w - - 0 1")));
+				assertEquals(Tablebases.DRAW, tablebases.probeWdl(positionOf("8/8/3k4/8/8/8/8/1N2K3 b - - 0 1")));
+				
+				//KPvK with a rook pawn and the defending king in the corner is drawn
+				position = positionOf("k7/8/8/8/8/8/P7/K7 w - - 0 1");
+				assertEquals(Tablebases.DRAW, tablebases.probeWdl(position));
+				assertEquals(0, tablebases.probeDtz(position));
+				
+				//KQvKN is won for the side with the queen
+				position = positionOf("4k3/8/8/8/8/8/8/n2QK3 w - - 0 1");
+				assertEquals(Tablebases.WIN, tablebases.probeWdl(position));
+				assertTrue(tablebases.probeDtz(position) > 0);
+			}
+		} catch (IOException e) {
+			fail(e.getMessage());
+		}
+	}
+	
+	private Position positionOf(String fen) {
+		Position position = new Position();
+		try {
+			position.setToFEN(fen);
+		} catch (InvalidFEN e) {
+			fail("Wrong FEN entered.");
+		}
+		return position;
+	}
+
+}
@@ -0,0 +1,83 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import Board.PackedMove;
+import Board.Position;
+import gui.InfoRecord;
+import gui.UciParser;
+
+class UciParserTest {
+
+	@Test
+	void test() {
+		UciParser parser = new UciParser();
+		
+		//a full info line of the second of several lines
+		assertEquals(UciParser.INFO, parser.parseUCIResponseLine("info depth 24 seldepth 31 multipv 2 score mate -3 lowerbound nodes 1234567 nps 890123 hashfull 512 tbhits 7 time 1387 pv e2e4 e7e5 g1f3 b7b5 a7a8q"));
+		InfoRecord info = parser.getInfo();
+		assertEquals(24, info.getDepth());
+		assertEquals(31, info.getSelDepth());
+		assertEquals(2, info.getMultiPV());
+		assertEquals(InfoRecord.SCORE_MATE, info.getScoreType());
+		assertEquals(-3, info.getScore());
+		assertEquals(InfoRecord.BOUND_LOWER, info.getBound());
+		assertEquals(1234567L, info.getNodes());
+		assertEquals(890123L, info.getNps());
+		assertEquals(512, info.getHashFull());
+		assertEquals(7L, info.getTbHits());
+		assertEquals(1387L, info.getTime());
+		assertEquals(5, info.getPVLength());
+		assertEquals(PackedMove.encode(12, 28, PackedMove.NORMAL), info.getPVMove(0));
+		assertEquals(PackedMove.encodePromotion(Position.square(1, 7), Position.square(1, 8), Position.QUEEN), info.getPVMove(4));
+		assertEquals("e2e4 e7e5 g1f3 b7b5 a7a8q ", info.appendPV(new StringBuilder()).toString());
+		assertEquals("M3", info.appendScore(new StringBuilder(), false).toString());
+		
+		//the record is cleared for every line
+		assertEquals(UciParser.INFO, parser.parseUCIResponseLine("info depth 12 score cp 35 upperbound pv d2d4"));
+		assertEquals(-1, info.getSelDepth());
+		assertEquals(-1, info.getMultiPV());
+		assertEquals(-1L, info.getNodes());
+		assertEquals(InfoRecord.SCORE_CP, info.getScoreType());
+		assertEquals(35, info.getScore());
+		assertEquals(InfoRecord.BOUND_UPPER, info.getBound());
+		assertEquals(1, info.getPVLength());
+		
+		//the score is shown from white's point of view
+		assertEquals("0.35", info.appendScore(new StringBuilder(), false).toString());
+		assertEquals("-0.35", info.appendScore(new StringBuilder(), true).toString());
+		assertEquals("1.05", InfoRecord.appendScore(new StringBuilder(), InfoRecord.SCORE_CP, -105, true).toString());
+		assertEquals("", InfoRecord.appendScore(new StringBuilder(), InfoRecord.SCORE_NONE, 0, true).toString());
+		
+		//the rest of a string line is free text
+		assertEquals(UciParser.INFO, parser.parseUCIResponseLine("info string depth 5 pv e2e4"));
+		assertEquals(-1, info.getDepth());
+		assertEquals(0, info.getPVLength());
+		
+		//malformed numbers
+		assertEquals(UciParser.INFO, parser.parseUCIResponseLine("info depth x12 seldepth - nodes 12a3 score cp 4.5 time"));
+		assertEquals(-1, info.getDepth());
+		assertEquals(-1, info.getSelDepth());
+		assertEquals(-1L, info.getNodes());
+		assertEquals(-1, info.getScore());
+		assertEquals(-1L, info.getTime());
+		
+		//the pv ends at the first token that is not a move
+		assertEquals(UciParser.INFO, parser.parseUCIResponseLine("info pv e2e4 e7e9 depth 3"));
+		assertEquals(1, info.getPVLength());
+		assertEquals(3, info.getDepth());
+		
+		assertEquals(UciParser.BEST_MOVE, parser.parseUCIResponseLine("bestmove e7e8n ponder d1d8"));
+		assertEquals("e7e8n", parser.getBestMove());
+		assertEquals(UciParser.OTHER, parser.parseUCIResponseLine("bestmove"));
+		
+		assertEquals(UciParser.ID_NAME, parser.parseUCIResponseLine("id name Stockfish 16.1  "));
+		assertEquals("Stockfish 16.1 ", parser.getEngineName());
+		assertEquals(UciParser.OTHER, parser.parseUCIResponseLine("id author the Stockfish developers"));
+		assertEquals(UciParser.OTHER, parser.parseUCIResponseLine("readyok"));
+		assertEquals(UciParser.OTHER, parser.parseUCIResponseLine("   "));
+	}
+
+}
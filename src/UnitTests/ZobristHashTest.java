@@ -0,0 +1,65 @@
+package UnitTests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.fail;
+
+import org.junit.jupiter.api.Test;
+
+import Board.MoveGenerator;
+import Board.Position;
+import Board.Zobrist;
+import Exceptions.InvalidFEN;
+
+class ZobristHashTest {
+
+	@Test
+	void test() {
+		Position position = new Position();
+		try {
+			position.setToFEN("r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1");
+		} catch (InvalidFEN e) {
+			fail("Wrong FEN entered.");
+		}
+		
+		//the incrementally updated hash matches the hash calculated from scratch after every move and every unmade move
+		checkHashes(position, 3);
+		
+		//transpositions get the same hash
+		Position first = new Position();
+		Position second = new Position();
+		try {
+			first.setToFEN(Position.STARTING_FEN);
+			second.setToFEN(Position.STARTING_FEN);
+		} catch (InvalidFEN e) {
+			fail("Wrong FEN entered.");
+		}
+		first.applyMove(6, 21, Position.NO_PIECE);		//g1f3
+		first.applyMove(62, 45, Position.NO_PIECE);		//g8f6
+		first.applyMove(1, 18, Position.NO_PIECE);		//b1c3
+		second.applyMove(1, 18, Position.NO_PIECE);		//b1c3
+		second.applyMove(62, 45, Position.NO_PIECE);	//g8f6
+		second.applyMove(6, 21, Position.NO_PIECE);		//g1f3
+		assertEquals(first.getPositionHash(), second.getPositionHash());
+		
+		//the side to move is part of the hash
+		second.setSideToMove(Position.WHITE);
+		assertNotEquals(first.getPositionHash(), second.getPositionHash());
+	}
+	
+	private void checkHashes(Position position, int depth) {
+		long hash = position.getPositionHash();
+		assertEquals(Zobrist.hash(position), hash);
+		if (depth == 0) return;
+		
+		int[] moves = new int[MoveGenerator.MAX_MOVES];
+		int moveCount = MoveGenerator.generateLegalMoves(position, moves);
+		for (int i = 0; i < moveCount; i++) {
+			position.makeMove(moves[i]);
+			checkHashes(position, depth - 1);
+			position.unmakeMove();
+			assertEquals(hash, position.getPositionHash());
+		}
+	}
+
+}
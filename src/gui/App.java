@@ -12,6 +12,9 @@ public class App {
 
 	public static void main(String[] args) throws InterruptedException {
 		
+		//decode the piece images before the event dispatch thread needs them
+		PieceSprites.preload();
+		
 		SwingUtilities.invokeLater(new Runnable() {
 
 			@Override
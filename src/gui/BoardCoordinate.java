@@ -4,15 +4,35 @@ import Exceptions.CoordinateOffTheBoard;
 
 /**
  * A class representing a coordinate on the chess board.
+ * There is exactly one instance per square (get it with of or tryOf), so coordinates can be compared with == as well as equals.
  * @author Daniele Palazzo
  * 
  */
 public class BoardCoordinate {
-	private int column;
-	private int row;
+	private final int column;
+	private final int row;
+	
+	private static final BoardCoordinate[] COORDINATES = new BoardCoordinate[64];
+	
+	static {
+		for (int square = 0; square < 64; square++) {
+			COORDINATES[square] = new BoardCoordinate(square, true);
+		}
+	}
 	
 	/**
-	 * 
+	 * Constructs one of the canonical coordinates
+	 * @param square The square index (0-63)
+	 * @param canonical Only distinguishes this constructor from the public one
+	 */
+	private BoardCoordinate(int square, boolean canonical) {
+		this.column = (square & 7) + 1;
+		this.row = (square >>> 3) + 1;
+	}
+	
+	/**
+	 * Constructs a new coordinate, which equals the canonical coordinate of the square but is not identical (==) to it.
+	 * Prefer {@link #of(int, int)} or {@link #tryOf(int, int)}, which do not create objects.
 	 * @param column The column number of the tile
 	 * @param row The row number of the tile
 	 * @throws CoordinateOffTheBoard Thrown if the coordinate is invalid.
@@ -30,6 +50,42 @@ public class BoardCoordinate {
 			throw new CoordinateOffTheBoard();
 		}
 	}
+	
+	/**
+	 * Gets the coordinate of a tile
+	 * @param column The column number of the tile (1-8)
+	 * @param row The row number of the tile (1-8)
+	 * @return Returns the coordinate
+	 * @throws IllegalArgumentException Thrown if the coordinate is off the board
+	 */
+	public static BoardCoordinate of(int column, int row) {
+		BoardCoordinate coordinate = tryOf(column, row);
+		if (coordinate == null) {
+			throw new IllegalArgumentException("Coordinate off the board: column " + column + ", row " + row);
+		}
+		return coordinate;
+	}
+	
+	/**
+	 * Gets the coordinate of a tile if it is on the board
+	 * @param column The column number of the tile
+	 * @param row The row number of the tile
+	 * @return Returns the coordinate or null if it is off the board
+	 */
+	public static BoardCoordinate tryOf(int column, int row) {
+		if (column < 1 || column > 8 || row < 1 || row > 8) return null;
+		return COORDINATES[(row-1)*8 + (column-1)];
+	}
+	
+	/**
+	 * Gets the coordinate of a square index
+	 * @param square The square index (0 is a1, 63 is h8)
+	 * @return Returns the coordinate
+	 */
+	public static BoardCoordinate ofSquare(int square) {
+		return COORDINATES[square];
+	}
+	
 	/**
 	 * 
 	 * @return Returns the column number stored in the current object
@@ -44,4 +100,28 @@ public class BoardCoordinate {
 	public int getRow() {
 		return row;
 	}
+	/**
+	 * 
+	 * @return Returns the square index of the coordinate (0 is a1, 63 is h8)
+	 */
+	public int getSquare() {
+		return (row-1)*8 + (column-1);
+	}
+	
+	@Override
+	public boolean equals(Object other) {
+		if (this == other) return true;
+		if (!(other instanceof BoardCoordinate)) return false;
+		return column == ((BoardCoordinate) other).column && row == ((BoardCoordinate) other).row;
+	}
+	
+	@Override
+	public int hashCode() {
+		return getSquare();
+	}
+	
+	@Override
+	public String toString() {
+		return "" + (char)('a' + column - 1) + row;
+	}
 }
@@ -1,16 +1,11 @@
 package gui;
 
 import java.util.ArrayList;
-import java.util.List;
 
-import Exceptions.CoordinateOffTheBoard;
-import Pieces.Bishop;
-import Pieces.King;
-import Pieces.Knight;
-import Pieces.Pawn;
+import Board.AttackTables;
+import Board.Position;
+import Board.SlidingAttacks;
 import Pieces.Piece;
-import Pieces.Queen;
-import Pieces.Rook;
 /**
  * A helper class for finding out information about the current chess board position
  * @author Daniele Palazzo
@@ -28,17 +23,7 @@ public class BoardUtilities {
 	 * @return The coordinate of the piece that is in the way of the startingSquare vertically up on the board
 	 */
 	public static BoardCoordinate getFirstInWayCoordinateVerticallyUp(BoardCoordinate startingSquare, Piece ignore) {
-		
-		for (int i = 1; i < 8; i++) {
-			try {
-				BoardCoordinate b = new BoardCoordinate(startingSquare.getColumn(),startingSquare.getRow()+i);
-				Tile t = board.getTileAt(b);
-				if (t.isTileOccupied() && t.getPiece() != ignore) {return b;}
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
-		}
-		return null;
+		return getFirstInWayCoordinate(startingSquare, ignore, SlidingAttacks.NORTH);
 	}
 	/**
 	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure vertically downwards on the board
@@ -47,55 +32,27 @@ public class BoardUtilities {
 	 * @return The coordinate of the piece that is in the way of the startingSquare vertically down on the board
 	 */
 	public static BoardCoordinate getFirstInWayCoordinateVerticallyDown(BoardCoordinate startingSquare, Piece ignore) {
-		
-		for (int i = 1; i < 8; i++) {
-			try {
-				BoardCoordinate b = new BoardCoordinate(startingSquare.getColumn(),startingSquare.getRow()-i);
-				Tile t = board.getTileAt(b);
-				if (t.isTileOccupied() && t.getPiece() != ignore) {return b;}
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
-		}
-		return null;
+		return getFirstInWayCoordinate(startingSquare, ignore, SlidingAttacks.SOUTH);
 	}
 	/**
-	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure 
+	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure
 	 * horizontally to the right on the board
 	 * @param startingSquare The square for the search
 	 * @param ignore Piece to ignore in the search
 	 * @return The coordinate of the piece that is in the way of the startingSquare horizontally to the right on the board
 	 */
 	public static BoardCoordinate getFirstInWayCoordinateHorizontallyRight(BoardCoordinate startingSquare, Piece ignore) {
-		for (int i = 1; i < 8; i++) {
-			try {
-				BoardCoordinate b = new BoardCoordinate(startingSquare.getColumn()+i,startingSquare.getRow());
-				Tile t = board.getTileAt(b);
-				if (t.isTileOccupied() && t.getPiece() != ignore) {return b;}
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
-		}
-		return null;
+		return getFirstInWayCoordinate(startingSquare, ignore, SlidingAttacks.EAST);
 	}
 	/**
-	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure 
+	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure
 	 * horizontally to the left on the board
 	 * @param startingSquare The square for the search
 	 * @param ignore Piece to ignore in the search
 	 * @return The coordinate of the piece that is in the way of the startingSquare horizontally to the left on the board
 	 */
 	public static BoardCoordinate getFirstInWayCoordinateHorizontallyLeft(BoardCoordinate startingSquare, Piece ignore) {
-		for (int i = 1; i < 8; i++) {
-			try {
-				BoardCoordinate b = new BoardCoordinate(startingSquare.getColumn()-i,startingSquare.getRow());
-				Tile t = board.getTileAt(b);
-				if (t.isTileOccupied() && t.getPiece() != ignore) {return b;}
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
-		}
-		return null;
+		return getFirstInWayCoordinate(startingSquare, ignore, SlidingAttacks.WEST);
 	}
 	/**
 	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure diagonally top right on the board
@@ -104,16 +61,7 @@ public class BoardUtilities {
 	 * @return The coordinate of the piece that is in the way of the startingSquare diagonally top right on the board
 	 */
 	public static BoardCoordinate getFirstInWayCoordinateDiagonallyTopRight(BoardCoordinate startingSquare, Piece ignore) {
-		for (int i = 1; i < 8; i++) {
-			try {
-				BoardCoordinate b = new BoardCoordinate(startingSquare.getColumn()+i,startingSquare.getRow()+i);
-				Tile t = board.getTileAt(b);
-				if (t.isTileOccupied() && t.getPiece() != ignore && t.getPiece() != ignore) {return b;}
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
-		}
-		return null;
+		return getFirstInWayCoordinate(startingSquare, ignore, SlidingAttacks.NORTH_EAST);
 	}
 	/**
 	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure diagonally top left on the board
@@ -122,16 +70,7 @@ public class BoardUtilities {
 	 * @return The coordinate of the piece that is in the way of the startingSquare diagonally top left on the board
 	 */
 	public static BoardCoordinate getFirstInWayCoordinateDiagonallyTopLeft(BoardCoordinate startingSquare, Piece ignore) {
-		for (int i = 1; i < 8; i++) {
-			try {
-				BoardCoordinate b = new BoardCoordinate(startingSquare.getColumn()-i,startingSquare.getRow()+i);
-				Tile t = board.getTileAt(b);
-				if (t.isTileOccupied() && t.getPiece() != ignore) {return b;}
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
-		}
-		return null;
+		return getFirstInWayCoordinate(startingSquare, ignore, SlidingAttacks.NORTH_WEST);
 	}
 	/**
 	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure diagonally bottom right on the board
@@ -140,16 +79,7 @@ public class BoardUtilities {
 	 * @return The coordinate of the piece that is in the way of the startingSquare diagonally bottom right on the board
 	 */
 	public static BoardCoordinate getFirstInWayCoordinateDiagonallyBottomRight(BoardCoordinate startingSquare, Piece ignore) {
-		for (int i = 1; i < 8; i++) {
-			try {
-				BoardCoordinate b = new BoardCoordinate(startingSquare.getColumn()+i,startingSquare.getRow()-i);
-				Tile t = board.getTileAt(b);
-				if (t.isTileOccupied() && t.getPiece() != ignore) {return b;}
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
-		}
-		return null;
+		return getFirstInWayCoordinate(startingSquare, ignore, SlidingAttacks.SOUTH_EAST);
 	}
 	/**
 	 * Gets the coordinate of the first piece on the board that is in the way of the startingSqure diagonally bottom left on the board
@@ -158,380 +88,96 @@ public class BoardUtilities {
 	 * @return The coordinate of the piece that is in the way of the startingSquare diagonally bottom left on the board
 	 */
 	public static BoardCoordinate getFirstInWayCoordinateDiagonallyBottomLeft(BoardCoordinate startingSquare, Piece ignore) {
-		for (int i = 1; i < 8; i++) {
-			try {
-				BoardCoordinate b = new BoardCoordinate(startingSquare.getColumn()-i,startingSquare.getRow()-i);
-				Tile t = board.getTileAt(b);
-				if (t.isTileOccupied() && t.getPiece() != ignore) {return b;}
-			} catch (CoordinateOffTheBoard e) {
-				break;
-			}
+		return getFirstInWayCoordinate(startingSquare, ignore, SlidingAttacks.SOUTH_WEST);
+	}
+	/**
+	 * Gets the coordinate of the first piece on the board that is in the way of the startingSquare in a direction (magic bitboard lookup)
+	 * @param startingSquare The square for the search
+	 * @param ignore Piece to ignore in the search
+	 * @param direction The direction of the search (one of the SlidingAttacks direction constants)
+	 * @return The coordinate of the piece that is in the way of the startingSquare in the direction (null if there is none)
+	 */
+	private static BoardCoordinate getFirstInWayCoordinate(BoardCoordinate startingSquare, Piece ignore, int direction) {
+		int square = SlidingAttacks.firstBlocker(startingSquare.getSquare(), direction, getOccupied(ignore));
+		return (square == Position.NO_SQUARE)?null:board.getTileAt(square).getCoordinate();
+	}
+	/**
+	 * Gets the bitboard of the occupied squares of the board
+	 * @param ignore Piece to leave out of the occupied squares (can be null)
+	 * @return Returns the bitboard of occupied squares without the square of the ignored piece
+	 */
+	private static long getOccupied(Piece ignore) {
+		long occupied = board.getPosition().getOccupied();
+		if (ignore != null) {
+			occupied &= ~(1L << ignore.getCurrentPosition().getSquare());
 		}
-		return null;
+		return occupied;
 	}
 	/**
-	 * Checks whether or not one or more Knights are giving a check to the square in question and returns a list of the checking pieces.
-	 * @param square The square that will be examined for Knight checks
+	 * Gets all the pieces of the opposite colour that are giving a check to a square
+	 * @param square The square in question (0-63)
 	 * @param perspective Check if the square is in check from this side's perspective
-	 * @return Returns the list of Knights that are giving a check to the square in question
+	 * @param occupied The bitboard of the occupied squares
+	 * @return Returns the bitboard of the checking pieces
 	 */
-	private static List<Knight> checkForKnightCheck(BoardCoordinate square, PlayerColour perspective) {
-		BoardCoordinate linedUpPieceCoordinate;
-		Piece linedUpPiece = null;
-		ArrayList<Knight> knightList = new ArrayList<Knight>();
-		//Check for knight check
-		try {
-			linedUpPieceCoordinate = new BoardCoordinate(square.getColumn()+1, square.getRow()+2);
-			if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-				linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-				if (linedUpPiece.getPlayerColour() != perspective) {
-					if (linedUpPiece instanceof Knight) {
-						knightList.add((Knight)linedUpPiece);
-					}
-				}
-			}
-		} catch (CoordinateOffTheBoard e) {
-		}
-		
-		try {
-			linedUpPieceCoordinate = new BoardCoordinate(square.getColumn()+2, square.getRow()+1);
-			if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-				linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-				if (linedUpPiece.getPlayerColour() != perspective) {
-					if (linedUpPiece instanceof Knight) {
-						knightList.add((Knight)linedUpPiece);
-					}
-				}
-			}
-		} catch (CoordinateOffTheBoard e) {
-		}
-		
-		try {
-			linedUpPieceCoordinate = new BoardCoordinate(square.getColumn()+2, square.getRow()-1);
-			if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-				linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-				if (linedUpPiece.getPlayerColour() != perspective) {
-					if (linedUpPiece instanceof Knight) {
-						knightList.add((Knight)linedUpPiece);
-					}
-				}
-			}
-		} catch (CoordinateOffTheBoard e) {
-		}
-		
-		try {
-			linedUpPieceCoordinate = new BoardCoordinate(square.getColumn()+1, square.getRow()-2);
-			if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-				linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-				if (linedUpPiece.getPlayerColour() != perspective) {
-					if (linedUpPiece instanceof Knight) {
-						knightList.add((Knight)linedUpPiece);
-					}
-				}
-			}
-		} catch (CoordinateOffTheBoard e) {
-		}
-		
-		try {
-			linedUpPieceCoordinate = new BoardCoordinate(square.getColumn()-1, square.getRow()+2);
-			if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-				linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-				if (linedUpPiece.getPlayerColour() != perspective) {
-					if (linedUpPiece instanceof Knight) {
-						knightList.add((Knight)linedUpPiece);
-					}
-				}
-			}
-		} catch (CoordinateOffTheBoard e) {
-		}
-		
-		try {
-			linedUpPieceCoordinate = new BoardCoordinate(square.getColumn()-2, square.getRow()+1);
-			if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-				linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-				if (linedUpPiece.getPlayerColour() != perspective) {
-					if (linedUpPiece instanceof Knight) {
-						knightList.add((Knight)linedUpPiece);
-					}
-				}
-			}
-		} catch (CoordinateOffTheBoard e) {
-
-		}
-		
-		try {
-			linedUpPieceCoordinate = new BoardCoordinate(square.getColumn()-2, square.getRow()-1);
-			if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-				linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-				if (linedUpPiece.getPlayerColour() != perspective) {
-					if (linedUpPiece instanceof Knight) {
-						knightList.add((Knight)linedUpPiece);
-					}
-				}
-			}
-		} catch (CoordinateOffTheBoard e) {
-		}
-		
-		try {
-			linedUpPieceCoordinate = new BoardCoordinate(square.getColumn()-1, square.getRow()-2);
-			if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-				linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-				if (linedUpPiece.getPlayerColour() != perspective) {
-					if (linedUpPiece instanceof Knight) {
-						knightList.add((Knight)linedUpPiece);
-					}
-				}
-			}
-		} catch (CoordinateOffTheBoard e) {
-		}
-		return knightList;
+	private static long getCheckers(int square, PlayerColour perspective, long occupied) {
+		return getLeaperCheckers(square, perspective) | getHorizontalAndVerticalCheckers(square, perspective, occupied)
+				| getDiagonalCheckers(square, perspective, occupied);
 	}
 	/**
-	 * Checks whether or not the square in question is in check by a horizontally or vertically aligned piece and returns a list of the checking pieces.
-	 * @param square The square that will be examined for checks
+	 * Gets the knights, pawns and the king of the opposite colour that are giving a check to a square (looked up in the precomputed attack tables)
+	 * @param square The square in question (0-63)
 	 * @param perspective Check if the square is in check from this side's perspective
-	 * @param King The king to ignore in the search (i.e. the king cannot block off the square from being checked)
-	 * @return Returns the list of Pieces that are giving a check to the square in question
+	 * @return Returns the bitboard of the checking pieces
 	 */
-	private static List<Piece> checkHorizontallyAndVerticallyForCheck(BoardCoordinate square, PlayerColour perspective, Piece King) {
-		BoardCoordinate linedUpPieceCoordinate;
-		Piece linedUpPiece = null;
-		ArrayList<Piece> pieceList = new ArrayList<Piece>();
-		//Check horizontally and vertically for checking piece (rook or queen)
-		
-		linedUpPieceCoordinate = getFirstInWayCoordinateVerticallyUp(square,King);
-		
-		if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-			linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-			
-			//opposite colour king
-			if (linedUpPiece.getPlayerColour() != perspective && linedUpPiece instanceof King) {
-				//if King is next to the square then it is in check
-				if (coordinatesAreAdjecent(linedUpPieceCoordinate, square)) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-				
-			if (linedUpPiece.getPlayerColour() != perspective) {
-				if (linedUpPiece instanceof Rook) {
-					pieceList.add(linedUpPiece);
-				}
-				
-				if (linedUpPiece instanceof Queen) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-		}
-		
-		linedUpPieceCoordinate = getFirstInWayCoordinateVerticallyDown(square, King);
-		
-		if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-			linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-			
-			//opposite colour king
-			if (linedUpPiece.getPlayerColour() != perspective && linedUpPiece instanceof King) {
-				//if King is next to the square then it is in check
-				if (coordinatesAreAdjecent(linedUpPieceCoordinate, square)) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-			
-			if (linedUpPiece.getPlayerColour() != perspective) {
-				if (linedUpPiece instanceof Rook) {
-					pieceList.add(linedUpPiece);
-				}
-				
-				if (linedUpPiece instanceof Queen) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-		}
-		
-		linedUpPieceCoordinate = getFirstInWayCoordinateHorizontallyRight(square, King);
-		
-		if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-			linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-			
-			//opposite colour king
-			if (linedUpPiece.getPlayerColour() != perspective && linedUpPiece instanceof King) {
-				//if King is next to the square then it is in check
-				if (coordinatesAreAdjecent(linedUpPieceCoordinate, square)) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-			
-			if (linedUpPiece.getPlayerColour() != perspective) {
-				if (linedUpPiece instanceof Rook) {
-					pieceList.add(linedUpPiece);
-				}
-				
-				if (linedUpPiece instanceof Queen) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-		}
-		
-		linedUpPieceCoordinate = getFirstInWayCoordinateHorizontallyLeft(square, King);
-		
-		if (linedUpPieceCoordinate != null && board.getTileAt(linedUpPieceCoordinate).isTileOccupied()) {
-			linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-			
-			//opposite colour king
-			if (linedUpPiece.getPlayerColour() != perspective && linedUpPiece instanceof King) {
-				//if King is next to the square then it is in check
-				if (coordinatesAreAdjecent(linedUpPieceCoordinate, square)) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-			
-			if (linedUpPiece.getPlayerColour() != perspective) {
-				if (linedUpPiece instanceof Rook) {
-					pieceList.add(linedUpPiece);
-				}
-				
-				if (linedUpPiece instanceof Queen) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-		}
-		return pieceList;
+	private static long getLeaperCheckers(int square, PlayerColour perspective) {
+		Position position = board.getPosition();
+		int us = (perspective == PlayerColour.White)?Position.WHITE:Position.BLACK;
+		int enemy = us ^ 1;
+		
+		//an enemy pawn gives a check from the squares a pawn of our colour would capture on
+		return (AttackTables.knightAttacks(square) & position.getPieceBitboard(Position.pieceCode(enemy, Position.KNIGHT)))
+				| (AttackTables.pawnAttacks(us, square) & position.getPieceBitboard(Position.pieceCode(enemy, Position.PAWN)))
+				| (AttackTables.kingAttacks(square) & position.getPieceBitboard(Position.pieceCode(enemy, Position.KING)));
 	}
 	/**
-	 * Checks whether or not the square in question is in check by a diagonally aligned piece and returns a list of the checking pieces.
-	 * @param square The square that will be examined for checks
+	 * Gets the rooks and queens of the opposite colour that are horizontally or vertically aligned with a square
+	 * @param square The square in question (0-63)
 	 * @param perspective Check if the square is in check from this side's perspective
-	 * @param King The king to ignore in the search (i.e. the king cannot block off the square from being checked)
-	 * @return Returns the list of Pieces that are giving a check to the square in question
+	 * @param occupied The bitboard of the occupied squares
+	 * @return Returns the bitboard of the checking pieces
 	 */
-	private static List<Piece> checkDiagonallyForCheck(BoardCoordinate square, PlayerColour perspective, Piece King) {
-		BoardCoordinate linedUpPieceCoordinate;
-		Piece linedUpPiece = null;
-		ArrayList<Piece> pieceList = new ArrayList<Piece>();
-		
-		//Check diagonally for checking piece (Bishop, Queen or pawn)
-		
-		linedUpPieceCoordinate = getFirstInWayCoordinateDiagonallyTopRight(square, King);
-		
-		if (linedUpPieceCoordinate != null) {
-			linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-			
-			//pawn
-			if (perspective == PlayerColour.White && linedUpPieceCoordinate.getRow() == square.getRow()+1 && linedUpPiece instanceof Pawn &&
-					linedUpPiece.getPlayerColour() != PlayerColour.White) {
-				pieceList.add(linedUpPiece);
-			}
-			
-			//opposite colour king
-			if (linedUpPiece.getPlayerColour() != perspective && linedUpPiece instanceof King) {
-				//if King is next to the square then it is in check
-				if (coordinatesAreAdjecent(linedUpPieceCoordinate, square)) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-			
-			//bishop or queen
-			if (linedUpPiece.getPlayerColour() != perspective) {
-				if (linedUpPiece instanceof Bishop) {
-					pieceList.add(linedUpPiece);
-				}
-				
-				if (linedUpPiece instanceof Queen) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-		}
-		
-		linedUpPieceCoordinate = getFirstInWayCoordinateDiagonallyTopLeft(square, King);
-		
-		if (linedUpPieceCoordinate != null) {
-			linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-			
-			//pawn
-			if (perspective == PlayerColour.White && linedUpPieceCoordinate.getRow() == square.getRow()+1 && linedUpPiece instanceof Pawn &&
-					linedUpPiece.getPlayerColour() != PlayerColour.White) {
-				pieceList.add(linedUpPiece);
-			}
-			
-			//opposite colour king
-			if (linedUpPiece.getPlayerColour() != perspective && linedUpPiece instanceof King) {
-				//if King is next to the square then it is in check
-				if (coordinatesAreAdjecent(linedUpPieceCoordinate, square)) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-			
-			//bishop or queen
-			if (linedUpPiece.getPlayerColour() != perspective) {
-				if (linedUpPiece instanceof Bishop) {
-					pieceList.add(linedUpPiece);
-				}
-				
-				if (linedUpPiece instanceof Queen) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-		}
-		
-		linedUpPieceCoordinate = getFirstInWayCoordinateDiagonallyBottomRight(square, King);
-		
-		if (linedUpPieceCoordinate != null) {
-			linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-			
-			//pawn
-			if (perspective == PlayerColour.Black && linedUpPieceCoordinate.getRow() == square.getRow()-1 && linedUpPiece instanceof Pawn &&
-					linedUpPiece.getPlayerColour() != PlayerColour.Black) {
-				pieceList.add(linedUpPiece);
-			}
-			
-			//opposite colour king
-			if (linedUpPiece.getPlayerColour() != perspective && linedUpPiece instanceof King) {
-				//if King is next to the square then it is in check
-				if (coordinatesAreAdjecent(linedUpPieceCoordinate, square)) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-			
-			//bishop or queen
-			if (linedUpPiece.getPlayerColour() != perspective) {
-				if (linedUpPiece instanceof Bishop) {
-					pieceList.add(linedUpPiece);
-				}
-				
-				if (linedUpPiece instanceof Queen) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-		}
+	private static long getHorizontalAndVerticalCheckers(int square, PlayerColour perspective, long occupied) {
+		Position position = board.getPosition();
+		int enemy = (perspective == PlayerColour.White)?Position.BLACK:Position.WHITE;
 		
-		linedUpPieceCoordinate = getFirstInWayCoordinateDiagonallyBottomLeft(square, King);
+		return SlidingAttacks.rookAttacks(square, occupied)
+				& (position.getPieceBitboard(Position.pieceCode(enemy, Position.ROOK)) | position.getPieceBitboard(Position.pieceCode(enemy, Position.QUEEN)));
+	}
+	/**
+	 * Gets the bishops and queens of the opposite colour that are diagonally aligned with a square
+	 * @param square The square in question (0-63)
+	 * @param perspective Check if the square is in check from this side's perspective
+	 * @param occupied The bitboard of the occupied squares
+	 * @return Returns the bitboard of the checking pieces
+	 */
+	private static long getDiagonalCheckers(int square, PlayerColour perspective, long occupied) {
+		Position position = board.getPosition();
+		int enemy = (perspective == PlayerColour.White)?Position.BLACK:Position.WHITE;
 		
-		if (linedUpPieceCoordinate != null) {
-			linedUpPiece = board.getTileAt(linedUpPieceCoordinate).getPiece();
-			
-			//pawn
-			if (perspective == PlayerColour.Black && linedUpPieceCoordinate.getRow() == square.getRow()-1 && linedUpPiece instanceof Pawn &&
-					linedUpPiece.getPlayerColour() != PlayerColour.Black) {
-				pieceList.add(linedUpPiece);
-			}
-			
-			//opposite colour king
-			if (linedUpPiece.getPlayerColour() != perspective && linedUpPiece instanceof King) {
-				//if King is next to the square then it is in check
-				if (coordinatesAreAdjecent(linedUpPieceCoordinate, square)) {
-					pieceList.add(linedUpPiece);
-				}
-			}
-			
-			//bishop or queen
-			if (linedUpPiece.getPlayerColour() != perspective) {
-				if (linedUpPiece instanceof Bishop) {
-					pieceList.add(linedUpPiece);
-				}
-				
-				if (linedUpPiece instanceof Queen) {
-					pieceList.add(linedUpPiece);
-				}
-			}
+		return SlidingAttacks.bishopAttacks(square, occupied)
+				& (position.getPieceBitboard(Position.pieceCode(enemy, Position.BISHOP)) | position.getPieceBitboard(Position.pieceCode(enemy, Position.QUEEN)));
+	}
+	/**
+	 * Gets the pieces standing on the squares of a bitboard
+	 * @param squares The bitboard of squares
+	 * @return Returns the list of the pieces on the squares
+	 */
+	private static ArrayList<Piece> getPieces(long squares) {
+		ArrayList<Piece> pieceList = new ArrayList<Piece>();
+		while (squares != 0L) {
+			pieceList.add(board.getTileAt(Long.numberOfTrailingZeros(squares)).getPiece());
+			squares &= squares - 1;
 		}
 		return pieceList;
 	}
@@ -558,27 +204,7 @@ public class BoardUtilities {
 	 * @return Return the list of pieces that are giving a check to the square
 	 */
 	public static ArrayList<Piece> getSquareCheckingPieces(BoardCoordinate square, PlayerColour perspective, Piece King) {
-		ArrayList<Piece> checkingPieces = new ArrayList<Piece>();
-		
-		if (checkForKnightCheck(square, perspective).size()!=0) {
-			for (Knight n : checkForKnightCheck(square, perspective)) {
-				checkingPieces.add(n);
-			}
-		}
-		
-		if (checkDiagonallyForCheck(square,perspective, King).size()!=0) {
-			for (Piece p : checkDiagonallyForCheck(square,perspective, King)) {
-				checkingPieces.add(p);
-			}
-		}
-		
-		if (checkHorizontallyAndVerticallyForCheck(square, perspective, King).size()!=0) {
-			for (Piece p : checkHorizontallyAndVerticallyForCheck(square, perspective, King)) {
-				checkingPieces.add(p);
-			}
-		}
-		
-		return checkingPieces;
+		return getPieces(getCheckers(square.getSquare(), perspective, getOccupied(King)));
 	}
 	/**
 	 * Determines whether or not a square is in check
@@ -588,11 +214,7 @@ public class BoardUtilities {
 	 * @return Returns true if the square is in check by at least 1 pieces
 	 */
 	public static boolean isSquareInCheck(BoardCoordinate square, PlayerColour perspective, Piece King) {
-		if (checkForKnightCheck(square, perspective).size()!=0 || checkDiagonallyForCheck(square,perspective, King).size()!=0
-				|| checkHorizontallyAndVerticallyForCheck(square, perspective, King).size()!=0) {
-			return true;
-		}
-		return false;
+		return getCheckers(square.getSquare(), perspective, getOccupied(King)) != 0L;
 	}
 	/**
 	 * Determines whether a square is in between two other squares
@@ -602,52 +224,7 @@ public class BoardUtilities {
 	 * @return Returns true if the square in question is in between square 1 and 2
 	 */
 	public static boolean isSquareInBetween(BoardCoordinate square, BoardCoordinate square1, BoardCoordinate square2) {
-		
-		if (coordinatesAreAdjecent(square1,square2)) {
-			return false;
-		}
-		
-		//Vertical
-		if (square1.getColumn() == square2.getColumn()) {
-			if (square.getColumn() == square1.getColumn()) {
-				
-				int largerRowNumber = (square1.getRow() > square2.getRow())?square1.getRow():square2.getRow();
-				int lowerRowNumber = (square1.getRow() < square2.getRow())?square1.getRow():square2.getRow();
-				
-				if (square.getRow() < largerRowNumber && square.getRow() > lowerRowNumber) {
-					return true;
-				} else return false;
-			} else return false;
-		}
-		
-		//Horizontal
-		if (square1.getRow() == square2.getRow()) {
-			if (square.getRow() == square1.getRow()) {
-				
-				int largerColumnNumber = (square1.getColumn() > square2.getColumn())?square1.getColumn():square2.getColumn();
-				int lowerColumnNumber = (square1.getColumn() < square2.getColumn())?square1.getColumn():square2.getColumn();
-				
-				if (square.getColumn() < largerColumnNumber && square.getColumn() > lowerColumnNumber) {
-					return true;
-				} else return false;
-			} else return false;
-		}
-		
-		//Diagonal
-		if (Math.abs(square1.getRow()-square2.getRow()) == Math.abs(square1.getColumn() - square2.getColumn())) {
-			if ((Math.abs(square1.getRow()-square.getRow()) == Math.abs(square1.getColumn() - square.getColumn())) &&
-					(Math.abs(square2.getRow()-square.getRow()) == Math.abs(square2.getColumn() - square.getColumn()))) {
-				
-				int largerRowNumber = (square1.getRow() > square2.getRow())?square1.getRow():square2.getRow();
-				int lowerRowNumber = (square1.getRow() < square2.getRow())?square1.getRow():square2.getRow();
-				
-				if (square.getRow() < largerRowNumber && square.getRow() > lowerRowNumber) {
-					return true;
-				} else return false;
-			} else return false;
-		}
-		
-		return false;
+		return (SlidingAttacks.between(square1.getSquare(), square2.getSquare()) & (1L << square.getSquare())) != 0L;
 	}
 	/**
 	 * Determines whether there is a piece in between two squares
@@ -656,66 +233,7 @@ public class BoardUtilities {
 	 * @return Returns true if there is at least 1 piece in between the two board coordinates (squares)
 	 */
 	public static boolean isAnyPieceInBetween(BoardCoordinate square1, BoardCoordinate square2) {
-		
-		if (coordinatesAreAdjecent(square1,square2)) {
-			return false;
-		}
-		
-		//Vertical
-		if (square1.getColumn() == square2.getColumn()) {
-			
-			int largerRowNumber = (square1.getRow() > square2.getRow())?square1.getRow():square2.getRow();
-			int lowerRowNumber = (square1.getRow() < square2.getRow())?square1.getRow():square2.getRow();
-			
-			for (int i = lowerRowNumber+1; i < largerRowNumber; i++) {
-				try {
-					if (board.getTileAt(new BoardCoordinate(square1.getColumn(), i)).getPiece() != null) return true;
-				} catch (CoordinateOffTheBoard e) {
-					// WILL NEVER BE REACHED
-				}
-			}
-			
-		}
-				
-		//Horizontal
-		if (square1.getRow() == square2.getRow()) {
-			
-			int largerColumnNumber = (square1.getColumn() > square2.getColumn())?square1.getColumn():square2.getColumn();
-			int lowerColumnNumber = (square1.getColumn() < square2.getColumn())?square1.getColumn():square2.getColumn();
-			
-			for (int i = lowerColumnNumber + 1; i < largerColumnNumber; i++) {
-				try {
-					if (board.getTileAt(new BoardCoordinate(i, square1.getRow())).getPiece() != null) return true;
-				} catch (CoordinateOffTheBoard e) {
-					// WILL NEVER BE REACHED
-				}
-			}
-			
-		}
-				
-		//Diagonal
-		if (Math.abs(square1.getRow()-square2.getRow()) == Math.abs(square1.getColumn() - square2.getColumn())) {
-			
-			BoardCoordinate topSquare = (square1.getRow() > square2.getRow())?square1:square2;
-			BoardCoordinate bottomSquare = (square1.getRow() < square2.getRow())?square1:square2; 
-			
-			int differenceBetweenColumns = Math.abs(square1.getColumn() - square2.getColumn());
-			
-			for (int i = 1; i < differenceBetweenColumns; i++) {
-				try {
-					BoardCoordinate tileInBetween = new BoardCoordinate((topSquare.getColumn() > bottomSquare.getColumn())?bottomSquare.getColumn()+i:bottomSquare.getColumn()-i, 
-							bottomSquare.getRow()+i);
-					if (board.getTileAt(tileInBetween).getPiece() != null)  {
-						return true;
-					}
-				} catch (CoordinateOffTheBoard e) {
-					// WILL NEVER BE REACHED
-				}
-			}
-			
-		}
-		
-		return false;
+		return (SlidingAttacks.between(square1.getSquare(), square2.getSquare()) & board.getPosition().getOccupied()) != 0L;
 	}
 	/**
 	 * Checks whether the passed in coordinates are equal
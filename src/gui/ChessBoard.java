@@ -4,16 +4,24 @@ import java.awt.GridBagLayout;
 import java.awt.Point;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
 
 import javax.swing.JOptionPane;
 import javax.swing.JPanel;
 
-import Exceptions.CoordinateOffTheBoard;
+import Board.DrawAdjudicator;
+import Board.FenCodec;
+import Board.MoveGenerator;
+import Board.PackedMove;
+import Board.Position;
+import Database.Tablebases;
 import Exceptions.InvalidFEN;
 import Exceptions.MoveNotPossible;
 import Moves.Move;
+import Notation.PgnGame;
 import Pieces.Bishop;
 import Pieces.King;
 import Pieces.Knight;
@@ -30,24 +38,32 @@ import Pieces.Rook;
 public class ChessBoard extends JPanel {
 	private Tile[][] tiles; 
 	
+	private Position position;
+	private int[] legalMoves;
+	
+	//reused by setBoardToFEN and getFEN, so that parsing and writing FEN strings allocates as little as possible
+	private Position parsedPosition;
+	private StringBuilder fenBuffer;
+	
 	private List<Move> moves;
 	private Tile[] highlightedSquares;
 	
-	private boolean isWhitesTurn;
-	
 	private boolean whiteAtTheBottom;
 	
 	private PlayerColour usersPlayerColour;
 	
 	private TurnHappenedListener turnHappenedListener;
 	
-	private boolean moveLocked;
+	//notified after every change of the position, whatever the game mode (e.g. the opening explorer)
+	private List<TurnHappenedListener> positionListeners;
 	
-	private int fenHalfMoveClock;
-	private int fenFullMoveClock;
+	private boolean moveLocked;
 	
 	private MovesLogTableModel movesTableModel;
 	
+	//the endgame tablebases used for adjudicating games against the engine (null if none are loaded)
+	private Tablebases tablebases;
+	
 	/**
 	 * Constructs and initializes a chessBoard
 	 */
@@ -55,15 +71,18 @@ public class ChessBoard extends JPanel {
 		setLayout(new GridBagLayout());
 		
 		tiles = new Tile[8][8];
+		position = new Position();
+		legalMoves = new int[MoveGenerator.MAX_MOVES];
+		parsedPosition = new Position();
+		fenBuffer = new StringBuilder(90);
 		highlightedSquares = new Tile[2];
 		moves = new  ArrayList<Move>();
+		positionListeners = new ArrayList<TurnHappenedListener>();
 		
 		movesTableModel = new MovesLogTableModel(moves);
 		
 		whiteAtTheBottom = true;
 		usersPlayerColour = null;
-		fenHalfMoveClock=0;
-		fenFullMoveClock=1;
 		
 		GridBagConstraints gc = new GridBagConstraints();
 		
@@ -78,13 +97,7 @@ public class ChessBoard extends JPanel {
 		
 		for (int rowCount = 0; rowCount < 8; rowCount++) {
 			for (int columnCount = 0; columnCount < 8; columnCount++) {
-				BoardCoordinate bc =null;
-				try {
-					bc = new BoardCoordinate(columnCount+1, rowCount+1);
-				} catch (CoordinateOffTheBoard e1) {
-					// WILL NEVER BE THROWN
-				}
-				Tile tile=new Tile(bc);
+				Tile tile=new Tile(BoardCoordinate.of(columnCount+1, rowCount+1));
 				
 				tiles[rowCount][columnCount] = tile;
 				
@@ -128,32 +141,105 @@ public class ChessBoard extends JPanel {
 	 * Sets up the board to the standard starting position
 	 */
 	public void setUpBoard() {
-		isWhitesTurn = true;
-		
 		try {
-		for (int i = 0; i < 8; i++) {
-			tiles[1][i].setPiece(new Pawn(PlayerColour.White, new BoardCoordinate(i+1, 2)));
-			tiles[6][i].setPiece(new Pawn(PlayerColour.Black, new BoardCoordinate(i+1, 7)));
+			position.setToFEN(Position.STARTING_FEN);
+		} catch (InvalidFEN e) {
+			// WILL NEVER HAPPEN
 		}
-			tiles[0][0].setPiece(new Rook(PlayerColour.White, new BoardCoordinate(1, 1)));
-			tiles[0][1].setPiece(new Knight(PlayerColour.White, new BoardCoordinate(2, 1)));
-			tiles[0][2].setPiece(new Bishop(PlayerColour.White, new BoardCoordinate(3, 1)));
-			tiles[0][3].setPiece(new Queen(PlayerColour.White, new BoardCoordinate(4, 1)));
-			tiles[0][4].setPiece(new King(PlayerColour.White, new BoardCoordinate(5, 1)));
-			tiles[0][5].setPiece(new Bishop(PlayerColour.White, new BoardCoordinate(6, 1)));
-			tiles[0][6].setPiece(new Knight(PlayerColour.White, new BoardCoordinate(7, 1)));
-			tiles[0][7].setPiece(new Rook(PlayerColour.White, new BoardCoordinate(8, 1)));
-
-			tiles[7][0].setPiece(new Rook(PlayerColour.Black, new BoardCoordinate(1, 8)));
-			tiles[7][1].setPiece(new Knight(PlayerColour.Black, new BoardCoordinate(2, 8)));
-			tiles[7][2].setPiece(new Bishop(PlayerColour.Black, new BoardCoordinate(3, 8)));
-			tiles[7][3].setPiece(new Queen(PlayerColour.Black, new BoardCoordinate(4, 8)));
-			tiles[7][4].setPiece(new King(PlayerColour.Black, new BoardCoordinate(5, 8)));
-			tiles[7][5].setPiece(new Bishop(PlayerColour.Black, new BoardCoordinate(6, 8)));
-			tiles[7][6].setPiece(new Knight(PlayerColour.Black, new BoardCoordinate(7, 8)));
-			tiles[7][7].setPiece(new Rook(PlayerColour.Black, new BoardCoordinate(8, 8)));
-		} catch (CoordinateOffTheBoard e) {
-			System.err.println(e.getMessage());
+		renderPosition();
+	}
+	
+	/**
+	 * Updates the tiles so that they show the pieces of the current position (only the tiles showing a different piece are changed)
+	 */
+	public void renderPosition() {
+		for (int square = 0; square < 64; square++) {
+			Tile tile = getTileAt(square);
+			int piece = position.getPiece(square);
+			if (pieceCodeOf(tile.getPiece()) != piece) {
+				tile.setPiece((piece == Position.NO_PIECE)?null:createPiece(piece, tile.getCoordinate()));
+			}
+		}
+	}
+	
+	/**
+	 * Gets the Zobrist hash of the current position (a cheap way to identify positions without building FEN strings)
+	 * @return Returns the 64 bit hash of the position
+	 */
+	public long getPositionHash() {
+		return position.getPositionHash();
+	}
+	
+	/**
+	 * Gets the position model that the board is rendered from
+	 * @return Returns the current position
+	 */
+	public Position getPosition() {
+		return position;
+	}
+	
+	/**
+	 * Puts a piece on a tile and into the position model (used when setting up a position manually)
+	 * @param c The coordinate of the tile
+	 * @param p The piece to put on the tile (null to empty the tile)
+	 */
+	public void setPieceAt(BoardCoordinate c, Piece p) {
+		getTileAt(c).setPiece(p);
+		position.setPiece(c.getSquare(), pieceCodeOf(p));
+	}
+	
+	/**
+	 * Gets the position model piece code of a piece
+	 * @param p The piece (can be null)
+	 * @return Returns the piece code or Position.NO_PIECE if the piece is null
+	 */
+	private static int pieceCodeOf(Piece p) {
+		if (p == null) return Position.NO_PIECE;
+		
+		int colour = (p.getPlayerColour() == PlayerColour.White)?Position.WHITE:Position.BLACK;
+		
+		if (p instanceof Pawn) {
+			return Position.pieceCode(colour, Position.PAWN);
+		} else if (p instanceof Knight) {
+			return Position.pieceCode(colour, Position.KNIGHT);
+		} else if (p instanceof Bishop) {
+			return Position.pieceCode(colour, Position.BISHOP);
+		} else if (p instanceof Rook) {
+			return Position.pieceCode(colour, Position.ROOK);
+		} else if (p instanceof Queen) {
+			return Position.pieceCode(colour, Position.QUEEN);
+		} else {
+			return Position.pieceCode(colour, Position.KING);
+		}
+	}
+	
+	/**
+	 * Creates the piece that is displayed for a position model piece code
+	 * @param piece The piece code
+	 * @param c The coordinate of the piece
+	 * @return Returns a new piece
+	 */
+	private static Piece createPiece(int piece, BoardCoordinate c) {
+		PlayerColour colour = (Position.colourOf(piece) == Position.WHITE)?PlayerColour.White:PlayerColour.Black;
+		
+		switch(Position.typeOf(piece)) {
+		case Position.PAWN:
+			Pawn pawn = new Pawn(colour, c);
+			//only a pawn on its starting row can still move two squares
+			if (c.getRow() != ((colour == PlayerColour.White)?2:7)) {
+				pawn.setFirstMove(false);
+			}
+			return pawn;
+		case Position.KNIGHT:
+			return new Knight(colour, c);
+		case Position.BISHOP:
+			return new Bishop(colour, c);
+		case Position.ROOK:
+			return new Rook(colour, c);
+		case Position.QUEEN:
+			return new Queen(colour, c);
+		default:
+			return new King(colour, c);
 		}
 	}
 	
@@ -184,35 +270,36 @@ public class ChessBoard extends JPanel {
 			return;
 		}
 		
-		if (isSideOutOfMoves()) {
-			BoardCoordinate kingCoordinate = (isWhitesTurn())?getWhiteKingCoordinate():getBlackKingCoordinate();
-			if (BoardUtilities.isSquareInCheck(kingCoordinate, getTileAt(kingCoordinate).getPiece().getPlayerColour() ,null)) {
-				JOptionPane.showMessageDialog(this, "Checkmate!");
-			} else {
-				JOptionPane.showMessageDialog(this, "Stalemate!");
-			}
+		if (announceGameEnd()) {
 			return;
 		}
 		
 		if (highlightedSquares[1] != null && highlightedSquares[0] != highlightedSquares[1]) {
 			
-			Move move = new Move(highlightedSquares[0], highlightedSquares[1], this);
+			int from = highlightedSquares[0].getCoordinate().getSquare();
+			int to = highlightedSquares[1].getCoordinate().getSquare();
+			int packedMove = position.encodeMove(from, to, Position.QUEEN);
+			
+			//the promotion piece is only asked for once the move is known to be legal
+			if (PackedMove.isPromotion(packedMove) && Move.isMovePossible(position, packedMove)) {
+				Piece promotionPiece = pawnPromotion(highlightedSquares[1].getCoordinate());
+				if (promotionPiece == null) {
+					return; //the promotion dialog was cancelled
+				}
+				packedMove = position.encodeMove(from, to, Position.typeOf(pieceCodeOf(promotionPiece)));
+			}
+			
 			try {
-				move.executeMove();
-				if (isWhitesTurn==false) fenFullMoveClock++;
-				isWhitesTurn ^= true; //flip turn (XOR)
+				Move move = Move.executeMove(position, packedMove);
+				renderPosition();
 				addMove(move);
-				if(turnHappenedListener!=null) {
+				firePositionChanged();
+				
+				//the engine does not reply once a game against it is over (the analysis goes on)
+				boolean gameOver = announceGameEnd();
+				if(turnHappenedListener!=null && !(gameOver && usersPlayerColour != null)) {
 					turnHappenedListener.turnHappened(getMovesInAlgebraicNotation());
 				}
-				if (isSideOutOfMoves()) {
-					BoardCoordinate kingCoordinate = (isWhitesTurn())?getWhiteKingCoordinate():getBlackKingCoordinate();
-					if (BoardUtilities.isSquareInCheck(kingCoordinate, getTileAt(kingCoordinate).getPiece().getPlayerColour() ,null)) {
-						JOptionPane.showMessageDialog(this, "Checkmate!");
-					} else {
-						JOptionPane.showMessageDialog(this, "Stalemate!");
-					}
-				};
 			} catch (MoveNotPossible e) {
 				//don't execute move
 			}
@@ -228,6 +315,15 @@ public class ChessBoard extends JPanel {
 		return tiles[c.getRow()-1][c.getColumn()-1];
 	}
 	
+	/**
+	 * Gets the tile located at the desired square of the position model
+	 * @param square The square index (0 for a1 to 63 for h8)
+	 * @return Returns the tile at the specified square
+	 */
+	public Tile getTileAt(int square) {
+		return tiles[square >>> 3][square & 7];
+	}
+	
 	/**
 	 * Gets the last move that was played on the board
 	 * @return Returns the last Move object that was played on the board
@@ -244,7 +340,7 @@ public class ChessBoard extends JPanel {
 	/**
 	 * Opens a dialog that gets what piece the user wants to promote their pawn to
 	 * @param promotionCoordinate The coordinate to put the promoted piece to
-	 * @return Returns the promotion piece entered into the dialog
+	 * @return Returns the promotion piece entered into the dialog or null if the dialog was closed without choosing a piece
 	 */
 	public Piece pawnPromotion(BoardCoordinate promotionCoordinate) {
 		
@@ -284,64 +380,99 @@ public class ChessBoard extends JPanel {
 	 * @return Returns true if the moving side is out of moves
 	 */
 	private boolean isSideOutOfMoves() {
-		//check each tile for pieces
-		for (int rowCount = 0; rowCount < 8; rowCount++) {
-			for (int columnCount = 0; columnCount < 8; columnCount++) {
-				if (tiles[rowCount][columnCount].getPiece()!= null &&
-						isWhitesTurn() == (tiles[rowCount][columnCount].getPiece().getPlayerColour() == PlayerColour.White)?true:false) {
-					
-					List<BoardCoordinate> possibleSquares = tiles[rowCount][columnCount].getPiece().getPossibleSquares();
-					
-					for (BoardCoordinate possibleSquare : possibleSquares) {
-						Move move = new Move(tiles[rowCount][columnCount], getTileAt(possibleSquare), this);
-						if(move.isMovePossible()) 
-							{
-								return false;
-							}
-					}
-					
-				}
-			}
+		return MoveGenerator.generateLegalMoves(position, legalMoves) == 0;
+	}
+	
+	/**
+	 * Determines whether or not the moving side is checkmated
+	 * @return Returns true if the moving side is in check and has no legal moves
+	 */
+	public boolean isCheckmate() {
+		return MoveGenerator.isInCheck(position) && isSideOutOfMoves();
+	}
+	
+	/**
+	 * Gets how the game has ended: the moving side is checkmated or stalemated or the game is drawn by rule
+	 * (threefold repetition, fifty-move rule or insufficient material). In a game against the engine, the game is also drawn
+	 * once the tablebases show that neither side can win any more.
+	 * @return Returns the message shown to the user or null if the game is not over
+	 */
+	private String getGameEndMessage() {
+		if (isSideOutOfMoves()) {
+			return MoveGenerator.isInCheck(position)?"Checkmate!":"Stalemate!";
 		}
+		
+		DrawAdjudicator.Draw draw = DrawAdjudicator.adjudicate(position, legalMoves);
+		if (draw != DrawAdjudicator.Draw.NONE) {
+			return draw.getMessage();
+		}
+		
+		if (isTablebaseDraw()) {
+			return "Draw: the tablebases show that neither side can win!";
+		}
+		return null;
+	}
+	
+	/**
+	 * Determines whether or not the game is over (see getGameEndMessage)
+	 * @return Returns true if no more moves can be played
+	 */
+	public boolean isGameOver() {
+		return getGameEndMessage() != null;
+	}
+	
+	/**
+	 * Shows a message if the game is over (see getGameEndMessage)
+	 * @return Returns true if the game is over
+	 */
+	private boolean announceGameEnd() {
+		String message = getGameEndMessage();
+		if (message == null) return false;
+		JOptionPane.showMessageDialog(this, message);
 		return true;
 	}
 	
+	/**
+	 * Checks if a game against the engine has reached a tablebase position that neither side can win
+	 * (cursed wins and blessed losses are drawn by the fifty-move rule)
+	 * @return Returns true if the game is drawn
+	 */
+	private boolean isTablebaseDraw() {
+		if (tablebases == null || usersPlayerColour == null) return false;
+		int wdl = tablebases.probeWdl(position);
+		return wdl != Tablebases.NO_RESULT && wdl != Tablebases.WIN && wdl != Tablebases.LOSS;
+	}
+	
+	/**
+	 * Sets the endgame tablebases used for adjudicating games against the engine
+	 * @param tablebases The tablebases or null to stop adjudicating
+	 */
+	public void setTablebases(Tablebases tablebases) {
+		this.tablebases = tablebases;
+	}
+	
 	/**
 	 * Get the coordinate of the white King
 	 * @return Returns the coordinate of the white king
 	 */
 	public BoardCoordinate getWhiteKingCoordinate() {
-		//search the board for the white king
-		for (int rowCount = 0; rowCount < 8; rowCount++) {
-			for (int columnCount = 0; columnCount < 8; columnCount++) {
-				if (tiles[rowCount][columnCount].getPiece()!= null) {
-					if (tiles[rowCount][columnCount].getPiece().toString() == "White King") return tiles[rowCount][columnCount].getCoordinate();
-				}
-			}
-		}
-		return null;
+		int square = position.getKingSquare(Position.WHITE);
+		return (square == Position.NO_SQUARE)?null:getTileAt(square).getCoordinate();
 	}
 	/**
 	 * Get the coordinate of the black King
 	 * @return Returns the coordinate of the black king
 	 */
 	public BoardCoordinate getBlackKingCoordinate() {
-		//search the board for the black king
-		for (int rowCount = 0; rowCount < 8; rowCount++) {
-			for (int columnCount = 0; columnCount < 8; columnCount++) {
-				if (tiles[rowCount][columnCount].getPiece()!= null) {
-					if (tiles[rowCount][columnCount].getPiece().toString() == "Black King") return tiles[rowCount][columnCount].getCoordinate();
-				}
-			}
-		}
-		return null;
+		int square = position.getKingSquare(Position.BLACK);
+		return (square == Position.NO_SQUARE)?null:getTileAt(square).getCoordinate();
 	}
 	/**
 	 * Determines whether or not it is white's turn
 	 * @return Returns true if it is white's turn
 	 */
 	public boolean isWhitesTurn() {
-		return isWhitesTurn;
+		return position.getSideToMove() == Position.WHITE;
 	}
 	
 	/**
@@ -405,48 +536,42 @@ public class ChessBoard extends JPanel {
 	
 	
 	/**
-	 * Perform a move generated by an engine (slightly different than normal move execution)
+	 * Perform a move generated by an engine (slightly different than normal move execution). The move is ignored if the game is already over.
 	 * @param algebraicNotation The move that the engine generated represented in long algebraic notation (standard UCI notation)
 	 */
 	public void performEngineMove(String algebraicNotation) {
+		if (isGameOver()) {
+			return; //a reply that arrives after the game has ended
+		}
+		
 		String algebraicFrom = algebraicNotation.charAt(0) + "" + algebraicNotation.charAt(1);
 		String algebraicTo = algebraicNotation.substring(2);
 		
-		BoardCoordinate from=null, to=null;
+		BoardCoordinate from = BoardCoordinate.tryOf(((int)algebraicFrom.charAt(0))-96,((int)algebraicFrom.charAt(1))-48);
+		BoardCoordinate to = BoardCoordinate.tryOf(((int)algebraicTo.charAt(0))-96,((int)algebraicTo.charAt(1))-48);
 		
-		try {
-			from = new BoardCoordinate(((int)algebraicFrom.charAt(0))-96,((int)algebraicFrom.charAt(1))-48);
-			to = new BoardCoordinate(((int)algebraicTo.charAt(0))-96,((int)algebraicTo.charAt(1))-48);
-		} catch (CoordinateOffTheBoard e) {
-			// SHOULD NEVER HAPPEN
+		if (from == null || to == null) {
+			return; //not a move on the board
 		}
 		
-		Move move = new Move(getTileAt(from), getTileAt(to), this);
-		
 		//promote without opening modal dialog
+		int promotionType = Position.QUEEN;
 		if (algebraicNotation.length()==5) {
-			move.setPromotionPiece(algebraicNotation.charAt(4));
+			promotionType = "pnbrqk".indexOf(algebraicNotation.charAt(4));
 		}
 		
 		try {
-			move.executeMove();
+			Move move = Move.executeMove(position, position.encodeMove(from.getSquare(), to.getSquare(), promotionType));
 			clearHighlights();
 			//highlight move
 			highlightedSquares[0] = getTileAt(from);
 			getTileAt(from).toggleHighlight();
 			highlightedSquares[1] = getTileAt(to);
 			getTileAt(to).toggleHighlight();
-			if (isWhitesTurn==false) fenFullMoveClock++;
-			isWhitesTurn ^= true; //flip turn (XOR)
+			renderPosition();
 			addMove(move);
-			if (isSideOutOfMoves()) {
-				BoardCoordinate kingCoordinate = (isWhitesTurn())?getWhiteKingCoordinate():getBlackKingCoordinate();
-				if (BoardUtilities.isSquareInCheck(kingCoordinate, getTileAt(kingCoordinate).getPiece().getPlayerColour() ,null)) {
-					JOptionPane.showMessageDialog(this, "Checkmate!");
-				} else {
-					JOptionPane.showMessageDialog(this, "Stalemate!");
-				}
-			};
+			firePositionChanged();
+			announceGameEnd();
 		} catch (MoveNotPossible e) {
 			//don't execute move
 		}
@@ -457,11 +582,62 @@ public class ChessBoard extends JPanel {
 	 * @return Returns a string containing the move history in long algebraic notation
 	 */
 	public String getMovesInAlgebraicNotation() {
-		String algebraicMoves = "";
+		StringBuilder algebraicMoves = new StringBuilder(moves.size()*6);
 		for (Move m : moves) {
-			algebraicMoves += m.getLongAlgebraicNotation() + " ";
+			algebraicMoves.append(m.getLongAlgebraicNotation()).append(' ');
 		}
-		return algebraicMoves;
+		return algebraicMoves.toString();
+	}
+	
+	/**
+	 * Gets the game played on the board so far (from the position the board was set up to), e.g. for saving it as PGN
+	 * @return Returns the game with its starting position, its moves, the date and the result (if the game is over)
+	 */
+	public PgnGame getGame() {
+		PgnGame game = new PgnGame();
+		game.setTag("Date", new SimpleDateFormat("yyyy.MM.dd").format(new Date()));
+
+		//take the moves back to find the starting position, then play them again
+		int plies = Math.min(moves.size(), position.getUndoCount());
+		for (int i = 0; i < plies; i++) {
+			position.unmakeMove();
+		}
+		game.setStartingFEN(position.toFEN());
+		for (int i = moves.size() - plies; i < moves.size(); i++) {
+			position.makeMove(moves.get(i).getPackedMove());
+			game.addMove(moves.get(i).getPackedMove());
+		}
+
+		if (isSideOutOfMoves()) {
+			if (MoveGenerator.isInCheck(position)) {
+				game.setResult(isWhitesTurn()?"0-1":"1-0");
+			} else {
+				game.setResult("1/2-1/2");
+			}
+		} else if (DrawAdjudicator.adjudicate(position, legalMoves) != DrawAdjudicator.Draw.NONE || isTablebaseDraw()) {
+			game.setResult("1/2-1/2");
+		}
+		return game;
+	}
+	
+	/**
+	 * Sets up the board to the starting position of a game and plays its moves
+	 * @param game The game to load (e.g. read from a PGN file)
+	 * @throws InvalidFEN Thrown if the starting position of the game is not a valid FEN string
+	 */
+	public void loadGame(PgnGame game) throws InvalidFEN {
+		clearHighlights();
+		loadPosition((game.getStartingFEN() == null)?Position.STARTING_FEN:game.getStartingFEN());
+		try {
+			for (int i = 0; i < game.getMoveCount(); i++) {
+				moves.add(Move.executeMove(position, game.getMove(i)));
+			}
+		} catch (MoveNotPossible e) {
+			//the rest of the game cannot be played
+		}
+		renderPosition();
+		movesTableModel.fireTableDataChanged();
+		firePositionChanged();
 	}
 	
 	/**
@@ -472,6 +648,26 @@ public class ChessBoard extends JPanel {
 		turnHappenedListener = listener;
 	}
 	
+	/**
+	 * Add a listener that is notified after every change of the position: moves of the user or the engine, undone moves,
+	 * new games and loaded positions. Unlike the listener of setTurnHappenedListener, it is kept when the game mode changes.
+	 * @param listener The listener to handle the event
+	 */
+	public void addTurnHappenedListener(TurnHappenedListener listener) {
+		positionListeners.add(listener);
+	}
+	
+	/**
+	 * Notifies the listeners added by addTurnHappenedListener that the position has changed
+	 */
+	private void firePositionChanged() {
+		if (positionListeners.isEmpty()) return;
+		String algebraicMoves = getMovesInAlgebraicNotation();
+		for (TurnHappenedListener listener : positionListeners) {
+			listener.turnHappened(algebraicMoves);
+		}
+	}
+	
 	/**
 	 * Empty the board. Get rid of all pieces.
 	 */
@@ -483,6 +679,7 @@ public class ChessBoard extends JPanel {
 				tiles[rowCount][columnCount].setPiece(null);
 			}
 		}
+		position.clear();
 	}
 	
 	/**
@@ -493,6 +690,7 @@ public class ChessBoard extends JPanel {
 		if (highlightedSquares[0]!=null) clearHighlights();
 		clearBoard();
 		setUpBoard();
+		firePositionChanged();
 	}
 	
 	/**
@@ -501,6 +699,7 @@ public class ChessBoard extends JPanel {
 	 */
 	public void setMoveLocked(boolean moveLocked) {
 		this.moveLocked = moveLocked;
+		if (!moveLocked) firePositionChanged(); //the board setup is finished
 	}
 	
 	/**
@@ -508,131 +707,8 @@ public class ChessBoard extends JPanel {
 	 * @return Return the FEN string representing the current board position
 	 */
 	public String getFEN() {
-		String FEN = "";
-		
-		int empty = 0;
-		
-		//pieces
-		for (int rowCount = 8; rowCount > 0; rowCount--) {
-			for (int columnCount = 0; columnCount < 8; columnCount++) {
-				BoardCoordinate bc=null;
-				try {
-					bc = new BoardCoordinate(columnCount+1, rowCount);
-				} catch (CoordinateOffTheBoard e) {
-					// WILL NEVER BE REACHED
-				}
-				if (getTileAt(bc).getPiece() != null) {
-					if (empty>0) {FEN+=empty; empty=0;}
-					if (getTileAt(bc).getPiece() instanceof Knight) {
-						FEN+=(getTileAt(bc).getPiece().getPlayerColour() == PlayerColour.White)?"N":"n";
-					} else if (getTileAt(bc).getPiece() instanceof Bishop) {
-						FEN+=(getTileAt(bc).getPiece().getPlayerColour() == PlayerColour.White)?"B":"b";
-					} else if (getTileAt(bc).getPiece() instanceof King) {
-						FEN+=(getTileAt(bc).getPiece().getPlayerColour() == PlayerColour.White)?"K":"k";
-					} else if (getTileAt(bc).getPiece() instanceof Queen) {
-						FEN+=(getTileAt(bc).getPiece().getPlayerColour() == PlayerColour.White)?"Q":"q";
-					} else if (getTileAt(bc).getPiece() instanceof Rook) {
-						FEN+=(getTileAt(bc).getPiece().getPlayerColour() == PlayerColour.White)?"R":"r";
-					} else if (getTileAt(bc).getPiece() instanceof Pawn) {
-						FEN+=(getTileAt(bc).getPiece().getPlayerColour() == PlayerColour.White)?"P":"p";
-					}
-				} else {
-					empty++;
-				}
-			}
-			if (empty>0) {FEN+=empty; empty=0;}
-			if(rowCount>1) {
-				FEN+="/";
-			} else {
-				FEN+=" ";
-			}
-		}
-		
-		//To move
-		FEN += (isWhitesTurn())?"w":"b";
-		FEN += " ";
-		
-		//Castling rights
-		String rights = "";
-		
-		BoardCoordinate whiteKingCoordinate = null;
-		BoardCoordinate whiteShortRookCoordinate = null;
-		BoardCoordinate whiteLongRookCoordinate = null;
-		BoardCoordinate blackKingCoordinate = null;
-		BoardCoordinate blackShortRookCoordinate = null;
-		BoardCoordinate blackLongRookCoordinate = null;
-		
-		try {
-			whiteKingCoordinate = new BoardCoordinate(5,1);
-			whiteShortRookCoordinate = new BoardCoordinate(8,1);
-			whiteLongRookCoordinate = new BoardCoordinate(1,1);
-			blackKingCoordinate = new BoardCoordinate(5,8);
-			blackShortRookCoordinate = new BoardCoordinate(8,8);
-			blackLongRookCoordinate = new BoardCoordinate(1,8);
-		} catch (CoordinateOffTheBoard e) {
-			// WILL NEVER HAPPEN
-		}
-		
-		//check white castle rights
-		Piece piece = getTileAt(whiteKingCoordinate).getPiece();
-		if (piece instanceof King && piece.getPlayerColour()==PlayerColour.White && ((King)piece).isFirstMove()) {
-			//check short rook
-			piece = getTileAt(whiteShortRookCoordinate).getPiece();
-			if (piece instanceof Rook && piece.getPlayerColour()==PlayerColour.White && ((Rook)piece).isFirstMove()) {
-				rights+="K";
-			}
-			//check long rook
-			piece = getTileAt(whiteLongRookCoordinate).getPiece();
-			if (piece instanceof Rook && piece.getPlayerColour()==PlayerColour.White && ((Rook)piece).isFirstMove()) {
-				rights+="Q";
-			}
-		}
-		
-		//check black castle rights
-		piece = getTileAt(blackKingCoordinate).getPiece();
-		if (piece instanceof King && piece.getPlayerColour()==PlayerColour.Black && ((King)piece).isFirstMove()) {
-			//check short rook
-			piece = getTileAt(blackShortRookCoordinate).getPiece();
-			if (piece instanceof Rook && piece.getPlayerColour()==PlayerColour.Black && ((Rook)piece).isFirstMove()) {
-				rights+="k";
-			}
-			//check long rook
-			piece = getTileAt(blackLongRookCoordinate).getPiece();
-			if (piece instanceof Rook && piece.getPlayerColour()==PlayerColour.Black && ((Rook)piece).isFirstMove()) {
-				rights+="q";
-			}
-		}
-		
-		if (rights.equals("")) {
-			FEN+="- ";
-		} else  {
-			FEN+=rights+" ";
-		}
-		
-		//en passant square
-		if (moves.size()>0 && getLastMove().getMoveType().equals("PawnMove") && 
-				(getLastMove().getFrom().getRow() == getLastMove().getTo().getRow()-2||getLastMove().getFrom().getRow() == getLastMove().getTo().getRow()+2)) //Last move was double forward with pawn
-		{
-			String enPassantSquare;
-			//white
-			if (getLastMove().getFrom().getRow() == getLastMove().getTo().getRow()-2) {
-				enPassantSquare = getLastMove().getLongAlgebraicNotation().charAt(2) + String.valueOf(getLastMove().getLongAlgebraicNotation().charAt(3)-48-1);
-			//black
-			} else {
-				enPassantSquare = getLastMove().getLongAlgebraicNotation().charAt(2) + String.valueOf(getLastMove().getLongAlgebraicNotation().charAt(3)-48+1);
-			}
-			FEN += enPassantSquare+" ";
-		} else {
-			FEN += "- ";
-		}
-		
-		//Halfmove clock since the last capture or pawn advance
-		FEN+=fenHalfMoveClock+" ";
-		
-		//Fullmove number
-		FEN +=fenFullMoveClock+" ";
-		
-		return FEN;
+		fenBuffer.setLength(0);
+		return FenCodec.write(position, fenBuffer).toString();
 	}
 	
 	/**
@@ -640,30 +716,17 @@ public class ChessBoard extends JPanel {
 	 * @return Return the number of moves since the last pawn advance or capture
 	 */
 	public int getFENhalfmoveClock() {
-		return fenHalfMoveClock;
-	}
-	
-	/**
-	 * Increment the count of non pawn advance or capture moves (required for generating FEN notation)
-	 */
-	public void incrementFENhalfmoveClock() {
-		fenHalfMoveClock += 1;
-	}
-	
-	/**
-	 * Set the number of moves since a pawn advance or capture back to 0
-	 */
-	public void resetFENhalfmoveClock() {
-		fenHalfMoveClock = 0;
+		return position.getHalfMoveClock();
 	}
 	
 	/**
 	 * Delete all the moves played so far
 	 */
 	public void clearMoves() {
-		fenHalfMoveClock=0;
-		fenFullMoveClock=1;
+		position.setHalfMoveClock(0);
+		position.setFullMoveNumber(1);
 		moves.clear();
+		position.clearUndoHistory();
 		movesTableModel.fireTableDataChanged();
 	}
 	
@@ -673,202 +736,65 @@ public class ChessBoard extends JPanel {
 	 */
 	public void setToMove(PlayerColour side) {
 		if (side == PlayerColour.White) {
-			isWhitesTurn = true;
+			position.setSideToMove(Position.WHITE);
 		} else {
-			isWhitesTurn = false;
+			position.setSideToMove(Position.BLACK);
 		}
 	}
 	
+	/**
+	 * Set the castling rights (used when setting up a position manually). Rights whose king and rook are not on their original squares are ignored.
+	 * @param whiteShort White can castle short
+	 * @param whiteLong White can castle long
+	 * @param blackShort Black can castle short
+	 * @param blackLong Black can castle long
+	 */
+	public void setCastlingRights(boolean whiteShort, boolean whiteLong, boolean blackShort, boolean blackLong) {
+		int rights = 0;
+		if (whiteShort) rights |= Position.WHITE_KINGSIDE;
+		if (whiteLong) rights |= Position.WHITE_QUEENSIDE;
+		if (blackShort) rights |= Position.BLACK_KINGSIDE;
+		if (blackLong) rights |= Position.BLACK_QUEENSIDE;
+		position.setCastlingRights(rights);
+		position.discardUnavailableCastlingRights();
+	}
+	
 	/**
 	 * Set up the board according to the position stored in the FEN string
 	 * @param fen The FEN string storing the position to set the board to
 	 * @throws InvalidFEN Thrown if the FEN string is not a valid FEN string
 	 */
 	public void setBoardToFEN(String fen) throws InvalidFEN {
-		if (!fen.matches("\\s*([rnbqkpRNBQKP1-8]+\\/){7}([rnbqkpRNBQKP1-8]+)\\s[bw-]\\s(([a-hkqA-HKQ]{1,4})|(-))\\s(([a-h][36])|(-))\\s\\d+\\s\\d+\\s*")) {
-			throw new InvalidFEN();
-		}
+		loadPosition(fen);
+		firePositionChanged();
+	}
+	
+	/**
+	 * Set up the board according to the position stored in the FEN string without notifying the listeners
+	 * @param fen The FEN string storing the position to set the board to
+	 * @throws InvalidFEN Thrown if the FEN string is not a valid FEN string
+	 */
+	private void loadPosition(String fen) throws InvalidFEN {
+		FenCodec.parse(fen, parsedPosition);
 		
 		clearMoves();
-		
-		//pieces
-		int charCount = 0;
-		for (int rowCount = 8; rowCount > 0; rowCount--) {
+		for (int rowCount = 0; rowCount < 8; rowCount++) {
 			for (int columnCount = 0; columnCount < 8; columnCount++) {
-				BoardCoordinate bc=null;
-				try {
-					bc = new BoardCoordinate(columnCount+1, rowCount);
-				} catch (CoordinateOffTheBoard e) {
-					// WILL NEVER BE REACHED
-				}
-				
-				PlayerColour colour;
-				if (Character.isUpperCase(fen.charAt(charCount))) {
-					colour = PlayerColour.White;
-				} else {
-					colour = PlayerColour.Black;
-				}
-				
-				if (!Character.isDigit(fen.charAt(charCount))) {
-					if (Character.toLowerCase(fen.charAt(charCount)) == 'n') {
-						getTileAt(bc).setPiece(new Knight(colour, bc));
-					} else if (Character.toLowerCase(fen.charAt(charCount)) == 'b') {
-						getTileAt(bc).setPiece(new Bishop(colour, bc));
-					} else if (Character.toLowerCase(fen.charAt(charCount)) == 'k') {
-						getTileAt(bc).setPiece(new King(colour, bc));
-					} else if (Character.toLowerCase(fen.charAt(charCount)) == 'q') {
-						getTileAt(bc).setPiece(new Queen(colour, bc));
-					} else if (Character.toLowerCase(fen.charAt(charCount)) == 'r') {
-						getTileAt(bc).setPiece(new Rook(colour, bc));
-					} else if (Character.toLowerCase(fen.charAt(charCount)) == 'p') {
-						getTileAt(bc).setPiece(new Pawn(colour, bc));;
-					}
-
-					
-				} else {
-					for (int i=0; i < Character.getNumericValue(fen.charAt(charCount)); i++) {
-						
-						try {
-							getTileAt(new BoardCoordinate(bc.getColumn()+i,bc.getRow())).setPiece(null);
-						} catch (CoordinateOffTheBoard e) {
-							// WILL NEVER HAPPEN
-						}
-						columnCount++;
-
-					}
-					columnCount--;
-				}
-				charCount++;
-			}
-			charCount++;
-		}
-		
-		//To move
-		if (fen.charAt(charCount)=='w') {
-			setToMove(PlayerColour.White);
-		} else {
-			setToMove(PlayerColour.Black);
-		}
-		charCount+=2;
-		
-		//Castling rights
-		//Manipulate Rooks' first move property to prevent or allow castling
-		BoardCoordinate whiteShortRookCoordinate = null;
-		BoardCoordinate whiteLongRookCoordinate = null;
-		BoardCoordinate blackShortRookCoordinate = null;
-		BoardCoordinate blackLongRookCoordinate = null;
-		
-		try {
-			whiteShortRookCoordinate = new BoardCoordinate(8,1);
-			whiteLongRookCoordinate = new BoardCoordinate(1,1);
-			blackShortRookCoordinate = new BoardCoordinate(8,8);
-			blackLongRookCoordinate = new BoardCoordinate(1,8);
-		} catch (CoordinateOffTheBoard e1) {
-			// WILL NEVER HAPPEN
-		}
-		
-		boolean whiteShortRook = false;
-		boolean whiteLongRook = false;
-		boolean blackShortRook = false;
-		boolean blackLongRook = false;
-		
-		while(fen.charAt(charCount)!=' ') {
-			switch(fen.charAt(charCount)) {
-			case 'K':
-				whiteShortRook = true;
-				break;
-			case 'Q':
-				whiteLongRook = true;
-				break;
-			case 'k':
-				blackShortRook = true;
-				break;
-			case 'q':
-				blackLongRook = true;
-				break;
+				tiles[rowCount][columnCount].setPiece(null);
 			}
-			charCount++;
-		}
-		
-		Piece piece;
-		piece = getTileAt(whiteShortRookCoordinate).getPiece();
-		if (piece instanceof Rook && piece.getPlayerColour() == PlayerColour.White) {
-			((Rook)piece).setFirstMove(whiteShortRook);
-		}
-		
-		piece = getTileAt(whiteLongRookCoordinate).getPiece();
-		if (piece instanceof Rook && piece.getPlayerColour() == PlayerColour.White) {
-			((Rook)piece).setFirstMove(whiteLongRook);
-		}
-		
-		piece = getTileAt(blackShortRookCoordinate).getPiece();
-		if (piece instanceof Rook && piece.getPlayerColour() == PlayerColour.Black) {
-			((Rook)piece).setFirstMove(blackShortRook);
 		}
 		
-		piece = getTileAt(blackLongRookCoordinate).getPiece();
-		if (piece instanceof Rook && piece.getPlayerColour() == PlayerColour.Black) {
-			((Rook)piece).setFirstMove(blackLongRook);
-		}
-		charCount++;
-		
-		//en passant square
-		String square = String.valueOf(fen.charAt(charCount)) + String.valueOf(fen.charAt(charCount+1));
-		addEnPassantSquare(square);
-		
-		if (fen.charAt(charCount)=='-') {
-			charCount+=2;
-		} else {
-			charCount+=3;
-		}
-		
-		//halfmove clock since last capture or pawn advance
-		String number="";
-		while (fen.charAt(charCount)!=' ') {
-			number+=fen.charAt(charCount);
-			charCount++;
-		}
-		fenHalfMoveClock = Integer.parseInt(number);
-		charCount++;
-		
-		//Fullmove count
-		number="";
-		while (charCount<fen.length() && fen.charAt(charCount)!='\n' && fen.charAt(charCount)!=' ') {
-			number+=fen.charAt(charCount);
-			charCount++;
-		}
-		fenFullMoveClock = Integer.parseInt(number);
+		position.copyFrom(parsedPosition);
+		renderPosition();
 	}
 	
 	/**
-	 * Adds an en passant square to the board (by adding the last pawn advance to the moves tracker) - used for setting up the board from a FEN string
+	 * Adds an en passant square to the position - used for setting up a position manually
 	 * @param square The en passant square (where the enemy piece can move to)
 	 */
 	public void addEnPassantSquare(String square) {
-		
-		BoardCoordinate squareInFrontOfEnPassant = null;
-		BoardCoordinate squareBehindEnPassant = null;
-		
-		if (square.charAt(1)=='3') {
-			//square in front of and behind en passant square - white
-			try {
-				squareInFrontOfEnPassant = new BoardCoordinate(((int)square.charAt(0))-96,((int)square.charAt(1))-48 +1);
-				squareBehindEnPassant = new BoardCoordinate(((int)square.charAt(0))-96,((int)square.charAt(1))-48 -1);
-			} catch (CoordinateOffTheBoard e) {
-				//WILL NEVER HAPPEN
-			}
-			
-			addMove(new Move(getTileAt(squareBehindEnPassant),getTileAt(squareInFrontOfEnPassant),this)); //insert last pawn move
-		} else if (square.charAt(1)=='6'){
-			//square in front of and behind en passant square - black
-			try {
-				squareInFrontOfEnPassant = new BoardCoordinate(((int)square.charAt(0))-96,((int)square.charAt(1))-48 -1);
-				squareBehindEnPassant = new BoardCoordinate(((int)square.charAt(0))-96,((int)square.charAt(1))-48 +1);
-			} catch (CoordinateOffTheBoard e) {
-				// WILL NEVER HAPPEN
-			}
-			
-			addMove(new Move(getTileAt(squareBehindEnPassant),getTileAt(squareInFrontOfEnPassant),this)); //insert last pawn move
+		if (square.charAt(1)=='3' || square.charAt(1)=='6') {
+			position.setEnPassantSquare(Position.square(((int)square.charAt(0))-96, ((int)square.charAt(1))-48));
 		}
 	}
 	
@@ -894,81 +820,13 @@ public class ChessBoard extends JPanel {
 	 */
 	public void undoLastMove() {
 		clearHighlights();
-		if (moves.size() > 0) {
-			Move lastMove = moves.get(moves.size()-1);
-			
-			Tile from = getTileAt(lastMove.getFrom());
-			Tile to = getTileAt(lastMove.getTo());
-			
-			setToMove((to.getPiece().getPlayerColour()==PlayerColour.White)?PlayerColour.White:PlayerColour.Black);
-			
-			if (to.getPiece().getPlayerColour()==PlayerColour.Black) {
-				fenFullMoveClock--;
-			}
-			
-			if (lastMove.wasPawnPromotion()) {
-				from.setPiece(new Pawn(to.getPiece().getPlayerColour(),from.getCoordinate()));
-			} else {
-				
-				to.getPiece().setCurrentPosition(from.getCoordinate());
-				
-				if (lastMove.isFirstMove()) {
-					if (to.getPiece() instanceof Pawn) {
-						((Pawn)to.getPiece()).setFirstMove(true);
-					} else if (to.getPiece() instanceof Rook) {
-						((Rook)to.getPiece()).setFirstMove(true);
-					} else if (to.getPiece() instanceof King) {
-						((King)to.getPiece()).setFirstMove(true);
-						
-						//check for castling move
-						if (to.getCoordinate().getColumn() == from.getCoordinate().getColumn()+2 
-								|| to.getCoordinate().getColumn() == from.getCoordinate().getColumn()-2) {
-							//Move rook as well
-							if (to.getCoordinate().getColumn() == from.getCoordinate().getColumn()+2) {
-								
-								Tile t = (to.getPiece().getPlayerColour()==PlayerColour.White)?tiles[0][5]:tiles[7][5];
-								
-								if (t.getPiece().getPlayerColour() == PlayerColour.White) { 
-									tiles[0][7].setPiece(t.getPiece());
-									((Rook)tiles[0][7].getPiece()).setFirstMove(true);
-								}
-								else {
-									tiles[7][7].setPiece(t.getPiece());
-									((Rook)tiles[7][7].getPiece()).setFirstMove(true);
-								}
-								
-								t.setPiece(null);
-								
-							} else {
-								Tile t = (to.getPiece().getPlayerColour()==PlayerColour.White)?tiles[0][3]:tiles[7][3];
-								
-								if (t.getPiece().getPlayerColour() == PlayerColour.White) { 
-									tiles[0][0].setPiece(t.getPiece());
-									((Rook)tiles[0][0].getPiece()).setFirstMove(true);
-								}
-								else {
-									tiles[7][0].setPiece(t.getPiece());
-									((Rook)tiles[7][0].getPiece()).setFirstMove(true);
-								}
-								
-								t.setPiece(null);
-							}
-						}
-					}
-				}
-				
-				from.setPiece(to.getPiece());
-				
-			}
-			to.setPiece(lastMove.getTakenPiece()); //set "to" square back to taken piece (even if it's null)
+		if (moves.size() > 0 && position.getUndoCount() > 0) {
+			position.unmakeMove();
+			renderPosition();
 			
 			moves.remove(moves.size()-1);
 			movesTableModel.fireTableDataChanged();
-			
-			if (fenHalfMoveClock>0) {
-				fenHalfMoveClock--;
-			}
-			
+			firePositionChanged();
 		}
 	}
 }
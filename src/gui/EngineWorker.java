@@ -1,5 +1,7 @@
 package gui;
 
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
 import java.io.BufferedReader;
 import java.io.BufferedWriter;
 import java.io.IOException;
@@ -7,18 +9,37 @@ import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.ArrayDeque;
 import java.util.List;
 import javax.swing.JOptionPane;
 import javax.swing.JTextArea;
 import javax.swing.SwingWorker;
+import javax.swing.Timer;
+
+import Board.PackedMove;
+import Database.AnalysisCache;
+import Database.AnalysisCache.Analysis;
 
 /**
- * A class for reading the output of an external chess engine on a different thread (so as to not lock up the GUI)
+ * A class for reading the output of an external chess engine on a different thread (so as to not lock up the GUI).
+ * The engine's lines are parsed on the reader thread, which keeps only the latest line of every multi PV slot and publishes
+ * nothing but the best moves; the output area is redrawn by a timer at most renderRate times per second and only if a slot has changed,
+ * from an immutable snapshot of the slots, so a fast engine sending thousands of lines per second does not flood the event dispatch thread.
+ * The analysis of the positions analysed with analysePosition is stored in an AnalysisCache (every completed depth and the final
+ * lines), and a position that is already cached is shown at once, until the engine searches deeper than the cached analysis.
  * @author Daniele Palazzo
  *
  */
 public class EngineWorker extends SwingWorker<Void,String> {
-
+	
+	public static final int DEFAULT_RENDER_RATE = 15;
+	public static final int MAX_RENDER_RATE = 60;
+	
+	private static final int MULTI_PV = 3;
+	
+	//the hash of a search whose analysis is not cached
+	private static final long NO_POSITION = 0L;
+	
 	private String chessEngineUrl;
 	private Process chessEngineProcess;
 	private InputStream processInputStream;
@@ -28,14 +49,78 @@ public class EngineWorker extends SwingWorker<Void,String> {
 	
 	private JTextArea outputArea;
 	private MainFrame frame;
+	//only used by the reader thread
 	private UciParser uciParser;
+	private volatile String engineName;
+	
+	/**
+	 * A search started by a "go" command (every search is finished by a "bestmove")
+	 */
+	private static class Search {
+		private long positionHash;
+		private boolean blackToMove;
+		
+		private Search(long positionHash, boolean blackToMove) {
+			this.positionHash = positionHash;
+			this.blackToMove = blackToMove;
+		}
+	}
+	
+	/**
+	 * The latest line of one multi PV slot (copied from the reused InfoRecord)
+	 */
+	private static class Slot {
+		private int scoreType;
+		private int score;
+		private int[] pv = new int[64];
+		private int pvLength;
+		private boolean updated;
+		
+		private void copyFrom(InfoRecord info) {
+			scoreType = info.getScoreType();
+			score = info.getScore();
+			if (pv.length < info.getPVLength()) pv = new int[info.getPVLength()*2];
+			pvLength = info.getPVLength();
+			for (int i = 0; i < pvLength; i++) {
+				pv[i] = info.getPVMove(i);
+			}
+			updated = true;
+		}
+		
+		private void clear() {
+			scoreType = InfoRecord.SCORE_NONE;
+			pvLength = 0;
+			updated = false;
+		}
+		
+		private StringBuilder appendPV(StringBuilder sb) {
+			for (int i = 0; i < pvLength; i++) {
+				if (i > 0) sb.append(' ');
+				PackedMove.appendLongAlgebraic(pv[i], sb);
+			}
+			return sb;
+		}
+	}
+	
+	//guards the slots, the depth, the searches and the counters, which are shared by the reader thread and the event dispatch thread
+	private final Object lock = new Object();
+	
+	//the lines of the oldest search that has not finished yet and the depth of its best line
+	private Slot[] slots;
+	private int depth;
 	
-	//Evaluation lines
-	private String line1;
-	private String line2;
-	private String line3;
+	private AnalysisCache analysisCache;
+	//the searches that have not finished yet, the oldest first, and the hash of the position of the next search
+	private ArrayDeque<Search> searches;
+	private long nextSearchHash;
 	
-	private String depth;
+	private Timer renderTimer;
+	private boolean dirty;
+	private StringBuilder text;
+	
+	//the lines read from the engine and the slot updates shown in the output area
+	private long linesReceived;
+	private long linesRendered;
 	
 	/**
 	 * Constructs and initialises an EngineWorker
@@ -44,7 +129,7 @@ public class EngineWorker extends SwingWorker<Void,String> {
 	 * @param engineURL The URL of the external chess engine on the file system
 	 * @throws IOException Thrown if the engine cannot be found or another IO issue occurs
 	 */
-	public EngineWorker (JTextArea outputArea, MainFrame frame,String engineURL) throws IOException {	
+	public EngineWorker (JTextArea outputArea, MainFrame frame,String engineURL) throws IOException {
 		chessEngineUrl = engineURL;
 		chessEngineProcess = new ProcessBuilder(chessEngineUrl).start();
 		processInputStream = chessEngineProcess.getInputStream();
@@ -52,67 +137,256 @@ public class EngineWorker extends SwingWorker<Void,String> {
 		writer = new BufferedWriter(new OutputStreamWriter(processOutputStream));
 		reader = new BufferedReader(new InputStreamReader(processInputStream));
 		
+		searches = new ArrayDeque<Search>();
+		nextSearchHash = NO_POSITION;
+		
 		this.sendCommandToEngine("uci");
 		this.sendCommandToEngine("setoption name Hash value 128");
-		this.sendCommandToEngine("setoption name MultiPV value 3");
+		this.sendCommandToEngine("setoption name MultiPV value " + MULTI_PV);
 		//this.sendCommandToEngine("setoption name Debug Log File value C:\\a.txt");
 		
 		this.outputArea = outputArea;
 		uciParser = new UciParser();
+		engineName = "";
 		
-		line1="";
-		line2="";
-		line3="";
-		depth="";
+		slots = new Slot[MULTI_PV];
+		for (int i = 0; i < MULTI_PV; i++) {
+			slots[i] = new Slot();
+		}
+		clearLines();
+		text = new StringBuilder(256);
 		
 		this.frame = frame;
+		
+		renderTimer = new Timer(1000 / DEFAULT_RENDER_RATE, new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				render();
+			}
+		});
+		renderTimer.start();
 	}
 	
 	/**
-	 * The method that will be run on a different thread reading in the chess engines' output
+	 * The method that will be run on a different thread reading in the chess engines' output. Every line is parsed here;
+	 * only the best moves are published to the event dispatch thread.
 	 */
 	@Override
 	protected Void doInBackground() throws Exception {
 		String line="";
 		while(!isCancelled() && (line = reader.readLine())!=null) {
-			publish(line);
+			int kind = uciParser.parseUCIResponseLine(line); //parse the UCI text
+			
+			synchronized (lock) {
+				linesReceived++;
+				if (kind==UciParser.BEST_MOVE) {
+					finishSearch();
+				} else if (kind==UciParser.INFO) {
+					updateSlot(uciParser.getInfo());
+				}
+			}
+			
+			if (kind==UciParser.BEST_MOVE) {
+				publish(uciParser.getBestMove());
+			} else if (kind==UciParser.ID_NAME) {
+				engineName = uciParser.getEngineName();
+			}
 		}
 		
 		return null;
 	}
 	
 	/**
-	 * Displays the engine's parsed output in real time
+	 * Sends the engine's best moves to the frame (every one of them, a batch can hold several)
 	 */
 	@Override
-	protected void process(List<String> chunks) {
-		for (String chunk : chunks) {
-			uciParser.parseUCIResponseLine(chunk); //parse the UCI text
-			
-			if (uciParser.getBestMove()!="") {
-				frame.receiveEnginesBestMove(uciParser.getBestMove());
-				return;
+	protected void process(List<String> bestMoves) {
+		for (String bestMove : bestMoves) {
+			frame.receiveEnginesBestMove(bestMove);
+		}
+	}
+	
+	/**
+	 * Keeps the latest line of a slot (the output area is redrawn by the render timer). The caller holds the lock.
+	 * @param info The info line
+	 */
+	private void updateSlot(InfoRecord info) {
+		int multiPV = info.getMultiPV();
+		if (info.getScoreType()==InfoRecord.SCORE_NONE || multiPV<1 || multiPV>MULTI_PV) return;
+		
+		if (multiPV==1 && info.getDepth()!=-1) {
+			//a new depth: the previous depth is complete
+			if (info.getDepth() > depth) storeAnalysis();
+			depth = info.getDepth();
+		}
+		slots[multiPV-1].copyFrom(info);
+		
+		//the lines of a search that has been replaced by a newer one are only cached
+		if (searches.size()<=1) dirty = true;
+	}
+	
+	/**
+	 * Stops the render timer once the worker is finished or cancelled
+	 */
+	@Override
+	protected void done() {
+		renderTimer.stop();
+	}
+	
+	/**
+	 * Sets the cache the analysis of the positions analysed with analysePosition is stored in
+	 * @param analysisCache The cache or null if the analysis is not cached
+	 */
+	public void setAnalysisCache(AnalysisCache analysisCache) {
+		this.analysisCache = analysisCache;
+	}
+	
+	/**
+	 * Sets how often the output area is redrawn at most
+	 * @param renderRate The number of redraws per second (1 to MAX_RENDER_RATE)
+	 */
+	public void setRenderRate(int renderRate) {
+		renderTimer.setDelay(1000 / Math.max(1, Math.min(renderRate, MAX_RENDER_RATE)));
+	}
+	
+	/**
+	 * Gets the number of lines read from the engine so far
+	 * @return Returns the number of lines
+	 */
+	public long getLinesReceived() {
+		synchronized (lock) {
+			return linesReceived;
+		}
+	}
+	
+	/**
+	 * Gets the number of evaluation lines shown in the output area so far (lines replaced by newer ones of the same slot before
+	 * the next redraw are never shown)
+	 * @return Returns the number of lines
+	 */
+	public long getLinesRendered() {
+		synchronized (lock) {
+			return linesRendered;
+		}
+	}
+	
+	/**
+	 * Starts analysing a position (the previous search has to be stopped first). If the position is cached, the cached analysis is shown at once.
+	 * @param positionHash The hash of the position (Position.getPositionHash)
+	 * @param positionCommand The UCI command setting up the position
+	 */
+	public void analysePosition(long positionHash, String positionCommand) {
+		sendCommandToEngine(positionCommand);
+		nextSearchHash = positionHash;
+		sendCommandToEngine("go infinite");
+		
+		Analysis cached = (analysisCache==null)?null:analysisCache.get(positionHash);
+		if (cached!=null) {
+			long received;
+			long rendered;
+			synchronized (lock) {
+				received = linesReceived;
+				rendered = linesRendered;
 			}
-			
-			if (!uciParser.getEvalScore(frame.sideToMoveOnTheBoard()).equals("") && uciParser.getMultiPV()!=0) {
-				switch(uciParser.getMultiPV()) {
-				case 1:
-					line1 = uciParser.getMultiPV() +" "+ "(" + uciParser.getEvalScore(frame.sideToMoveOnTheBoard()) + ")" + " " + uciParser.getBestLine();
-					break;
-				case 2:
-					line2 = uciParser.getMultiPV() +" "+ "(" + uciParser.getEvalScore(frame.sideToMoveOnTheBoard()) + ")" + " " + uciParser.getBestLine();
-					break;
-				case 3:
-					line3 = uciParser.getMultiPV() +" "+ "(" + uciParser.getEvalScore(frame.sideToMoveOnTheBoard()) + ")" + " " + uciParser.getBestLine();
-					break;
+			showLines(cached, true, received, rendered);
+		}
+	}
+	
+	/**
+	 * Redraws the output area with the lines of the current search, or the cached analysis of its position as long as it is deeper,
+	 * if a slot has changed since the last redraw. The lines are copied into an immutable snapshot under the lock, so the reader thread
+	 * is only held up for the copy.
+	 */
+	private void render() {
+		Analysis snapshot;
+		boolean fromCache;
+		long received;
+		long rendered;
+		synchronized (lock) {
+			if (!dirty) return;
+			dirty = false;
+			Search search = searches.peekFirst();
+			Analysis cached = (analysisCache==null || search==null || search.positionHash==NO_POSITION)?null:analysisCache.get(search.positionHash);
+			fromCache = cached!=null && cached.getDepth()>depth;
+			if (fromCache) {
+				snapshot = cached;
+			} else {
+				for (Slot slot : slots) {
+					if (slot.updated) linesRendered++;
+					slot.updated = false;
 				}
-				
-				if (uciParser.getMultiPV()==1) depth = uciParser.getDepth();
-				outputArea.setText(uciParser.getEngineName() + "(Current search depth: "+ depth +")\n"+
-				line1 + "\n" + line2 + "\n" + line3 + "\n");
+				snapshot = snapshot(search!=null && search.blackToMove);
+			}
+			received = linesReceived;
+			rendered = linesRendered;
+		}
+		showLines(snapshot, fromCache, received, rendered);
+	}
+	
+	/**
+	 * Shows evaluation lines in the output area
+	 * @param analysis The lines to show
+	 * @param fromCache True if the lines are a cached analysis, false if they are the lines of the current search
+	 * @param received The number of lines read from the engine
+	 * @param rendered The number of lines shown
+	 */
+	private void showLines(Analysis analysis, boolean fromCache, long received, long rendered) {
+		text.setLength(0);
+		text.append(frame.getTablebaseAnnotation()).append(engineName);
+		text.append("(").append(fromCache?"Cached":"Current").append(" search depth: ").append(analysis.getDepth()).append(")");
+		text.append("   [lines received: ").append(received).append(", rendered: ").append(rendered).append("]\n");
+		for (int i = 0; i < MULTI_PV; i++) {
+			if (i<analysis.getLineCount()) {
+				text.append(i+1).append(" (").append(analysis.getScore(i)).append(") ").append(analysis.getLine(i));
 			}
+			text.append("\n");
 		}
+		outputArea.setText(text.toString());
+	}
+	
+	/**
+	 * Copies the lines of the current search (the scores from white's point of view). The caller holds the lock.
+	 * @param blackToMove True if black is to move in the position searched
+	 * @return Returns the lines (none if no slot has a line yet)
+	 */
+	private Analysis snapshot(boolean blackToMove) {
+		int lineCount = 0;
+		while (lineCount<MULTI_PV && slots[lineCount].scoreType!=InfoRecord.SCORE_NONE) lineCount++;
+		String[] scores = new String[lineCount];
+		String[] lines = new String[lineCount];
+		for (int i = 0; i < lineCount; i++) {
+			scores[i] = InfoRecord.appendScore(new StringBuilder(8), slots[i].scoreType, slots[i].score, blackToMove).toString();
+			lines[i] = slots[i].appendPV(new StringBuilder(slots[i].pvLength*5)).toString();
+		}
+		return new Analysis(depth, scores, lines);
+	}
+	
+	/**
+	 * Stores the lines of the last complete depth of the current search in the cache (if its position is cached). The caller holds the lock.
+	 */
+	private void storeAnalysis() {
+		Search search = searches.peekFirst();
+		if (analysisCache==null || search==null || search.positionHash==NO_POSITION || depth==0) return;
 		
+		Analysis analysis = snapshot(search.blackToMove);
+		if (analysis.getLineCount()>0) analysisCache.put(search.positionHash, analysis);
+	}
+	
+	/**
+	 * Finishes the oldest search (its bestmove has arrived): stores its analysis and continues with the lines of the next search.
+	 * The caller holds the lock.
+	 */
+	private void finishSearch() {
+		storeAnalysis();
+		searches.pollFirst();
+		clearLines();
+	}
+	
+	private void clearLines() {
+		for (Slot slot : slots) {
+			slot.clear();
+		}
+		depth = 0;
 	}
 	
 	/**
@@ -120,6 +394,14 @@ public class EngineWorker extends SwingWorker<Void,String> {
 	 * @param command A string containing a command to the engine (in the UCI protocol)
 	 */
 	public void sendCommandToEngine(String command) {
+		if (command.startsWith("go")) {
+			//the side to move is read here, on the event dispatch thread, so the reader thread never touches the board
+			Search search = new Search(nextSearchHash, frame.sideToMoveOnTheBoard()==PlayerColour.Black);
+			synchronized (lock) {
+				searches.addLast(search);
+			}
+			nextSearchHash = NO_POSITION;
+		}
 		try {
 			writer.write(command + '\n');
 			writer.flush();
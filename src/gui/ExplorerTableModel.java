@@ -0,0 +1,172 @@
+package gui;
+
+import javax.swing.table.AbstractTableModel;
+
+import Board.MoveGenerator;
+import Board.Position;
+import Database.OpeningExplorer;
+import Database.OpeningExplorer.Continuation;
+import Notation.San;
+
+/**
+ * The table model for displaying the moves played from the current position in the games of a database (the opening explorer).
+ * Statistics that are already cached are shown at once; the others are aggregated by an ExplorerWorker, so the event dispatch
+ * thread never waits for the database.
+ * @author Daniele Palazzo
+ *
+ */
+public class ExplorerTableModel extends AbstractTableModel {
+
+	private String[] colNames = {"Move","Games","Score","Rating"};
+
+	private OpeningExplorer explorer;
+	private ExplorerWorker worker;
+
+	//the position shown (the position of the board) and its continuations in SAN
+	private Position position;
+	private long positionHash;
+	private Continuation[] shownContinuations;
+	private Continuation[] continuations;
+	private String[] moves;
+	private int rowCount;
+
+	private int[] legalMoves;
+	private int[] sanMoves;
+	private StringBuilder san;
+
+	/**
+	 * Constructs and initialises an ExplorerTableModel (no database is loaded yet)
+	 */
+	public ExplorerTableModel() {
+		continuations = new Continuation[0];
+		moves = new String[0];
+		rowCount = 0;
+		legalMoves = new int[MoveGenerator.MAX_MOVES];
+		sanMoves = new int[MoveGenerator.MAX_MOVES];
+		san = new StringBuilder(8);
+	}
+
+	/**
+	 * Sets the explorer the statistics are taken from
+	 * @param explorer The explorer of the loaded database or null if no database is loaded
+	 */
+	public void setExplorer(OpeningExplorer explorer) {
+		if (worker != null) worker.cancel(false);
+		this.explorer = explorer;
+		shownContinuations = null;
+		rowCount = 0;
+		fireTableDataChanged();
+	}
+
+	/**
+	 * Gets the explorer the statistics are taken from
+	 * @return Returns the explorer or null if no database is loaded
+	 */
+	public OpeningExplorer getExplorer() {
+		return explorer;
+	}
+
+	/**
+	 * Shows the statistics of a position (called after every change of the position on the board)
+	 * @param position The position on the board
+	 */
+	public void showPosition(Position position) {
+		if (explorer == null) return;
+		this.position = position;
+		positionHash = position.getPositionHash();
+		Continuation[] cached = explorer.getCachedContinuations(positionHash);
+		if (cached != null) {
+			setContinuations(position, cached);
+		} else {
+			shownContinuations = null;
+			rowCount = 0;
+			fireTableDataChanged();
+		}
+		
+		//aggregate the position if it is not cached and the positions after its most played moves in the background
+		if (worker != null) worker.cancel(false);
+		worker = new ExplorerWorker(this, explorer, new Position(position));
+		worker.execute();
+	}
+
+	/**
+	 * Receives the statistics aggregated by an ExplorerWorker (they are ignored if the board has moved on to another position meanwhile)
+	 * @param aggregatedHash The hash of the position that was aggregated
+	 * @param found The continuations of the position
+	 */
+	void continuationsFound(long aggregatedHash, Continuation[] found) {
+		if (explorer != null && found != shownContinuations && aggregatedHash == positionHash && position.getPositionHash() == positionHash) {
+			setContinuations(position, found);
+		}
+	}
+
+	/**
+	 * Converts the continuations to SAN and updates the table. Moves that are not legal in the position (which can only happen
+	 * if two positions of the database have the same hash) are left out.
+	 * @param position The position
+	 * @param found The continuations of the position
+	 */
+	private void setContinuations(Position position, Continuation[] found) {
+		shownContinuations = found;
+		if (continuations.length < found.length) {
+			continuations = new Continuation[found.length];
+			moves = new String[found.length];
+		}
+		int legalMoveCount = MoveGenerator.generateLegalMoves(position, legalMoves);
+		rowCount = 0;
+		for (Continuation continuation : found) {
+			for (int i = 0; i < legalMoveCount; i++) {
+				if (legalMoves[i] == continuation.getMove()) {
+					san.setLength(0);
+					San.write(position, continuation.getMove(), san, sanMoves);
+					continuations[rowCount] = continuation;
+					moves[rowCount++] = san.toString();
+					break;
+				}
+			}
+		}
+		fireTableDataChanged();
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getColumnName(int column) {
+		return colNames[column];
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public int getColumnCount() {
+		return 4;
+	}
+
+	/**
+	 * {@inheritDoc}
+	 */
+	@Override
+	public String getValueAt(int rowIndex, int columnIndex) {
+		Continuation continuation = continuations[rowIndex];
+		switch (columnIndex) {
+		case 0:
+			return moves[rowIndex];
+		case 1:
+			return Integer.toString(continuation.getGames());
+		case 2:
+			return (continuation.getScore() < 0)?"":String.format("%.1f%%", continuation.getScore());
+		default:
+			return (continuation.getAverageRating() == 0)?"":Integer.toString(continuation.getAverageRating());
+		}
+	}
+}
@@ -0,0 +1,72 @@
+package gui;
+
+import java.util.List;
+
+import javax.swing.SwingWorker;
+
+import Board.MoveGenerator;
+import Board.Position;
+import Database.OpeningExplorer;
+import Database.OpeningExplorer.Continuation;
+
+/**
+ * A class for aggregating the opening statistics of a position on a different thread (so as to not lock up the GUI).
+ * Once the position is shown, the positions after its most played moves are aggregated as well, so that they are already
+ * cached when the game on the board continues with one of them.
+ * @author Daniele Palazzo
+ *
+ */
+public class ExplorerWorker extends SwingWorker<Void,Continuation[]> {
+
+	//the number of continuations whose positions are aggregated in advance
+	private static final int PREFETCHED_MOVES = 8;
+
+	private ExplorerTableModel tableModel;
+	private OpeningExplorer explorer;
+	private Position position;
+	private long positionHash;
+
+	/**
+	 * Constructs and initialises an ExplorerWorker
+	 * @param tableModel The table model to send the statistics to
+	 * @param explorer The explorer of the loaded database
+	 * @param position The position to aggregate (a copy owned by the worker)
+	 */
+	public ExplorerWorker(ExplorerTableModel tableModel, OpeningExplorer explorer, Position position) {
+		this.tableModel = tableModel;
+		this.explorer = explorer;
+		this.position = position;
+		positionHash = position.getPositionHash();
+	}
+
+	/**
+	 * The method that will be run on a different thread aggregating the position and the positions after its most played moves
+	 */
+	@Override
+	protected Void doInBackground() throws Exception {
+		Continuation[] continuations = explorer.getContinuations(position);
+		publish(continuations);
+
+		int[] legalMoves = new int[MoveGenerator.MAX_MOVES];
+		int legalMoveCount = MoveGenerator.generateLegalMoves(position, legalMoves);
+		for (int i = 0; i < continuations.length && i < PREFETCHED_MOVES && !isCancelled(); i++) {
+			for (int j = 0; j < legalMoveCount; j++) {
+				if (legalMoves[j] == continuations[i].getMove()) {
+					position.makeMove(legalMoves[j]);
+					explorer.getContinuations(position);
+					position.unmakeMove();
+					break;
+				}
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Shows the statistics of the position (on the event dispatch thread)
+	 */
+	@Override
+	protected void process(List<Continuation[]> chunks) {
+		tableModel.continuationsFound(positionHash, chunks.get(chunks.size() - 1));
+	}
+}
@@ -0,0 +1,261 @@
+package gui;
+
+import Board.PackedMove;
+
+/**
+ * The typed content of one UCI "info" line of a chess engine. A record is reused for every line parsed (see UciParser),
+ * so its values are only valid until the next line is parsed; the values a line does not contain are -1 (or SCORE_NONE).
+ * The moves of the principal variation are packed moves with the squares and the promotion piece only (the engine's notation
+ * does not tell castling or en passant moves apart, Position.encodeMove does that with the position).
+ * @author Daniele Palazzo
+ *
+ */
+public class InfoRecord {
+
+	public static final int SCORE_NONE = 0;
+	public static final int SCORE_CP = 1;
+	public static final int SCORE_MATE = 2;
+
+	public static final int BOUND_EXACT = 0;
+	public static final int BOUND_LOWER = 1;
+	public static final int BOUND_UPPER = 2;
+
+	private int depth;
+	private int selDepth;
+	private int multiPV;
+	private int scoreType;
+	private int score;
+	private int bound;
+	private long nodes;
+	private long nps;
+	private int hashFull;
+	private long tbHits;
+	private long time;
+	private int[] pv;
+	private int pvLength;
+
+	/**
+	 * Constructs an empty InfoRecord
+	 */
+	public InfoRecord() {
+		pv = new int[64];
+		clear();
+	}
+
+	/**
+	 * Removes all values (before a line is parsed)
+	 */
+	void clear() {
+		depth = -1;
+		selDepth = -1;
+		multiPV = -1;
+		scoreType = SCORE_NONE;
+		score = 0;
+		bound = BOUND_EXACT;
+		nodes = -1;
+		nps = -1;
+		hashFull = -1;
+		tbHits = -1;
+		time = -1;
+		pvLength = 0;
+	}
+
+	/**
+	 * Gets the search depth
+	 * @return Returns the depth in plies or -1
+	 */
+	public int getDepth() {
+		return depth;
+	}
+
+	/**
+	 * Gets the selective search depth
+	 * @return Returns the depth in plies or -1
+	 */
+	public int getSelDepth() {
+		return selDepth;
+	}
+
+	/**
+	 * Gets the number of the line (1 is the best line) if the engine shows several lines
+	 * @return Returns the number of the line or -1
+	 */
+	public int getMultiPV() {
+		return multiPV;
+	}
+
+	/**
+	 * Gets the kind of the score
+	 * @return Returns SCORE_CP, SCORE_MATE or SCORE_NONE if the line has no score
+	 */
+	public int getScoreType() {
+		return scoreType;
+	}
+
+	/**
+	 * Gets the score from the engine's point of view (the side to move)
+	 * @return Returns the score in centipawns or the moves to mate (negative if the engine is getting mated)
+	 */
+	public int getScore() {
+		return score;
+	}
+
+	/**
+	 * Gets whether the score is exact or only a bound
+	 * @return Returns BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+	 */
+	public int getBound() {
+		return bound;
+	}
+
+	/**
+	 * Gets the number of nodes searched
+	 * @return Returns the number of nodes or -1
+	 */
+	public long getNodes() {
+		return nodes;
+	}
+
+	/**
+	 * Gets the search speed
+	 * @return Returns the nodes per second or -1
+	 */
+	public long getNps() {
+		return nps;
+	}
+
+	/**
+	 * Gets how full the engine's hash table is
+	 * @return Returns the filling in permill or -1
+	 */
+	public int getHashFull() {
+		return hashFull;
+	}
+
+	/**
+	 * Gets the number of tablebase hits
+	 * @return Returns the number of hits or -1
+	 */
+	public long getTbHits() {
+		return tbHits;
+	}
+
+	/**
+	 * Gets the time searched
+	 * @return Returns the time in milliseconds or -1
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Gets the length of the principal variation
+	 * @return Returns the number of moves (0 if the line has no principal variation)
+	 */
+	public int getPVLength() {
+		return pvLength;
+	}
+
+	/**
+	 * Gets a move of the principal variation
+	 * @param index The index of the move (0 is the best move)
+	 * @return Returns the packed move (squares and promotion piece only)
+	 */
+	public int getPVMove(int index) {
+		return pv[index];
+	}
+
+	/**
+	 * Appends the principal variation in long algebraic notation, every move followed by a space
+	 * @param sb The builder to append to
+	 * @return Returns the builder
+	 */
+	public StringBuilder appendPV(StringBuilder sb) {
+		for (int i = 0; i < pvLength; i++) {
+			PackedMove.appendLongAlgebraic(pv[i], sb).append(' ');
+		}
+		return sb;
+	}
+
+	/**
+	 * Appends the score as shown to the user: the pawns from white's point of view (e.g. -1.25) or the moves to mate (e.g. M3)
+	 * @param sb The builder to append to
+	 * @param blackToMove True if black is to move in the position searched (the engine's score is then negated)
+	 * @return Returns the builder
+	 */
+	public StringBuilder appendScore(StringBuilder sb, boolean blackToMove) {
+		return appendScore(sb, scoreType, score, blackToMove);
+	}
+
+	/**
+	 * Appends a score as shown to the user (see appendScore(StringBuilder, boolean))
+	 * @param sb The builder to append to
+	 * @param scoreType The kind of the score (SCORE_CP, SCORE_MATE or SCORE_NONE)
+	 * @param score The score from the engine's point of view
+	 * @param blackToMove True if black is to move in the position searched
+	 * @return Returns the builder
+	 */
+	public static StringBuilder appendScore(StringBuilder sb, int scoreType, int score, boolean blackToMove) {
+		if (scoreType == SCORE_MATE) {
+			return sb.append('M').append(Math.abs(score));
+		} else if (scoreType == SCORE_CP) {
+			int centipawns = blackToMove?-score:score;
+			if (centipawns < 0) sb.append('-');
+			centipawns = Math.abs(centipawns);
+			sb.append(centipawns / 100).append('.');
+			if (centipawns % 100 < 10) sb.append('0');
+			return sb.append(centipawns % 100);
+		}
+		return sb;
+	}
+
+	void setDepth(int depth) {
+		this.depth = depth;
+	}
+
+	void setSelDepth(int selDepth) {
+		this.selDepth = selDepth;
+	}
+
+	void setMultiPV(int multiPV) {
+		this.multiPV = multiPV;
+	}
+
+	void setScore(int scoreType, int score) {
+		this.scoreType = scoreType;
+		this.score = score;
+	}
+
+	void setBound(int bound) {
+		this.bound = bound;
+	}
+
+	void setNodes(long nodes) {
+		this.nodes = nodes;
+	}
+
+	void setNps(long nps) {
+		this.nps = nps;
+	}
+
+	void setHashFull(int hashFull) {
+		this.hashFull = hashFull;
+	}
+
+	void setTbHits(long tbHits) {
+		this.tbHits = tbHits;
+	}
+
+	void setTime(long time) {
+		this.time = time;
+	}
+
+	void addPVMove(int move) {
+		if (pvLength == pv.length) {
+			int[] grown = new int[pv.length*2];
+			System.arraycopy(pv, 0, grown, 0, pvLength);
+			pv = grown;
+		}
+		pv[pvLength++] = move;
+	}
+}
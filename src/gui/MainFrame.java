@@ -5,7 +5,15 @@ import java.awt.Dimension;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.KeyEvent;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Random;
 
 import javax.swing.JFileChooser;
 import javax.swing.JFrame;
@@ -13,13 +21,27 @@ import javax.swing.JMenu;
 import javax.swing.JMenuBar;
 import javax.swing.JMenuItem;
 import javax.swing.JOptionPane;
+import javax.swing.JPanel;
 import javax.swing.JScrollPane;
 import javax.swing.JTable;
 import javax.swing.JTextArea;
 import javax.swing.KeyStroke;
+import javax.swing.SwingUtilities;
 import javax.swing.filechooser.FileNameExtensionFilter;
 import javax.swing.text.DefaultCaret;
 
+import Board.PackedMove;
+import Database.AnalysisCache;
+import Database.GameDatabase;
+import Database.OpeningExplorer;
+import Database.PolyglotBook;
+import Database.Tablebases;
+import Exceptions.InvalidFEN;
+import Exceptions.InvalidPGN;
+import Notation.PgnGame;
+import Notation.PgnReader;
+import Notation.PgnWriter;
+
 /**
  * The MainFrame class contains all the components of the application
  * @author Daniele Palazzo
@@ -33,9 +55,31 @@ public class MainFrame extends JFrame {
 	private JScrollPane outputScrollPane;
 	private JTable movesLog;
 	
+	private ExplorerTableModel explorerTableModel;
+	private JScrollPane explorerScrollPane;
+	
 	private EngineWorker engineWorker;
 	
+	//the engine analysis of the positions analysed so far, kept between sessions (null if the cache file cannot be used)
+	private AnalysisCache analysisCache;
+	
+	//how often the engine's analysis is redrawn at most (per second)
+	private int analysisRenderRate;
+	
 	private JFileChooser fileChooser;
+	private JFileChooser pgnFileChooser;
+	private JFileChooser databaseFileChooser;
+	private JFileChooser bookFileChooser;
+	private JFileChooser tablebaseDirectoryChooser;
+	
+	//the opening book the engine's first moves are taken from (null if no book is loaded)
+	private PolyglotBook openingBook;
+	private int bookDepth;
+	private Random bookRandom;
+	
+	//the endgame tablebases (null if none are loaded) and the result they give for the position on the board
+	private Tablebases tablebases;
+	private String tablebaseAnnotation;
 	
 	/**
 	 * The states that the application can be in at any given point
@@ -48,6 +92,12 @@ public class MainFrame extends JFrame {
 	
 	private boolean positionSetManually;
 	
+	private static final int EXPLORER_WIDTH = 240;
+	
+	private static final int DEFAULT_BOOK_DEPTH = 16;
+	
+	private static final String ANALYSIS_CACHE_FILE = ".daniele-chess-analysis";
+	
 	/**
 	 * Constructs and initialises a MainFrame object
 	 */
@@ -80,16 +130,61 @@ public class MainFrame extends JFrame {
 		JScrollPane logScrollPane = new JScrollPane(movesLog);
 		logScrollPane.setPreferredSize(new Dimension(90,0));
 		
+		//the opening explorer is shown next to the moves log once a game database is opened
+		explorerTableModel = new ExplorerTableModel();
+		explorerScrollPane = new JScrollPane(new JTable(explorerTableModel));
+		explorerScrollPane.setPreferredSize(new Dimension(EXPLORER_WIDTH,0));
+		explorerScrollPane.setVisible(false);
+		
+		chessBoard.addTurnHappenedListener(new TurnHappenedListener() {
+			@Override
+			public void turnHappened(String algebraicMoves) {
+				explorerTableModel.showPosition(chessBoard.getPosition());
+				updateTablebaseAnnotation();
+			}
+		});
+		
+		JPanel sidePanel = new JPanel(new BorderLayout());
+		sidePanel.add(logScrollPane, BorderLayout.CENTER);
+		sidePanel.add(explorerScrollPane, BorderLayout.EAST);
+		
 		add(chessBoard, BorderLayout.CENTER);
 		add(outputScrollPane, BorderLayout.SOUTH);
-		add(logScrollPane, BorderLayout.EAST);
+		add(sidePanel, BorderLayout.EAST);
 		
 		engineWorker = null;
 		
+		try {
+			analysisCache = new AnalysisCache(Paths.get(System.getProperty("user.home"), ANALYSIS_CACHE_FILE), AnalysisCache.DEFAULT_CAPACITY);
+		} catch (IOException e) {
+			analysisCache = null; //the analysis is just not cached
+		}
+		
+		analysisRenderRate = EngineWorker.DEFAULT_RENDER_RATE;
+		
 		currentGameMode = GameMode.PvP;
 		
 		fileChooser = new JFileChooser();
 		fileChooser.setFileFilter(new FileNameExtensionFilter("Chess Engine executables (*.exe)","exe"));
+		
+		pgnFileChooser = new JFileChooser();
+		pgnFileChooser.setFileFilter(new FileNameExtensionFilter("PGN files (*.pgn)","pgn"));
+		
+		databaseFileChooser = new JFileChooser();
+		databaseFileChooser.setFileFilter(new FileNameExtensionFilter("Game databases (*.cdb)",GameDatabase.FILE_EXTENSION));
+		
+		bookFileChooser = new JFileChooser();
+		bookFileChooser.setFileFilter(new FileNameExtensionFilter("Polyglot opening books (*.bin)",PolyglotBook.FILE_EXTENSION));
+		
+		openingBook = null;
+		bookDepth = DEFAULT_BOOK_DEPTH;
+		bookRandom = new Random();
+		
+		tablebaseDirectoryChooser = new JFileChooser();
+		tablebaseDirectoryChooser.setFileSelectionMode(JFileChooser.DIRECTORIES_ONLY);
+		
+		tablebases = null;
+		tablebaseAnnotation = "";
 	}
 	
 	/**
@@ -114,8 +209,7 @@ public class MainFrame extends JFrame {
 				chessBoard.undoLastMove();
 				if (engineWorker!=null & currentGameMode == GameMode.Analysis) {
 					engineWorker.sendCommandToEngine("stop");
-					engineWorker.sendCommandToEngine("position fen " + chessBoard.getFEN());
-					engineWorker.sendCommandToEngine("go infinite");
+					engineWorker.analysePosition(chessBoard.getPositionHash(), "position fen " + chessBoard.getFEN());
 				}
 			}
 		});
@@ -139,6 +233,94 @@ public class MainFrame extends JFrame {
 			
 		});
 		
+		//Load game menu item (the first game of a PGN file)
+		JMenuItem loadGameItem = new JMenuItem("Load Game (PGN)");
+		
+		loadGameItem.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (pgnFileChooser.showOpenDialog(MainFrame.this)!=JFileChooser.APPROVE_OPTION) return;
+				
+				PgnGame game = null;
+				try (PgnReader reader = new PgnReader(FileChannel.open(pgnFileChooser.getSelectedFile().toPath(), StandardOpenOption.READ))) {
+					game = reader.readGame();
+				} catch (IOException | InvalidPGN e1) {
+					JOptionPane.showMessageDialog(MainFrame.this, e1.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+				if (game == null) {
+					JOptionPane.showMessageDialog(MainFrame.this, "The file does not contain a game.", "Error", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+				
+				if (!undoLastMoveItem.isEnabled()) undoLastMoveItem.setEnabled(true);
+				if (engineWorker!=null) {
+					engineWorker.sendCommandToEngine("stop");
+				}
+				currentGameMode = GameMode.PvP;
+				positionSetManually = game.getStartingFEN() != null;
+				chessBoard.setTurnHappenedListener(null);
+				chessBoard.setUsersPlayerColour(null);
+				try {
+					chessBoard.loadGame(game);
+				} catch (InvalidFEN e1) {
+					JOptionPane.showMessageDialog(MainFrame.this, e1.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		});
+		
+		//Save game menu item
+		JMenuItem saveGameItem = new JMenuItem("Save Game (PGN)");
+		saveGameItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_S,ActionEvent.CTRL_MASK));
+		
+		saveGameItem.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (pgnFileChooser.showSaveDialog(MainFrame.this)!=JFileChooser.APPROVE_OPTION) return;
+				
+				String path = pgnFileChooser.getSelectedFile().getPath();
+				if (!path.toLowerCase().endsWith(".pgn")) path += ".pgn";
+				try (Writer writer = new OutputStreamWriter(new FileOutputStream(path), StandardCharsets.UTF_8)) {
+					new PgnWriter(writer).writeGame(chessBoard.getGame());
+				} catch (IOException | InvalidFEN e1) {
+					JOptionPane.showMessageDialog(MainFrame.this, e1.getMessage(), "Something went wrong!", JOptionPane.ERROR_MESSAGE);
+				}
+			}
+		});
+		
+		//Open game database menu item (shows the opening explorer)
+		JMenuItem openDatabaseItem = new JMenuItem("Open Game Database");
+		
+		openDatabaseItem.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (databaseFileChooser.showOpenDialog(MainFrame.this)!=JFileChooser.APPROVE_OPTION) return;
+				
+				GameDatabase database;
+				try {
+					database = new GameDatabase(databaseFileChooser.getSelectedFile().toPath());
+				} catch (IOException e1) {
+					JOptionPane.showMessageDialog(MainFrame.this, e1.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+				
+				OpeningExplorer previousExplorer = explorerTableModel.getExplorer();
+				explorerTableModel.setExplorer(new OpeningExplorer(database, OpeningExplorer.DEFAULT_CACHE_SIZE));
+				explorerTableModel.showPosition(chessBoard.getPosition());
+				if (previousExplorer != null) {
+					try {
+						previousExplorer.getDatabase().close();
+					} catch (IOException e1) {
+						//the database is not used anymore
+					}
+				} else {
+					explorerScrollPane.setVisible(true);
+					MainFrame.this.setSize(new Dimension(getWidth() + EXPLORER_WIDTH, getHeight()));
+					revalidate();
+				}
+			}
+		});
+		
 		//Exit menu item
 		JMenuItem exitItem = new JMenuItem("Exit");
 		
@@ -202,13 +384,16 @@ public class MainFrame extends JFrame {
 							chessBoard.flipBoard();
 						}
 						
-						engineWorker.sendCommandToEngine("position startpos");
-						engineWorker.sendCommandToEngine("go movetime 5000");
+						if (!playBookMove()) {
+							engineWorker.sendCommandToEngine("position startpos");
+							engineWorker.sendCommandToEngine("go movetime 5000");
+						}
 					
 					}
 					chessBoard.setTurnHappenedListener(new TurnHappenedListener() {
 						@Override
 						public void turnHappened(String algebraicMoves) {
+							if (playBookMove() || playTablebaseMove()) return;
 							engineWorker.sendCommandToEngine("position startpos moves " + algebraicMoves);
 							engineWorker.sendCommandToEngine("go movetime 5000");
 						}
@@ -235,25 +420,13 @@ public class MainFrame extends JFrame {
 				
 					engineWorker.sendCommandToEngine("ucinewgame");
 					
-					if (positionSetManually) {
-						engineWorker.sendCommandToEngine("position fen " + chessBoard.getFEN());
-					} else {
-						engineWorker.sendCommandToEngine("position startpos moves " + chessBoard.getMovesInAlgebraicNotation());
-					}
-					
-					engineWorker.sendCommandToEngine("go infinite");
+					analyseBoardPosition(chessBoard.getMovesInAlgebraicNotation());
 				
 					chessBoard.setTurnHappenedListener(new TurnHappenedListener() {
 						@Override
 						public void turnHappened(String algebraicMoves) {
 							engineWorker.sendCommandToEngine("stop");
-
-							if (positionSetManually) {
-								engineWorker.sendCommandToEngine("position fen " + chessBoard.getFEN());
-							} else {
-								engineWorker.sendCommandToEngine("position startpos moves " + algebraicMoves);
-							}
-							engineWorker.sendCommandToEngine("go infinite");
+							analyseBoardPosition(algebraicMoves);
 
 						}
 					});
@@ -283,6 +456,8 @@ public class MainFrame extends JFrame {
 					
 					try {
 						engineWorker = new EngineWorker(analysisOutput,MainFrame.this,fileChooser.getSelectedFile().toString());
+						engineWorker.setAnalysisCache(analysisCache);
+						engineWorker.setRenderRate(analysisRenderRate);
 					} catch (IOException e1) {
 						JOptionPane.showMessageDialog(MainFrame.this, e1.getMessage(), "Something went wrong!", JOptionPane.ERROR_MESSAGE);
 					}
@@ -293,6 +468,93 @@ public class MainFrame extends JFrame {
 			
 		});
 		
+		//Load opening book menu item (the engine plays the book moves at once)
+		JMenuItem loadBookItem = new JMenuItem("Load Opening Book (Polyglot)");
+		
+		loadBookItem.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (bookFileChooser.showOpenDialog(MainFrame.this)!=JFileChooser.APPROVE_OPTION) return;
+				
+				PolyglotBook book;
+				try {
+					book = new PolyglotBook(bookFileChooser.getSelectedFile().toPath());
+				} catch (IOException e1) {
+					JOptionPane.showMessageDialog(MainFrame.this, e1.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+				
+				String depth = JOptionPane.showInputDialog(MainFrame.this, "For how many plies (half-moves) of a game should the book be used?", bookDepth);
+				try {
+					if (depth != null) bookDepth = Math.max(0, Integer.parseInt(depth.trim()));
+				} catch (NumberFormatException e1) {
+					//keep the previous depth
+				}
+				
+				if (openingBook != null) {
+					try {
+						openingBook.close();
+					} catch (IOException e1) {
+						//the book is not used anymore
+					}
+				}
+				openingBook = book;
+			}
+		});
+		
+		//Load tablebases menu item (adjudication, analysis annotation and perfect endgame play of the engine)
+		JMenuItem loadTablebasesItem = new JMenuItem("Load Tablebases (Syzygy)");
+		
+		loadTablebasesItem.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				if (tablebaseDirectoryChooser.showOpenDialog(MainFrame.this)!=JFileChooser.APPROVE_OPTION) return;
+				
+				Tablebases loaded;
+				try {
+					loaded = new Tablebases(tablebaseDirectoryChooser.getSelectedFile().toPath());
+				} catch (IOException e1) {
+					JOptionPane.showMessageDialog(MainFrame.this, e1.getMessage(), "Error", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+				if (loaded.getTableCount() == 0) {
+					JOptionPane.showMessageDialog(MainFrame.this, "The directory contains no Syzygy tables (*" + Tablebases.WDL_EXTENSION + ").", 
+							"Tablebases", JOptionPane.ERROR_MESSAGE);
+					return;
+				}
+				
+				if (tablebases != null) {
+					try {
+						tablebases.close();
+					} catch (IOException e1) {
+						//the tablebases are not used anymore
+					}
+				}
+				tablebases = loaded;
+				chessBoard.setTablebases(tablebases);
+				updateTablebaseAnnotation();
+				JOptionPane.showMessageDialog(MainFrame.this, tablebases.getTableCount() + " tables with up to " + tablebases.getMaxPieces() + " pieces loaded.", 
+						"Tablebases", JOptionPane.INFORMATION_MESSAGE);
+			}
+		});
+		
+		//Analysis refresh rate menu item (the engine's lines are redrawn at most this often)
+		JMenuItem renderRateItem = new JMenuItem("Analysis Refresh Rate");
+		
+		renderRateItem.addActionListener(new ActionListener() {
+			@Override
+			public void actionPerformed(ActionEvent e) {
+				String rate = JOptionPane.showInputDialog(MainFrame.this, "How many times per second should the engine's analysis be redrawn at most? (1-" 
+						+ EngineWorker.MAX_RENDER_RATE + ")", analysisRenderRate);
+				try {
+					if (rate != null) analysisRenderRate = Math.max(1, Math.min(Integer.parseInt(rate.trim()), EngineWorker.MAX_RENDER_RATE));
+				} catch (NumberFormatException e1) {
+					//keep the previous rate
+				}
+				if (engineWorker != null) engineWorker.setRenderRate(analysisRenderRate);
+			}
+		});
+		
 		JMenuItem flipBoardItem = new JMenuItem("Flip Board");
 		
 		flipBoardItem.setAccelerator(KeyStroke.getKeyStroke(KeyEvent.VK_F,ActionEvent.CTRL_MASK));
@@ -312,11 +574,11 @@ public class MainFrame extends JFrame {
 			public void actionPerformed(ActionEvent e) {
 				if (outputScrollPane.isVisible()) {
 					outputScrollPane.setVisible(false);
-					MainFrame.this.setSize(new Dimension(790,700));
+					MainFrame.this.setSize(new Dimension(getWidth(),700));
 					
 				} else {
 					outputScrollPane.setVisible(true);
-					MainFrame.this.setSize(new Dimension(790,790));
+					MainFrame.this.setSize(new Dimension(getWidth(),790));
 				}
 				revalidate();
 				repaint();
@@ -344,8 +606,25 @@ public class MainFrame extends JFrame {
 						+ "\n" + "Set up a position on the board (any position). "
 								+ "\nSelect a piece and then place it on the board by clicking the desired tile\non the board."
 								+ "To delete a misplaced piece, right click\non the piece on the board."
+						+ "\n\n" + "<html><b>File->Load Game (PGN) / Save Game (PGN)</b></html>"
+						+ "\n" + "Load the first game of a PGN file onto the board or save the game played on the board\nas a PGN file."
+						+ "\n\n" + "<html><b>File->Open Game Database</b></html>"
+						+ "\n" + "Open a game database (created with the GameDatabaseTool) and show the opening explorer:"
+						+ "\n" + "the moves played from the position on the board with the number of games, the score of the"
+						+ "\n" + "side making the move and the average rating of its players."
 						+ "\n\n" + "<html><b>Settings->Load/Change Engine</b></html>" 
 						+ "\n" + "Select a chess engine from the file system. The chess engine\nperforms chess analysis."
+						+ "\n\n" + "<html><b>Settings->Load Opening Book (Polyglot)</b></html>" 
+						+ "\n" + "Select a Polyglot opening book (.bin). When playing against the engine, the engine plays"
+						+ "\nthe moves of the book at once (chosen by their weights) for the given number of plies."
+						+ "\n\n" + "<html><b>Settings->Load Tablebases (Syzygy)</b></html>" 
+						+ "\n" + "Select a directory of Syzygy endgame tablebases (.rtbw and .rtbz files). Once few enough pieces"
+						+ "\nare left, the theoretical result is shown above the engine's analysis, the engine plays the"
+						+ "\ntablebase moves at once and a game against the engine is drawn if neither side can win."
+						+ "\n\n" + "<html><b>Settings->Analysis Refresh Rate</b></html>" 
+						+ "\n" + "Sets how many times per second the engine's analysis is redrawn at most. The analysis shows"
+						+ "\nhow many lines the engine has sent and how many of them were drawn (the others were replaced"
+						+ "\nby newer lines before the next redraw)."
 						+ "\n\n" + "<html><b>Settings->Flip Board</b></html>" 
 						+ "\n" + "Flips the board on the screen."
 						+ "\n\n" + "<html><b>Settings->Hide/Show Engine Analysis</b></html>" 
@@ -382,10 +661,17 @@ public class MainFrame extends JFrame {
 		fileMenu.add(analyseItem);
 		fileMenu.add(setUpAPositionItem);
 		fileMenu.addSeparator();
+		fileMenu.add(loadGameItem);
+		fileMenu.add(saveGameItem);
+		fileMenu.add(openDatabaseItem);
+		fileMenu.addSeparator();
 		fileMenu.add(exitItem);
 		
 		menuBar.add(settingsMenu);
 		settingsMenu.add(changeEngineItem);
+		settingsMenu.add(loadBookItem);
+		settingsMenu.add(loadTablebasesItem);
+		settingsMenu.add(renderRateItem);
 		settingsMenu.add(flipBoardItem);
 		settingsMenu.add(hideShowAnalysisItem);
 		settingsMenu.add(undoLastMoveItem);
@@ -397,6 +683,106 @@ public class MainFrame extends JFrame {
 		return menuBar;
 	}
 	
+	/**
+	 * Plays a move of the opening book for the engine without asking the engine (if a book is loaded, the game is within
+	 * the book depth and the position is in the book). The move is performed once the current event has been handled.
+	 * @return Returns true if a book move is going to be played
+	 */
+	private boolean playBookMove() {
+		if (openingBook == null || chessBoard.getPosition().getUndoCount() >= bookDepth) return false;
+		
+		final int move = openingBook.chooseMove(chessBoard.getPosition(), bookRandom);
+		if (move == PackedMove.NO_MOVE) return false;
+		
+		final long positionHash = chessBoard.getPositionHash();
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				//the user may have started another game in the meantime
+				if (currentGameMode == GameMode.PvE && chessBoard.getPositionHash() == positionHash) {
+					chessBoard.performEngineMove(PackedMove.toLongAlgebraic(move));
+				}
+			}
+		});
+		return true;
+	}
+	
+	/**
+	 * Starts the engine's analysis of the position on the board (the cached analysis of the position is shown at once)
+	 * @param algebraicMoves The moves played from the starting position in long algebraic notation
+	 */
+	private void analyseBoardPosition(String algebraicMoves) {
+		if (positionSetManually) {
+			engineWorker.analysePosition(chessBoard.getPositionHash(), "position fen " + chessBoard.getFEN());
+		} else {
+			engineWorker.analysePosition(chessBoard.getPositionHash(), "position startpos moves " + algebraicMoves);
+		}
+	}
+	
+	/**
+	 * Plays the best move of the tablebases for the engine without asking the engine (if tablebases are loaded and the position
+	 * on the board is in them). The move is performed once the current event has been handled.
+	 * @return Returns true if a tablebase move is going to be played
+	 */
+	private boolean playTablebaseMove() {
+		if (tablebases == null) return false;
+		
+		final int move = tablebases.findBestMove(chessBoard.getPosition());
+		if (move == PackedMove.NO_MOVE) return false;
+		
+		final long positionHash = chessBoard.getPositionHash();
+		SwingUtilities.invokeLater(new Runnable() {
+			@Override
+			public void run() {
+				//the user may have started another game in the meantime
+				if (currentGameMode == GameMode.PvE && chessBoard.getPositionHash() == positionHash) {
+					chessBoard.performEngineMove(PackedMove.toLongAlgebraic(move));
+				}
+			}
+		});
+		return true;
+	}
+	
+	/**
+	 * Probes the position on the board in the tablebases and shows the result (above the engine's analysis if an engine is running)
+	 */
+	private void updateTablebaseAnnotation() {
+		String annotation = "";
+		if (tablebases != null) {
+			int wdl = tablebases.probeWdl(chessBoard.getPosition());
+			if (wdl != Tablebases.NO_RESULT) {
+				String sideToMove = chessBoard.isWhitesTurn()?"White":"Black";
+				String otherSide = chessBoard.isWhitesTurn()?"Black":"White";
+				if (wdl == Tablebases.WIN) {
+					annotation = "Tablebase: " + sideToMove + " wins";
+				} else if (wdl == Tablebases.LOSS) {
+					annotation = "Tablebase: " + otherSide + " wins";
+				} else if (wdl == Tablebases.CURSED_WIN) {
+					annotation = "Tablebase: draw (" + sideToMove + " wins without the fifty-move rule)";
+				} else if (wdl == Tablebases.BLESSED_LOSS) {
+					annotation = "Tablebase: draw (" + otherSide + " wins without the fifty-move rule)";
+				} else {
+					annotation = "Tablebase: draw";
+				}
+				int dtz = (wdl == Tablebases.WIN || wdl == Tablebases.LOSS)?tablebases.probeDtz(chessBoard.getPosition()):Tablebases.NO_RESULT;
+				if (dtz != Tablebases.NO_RESULT) annotation += ", " + Math.abs(dtz) + " plies to the next capture or pawn move";
+				annotation += "\n";
+			}
+		}
+		
+		boolean changed = !annotation.equals(tablebaseAnnotation);
+		tablebaseAnnotation = annotation;
+		if (engineWorker == null && changed) analysisOutput.setText(annotation);
+	}
+	
+	/**
+	 * Gets the result of the tablebases for the position on the board, shown above the engine's analysis
+	 * @return Returns the result followed by a line break or an empty string if the position is not in the tablebases
+	 */
+	public String getTablebaseAnnotation() {
+		return tablebaseAnnotation;
+	}
+	
 	/**
 	 * A method for receiving and handling the engine's best move.
 	 * @param bestMove A chess move in long algebraic notation representing the engine's best move
@@ -0,0 +1,125 @@
+package gui;
+
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+
+/**
+ * A cache of the piece images. Each of the 12 images is decoded only once (in parallel by preload) and the same icon is handed out
+ * to every piece, button and dialog showing it. Scaled versions are created once per size as well.
+ * The icons are shared, so they must not be modified.
+ * @author Daniele Palazzo
+ *
+ */
+public class PieceSprites {
+
+	private PieceSprites() {}; //prevent instantiation
+
+	/**
+	 * The names of the images (W/B followed by P, KN, B, R, Q or K) in the order of the Position piece codes
+	 */
+	private static final String[] SPRITE_NAMES = {"WP", "WKN", "WB", "WR", "WQ", "WK", "BP", "BKN", "BB", "BR", "BQ", "BK"};
+
+	private static ImageIcon[] icons;
+
+	//scaled icons keyed by the size in pixels
+	private static Map<Integer, ImageIcon[]> scaledIcons = new ConcurrentHashMap<Integer, ImageIcon[]>();
+
+	/**
+	 * Decodes all piece images in parallel (does nothing if they have already been loaded). Called at start-up, so that
+	 * creating pieces later does not do any image I/O.
+	 */
+	public static synchronized void preload() {
+		if (icons != null) return;
+
+		ExecutorService executor = Executors.newFixedThreadPool(Math.min(SPRITE_NAMES.length, Runtime.getRuntime().availableProcessors()));
+		try {
+			List<Future<BufferedImage>> images = new ArrayList<Future<BufferedImage>>(SPRITE_NAMES.length);
+			for (final String name : SPRITE_NAMES) {
+				images.add(executor.submit(new Callable<BufferedImage>() {
+					@Override
+					public BufferedImage call() throws IOException {
+						return readImage(name);
+					}
+				}));
+			}
+
+			ImageIcon[] loaded = new ImageIcon[SPRITE_NAMES.length];
+			for (int i = 0; i < loaded.length; i++) {
+				loaded[i] = new ImageIcon(images.get(i).get());
+			}
+			icons = loaded;
+		} catch (InterruptedException | ExecutionException e) {
+			throw new IllegalStateException("The piece images could not be loaded", e);
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	/**
+	 * Reads a piece image from the project resources
+	 * @param name The name of the image
+	 * @return Returns the decoded image
+	 * @throws IOException Thrown if the image is missing or cannot be decoded
+	 */
+	private static BufferedImage readImage(String name) throws IOException {
+		URL url = PieceSprites.class.getResource("/" + name + ".png");
+		if (url == null) throw new IOException("Missing piece image " + name + ".png");
+		return ImageIO.read(url);
+	}
+
+	/**
+	 * Gets the index of an image
+	 * @param name The name of the image (e.g. WQ or BKN)
+	 * @return Returns the index of the image
+	 */
+	private static int indexOf(String name) {
+		for (int i = 0; i < SPRITE_NAMES.length; i++) {
+			if (SPRITE_NAMES[i].equals(name)) return i;
+		}
+		throw new IllegalArgumentException("Unknown piece image " + name);
+	}
+
+	/**
+	 * Gets the shared icon of a piece in its original size
+	 * @param name The name of the image (W or B followed by P, KN, B, R, Q or K)
+	 * @return Returns the icon
+	 */
+	public static ImageIcon getIcon(String name) {
+		preload();
+		return icons[indexOf(name)];
+	}
+
+	/**
+	 * Gets the shared icon of a piece scaled to a size (all 12 icons are scaled the first time a size is requested)
+	 * @param name The name of the image (W or B followed by P, KN, B, R, Q or K)
+	 * @param size The width and height of the icon in pixels
+	 * @return Returns the scaled icon
+	 */
+	public static ImageIcon getIcon(String name, int size) {
+		preload();
+		ImageIcon[] scaled = scaledIcons.get(size);
+		if (scaled == null) {
+			scaled = new ImageIcon[SPRITE_NAMES.length];
+			for (int i = 0; i < scaled.length; i++) {
+				scaled[i] = (icons[i].getIconWidth() == size && icons[i].getIconHeight() == size)?icons[i]
+						:new ImageIcon(icons[i].getImage().getScaledInstance(size, size, Image.SCALE_SMOOTH));
+			}
+			scaledIcons.put(size, scaled);
+		}
+		return scaled[indexOf(name)];
+	}
+}
@@ -5,14 +5,8 @@ import java.awt.FlowLayout;
 import java.awt.event.ActionEvent;
 import java.awt.event.ActionListener;
 import java.awt.event.MouseAdapter;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.net.URL;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JDialog;
 
@@ -44,10 +38,10 @@ public class PromotionDialog extends JDialog {
 		
 		char sideAbbreviation = (side == PlayerColour.White)?'W':'B';
 		
-		queenButton = new JButton(getPieceImage(sideAbbreviation + "Q"));
-		rookButton = new JButton(getPieceImage(sideAbbreviation + "R"));
-		bishopButton = new JButton(getPieceImage(sideAbbreviation + "B"));
-		knightButton = new JButton(getPieceImage(sideAbbreviation + "KN"));
+		queenButton = new JButton(PieceSprites.getIcon(sideAbbreviation + "Q"));
+		rookButton = new JButton(PieceSprites.getIcon(sideAbbreviation + "R"));
+		bishopButton = new JButton(PieceSprites.getIcon(sideAbbreviation + "B"));
+		knightButton = new JButton(PieceSprites.getIcon(sideAbbreviation + "KN"));
 		
 		queenButton.setBorder(BorderFactory.createEmptyBorder());
 		rookButton.setBorder(BorderFactory.createEmptyBorder());
@@ -108,22 +102,6 @@ public class PromotionDialog extends JDialog {
 		});
 	}
 	
-	/**
-	 * Get the image of a promotion piece from the project resources
-	 * @param pieceName The name of the piece
-	 * @return Returns the ImageIcon of the piece
-	 */
-	private ImageIcon getPieceImage(String pieceName) {
-		URL url = getClass().getResource("/" + pieceName + ".png");
-		BufferedImage Image = null;
-		try {
-			Image = ImageIO.read(url);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		
-		return new ImageIcon(Image);
-	}
 	
 	/**
 	 * Sets a listener that will be notified when the promotion happens
@@ -12,15 +12,9 @@ import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.event.WindowAdapter;
 import java.awt.event.WindowEvent;
-import java.awt.image.BufferedImage;
-import java.io.File;
-import java.io.IOException;
-import java.net.URL;
 
-import javax.imageio.ImageIO;
 import javax.swing.BorderFactory;
 import javax.swing.ButtonGroup;
-import javax.swing.ImageIcon;
 import javax.swing.JButton;
 import javax.swing.JCheckBox;
 import javax.swing.JFrame;
@@ -35,7 +29,7 @@ import javax.swing.JToggleButton;
 import javax.swing.SwingUtilities;
 import javax.swing.border.Border;
 
-import Exceptions.CoordinateOffTheBoard;
+import Board.Position;
 import Exceptions.InvalidFEN;
 import Pieces.Bishop;
 import Pieces.King;
@@ -110,30 +104,30 @@ public class SetPositionFrame extends JFrame {
 			
 			buttons = new JToggleButton[12];
 			
-			whiteQueenButton = new JToggleButton(getPieceImage("WQ"));
+			whiteQueenButton = new JToggleButton(PieceSprites.getIcon("WQ"));
 			buttons[0] = whiteQueenButton;
-			whiteRookButton = new JToggleButton(getPieceImage("WR"));
+			whiteRookButton = new JToggleButton(PieceSprites.getIcon("WR"));
 			buttons[1] = whiteRookButton;
-			whiteBishopButton = new JToggleButton(getPieceImage("WB"));
+			whiteBishopButton = new JToggleButton(PieceSprites.getIcon("WB"));
 			buttons[2] = whiteBishopButton;
-			whiteKnightButton = new JToggleButton(getPieceImage("WKN"));
+			whiteKnightButton = new JToggleButton(PieceSprites.getIcon("WKN"));
 			buttons[3] = whiteKnightButton;
-			whiteKingButton = new JToggleButton(getPieceImage("WK"));
+			whiteKingButton = new JToggleButton(PieceSprites.getIcon("WK"));
 			buttons[4] = whiteKingButton;
-			whitePawnButton = new JToggleButton(getPieceImage("WP"));
+			whitePawnButton = new JToggleButton(PieceSprites.getIcon("WP"));
 			buttons[5] = whitePawnButton;
 			
-			blackQueenButton = new JToggleButton(getPieceImage("BQ"));
+			blackQueenButton = new JToggleButton(PieceSprites.getIcon("BQ"));
 			buttons[6] = blackQueenButton;
-			blackRookButton = new JToggleButton(getPieceImage("BR"));
+			blackRookButton = new JToggleButton(PieceSprites.getIcon("BR"));
 			buttons[7] = blackRookButton;
-			blackBishopButton = new JToggleButton(getPieceImage("BB"));
+			blackBishopButton = new JToggleButton(PieceSprites.getIcon("BB"));
 			buttons[8] = blackBishopButton;
-			blackKnightButton = new JToggleButton(getPieceImage("BKN"));
+			blackKnightButton = new JToggleButton(PieceSprites.getIcon("BKN"));
 			buttons[9] = blackKnightButton;
-			blackKingButton = new JToggleButton(getPieceImage("BK"));
+			blackKingButton = new JToggleButton(PieceSprites.getIcon("BK"));
 			buttons[10] = blackKingButton;
-			blackPawnButton = new JToggleButton(getPieceImage("BP"));
+			blackPawnButton = new JToggleButton(PieceSprites.getIcon("BP"));
 			buttons[11] = blackPawnButton;
 			
 			buttonGroup = new ButtonGroup();
@@ -363,49 +357,8 @@ public class SetPositionFrame extends JFrame {
 				chessBoard.clearMoves();
 				if (setUpFromFEN==false) {
 					//set castling rights
-					//Manipulate Rooks' first move property to prevent or allow castling
-					BoardCoordinate whiteShortRookCoordinate = null;
-					BoardCoordinate whiteLongRookCoordinate = null;
-					BoardCoordinate blackShortRookCoordinate = null;
-					BoardCoordinate blackLongRookCoordinate = null;
-				
-					try {
-						whiteShortRookCoordinate = new BoardCoordinate(8,1);
-						whiteLongRookCoordinate = new BoardCoordinate(1,1);
-						blackShortRookCoordinate = new BoardCoordinate(8,8);
-						blackLongRookCoordinate = new BoardCoordinate(1,8);
-					} catch (CoordinateOffTheBoard e1) {
-						// WILL NEVER HAPPEN
-					}
-				
-					boolean whiteShortRook = optionHolder.whiteShort.isSelected();
-					boolean whiteLongRook = optionHolder.whiteLong.isSelected();
-					boolean blackShortRook = optionHolder.blackShort.isSelected();
-					boolean blackLongRook = optionHolder.blackLong.isSelected();
-					
-					Piece piece;
-					piece = chessBoard.getTileAt(whiteShortRookCoordinate).getPiece();
-					piece = chessBoard.getTileAt(whiteShortRookCoordinate).getPiece();
-					
-				
-					if (piece instanceof Rook && piece.getPlayerColour() == PlayerColour.White) {
-						((Rook)piece).setFirstMove(whiteShortRook);
-					}
-					
-					piece = chessBoard.getTileAt(whiteLongRookCoordinate).getPiece();
-					if (piece instanceof Rook && piece.getPlayerColour() == PlayerColour.White) {
-						((Rook)piece).setFirstMove(whiteLongRook);
-					}
-					
-					piece = chessBoard.getTileAt(blackShortRookCoordinate).getPiece();
-					if (piece instanceof Rook && piece.getPlayerColour() == PlayerColour.Black) {
-						((Rook)piece).setFirstMove(blackShortRook);
-					}
-					
-					piece = chessBoard.getTileAt(blackLongRookCoordinate).getPiece();
-					if (piece instanceof Rook && piece.getPlayerColour() == PlayerColour.Black) {
-						((Rook)piece).setFirstMove(blackLongRook);
-					}
+					chessBoard.setCastlingRights(optionHolder.whiteShort.isSelected(), optionHolder.whiteLong.isSelected(),
+							optionHolder.blackShort.isSelected(), optionHolder.blackLong.isSelected());
 					
 					//Set to move
 					if (optionHolder.whiteToMove.isSelected()) {
@@ -423,22 +376,18 @@ public class SetPositionFrame extends JFrame {
 						BoardCoordinate bc = null;
 						//only allowed if matches regex
 						if (text.matches("[a-h][36]")) {
-							try {
-								if(text.charAt(1)=='3') {
-									bc = new BoardCoordinate(((int)text.charAt(0))-96,((int)text.charAt(1))-48 +1); //coordinate in front of en passant square (white)
-									//only if there is a white pawn in front of the en passant square
-									if (chessBoard.getTileAt(bc).getPiece()!=null && chessBoard.getTileAt(bc).getPiece().toString() == "White Pawn") {
-										chessBoard.addEnPassantSquare(text);
-									}
-								} else {
-									bc = new BoardCoordinate(((int)text.charAt(0))-96,((int)text.charAt(1))-48 -1); //coordinate in front of en passant square (black)
-									//only if there is a black pawn in front of the en passant square
-									if (chessBoard.getTileAt(bc).getPiece()!=null && chessBoard.getTileAt(bc).getPiece().toString() == "Black Pawn") {
-										chessBoard.addEnPassantSquare(text);
-									}
+							if(text.charAt(1)=='3') {
+								bc = BoardCoordinate.of(((int)text.charAt(0))-96,((int)text.charAt(1))-48 +1); //coordinate in front of en passant square (white)
+								//only if there is a white pawn in front of the en passant square
+								if (chessBoard.getPosition().getPiece(bc.getSquare()) == Position.pieceCode(Position.WHITE, Position.PAWN)) {
+									chessBoard.addEnPassantSquare(text);
+								}
+							} else {
+								bc = BoardCoordinate.of(((int)text.charAt(0))-96,((int)text.charAt(1))-48 -1); //coordinate in front of en passant square (black)
+								//only if there is a black pawn in front of the en passant square
+								if (chessBoard.getPosition().getPiece(bc.getSquare()) == Position.pieceCode(Position.BLACK, Position.PAWN)) {
+									chessBoard.addEnPassantSquare(text);
 								}
-							} catch (CoordinateOffTheBoard e1) {
-								// WILL NEVER BE REACHED
 							}
 						}
 					}
@@ -520,12 +469,7 @@ public class SetPositionFrame extends JFrame {
 		for (int rowCount = 0; rowCount < 8; rowCount++) {
 			for (int columnCount = 0; columnCount < 8; columnCount++) {
 				
-				BoardCoordinate bc = null;
-				try {
-					bc = new BoardCoordinate(columnCount+1, rowCount+1);
-				} catch (CoordinateOffTheBoard e1) {
-					// WON'T BE REACHED
-				}
+				BoardCoordinate bc = BoardCoordinate.of(columnCount+1, rowCount+1);
 				
 				Tile t=chessBoard.getTileAt(bc);
 				
@@ -549,21 +493,21 @@ public class SetPositionFrame extends JFrame {
 								}
 									
 								if (pieceName.length()==3) {
-									t.setPiece(new Knight(pc,t.getCoordinate()));
+									chessBoard.setPieceAt(t.getCoordinate(), new Knight(pc,t.getCoordinate()));
 								} else if (pieceName.charAt(1)=='Q') {
-									t.setPiece(new Queen(pc,t.getCoordinate()));
+									chessBoard.setPieceAt(t.getCoordinate(), new Queen(pc,t.getCoordinate()));
 								} else if (pieceName.charAt(1)=='R') {
-									t.setPiece(new Rook(pc,t.getCoordinate()));
+									chessBoard.setPieceAt(t.getCoordinate(), new Rook(pc,t.getCoordinate()));
 								} else if (pieceName.charAt(1)=='B') {
-									t.setPiece(new Bishop(pc,t.getCoordinate()));
+									chessBoard.setPieceAt(t.getCoordinate(), new Bishop(pc,t.getCoordinate()));
 								} else if (pieceName.charAt(1)=='K') {
-									t.setPiece(new King(pc,t.getCoordinate()));
+									chessBoard.setPieceAt(t.getCoordinate(), new King(pc,t.getCoordinate()));
 								} else if (pieceName.charAt(1)=='P') {
-									t.setPiece(new Pawn(pc,t.getCoordinate()));
+									chessBoard.setPieceAt(t.getCoordinate(), new Pawn(pc,t.getCoordinate()));
 								}
 									
 							} else if (SwingUtilities.isRightMouseButton(e)) {
-								t.setPiece(null);
+								chessBoard.setPieceAt(t.getCoordinate(), null);
 							} 
 						}
 							
@@ -585,22 +529,5 @@ public class SetPositionFrame extends JFrame {
 		}
 	}
 	
-	/**
-	 * Get the image of a promotion piece from the project resources
-	 * @param pieceName The name of the piece
-	 * @return Returns the ImageIcon of the piece
-	 */
-	private ImageIcon getPieceImage(String pieceName) {
-		URL url = getClass().getResource("/" + pieceName + ".png");
-		BufferedImage Image = null;
-		try {
-			Image = ImageIO.read(url);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-		
-		return new ImageIcon(Image);
-	}
-	
 }
 
@@ -3,6 +3,8 @@ import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.GridBagConstraints;
 import java.awt.GridBagLayout;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
 import java.awt.image.BufferedImage;
 import java.io.File;
 import java.io.IOException;
@@ -24,16 +26,23 @@ import Pieces.Piece;
  */
 public class Tile extends JPanel {
 	
+	private static final int TILE_SIZE = 70;
+	private static final int SPRITE_SIZE = 64; //the size of the piece images on a tile of TILE_SIZE
+	private static final int SPRITE_SIZE_STEP = 8; //the sprite sizes are rounded, so that resizing the window scales only a few sizes
+	
 	private BoardCoordinate coordinate;
 	private Piece occupyingPiece;
 	
+	//the size of the piece image, which follows the size of the tile (0 until the tile is laid out)
+	private int spriteSize;
+	
 	/**
 	 * Constructs and initialises a Tile object
 	 * @param coordinate The board coordinate of the tile
 	 */
 	public Tile(BoardCoordinate coordinate) {
 		setLayout(new GridBagLayout());
-		setPreferredSize(new Dimension(70,70));
+		setPreferredSize(new Dimension(TILE_SIZE,TILE_SIZE));
 		
 		this.coordinate = coordinate;
 		
@@ -42,6 +51,27 @@ public class Tile extends JPanel {
 		} else {
 			setBackground(new Color(255,125,0));
 		}
+		
+		addComponentListener(new ComponentAdapter() {
+			@Override
+			public void componentResized(ComponentEvent e) {
+				int size = Math.min(getWidth(), getHeight())*SPRITE_SIZE/TILE_SIZE/SPRITE_SIZE_STEP*SPRITE_SIZE_STEP;
+				size = Math.max(size, SPRITE_SIZE_STEP);
+				if (size != spriteSize) {
+					spriteSize = size;
+					if (occupyingPiece != null) scaleSprite(occupyingPiece);
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Shows the pre-scaled image of a piece in the size of the tile
+	 * @param p The piece on the tile
+	 */
+	private void scaleSprite(Piece p) {
+		if (spriteSize == 0) return;
+		p.getPieceImageLabel().setIcon(PieceSprites.getIcon(p.getSpriteName(), spriteSize));
 	}
 	
 	/**
@@ -79,6 +109,7 @@ public class Tile extends JPanel {
 			}
 			
 			occupyingPiece = p;
+			scaleSprite(p);
 			
 			GridBagConstraints gc = new GridBagConstraints();
 			gc.weightx = 1;
@@ -1,128 +1,216 @@
 package gui;
 
+import Board.PackedMove;
+import Board.Position;
+
 /**
- * A class for parsing the UCI responses of a chess engine
+ * A class for parsing the UCI responses of a chess engine.
+ * A line is read token by token in a single pass, without regular expressions or splitting it into strings; the values of an
+ * "info" line are stored in a typed InfoRecord that is reused for every line, so parsing the many info lines of a search
+ * creates no garbage. Only the rare "bestmove" and "id name" lines create strings.
  * @author Daniele Palazzo
  *
  */
 public class UciParser {
-	
-	private String bestLine;
-	private String evalScore;
-	private String depth;
+
+	//the kinds of lines
+	public static final int OTHER = 0;
+	public static final int INFO = 1;
+	public static final int BEST_MOVE = 2;
+	public static final int ID_NAME = 3;
+
+	private InfoRecord info;
 	private String bestMove;
-	private int multiPV;
 	private String engineName;
-	
+
+	//the line being parsed and the current token
+	private CharSequence line;
+	private int cursor;
+	private int tokenStart;
+	private int tokenEnd;
+
 	/**
 	 * Constructs and initialises a UciParser object
 	 */
 	public UciParser() {
+		info = new InfoRecord();
+		bestMove="";
 		engineName="";
 	}
-	
+
 	/**
 	 * Parse one line of UCI response text
 	 * @param line The UCI text to parse
+	 * @return Returns the kind of the line: INFO (see getInfo), BEST_MOVE (see getBestMove), ID_NAME (see getEngineName) or OTHER
 	 */
-	public void parseUCIResponseLine(String line) {
-		bestLine="";
-		evalScore="";
-		depth="";
-		bestMove="";
-		multiPV=0;
-
-		if (line.contains("info")) {
-			String[] words = line.split("\\s+");
-			
-			for (int i =0; i < words.length; i++) {
-				switch(words[i]) {
-				case "mate":
-					evalScore = "M"+words[i+1];
-					break;
-				case "cp":
-					evalScore = Double.toString(Double.parseDouble(words[i+1]) / 100);
-					break;
-				case "depth":
-					depth = words[i+1];
-					break;
-				case "multipv":
-					multiPV = Integer.parseInt(words[i+1]);
-					break;
-				case "pv":
-					for (int j = i+1; j < words.length; j++) {
-						bestLine += words[j] + " ";
-					}
-					return;
+	public int parseUCIResponseLine(CharSequence line) {
+		this.line = line;
+		cursor = 0;
+		if (!nextToken()) return OTHER;
+
+		if (tokenIs("info")) {
+			parseInfo();
+			return INFO;
+		} else if (tokenIs("bestmove")) {
+			if (!nextToken()) return OTHER;
+			bestMove = line.subSequence(tokenStart, tokenEnd).toString();
+			return BEST_MOVE;
+		} else if (tokenIs("id") && nextToken() && tokenIs("name") && nextToken()) {
+			engineName = line.subSequence(tokenStart, line.length()).toString().trim() + " ";
+			return ID_NAME;
+		}
+		return OTHER;
+	}
+
+	/**
+	 * Reads the values of an info line into the info record
+	 */
+	private void parseInfo() {
+		info.clear();
+		boolean inPV = false;
+		while (nextToken()) {
+			if (inPV) {
+				int move = tokenToMove();
+				if (move != PackedMove.NO_MOVE) {
+					info.addPVMove(move);
+					continue;
 				}
+				inPV = false;
 			}
-		} else if (line.contains("bestmove")) {
-			String[] words = line.split("\\s+");
-			bestMove = words[1];
-		} else if (line.contains("id")) {
-			String[] words = line.split("\\s+");
-			for (int i =0; i < words.length; i++) {
-				switch(words[i]) {
-				case "name":
-					engineName="";
-					for (int j = i+1; j < words.length; j++) {
-						engineName += words[j] + " ";
-					}
-					return;
-				}
+
+			if (tokenIs("depth")) {
+				info.setDepth((int) nextNumber());
+			} else if (tokenIs("seldepth")) {
+				info.setSelDepth((int) nextNumber());
+			} else if (tokenIs("multipv")) {
+				info.setMultiPV((int) nextNumber());
+			} else if (tokenIs("cp")) {
+				info.setScore(InfoRecord.SCORE_CP, (int) nextNumber());
+			} else if (tokenIs("mate")) {
+				info.setScore(InfoRecord.SCORE_MATE, (int) nextNumber());
+			} else if (tokenIs("lowerbound")) {
+				info.setBound(InfoRecord.BOUND_LOWER);
+			} else if (tokenIs("upperbound")) {
+				info.setBound(InfoRecord.BOUND_UPPER);
+			} else if (tokenIs("nodes")) {
+				info.setNodes(nextNumber());
+			} else if (tokenIs("nps")) {
+				info.setNps(nextNumber());
+			} else if (tokenIs("hashfull")) {
+				info.setHashFull((int) nextNumber());
+			} else if (tokenIs("tbhits")) {
+				info.setTbHits(nextNumber());
+			} else if (tokenIs("time")) {
+				info.setTime(nextNumber());
+			} else if (tokenIs("pv")) {
+				inPV = true;
+			} else if (tokenIs("string")) {
+				return; //the rest of the line is free text
 			}
 		}
 	}
-	
+
 	/**
-	 * Gets the best series of moves from the line that was parsed last time (if it contained this information)
-	 * @return Returns the best series of moves from the last line that was parsed (if that line contained this information)
+	 * Moves to the next token of the line (tokens are separated by white space)
+	 * @return Returns false if the end of the line is reached
 	 */
-	public String getBestLine() {
-		return bestLine;
+	private boolean nextToken() {
+		int length = line.length();
+		while (cursor < length && line.charAt(cursor) <= ' ') cursor++;
+		if (cursor == length) return false;
+		tokenStart = cursor;
+		while (cursor < length && line.charAt(cursor) > ' ') cursor++;
+		tokenEnd = cursor;
+		return true;
 	}
-	
+
 	/**
-	 * Gets the evaluation score from the last line that was parsed (if it contained this information)
-	 * @param enginesColour The player colour of the engine
-	 * @return Returns the evaluation score from the last line that was parsed (if that line contained this information)
+	 * Compares the current token with a keyword
+	 * @param keyword The keyword
+	 * @return Returns true if the token is the keyword
 	 */
-	public String getEvalScore(PlayerColour enginesColour) {
-		
-		if (evalScore=="") return "";
-		
-		if (evalScore.charAt(0)=='M') {
-			return "M"+Math.abs(Integer.parseInt(evalScore.substring(1)));
+	private boolean tokenIs(String keyword) {
+		if (tokenEnd - tokenStart != keyword.length()) return false;
+		for (int i = 0; i < keyword.length(); i++) {
+			if (line.charAt(tokenStart + i) != keyword.charAt(i)) return false;
 		}
-		return (enginesColour==PlayerColour.Black)?Double.toString(Double.parseDouble(evalScore)*-1):evalScore;
+		return true;
 	}
-	
+
 	/**
-	 * Gets the search depth from the last line that was parsed (if it contained this information)
-	 * @return Returns the search depth from the last line that was parsed (if that line contained this information)
+	 * Reads the next token as a whole number
+	 * @return Returns the number or -1 if the token is missing or not a number
 	 */
-	public String getDepth() {
-		return depth;
+	private long nextNumber() {
+		if (!nextToken()) return -1;
+		boolean negative = line.charAt(tokenStart) == '-';
+		int i = negative?tokenStart + 1:tokenStart;
+		if (i == tokenEnd) return -1;
+		long number = 0;
+		for (; i < tokenEnd; i++) {
+			char c = line.charAt(i);
+			if (c < '0' || c > '9') return -1;
+			number = number*10 + (c - '0');
+		}
+		return negative?-number:number;
 	}
-	
+
 	/**
-	 * Gets the best move from the last line that was parsed (if it contained this information)
-	 * @return Returns the best move from the last line that was parsed (if that line contained this information)
+	 * Reads the current token as a move in long algebraic notation (e.g. e2e4 or e7e8q)
+	 * @return Returns the packed move (squares and promotion piece only) or PackedMove.NO_MOVE if the token is not a move
 	 */
-	public String getBestMove() {
-		return bestMove;
+	private int tokenToMove() {
+		int length = tokenEnd - tokenStart;
+		if (length != 4 && length != 5) return PackedMove.NO_MOVE;
+		int from = squareAt(tokenStart);
+		int to = squareAt(tokenStart + 2);
+		if (from == Position.NO_SQUARE || to == Position.NO_SQUARE) return PackedMove.NO_MOVE;
+		if (length == 4) return PackedMove.encode(from, to, PackedMove.NORMAL);
+
+		switch (line.charAt(tokenStart + 4)) {
+		case 'n':
+			return PackedMove.encodePromotion(from, to, Position.KNIGHT);
+		case 'b':
+			return PackedMove.encodePromotion(from, to, Position.BISHOP);
+		case 'r':
+			return PackedMove.encodePromotion(from, to, Position.ROOK);
+		case 'q':
+			return PackedMove.encodePromotion(from, to, Position.QUEEN);
+		default:
+			return PackedMove.NO_MOVE;
+		}
+	}
+
+	/**
+	 * Reads a square (e.g. e4) of the line
+	 * @param index The index of the file letter
+	 * @return Returns the square (0-63) or Position.NO_SQUARE
+	 */
+	private int squareAt(int index) {
+		char column = line.charAt(index);
+		char row = line.charAt(index + 1);
+		if (column < 'a' || column > 'h' || row < '1' || row > '8') return Position.NO_SQUARE;
+		return Position.square(column - 'a' + 1, row - '0');
 	}
-	
+
 	/**
-	 * Gets the multi PV value from the last line that was parsed (if it contained this information)
-	 * @return Returns the multi PV value from the last line that was parsed (if that line contained this information)
+	 * Gets the values of the last info line that was parsed (the record is reused by the next line)
+	 * @return Returns the info record
 	 */
-	public int getMultiPV() {
-		return multiPV;
+	public InfoRecord getInfo() {
+		return info;
 	}
-	
+
+	/**
+	 * Gets the best move from the last bestmove line that was parsed
+	 * @return Returns the best move in long algebraic notation
+	 */
+	public String getBestMove() {
+		return bestMove;
+	}
+
 	/**
-	 * Gets the name of the engine that was found when this information was parsed the last time 
+	 * Gets the name of the engine that was found when this information was parsed the last time
 	 * @return Returns a string representing the name of the chess engine
 	 */
 	public String getEngineName() {